@@ -0,0 +1,147 @@
+package graphics;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A vector row kernel composes eight packed int pixels at a time with the Vector API. The depths of a run are first added up in double precision and rounded to floats, four at a time, like the
+ * composite does, so that the z-buffer holds the very same values. The buffers are then read, blended and written back a whole batch at a time, using only conversions that keep the number of lanes,
+ * which the compiler turns into plain vector instructions. It needs Java 17, the jdk.incubator.vector module and 256 bit vectors, and is only created by the depth composite if all are there.
+ */
+class VectorRowKernel implements RowKernel
+{
+	// The species used to compose, all with eight lanes.
+	private static final VectorSpecies<Integer> Ints = IntVector.SPECIES_256;
+	private static final VectorSpecies<Float> Floats = FloatVector.SPECIES_256;
+	private static final VectorSpecies<Byte> Bytes = ByteVector.SPECIES_64;
+	// The species used to add up the depths, both with four lanes.
+	private static final VectorSpecies<Float> Depths = FloatVector.SPECIES_128;
+	private static final VectorSpecies<Double> Doubles = DoubleVector.SPECIES_256;
+	// The depth map values of runs outside of the map, read over and over again.
+	private static final float[] Outside = new float[Depths.length()];
+
+	// The depths of the run being composed, grown when needed.
+	private float[] _Run;
+
+	/**
+	 * Constructor for a vector row kernel.
+	 */
+	public VectorRowKernel()
+	{
+		_Run = new float[256];
+	}
+
+	/**
+	 * Whether the CPU supports the vectors the kernel composes with. Without hardware support the vectors would be emulated, which is slower than composing pixel by pixel.
+	 * 
+	 * @return Whether the kernel should be used.
+	 */
+	public static boolean isSupported()
+	{
+		return IntVector.SPECIES_PREFERRED.vectorBitSize() >= Ints.vectorBitSize();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public int compose(DepthComposite composite, int[] src, int srcIndex, int[] dst, int dstIndex, int screenIndex, float[] values, int valueIndex, double base, int count, boolean supportsAlpha)
+	{
+		// Compose whole batches only.
+		int end = Ints.loopBound(count);
+		if (end == 0) { return 0; }
+
+		// Work out the depths of the run. Outside of the depth map, every pixel reads the same zeros.
+		if (_Run.length < end)
+		{
+			_Run = new float[Math.max(end, _Run.length * 2)];
+		}
+		float[] relatives = (values != null) ? values : Outside;
+		int relativeIndex = (values != null) ? valueIndex : 0;
+		int relativeStep = (values != null) ? 1 : 0;
+		for (int x = 0; x < end; x += Depths.length())
+		{
+			DoubleVector depth = ((DoubleVector) FloatVector.fromArray(Depths, relatives, relativeIndex + x * relativeStep).convertShape(VectorOperators.F2D, Doubles, 0)).add(base);
+			((FloatVector) depth.convertShape(VectorOperators.D2F, Depths, 0)).intoArray(_Run, x);
+		}
+
+		// The composite's buffers and the current frame.
+		float[] depths = composite._Depths;
+		byte[] stamps = composite._Stamps;
+		int[] ids = composite._Ids;
+		int frame = composite._Frame;
+
+		// Sources without alpha are opaque. Straight colors are weighed by their alpha when blended, while premultiplied ones are kept as they are.
+		int opaque = supportsAlpha ? 0 : 255;
+		int straight = composite._IsSourcePremultiplied ? 0 : 1;
+		int kept = 1 - straight;
+
+		// The values every batch starts out from.
+		FloatVector clear = FloatVector.broadcast(Floats, DepthComposite.ClearDepth);
+		IntVector full = IntVector.broadcast(Ints, 255);
+
+		for (int x = 0; x < end; x += Ints.length())
+		{
+			// Skip the batch if all its pixels are transparent.
+			IntVector s = IntVector.fromArray(Ints, src, srcIndex + x);
+			IntVector alpha = s.lanewise(VectorOperators.LSHR, 24).or(opaque);
+			VectorMask<Integer> drawn = alpha.compare(VectorOperators.NE, 0);
+			if (!drawn.anyTrue())
+			{
+				continue;
+			}
+
+			// The depth of the destination pixels, where those not stamped with this frame count as cleared.
+			int i = screenIndex + x;
+			FloatVector z = FloatVector.fromArray(Floats, _Run, x);
+			IntVector stamp = (IntVector) ByteVector.fromArray(Bytes, stamps, i).convertShape(VectorOperators.B2I, Ints, 0);
+			FloatVector depth = FloatVector.fromArray(Floats, depths, i);
+			FloatVector dstZ = clear.blend(depth, stamp.compare(VectorOperators.EQ, frame).cast(Floats));
+
+			// Keep the destination's data where the source pixel is hidden.
+			VectorMask<Integer> shown = drawn.and(z.compare(VectorOperators.LT, dstZ).not().cast(Ints));
+			if (!shown.anyTrue())
+			{
+				continue;
+			}
+
+			// Where the source pixel is in front, it is the new front.
+			VectorMask<Integer> front = shown.and(z.compare(VectorOperators.GT, dstZ).cast(Ints));
+			depth.blend(z, front.cast(Floats)).intoArray(depths, i);
+			((ByteVector) stamp.blend(frame, front).convertShape(VectorOperators.I2B, Bytes, 0)).intoArray(stamps, i);
+
+			// The entity can now be picked at these pixels.
+			if (ids != null)
+			{
+				IntVector.fromArray(Ints, ids, i).blend(composite._EntityId, shown).intoArray(ids, i);
+			}
+
+			// Overwrite the destination's colors where shown, keeping whatever they have in the alpha byte.
+			IntVector d = IntVector.fromArray(Ints, dst, dstIndex + x);
+			VectorMask<Integer> translucent = alpha.compare(VectorOperators.LT, 255);
+			if (!translucent.anyTrue())
+			{
+				d.blend(d.and(0xFF000000).or(s.and(0xFFFFFF)), shown).intoArray(dst, dstIndex + x);
+				continue;
+			}
+
+			// Blend the translucent ones channel by channel, like the composite does. Dividing by 255 is done by shifting, which is exact up to 255 squared.
+			IntVector inverse = full.sub(alpha);
+			IntVector weight = alpha.mul(straight);
+			IntVector blue = s.and(0xFF).mul(weight).add(d.and(0xFF).mul(inverse));
+			IntVector green = s.lanewise(VectorOperators.LSHR, 8).and(0xFF).mul(weight).add(d.lanewise(VectorOperators.LSHR, 8).and(0xFF).mul(inverse));
+			IntVector red = s.lanewise(VectorOperators.LSHR, 16).and(0xFF).mul(weight).add(d.lanewise(VectorOperators.LSHR, 16).and(0xFF).mul(inverse));
+			blue = blue.add(blue.lanewise(VectorOperators.LSHR, 8)).add(1).lanewise(VectorOperators.LSHR, 8).add(s.and(0xFF).mul(kept)).min(255);
+			green = green.add(green.lanewise(VectorOperators.LSHR, 8)).add(1).lanewise(VectorOperators.LSHR, 8).add(s.lanewise(VectorOperators.LSHR, 8).and(0xFF).mul(kept)).min(255);
+			red = red.add(red.lanewise(VectorOperators.LSHR, 8)).add(1).lanewise(VectorOperators.LSHR, 8).add(s.lanewise(VectorOperators.LSHR, 16).and(0xFF).mul(kept)).min(255);
+			IntVector color = s.blend(blue.or(green.lanewise(VectorOperators.LSHL, 8)).or(red.lanewise(VectorOperators.LSHL, 16)), translucent);
+			d.blend(d.and(0xFF000000).or(color.and(0xFFFFFF)), shown).intoArray(dst, dstIndex + x);
+		}
+
+		return end;
+	}
+}
\ No newline at end of file
@@ -18,6 +18,9 @@ import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 
+import debug.FlightRecorder;
+import debug.MetricsRegistry;
+import graphics.TextCache;
 import main.Entity;
 import main.Scene;
 import main.SceneManager;
@@ -34,8 +37,8 @@ public final class Helper
 	public static final Color Mantis = new Color(116, 195, 101);
 	public static final Color ZealPalace = new Color(48, 32, 16);
 
-	// Paths.
-	public static final String ContentRoot = "src/data/";
+	// Paths. The content root can be moved with the system property "indagame.contentRoot", for instance when the game is run from somewhere else than its project folder.
+	public static final String ContentRoot = System.getProperty("indagame.contentRoot", "src/data/");
 
 	/**
 	 * The ratio between height (Y-coordinate) and depth (Z-coordinate). Used to simulate depth. Positive depth is 'upwards'.
@@ -286,7 +289,9 @@ public final class Helper
 		try
 		{
 			// Load the image and return it.
-			return makeCompatible(ImageIO.read(new File(path)));
+			File file = new File(path);
+			BufferedImage image = ImageIO.read(file);
+			return makeCompatible(image);
 			// return ImageIO.read(new File(path));
 		}
 		// Catch.
@@ -308,12 +313,25 @@ public final class Helper
 	 * @return The compatible image.
 	 */
 	public static BufferedImage makeCompatible(BufferedImage image)
+	{
+		return makeCompatible(image, Transparency.TRANSLUCENT);
+	}
+
+	/**
+	 * Makes an image compatible to the depth composite and the screen, given the kind of transparency the image needs.
+	 * 
+	 * @param image
+	 *            The image to make compatible.
+	 * @param transparency
+	 *            The transparency of the image, ie. opaque, bitmask or translucent.
+	 * @return The compatible image.
+	 */
+	public static BufferedImage makeCompatible(BufferedImage image, int transparency)
 	{
 		// Create the compatible image.
 		// BufferedImage compatible = new BufferedImage(image.getWidth(), image.getHeight(), image.getType());
 		// BufferedImage compatible = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_4BYTE_ABGR);
-		BufferedImage compatible = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration()
-				.createCompatibleImage(image.getWidth(), image.getHeight(), Transparency.TRANSLUCENT);
+		BufferedImage compatible = createCompatibleImage(image.getWidth(), image.getHeight(), transparency);
 
 		// Draw the image onto the ensured compatible image, converting their color model's in the process.
 		Graphics2D g = compatible.createGraphics();
@@ -325,7 +343,41 @@ public final class Helper
 	}
 
 	/**
-	 * Draw a string to the screen, given some options.
+	 * Create an empty translucent image compatible to the depth composite and the screen.
+	 * 
+	 * @param width
+	 *            The width of the image.
+	 * @param height
+	 *            The height of the image.
+	 * @return The compatible image.
+	 */
+	public static BufferedImage createCompatibleImage(int width, int height)
+	{
+		return createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+	}
+
+	/**
+	 * Create an empty image compatible to the depth composite and the screen. Without a screen, ie. when running headless, an image with integer pixels is created instead, which the depth composite
+	 * can work with just as well.
+	 * 
+	 * @param width
+	 *            The width of the image.
+	 * @param height
+	 *            The height of the image.
+	 * @param transparency
+	 *            The transparency of the image, ie. opaque, bitmask or translucent.
+	 * @return The compatible image.
+	 */
+	public static BufferedImage createCompatibleImage(int width, int height, int transparency)
+	{
+		// If there is no screen, create an image with integer pixels.
+		if (GraphicsEnvironment.isHeadless()) { return new BufferedImage(width, height, (transparency == Transparency.OPAQUE) ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE); }
+
+		return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration().createCompatibleImage(width, height, transparency);
+	}
+
+	/**
+	 * Draw a string to the screen, given some options. The string is rasterized once and kept in the text cache.
 	 * 
 	 * @param s
 	 *            The text to draw.
@@ -340,20 +392,8 @@ public final class Helper
 	 */
 	public static void drawString(String s, Font font, AffineTransform transform, Color color, Graphics2D graphics)
 	{
-		// Save the old color and transformation.
-		Color oldColor = graphics.getColor();
-		AffineTransform oldTransform = graphics.getTransform();
-
-		// Change the transformation and color of the graphics component temporarily.
-		graphics.transform(transform);
-		graphics.setColor(color);
-
-		// Draw the text.
-		graphics.fill(font.createGlyphVector(graphics.getFontRenderContext(), s).getOutline());
-
-		// Restore the color and transformation of the graphics component.
-		graphics.setTransform(oldTransform);
-		graphics.setColor(oldColor);
+		// Let the text cache draw the text, rasterizing it only the first time.
+		TextCache.getInstance().draw(s, font, transform, color, graphics);
 	}
 
 	/**
@@ -392,12 +432,16 @@ public final class Helper
 		{
 			// Create the file.
 			File file = new File(ContentRoot + "scenes/" + path);
+			Object event = FlightRecorder.beginSceneLoad();
 
 			// Set up the unmarshaller and load the scene content.
 			SceneContent content = (SceneContent) JAXBContext.newInstance(SceneContent.class).createUnmarshaller().unmarshal(file);
 
 			// Convert the content data into a scene and return it.
-			return content.createScene(manager);
+			Scene scene = content.createScene(manager);
+			FlightRecorder.endSceneLoad(event, scene.getName(), scene.getEntities().size(), file.length());
+			MetricsRegistry.getInstance().counter("scenes.loaded").increment();
+			return scene;
 
 		}
 		catch (JAXBException e)
@@ -452,12 +496,15 @@ public final class Helper
 		{
 			// Create the file.
 			File file = new File(ContentRoot + "entities/" + path);
+			Object event = FlightRecorder.beginEntityLoad();
 
 			// Set up the unmarshaller and load the entity content.
 			EntityContent content = (EntityContent) JAXBContext.newInstance(EntityContent.class).createUnmarshaller().unmarshal(file);
 
 			// Convert the content data into an entity and return it.
-			return content.createEntity();
+			Entity entity = content.createEntity();
+			FlightRecorder.endEntityLoad(event, path, file.length());
+			return entity;
 
 		}
 		catch (JAXBException e)
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 
 import graphics.Sprite;
 import graphics.SpriteManager;
+import infrastructure.Enums.RenderMode;
 
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
@@ -27,6 +28,9 @@ public class SceneContent
 	// The name of the scene. Primarily used as file name when serialized.
 	@XmlAttribute(name = "Name")
 	protected String _Name;
+	// How the scene is rendered.
+	@XmlAttribute(name = "RenderMode")
+	protected RenderMode _RenderMode;
 	@XmlElement(name = "Entities")
 	protected ArrayList<EntityContent> _Entities;
 
@@ -53,6 +57,7 @@ public class SceneContent
 
 		// Populate it with data.
 		content.setName(scene.getName());
+		content.setRenderMode(scene.getRenderMode());
 		for (Entity entity : scene.getEntities())
 		{
 			content.getEntities().add(EntityContent.createContent(entity));
@@ -78,6 +83,10 @@ public class SceneContent
 
 			// Populate with with data.
 			scene.setName(_Name);
+			if (_RenderMode != null)
+			{
+				scene.setRenderMode(_RenderMode);
+			}
 
 			// For all entity contents; convert them, add their bodies to the physics simulator and add them to the scene.
 			for (EntityContent content : _Entities)
@@ -110,6 +119,17 @@ public class SceneContent
 		_Name = name;
 	}
 
+	/**
+	 * Set how the scene is rendered.
+	 * 
+	 * @param mode
+	 *            The render mode.
+	 */
+	public void setRenderMode(RenderMode mode)
+	{
+		_RenderMode = mode;
+	}
+
 	/**
 	 * Get the entities of this scene.
 	 * 
@@ -0,0 +1,88 @@
+package auxillary;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A triple buffer hands objects from one thread writing them to another reading them, without either of them ever waiting on the other. The writer fills the back buffer and publishes it, the
+ * reader picks up the latest published buffer whenever it is ready for a new one, and the third buffer sits in between. Buffers that are published while the reader is busy are simply skipped.
+ * 
+ * @param <T>
+ *            The type of the buffered objects, which are reused rather than created anew.
+ */
+public class TripleBuffer<T>
+{
+	// The flag set on the middle buffer once it holds something the reader has not seen yet.
+	private static final int Fresh = 4;
+
+	// The three buffers.
+	private Object[] _Buffers;
+	// The index of the buffer being written to, only touched by the writer.
+	private int _Back;
+	// The index of the buffer being read from, only touched by the reader.
+	private int _Front;
+	// The index of the buffer in between, along with the fresh flag.
+	private AtomicInteger _Middle;
+
+	/**
+	 * Constructor for a triple buffer.
+	 * 
+	 * @param back
+	 *            The buffer first written to.
+	 * @param middle
+	 *            The buffer in between.
+	 * @param front
+	 *            The buffer first read from.
+	 */
+	public TripleBuffer(T back, T middle, T front)
+	{
+		_Buffers = new Object[] { back, middle, front };
+		_Back = 0;
+		_Middle = new AtomicInteger(1);
+		_Front = 2;
+	}
+
+	/**
+	 * Get the buffer to write to. It belongs to the writer until it is published.
+	 * 
+	 * @return The back buffer.
+	 */
+	@SuppressWarnings("unchecked")
+	public T getBack()
+	{
+		return (T) _Buffers[_Back];
+	}
+
+	/**
+	 * Publish the back buffer, making it the latest buffer for the reader to pick up, and move on to another buffer to write to.
+	 */
+	public void publish()
+	{
+		_Back = _Middle.getAndSet(_Back | Fresh) & ~Fresh;
+	}
+
+	/**
+	 * Pick up the latest published buffer, if there is one the reader has not seen yet.
+	 * 
+	 * @return Whether the front buffer has changed.
+	 */
+	public boolean acquire()
+	{
+		// If nothing has been published since last time, keep reading the same buffer.
+		if ((_Middle.get() & Fresh) == 0) { return false; }
+
+		// Otherwise swap the front buffer for the fresh one.
+		_Front = _Middle.getAndSet(_Front) & ~Fresh;
+		return true;
+	}
+
+	/**
+	 * Get the buffer to read from. It belongs to the reader until it acquires another.
+	 * 
+	 * @return The front buffer.
+	 */
+	@SuppressWarnings("unchecked")
+	public T getFront()
+	{
+		return (T) _Buffers[_Front];
+	}
+}
\ No newline at end of file
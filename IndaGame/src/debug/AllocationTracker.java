@@ -0,0 +1,234 @@
+package debug;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+/**
+ * The allocation tracker samples how many bytes the game loop allocates in every phase of a frame and how much time the garbage collector has spent since the last frame. It keeps the last frames for
+ * the debug manager to draw as a scrolling graph, and publishes the numbers as metrics so that allocation regressions show up in JConsole right away. Allocations are counted by the JVM per thread,
+ * which only HotSpot's thread MXBean exposes; on other JVMs nothing is counted.
+ */
+public class AllocationTracker
+{
+	// The number of frames remembered for the graph.
+	public static final int History = 200;
+
+	// The singleton instance.
+	private static AllocationTracker _Instance;
+
+	// The JVM's thread MXBean, if it counts allocations, and its garbage collectors.
+	private com.sun.management.ThreadMXBean _Threads;
+	private List<GarbageCollectorMXBean> _Collectors;
+	// The number of collections and the time spent collecting when last sampled, in milliseconds.
+	private long _CollectionCount;
+	private long _CollectionTime;
+
+	// The bytes allocated in each phase of the last frames and the time spent collecting in them, with the index of the next frame.
+	private long[] _InputBytes;
+	private long[] _UpdateBytes;
+	private long[] _DrawBytes;
+	private long[] _PauseTimes;
+	private int _Frame;
+
+	// The metrics the numbers are published as.
+	private MetricsRegistry.Counter _AllocatedBytes;
+	private MetricsRegistry.Value _FrameBytes;
+	private MetricsRegistry.Value _PhaseInputBytes;
+	private MetricsRegistry.Value _PhaseUpdateBytes;
+	private MetricsRegistry.Value _PhaseDrawBytes;
+	private MetricsRegistry.Value _PhaseRenderBytes;
+	private MetricsRegistry.Counter _Collections;
+	private MetricsRegistry.Histogram _Pauses;
+
+	/**
+	 * Private constructor for an allocation tracker.
+	 */
+	private AllocationTracker()
+	{
+		// Use the thread MXBean if it can count allocations.
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		try
+		{
+			if (threads instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported())
+			{
+				_Threads = (com.sun.management.ThreadMXBean) threads;
+				_Threads.setThreadAllocatedMemoryEnabled(true);
+			}
+		}
+		// Catch the exceptions.
+		catch (Throwable e)
+		{
+			System.out.println(this + ": Allocation Counting Error. (" + e + ")");
+			_Threads = null;
+		}
+		_Collectors = ManagementFactory.getGarbageCollectorMXBeans();
+		sampleCollections();
+
+		// The history.
+		_InputBytes = new long[History];
+		_UpdateBytes = new long[History];
+		_DrawBytes = new long[History];
+		_PauseTimes = new long[History];
+		_Frame = 0;
+
+		// The metrics.
+		MetricsRegistry metrics = MetricsRegistry.getInstance();
+		_AllocatedBytes = metrics.counter("alloc.bytes");
+		_FrameBytes = metrics.value("alloc.frameBytes");
+		_PhaseInputBytes = metrics.value("alloc.inputBytes");
+		_PhaseUpdateBytes = metrics.value("alloc.updateBytes");
+		_PhaseDrawBytes = metrics.value("alloc.drawBytes");
+		_PhaseRenderBytes = metrics.value("alloc.renderBytes");
+		_Collections = metrics.counter("gc.count");
+		_Pauses = metrics.histogram("gc.pause");
+	}
+
+	/**
+	 * Get the singleton instance of the allocation tracker.
+	 * 
+	 * @return The allocation tracker.
+	 */
+	public static synchronized AllocationTracker getInstance()
+	{
+		// If the tracker has not been created yet, do so.
+		if (_Instance == null)
+		{
+			_Instance = new AllocationTracker();
+		}
+
+		return _Instance;
+	}
+
+	/**
+	 * Whether allocations are counted at all.
+	 * 
+	 * @return Whether the JVM counts the bytes allocated by every thread.
+	 */
+	public boolean isSupported()
+	{
+		return _Threads != null;
+	}
+
+	/**
+	 * Get the number of bytes the current thread has allocated since it started. Sampling it before and after something gives the bytes allocated in between.
+	 * 
+	 * @return The allocated bytes, or 0 if allocations are not counted.
+	 */
+	public long getAllocatedBytes()
+	{
+		return (_Threads != null) ? _Threads.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+	}
+
+	/**
+	 * Sample the garbage collectors.
+	 * 
+	 * @return The time spent collecting since the last sample, in milliseconds.
+	 */
+	private long sampleCollections()
+	{
+		// Sum up the collections of all collectors.
+		long count = 0;
+		long time = 0;
+		for (int i = 0; i < _Collectors.size(); i++)
+		{
+			count += Math.max(_Collectors.get(i).getCollectionCount(), 0);
+			time += Math.max(_Collectors.get(i).getCollectionTime(), 0);
+		}
+
+		// Publish the new collections.
+		if (_Collections != null)
+		{
+			_Collections.add(count - _CollectionCount);
+		}
+
+		// Remember the sample.
+		long pause = time - _CollectionTime;
+		_CollectionCount = count;
+		_CollectionTime = time;
+
+		return pause;
+	}
+
+	/**
+	 * End a frame of the game loop, recording the bytes allocated in its phases and sampling the garbage collectors.
+	 * 
+	 * @param input
+	 *            The bytes allocated while handling input.
+	 * @param update
+	 *            The bytes allocated while updating.
+	 * @param draw
+	 *            The bytes allocated while drawing, or 0 if drawn by the render thread.
+	 */
+	public synchronized void endFrame(long input, long update, long draw)
+	{
+		// The time spent collecting since the last frame.
+		long pause = sampleCollections();
+
+		// Remember the frame.
+		_InputBytes[_Frame] = input;
+		_UpdateBytes[_Frame] = update;
+		_DrawBytes[_Frame] = draw;
+		_PauseTimes[_Frame] = pause;
+		_Frame = (_Frame + 1) % History;
+
+		// Publish it.
+		_AllocatedBytes.add(input + update + draw);
+		_FrameBytes.set(input + update + draw);
+		_PhaseInputBytes.set(input);
+		_PhaseUpdateBytes.set(update);
+		_PhaseDrawBytes.set(draw);
+		if (pause > 0)
+		{
+			_Pauses.record(pause * 1000000L);
+		}
+	}
+
+	/**
+	 * Record the bytes the render thread allocated drawing a frame. They are published, but not drawn in the graph.
+	 * 
+	 * @param bytes
+	 *            The bytes allocated.
+	 */
+	public void addRender(long bytes)
+	{
+		_AllocatedBytes.add(bytes);
+		_PhaseRenderBytes.set(bytes);
+	}
+
+	/**
+	 * Get the bytes allocated in a phase of one of the last frames.
+	 * 
+	 * @param age
+	 *            How many frames ago, where 0 is the last frame and History - 1 the oldest remembered.
+	 * @param phase
+	 *            The phase, where 0 is input, 1 is update and 2 is draw.
+	 * @return The allocated bytes.
+	 */
+	public synchronized long getBytes(int age, int phase)
+	{
+		int index = (_Frame - 1 - age + History * 2) % History;
+		switch (phase)
+		{
+			case 0:
+				return _InputBytes[index];
+			case 1:
+				return _UpdateBytes[index];
+			default:
+				return _DrawBytes[index];
+		}
+	}
+
+	/**
+	 * Get the time the garbage collectors spent in one of the last frames.
+	 * 
+	 * @param age
+	 *            How many frames ago, where 0 is the last frame and History - 1 the oldest remembered.
+	 * @return The time in milliseconds.
+	 */
+	public synchronized long getPauseTime(int age)
+	{
+		return _PauseTimes[(_Frame - 1 - age + History * 2) % History];
+	}
+}
\ No newline at end of file
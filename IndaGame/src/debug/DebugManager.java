@@ -1,12 +1,20 @@
 package debug;
 
+import graphics.TextCache;
+import graphics.TextureCache;
 import input.InputManager;
 
 import java.awt.AlphaComposite;
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Transparency;
 import java.awt.event.KeyEvent;
 import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.File;
+
+import main.Game;
 
 import physics.Body;
 import physics.PhysicsSimulator;
@@ -20,6 +28,22 @@ import auxillary.Vector3;
  */
 public class DebugManager
 {
+	// The size of the debug window.
+	public static final int PanelWidth = 130;
+	public static final int PanelHeight = 600;
+	// The default number of times per second the debug window is refreshed.
+	public static final int DefaultPanelRefreshRate = 4;
+	// The room a body's label takes up above its shape, used to tell whether it can be seen.
+	public static final int LabelWidth = 200;
+	public static final int LabelHeight = 14;
+	// The size of the flame summary, which spans a frame's worth of time, and the height of every row in it.
+	public static final int FlameWidth = 400;
+	public static final int FlameRowHeight = 14;
+	public static final int MaxFlameDepth = 6;
+	// The size of the allocation graph, which has a bar for every frame the allocation tracker remembers.
+	public static final int GraphWidth = AllocationTracker.History * 2;
+	public static final int GraphHeight = 80;
+
 	// The singleton debug instance.
 	private static DebugManager _Instance;
 
@@ -27,12 +51,27 @@ public class DebugManager
 	private PhysicsSimulator _Physics;
 	// The drawing matrix.
 	private AffineTransform _Transform;
-
-	// The time each phase takes.
+	// The area of the world the camera can see.
+	private Rectangle _VisibleArea;
+	// The image of the debug window, when it was last refreshed and how many times per second it is.
+	private BufferedImage _Panel;
+	private long _PanelTime;
+	private int _PanelRefreshRate;
+	// The image of the flame summary of the profiled scopes, refreshed along with the debug window.
+	private BufferedImage _Flame;
+	// The image of the graph of the bytes allocated and the garbage collector's pauses in the last frames, refreshed along with the debug window.
+	private BufferedImage _Graph;
+
+	// The time since game start, when the last frame was drawn and the average time between frames in nanoseconds.
 	private long startTime;
-	private long phaseStartTime;
-	private long phaseEndTime;
-	private long[] phaseTime;
+	private long frameTime;
+	private double framePeriod;
+
+	// The number of entities drawn and culled last frame, and the metrics they are published as.
+	private int drawnEntities;
+	private int culledEntities;
+	private MetricsRegistry.Value _EntitiesDrawn;
+	private MetricsRegistry.Value _EntitiesCulled;
 
 	// The Debug Boolean.
 	public boolean debug;
@@ -56,14 +95,16 @@ public class DebugManager
 	{
 		// Initialize the time counters.
 		startTime = System.currentTimeMillis();
-		setPhaseStartTime();
-		phaseEndTime = 0;
-		phaseTime = new long[4];
+		frameTime = 0;
+		framePeriod = 0;
 		// Disable the debug.
 		debug = false;
 		// Initialize the debugBody variable.
 		debugBody = new Body();
 		_Transform = new AffineTransform();
+		_PanelRefreshRate = DefaultPanelRefreshRate;
+		_EntitiesDrawn = MetricsRegistry.getInstance().value("scene.entitiesDrawn");
+		_EntitiesCulled = MetricsRegistry.getInstance().value("scene.entitiesCulled");
 	}
 
 	/**
@@ -80,6 +121,16 @@ public class DebugManager
 			debug = !debug;
 		}
 
+		// Write the profiler's trace to a file.
+		if (input.isNewKeyPress(KeyEvent.VK_F3))
+		{
+			File file = new File("trace-" + System.currentTimeMillis() + ".json");
+			if (Profiler.writeTrace(file))
+			{
+				System.out.println(this + ": Trace written to " + file.getAbsolutePath() + ".");
+			}
+		}
+
 		// If debug mode is not on, stop here.
 		if (!debug) { return; }
 
@@ -161,88 +212,102 @@ public class DebugManager
 	 */
 	public void draw(Graphics2D graphics)
 	{
+		// Measure the time between frames.
+		long now = System.nanoTime();
+		if (frameTime != 0)
+		{
+			framePeriod += (now - frameTime - framePeriod) * Profiler.Smoothing;
+		}
+		frameTime = now;
+
 		// Check if debug is enabled, otherwise stop.
 		if (!debug) { return; }
 		// If no physics simulator has been set, stop.
 		if (_Physics == null) { return; }
 
-		// Save the old color.
+		// Save the old color and graphics matrix.
 		Color old = graphics.getColor();
+		AffineTransform oldMatrix = graphics.getTransform();
 
-		// Loop through all bodies.
-		for (Body b : _Physics.getBodies())
-		{
-			// Check if the array isn't empty.
-			try
-			{
-				// Change the color for the debug window.
-				graphics.setColor(Color.red);
-
-				// If the body is in a collision, use a blue color instead.
-				if (b.getCollisions().size() > 0)
-				{
-					graphics.setColor(Color.blue);
-				}
-
-				// Save the old graphics matrix and insert the camera matrix in its place.
-				AffineTransform oldMatrix = graphics.getTransform();
-				graphics.setTransform(_Transform);
-
-				// The body's shape and position on screen.
-				Shape shape = b.getShape().getLayeredShape(debugBody.getShape().getBottomDepth());
-				Vector2 position = Helper.getScreenPosition(shape.getPosition());
+		// Draw the bodies with the camera matrix.
+		graphics.setTransform(_Transform);
 
-				// Draw the body's shape.
-				graphics.drawRect((int) (position.x - shape.getWidth() / 2), (int) (position.y - shape.getHeight() / 2), (int) shape.getWidth(), (int) shape.getHeight());
-
-				// Change the color for the debug window.
-				graphics.setColor(Color.black);
-
-				// Draw the body's position and velocity.
-				graphics.drawString("P: " + Vector3.round(b.getPosition(), 0).toString() + " - V: " + Vector3.round(b.getVelocity(), 0).toString(), (int) position.x,
-						(int) position.y - 2);
+		// Loop through all bodies, without copying the list.
+		for (int i = 0; i < _Physics.bodyCount(); i++)
+		{
+			Body b = _Physics.getBody(i);
 
-				// Reinstate the old graphics matrix.
-				graphics.setTransform(oldMatrix);
+			// If the body's debug variable is true and a new body has been clicked, follow it instead.
+			if (b._IsClicked && debugBody != b)
+			{
+				debugBody._IsClicked = false;
+				debugBody = b;
 			}
-			// Catch the exception.
-			catch (Exception e)
+
+			// Only bodies with a layer at the debug body's depth are drawn.
+			if (!b.getShape().hasLayer(debugBody.getShape().getBottomDepth()))
 			{
-				// If there was a argument exception error, do not bother.
-				if (e.getClass() != IllegalArgumentException.class)
-				{
-					System.out.println(this + ": Draw Error. (" + e + ")");
-				}
+				continue;
 			}
 
-			// If the body's debug variable is true.
-			if (b._IsClicked)
+			// The body's shape and its bounds on screen.
+			Shape shape = b.getShape().getLayeredShape(debugBody.getShape().getBottomDepth());
+			Vector2 position = Helper.getScreenPosition(shape.getPosition());
+			int x = (int) (position.x - shape.getWidth() / 2);
+			int y = (int) (position.y - shape.getHeight() / 2);
+
+			// Skip the body if the camera cannot see it.
+			if (_VisibleArea != null && !_VisibleArea.intersects(x, y - LabelHeight, Math.max(shape.getWidth(), LabelWidth), shape.getHeight() + LabelHeight))
 			{
-				// If a new body has been clicked.
-				if (debugBody != b)
-				{
-					// Try.
-					try
-					{
-						debugBody._IsClicked = false;
-						debugBody = b;
-					}
-					// Catch the possible exception.
-					catch (Exception e)
-					{
-						System.out.println(this + ": Debug Body Error. (" + e + ")");
-					}
-				}
+				continue;
 			}
+
+			// Draw the body's shape, in blue if the body is in a collision.
+			graphics.setColor((b.getCollisions().size() > 0) ? Color.blue : Color.red);
+			graphics.drawRect(x, y, (int) shape.getWidth(), (int) shape.getHeight());
+
+			// Draw the body's position and velocity.
+			graphics.setColor(Color.black);
+			drawText("P: " + Vector3.round(b.getPosition(), 0).toString() + " - V: " + Vector3.round(b.getVelocity(), 0).toString(), (int) position.x, (int) position.y - 2,
+					graphics);
 		}
 
 		// Reset the graphics matrix.
 		graphics.setTransform(new AffineTransform());
 
-		// Change the color for the debug window.
+		// Refresh the debug window if it is due, and draw it.
+		long time = System.currentTimeMillis();
+		if (_Panel == null || time - _PanelTime >= 1000 / _PanelRefreshRate)
+		{
+			updatePanel();
+			updateFlame();
+			updateGraph();
+			_PanelTime = time;
+		}
+		graphics.drawImage(_Panel, 0, 0, null);
+		graphics.drawImage(_Flame, PanelWidth, 0, null);
+		graphics.drawImage(_Graph, PanelWidth, _Flame.getHeight(), null);
+
+		// Revert to the old color and graphics matrix.
+		graphics.setColor(old);
+		graphics.setTransform(oldMatrix);
+	}
+
+	/**
+	 * Draw the debug window's text into its image.
+	 */
+	private void updatePanel()
+	{
+		// Create the image the first time around.
+		if (_Panel == null)
+		{
+			_Panel = Helper.createCompatibleImage(PanelWidth, PanelHeight, Transparency.OPAQUE);
+		}
+
+		// Clear the debug window.
+		Graphics2D graphics = _Panel.createGraphics();
 		graphics.setColor(Color.lightGray);
-		// Draw a debug window.
-		graphics.fillRect(0, 0, 130, 600);
+		graphics.fillRect(0, 0, PanelWidth, PanelHeight);
 
 		// Change the color back to black.
 		graphics.setColor(Color.black);
@@ -251,109 +316,282 @@ public class DebugManager
 		float x = 5;
 
 		// Display the gravity.
-		graphics.drawString("DF, Gravity: " + Vector2.round(_Physics.getGravity(), 1), x, 20);
+		drawText("DF, Gravity: " + Vector2.round(_Physics.getGravity(), 1), x, 20, graphics);
 		// Display the number of bodies.
-		graphics.drawString("Bodies: " + _Physics.bodyCount(), x, 35);
+		drawText("Bodies: " + _Physics.bodyCount(), x, 35, graphics);
 		// Display the number of forces to add.
-		graphics.drawString("Forces: " + forcesToAdd, x, 50);
+		drawText("Forces: " + forcesToAdd, x, 50, graphics);
 		// Display the energyDecrease at each collision.
-		graphics.drawString("GH, Impact ED: " + Vector2.round(_Physics.energyDecrease, 1), x, 65);
+		drawText("GH, Impact ED: " + Vector2.round(_Physics.energyDecrease, 1), x, 65, graphics);
 
-		// Display the used time.
-		graphics.drawString("Input: " + phaseTime[0] + " ms", x, 95);
-		graphics.drawString("Physics: " + phaseTime[1] + " ms", x, 110);
-		graphics.drawString("Body: " + phaseTime[2] + " ms", x, 125);
-		graphics.drawString("Draw: " + phaseTime[3] + " ms", x, 140);
-		graphics.drawString("Total: " + phaseEndTime + " ms", x, 155);
+		// Display the average time per frame spent in the profiled scopes, with the render thread's if the game has one.
+		drawText("Input: " + getTime("input") + " ms", x, 80, graphics);
+		drawText("Update: " + getTime("update") + " ms", x, 95, graphics);
+		drawText("Physics: " + getTime("physics") + " ms", x, 110, graphics);
+		drawText("Entities: " + getTime("entities") + " ms", x, 125, graphics);
+		drawText("Draw: " + getTime("draw") + " ms", x, 140, graphics);
+		drawText("Render: " + getTime("render") + " ms", x, 155, graphics);
 
 		// Draw the Debug Body's information.
 		if (debugBody != null)
 		{
 			// Draw the information.
-			graphics.drawString("------- Body -------", x, 170);
-			graphics.drawString("Pos: " + Vector2.round(debugBody.getLayeredPosition(), 0).toString(), x, 185);
-			graphics.drawString("Velocity: " + Vector3.round(debugBody.getVelocity(), 0).toString(), x, 200);
-			graphics.drawString("AS, Mass: " + Math.round(debugBody.getMass()), x, 215);
-			graphics.drawString("NB, FrictionCoe: " + Math.round(debugBody.getFrictionCoefficient()), x, 230);
-			graphics.drawString("Width: " + debugBody.getShape().getWidth(), x, 245);
-			graphics.drawString("Height: " + debugBody.getShape().getHeight(), x, 260);
-			graphics.drawString("VC, Max Velocity: " + Vector2.round(debugBody.getMaxVelocity(), 1), x, 275);
-			graphics.drawString("ZX, Acc Value: " + Vector2.round(debugBody.getAccelerationValue(), 1), x, 290);
+			drawText("------- Body -------", x, 170, graphics);
+			drawText("Pos: " + Vector2.round(debugBody.getLayeredPosition(), 0).toString(), x, 185, graphics);
+			drawText("Velocity: " + Vector3.round(debugBody.getVelocity(), 0).toString(), x, 200, graphics);
+			drawText("AS, Mass: " + Math.round(debugBody.getMass()), x, 215, graphics);
+			drawText("NB, FrictionCoe: " + Math.round(debugBody.getFrictionCoefficient()), x, 230, graphics);
+			drawText("Width: " + debugBody.getShape().getWidth(), x, 245, graphics);
+			drawText("Height: " + debugBody.getShape().getHeight(), x, 260, graphics);
+			drawText("VC, Max Velocity: " + Vector2.round(debugBody.getMaxVelocity(), 1), x, 275, graphics);
+			drawText("ZX, Acc Value: " + Vector2.round(debugBody.getAccelerationValue(), 1), x, 290, graphics);
 		}
 
+		// Display the number of entities drawn and culled.
+		drawText("Drawn: " + drawnEntities, x, 320, graphics);
+		drawText("Culled: " + culledEntities, x, 335, graphics);
+
+		// Display the texture cache's statistics.
+		TextureCache textures = TextureCache.getInstance();
+		drawText("Textures: " + textures.getTextureCount() + " (" + (textures.getMemoryUsage() >> 20) + " MB)", x, 350, graphics);
+		drawText("H/M/E: " + textures.getHits() + "/" + textures.getMisses() + "/" + textures.getEvictions(), x, 365, graphics);
+
+		// Display the bytes allocated last frame and the time the garbage collector spent in the remembered frames.
+		AllocationTracker allocations = AllocationTracker.getInstance();
+		long pauses = 0;
+		for (int i = 0; i < AllocationTracker.History; i++)
+		{
+			pauses += allocations.getPauseTime(i);
+		}
+		drawText("Alloc: " + ((allocations.getBytes(0, 0) + allocations.getBytes(0, 1) + allocations.getBytes(0, 2)) >> 10) + " KB", x, 380, graphics);
+		drawText("GC: " + pauses + " ms", x, 395, graphics);
+
 		// Draw the time since game start in milliseconds.
-		graphics.drawString("Time: " + (System.currentTimeMillis() - startTime) + " ms", x, 400);
+		drawText("Time: " + (System.currentTimeMillis() - startTime) + " ms", x, 410, graphics);
 
 		// Draw the FPS.
-		if (phaseEndTime > 0)
+		if (framePeriod > 0)
 		{
-			graphics.drawString(String.valueOf(1000 / phaseEndTime) + " FPS", x, 415);
+			drawText(String.valueOf(Math.round(1e9 / framePeriod)) + " FPS", x, 425, graphics);
 		}
 		// Draw a blank.
 		else
 		{
-			graphics.drawString("--- FPS", x - 2, 415);
+			drawText("--- FPS", x - 2, 425, graphics);
 		}
 
 		// How to use the camera.
-		graphics.drawString("JKLI to move camera", x, 500);
-		graphics.drawString("OP to zoom camera", x, 520);
-		graphics.drawString("YU to rotate camera", x, 540);
+		drawText("JKLI to move camera", x, 500, graphics);
+		drawText("OP to zoom camera", x, 520, graphics);
+		drawText("YU to rotate camera", x, 540, graphics);
 
 		// Let the player know that the magic happens with F1.
-		graphics.drawString("Press F1 to toggle", x, 580);
+		drawText("Press F1 to toggle", x, 580, graphics);
 
-		// Revert to the old color.
-		graphics.setColor(old);
+		// Done drawing the debug window.
+		graphics.dispose();
 	}
 
 	/**
-	 * Get the singleton instance of this debug manager.
+	 * Get the average time per frame spent in the profiled scopes with a name, rounded for display.
 	 * 
-	 * @return The singleton debug manager.
+	 * @param name
+	 *            The name of the scopes.
+	 * @return The time in milliseconds, with one decimal.
 	 */
-	public static DebugManager getInstance()
+	private double getTime(String name)
 	{
-		// If the debug manager has not been created yet, do so.
-		if (_Instance == null)
+		return Math.round(Profiler.getTime(name) * 10) / 10.0;
+	}
+
+	/**
+	 * Draw the flame summary into its image, with a row of bars for every depth of every thread's scopes. Each bar is as wide as the average time spent in its scope, on a scale where the whole image
+	 * is a frame's worth of time, and sits within the bar of its parent scope.
+	 */
+	private void updateFlame()
+	{
+		// Make room for every thread's scopes.
+		Profiler.Node[] roots = Profiler.getRoots();
+		int height = Math.max(roots.length, 1) * (MaxFlameDepth + 1) * FlameRowHeight;
+		if (_Flame == null || _Flame.getHeight() != height)
 		{
-			_Instance = new DebugManager();
+			_Flame = Helper.createCompatibleImage(FlameWidth, height, Transparency.OPAQUE);
 		}
 
-		// Return the instance.
-		return _Instance;
+		// Clear the image.
+		Graphics2D graphics = _Flame.createGraphics();
+		graphics.setColor(Color.lightGray);
+		graphics.fillRect(0, 0, FlameWidth, height);
+
+		// Draw every thread's scopes below its name.
+		int y = 0;
+		for (Profiler.Node root : roots)
+		{
+			graphics.setColor(Color.black);
+			drawText(root.getName() + ": " + Math.round(root.getAverageTime() / 1e5) / 10.0 + " ms", 5, y + FlameRowHeight - 3, graphics);
+			double x = 0;
+			for (int i = 0; i < root.getChildCount(); i++)
+			{
+				x += drawFlame(root.getChild(i), x, y + FlameRowHeight, 0, graphics);
+			}
+			y += (MaxFlameDepth + 1) * FlameRowHeight;
+		}
+
+		// Done drawing the flame summary.
+		graphics.dispose();
 	}
 
-	// Set the startTime.
-	public void setPhaseStartTime()
+	/**
+	 * Draw the allocation graph into its image, with a bar for every remembered frame that scrolls to the left as frames pass. Each bar stacks the bytes allocated while handling input, updating and
+	 * drawing, on a scale set by the most allocated in any of the frames, and frames in which the garbage collector ran are marked in red.
+	 */
+	private void updateGraph()
 	{
-		// Set the start time.
-		phaseStartTime = System.currentTimeMillis();
+		// Create the image the first time around.
+		if (_Graph == null)
+		{
+			_Graph = Helper.createCompatibleImage(GraphWidth, GraphHeight, Transparency.OPAQUE);
+		}
+
+		// Clear the image.
+		Graphics2D graphics = _Graph.createGraphics();
+		graphics.setColor(Color.lightGray);
+		graphics.fillRect(0, 0, GraphWidth, GraphHeight);
+
+		// Scale the bars by the most bytes allocated in a frame, though never finer than a kilobyte per pixel.
+		AllocationTracker allocations = AllocationTracker.getInstance();
+		long max = GraphHeight << 10;
+		for (int i = 0; i < AllocationTracker.History; i++)
+		{
+			max = Math.max(allocations.getBytes(i, 0) + allocations.getBytes(i, 1) + allocations.getBytes(i, 2), max);
+		}
+		double scale = (GraphHeight - FlameRowHeight) / (double) max;
+
+		// Draw the frames from the oldest on the left to the last on the right.
+		Color[] colors = { Color.getHSBColor(.55f, .5f, 1), Color.getHSBColor(.33f, .5f, .9f), Color.getHSBColor(.12f, .6f, 1) };
+		for (int i = 0; i < AllocationTracker.History; i++)
+		{
+			int x = GraphWidth - (i + 1) * 2;
+
+			// Mark the garbage collector's pauses.
+			if (allocations.getPauseTime(i) > 0)
+			{
+				graphics.setColor(Color.red);
+				graphics.fillRect(x, FlameRowHeight, 2, GraphHeight - FlameRowHeight);
+			}
+
+			// Stack the phases' bytes from the bottom up.
+			int y = GraphHeight;
+			for (int phase = 0; phase < colors.length; phase++)
+			{
+				int height = (int) Math.round(allocations.getBytes(i, phase) * scale);
+				graphics.setColor(colors[phase]);
+				graphics.fillRect(x, y - height, 2, height);
+				y -= height;
+			}
+		}
+
+		// Label the graph with its scale.
+		graphics.setColor(Color.black);
+		drawText("Alloc/frame, max " + (max >> 10) + " KB" + (allocations.isSupported() ? "" : " (unsupported)"), 5, FlameRowHeight - 3, graphics);
+
+		// Done drawing the allocation graph.
+		graphics.dispose();
 	}
 
-	// Set the endTime.
-	public void setPhaseEndTime()
+	/**
+	 * Draw the bar of a profiled scope and those of its children below it.
+	 * 
+	 * @param node
+	 *            The scope's node.
+	 * @param x
+	 *            The left edge of the bar.
+	 * @param y
+	 *            The top edge of the bar.
+	 * @param depth
+	 *            The depth of the scope.
+	 * @param graphics
+	 *            The graphics component.
+	 * @return The width of the bar.
+	 */
+	private double drawFlame(Profiler.Node node, double x, int y, int depth, Graphics2D graphics)
 	{
-		// Set the end time.
-		phaseEndTime = (System.currentTimeMillis() - phaseStartTime);
+		// The width of the bar, where the whole image is a frame.
+		double width = node.getAverageTime() / (Game.TimePerFrame * 1e6) * FlameWidth;
+		if (depth >= MaxFlameDepth || width < 1) { return width; }
+
+		// Draw the bar, warmer the deeper it is.
+		graphics.setColor(Color.getHSBColor(.12f - depth * .02f, .6f, 1));
+		graphics.fillRect((int) x, y, (int) width, FlameRowHeight - 1);
+
+		// Label it if there is room.
+		if (width > 40)
+		{
+			java.awt.Shape clip = graphics.getClip();
+			graphics.clipRect((int) x, y, (int) width, FlameRowHeight);
+			graphics.setColor(Color.black);
+			drawText(node.getName() + " " + Math.round(node.getAverageTime() / 1e5) / 10.0, (float) x + 2, y + FlameRowHeight - 3, graphics);
+			graphics.setClip(clip);
+		}
+
+		// Draw the children within it.
+		double offset = x;
+		for (int i = 0; i < node.getChildCount(); i++)
+		{
+			offset += drawFlame(node.getChild(i), offset, y + FlameRowHeight, depth + 1, graphics);
+		}
+
+		return width;
 	}
 
-	// Set a time for one of the phaseTime Counters.
-	public void setPhaseTime(int index)
+	/**
+	 * Draw a line of debug text in the color of the graphics component. The values in it change all the time, so its digits are drawn from the text cache's digit atlas.
+	 * 
+	 * @param text
+	 *            The text to draw.
+	 * @param x
+	 *            The x-coordinate of the start of the baseline.
+	 * @param y
+	 *            The y-coordinate of the baseline.
+	 * @param graphics
+	 *            The graphics component.
+	 */
+	private void drawText(String text, float x, float y, Graphics2D graphics)
 	{
-		// Set the time to the correct index and subtract the start time.
-		phaseTime[index] = (System.currentTimeMillis() - phaseStartTime);
+		TextCache.getInstance().drawNumbers(text, graphics.getFont(), graphics.getColor(), x, y, graphics);
+	}
 
-		// Calculate the time difference between this phase and the others.
-		if (index != 0)
+	/**
+	 * Get the singleton instance of this debug manager.
+	 * 
+	 * @return The singleton debug manager.
+	 */
+	public static DebugManager getInstance()
+	{
+		// If the debug manager has not been created yet, do so.
+		if (_Instance == null)
 		{
-			// Loop through all phases up to this point.
-			for (int phase = 0; phase < index; phase++)
-			{
-				// Subtract the phase time.
-				phaseTime[index] -= phaseTime[phase];
-			}
+			_Instance = new DebugManager();
 		}
+
+		// Return the instance.
+		return _Instance;
+	}
+
+	/**
+	 * Set the number of entities that were drawn and culled by the scene.
+	 * 
+	 * @param drawn
+	 *            The number of drawn entities.
+	 * @param culled
+	 *            The number of entities skipped because they could not be seen.
+	 */
+	public void setCullingStatistics(int drawn, int culled)
+	{
+		drawnEntities = drawn;
+		culledEntities = culled;
+		_EntitiesDrawn.set(drawn);
+		_EntitiesCulled.set(culled);
 	}
 
 	/**
@@ -378,6 +616,38 @@ public class DebugManager
 		_Transform = matrix;
 	}
 
+	/**
+	 * Set the area of the world the camera can see. Bodies outside of it are not drawn.
+	 * 
+	 * @param area
+	 *            The visible area in world coordinates.
+	 */
+	public void setVisibleArea(Rectangle area)
+	{
+		_VisibleArea = area;
+	}
+
+	/**
+	 * Get the number of times per second the debug window is refreshed.
+	 * 
+	 * @return The refresh rate.
+	 */
+	public int getPanelRefreshRate()
+	{
+		return _PanelRefreshRate;
+	}
+
+	/**
+	 * Set the number of times per second the debug window is refreshed. In between, the last image of it is drawn.
+	 * 
+	 * @param rate
+	 *            The refresh rate, at least once per second.
+	 */
+	public void setPanelRefreshRate(int rate)
+	{
+		_PanelRefreshRate = Math.max(rate, 1);
+	}
+
 	/**
 	 * Set the debug body.
 	 * 
@@ -0,0 +1,25 @@
+package debug;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for the loading of a single entity from file.
+ */
+@Name("indagame.EntityLoad")
+@Label("Entity Load")
+@Category("IndaGame")
+@Description("The loading of a single entity from file.")
+class EntityLoadEvent extends Event
+{
+	@Label("Path")
+	String path;
+
+	@Label("Bytes Read")
+	@DataAmount
+	long bytesRead;
+}
\ No newline at end of file
@@ -0,0 +1,252 @@
+package debug;
+
+import jdk.jfr.EventType;
+
+/**
+ * The flight recorder emits the engine's own events to Java Flight Recorder, so that frames, physics ticks and loads can be lined up with the garbage collector and allocations in Mission Control.
+ * Every event is begun and ended through here, which hands out the event in between. If the JVM has no flight recorder, or no recording has the event enabled, nothing is created and ending the
+ * event does nothing, so the events cost next to nothing when nobody is recording. Whether an event is enabled is asked of its type, which is looked up once, before the event is created.
+ */
+public class FlightRecorder
+{
+	// Whether the JVM has a flight recorder to emit events to.
+	private static final boolean _IsAvailable = isSupported();
+
+	/**
+	 * Whether the JVM has a flight recorder, ie. whether the event classes can be loaded at all.
+	 * 
+	 * @return Whether the flight recorder is supported.
+	 */
+	private static boolean isSupported()
+	{
+		try
+		{
+			Class.forName("jdk.jfr.Event");
+			return true;
+		}
+		catch (Throwable e)
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * Whether the JVM has a flight recorder to emit events to.
+	 * 
+	 * @return Whether the flight recorder is available.
+	 */
+	public static boolean isAvailable()
+	{
+		return _IsAvailable;
+	}
+
+	/**
+	 * The types of the events, looked up once. They are kept apart so that they are only loaded if the JVM has a flight recorder.
+	 */
+	private static class Types
+	{
+		private static final EventType Frame = EventType.getEventType(FrameEvent.class);
+		private static final EventType PhysicsTick = EventType.getEventType(PhysicsTickEvent.class);
+		private static final EventType SceneLoad = EventType.getEventType(SceneLoadEvent.class);
+		private static final EventType EntityLoad = EventType.getEventType(EntityLoadEvent.class);
+		private static final EventType TextureDecode = EventType.getEventType(TextureDecodeEvent.class);
+	}
+
+	/**
+	 * Begin a frame event.
+	 * 
+	 * @return The event, or null if it is not recorded.
+	 */
+	public static Object beginFrame()
+	{
+		// Only create the event if a recording has it enabled.
+		if (!_IsAvailable || !Types.Frame.isEnabled()) { return null; }
+
+		FrameEvent event = new FrameEvent();
+		event.begin();
+
+		return event;
+	}
+
+	/**
+	 * End a frame event.
+	 * 
+	 * @param event
+	 *            The event, as begun.
+	 * @param input
+	 *            The time spent handling input in nanoseconds.
+	 * @param update
+	 *            The time spent updating in nanoseconds.
+	 * @param render
+	 *            The time spent drawing the scenes on the render thread in nanoseconds.
+	 * @param draw
+	 *            The time spent drawing to the screen in nanoseconds.
+	 */
+	public static void endFrame(Object event, long input, long update, long render, long draw)
+	{
+		if (event == null) { return; }
+
+		FrameEvent frame = (FrameEvent) event;
+		frame.input = input;
+		frame.update = update;
+		frame.render = render;
+		frame.draw = draw;
+		frame.commit();
+	}
+
+	/**
+	 * Begin a physics tick event.
+	 * 
+	 * @return The event, or null if it is not recorded.
+	 */
+	public static Object beginPhysicsTick()
+	{
+		// Only create the event if a recording has it enabled.
+		if (!_IsAvailable || !Types.PhysicsTick.isEnabled()) { return null; }
+
+		PhysicsTickEvent event = new PhysicsTickEvent();
+		event.begin();
+
+		return event;
+	}
+
+	/**
+	 * End a physics tick event.
+	 * 
+	 * @param event
+	 *            The event, as begun.
+	 * @param bodies
+	 *            The number of bodies simulated.
+	 * @param pairs
+	 *            The number of pairs of bodies that passed the broad phase.
+	 * @param contacts
+	 *            The number of pairs of bodies found to collide.
+	 */
+	public static void endPhysicsTick(Object event, int bodies, int pairs, int contacts)
+	{
+		if (event == null) { return; }
+
+		PhysicsTickEvent tick = (PhysicsTickEvent) event;
+		tick.bodyCount = bodies;
+		tick.pairCount = pairs;
+		tick.contactCount = contacts;
+		tick.commit();
+	}
+
+	/**
+	 * Begin a scene load event.
+	 * 
+	 * @return The event, or null if it is not recorded.
+	 */
+	public static Object beginSceneLoad()
+	{
+		// Only create the event if a recording has it enabled.
+		if (!_IsAvailable || !Types.SceneLoad.isEnabled()) { return null; }
+
+		SceneLoadEvent event = new SceneLoadEvent();
+		event.begin();
+
+		return event;
+	}
+
+	/**
+	 * End a scene load event.
+	 * 
+	 * @param event
+	 *            The event, as begun.
+	 * @param name
+	 *            The name of the scene loaded.
+	 * @param entities
+	 *            The number of entities loaded.
+	 * @param bytes
+	 *            The number of bytes read.
+	 */
+	public static void endSceneLoad(Object event, String name, int entities, long bytes)
+	{
+		if (event == null) { return; }
+
+		SceneLoadEvent load = (SceneLoadEvent) event;
+		load.sceneName = name;
+		load.entityCount = entities;
+		load.bytesRead = bytes;
+		load.commit();
+	}
+
+	/**
+	 * Begin an entity load event.
+	 * 
+	 * @return The event, or null if it is not recorded.
+	 */
+	public static Object beginEntityLoad()
+	{
+		// Only create the event if a recording has it enabled.
+		if (!_IsAvailable || !Types.EntityLoad.isEnabled()) { return null; }
+
+		EntityLoadEvent event = new EntityLoadEvent();
+		event.begin();
+
+		return event;
+	}
+
+	/**
+	 * End an entity load event.
+	 * 
+	 * @param event
+	 *            The event, as begun.
+	 * @param path
+	 *            The path of the entity file.
+	 * @param bytes
+	 *            The number of bytes read.
+	 */
+	public static void endEntityLoad(Object event, String path, long bytes)
+	{
+		if (event == null) { return; }
+
+		EntityLoadEvent load = (EntityLoadEvent) event;
+		load.path = path;
+		load.bytesRead = bytes;
+		load.commit();
+	}
+
+	/**
+	 * Begin a texture decode event.
+	 * 
+	 * @return The event, or null if it is not recorded.
+	 */
+	public static Object beginTextureDecode()
+	{
+		// Only create the event if a recording has it enabled.
+		if (!_IsAvailable || !Types.TextureDecode.isEnabled()) { return null; }
+
+		TextureDecodeEvent event = new TextureDecodeEvent();
+		event.begin();
+
+		return event;
+	}
+
+	/**
+	 * End a texture decode event.
+	 * 
+	 * @param event
+	 *            The event, as begun.
+	 * @param path
+	 *            The path of the image file.
+	 * @param width
+	 *            The width of the image, or 0 if it could not be decoded.
+	 * @param height
+	 *            The height of the image, or 0 if it could not be decoded.
+	 * @param size
+	 *            The size of the file in bytes.
+	 */
+	public static void endTextureDecode(Object event, String path, int width, int height, long size)
+	{
+		if (event == null) { return; }
+
+		TextureDecodeEvent decode = (TextureDecodeEvent) event;
+		decode.path = path;
+		decode.width = width;
+		decode.height = height;
+		decode.size = size;
+		decode.commit();
+	}
+}
\ No newline at end of file
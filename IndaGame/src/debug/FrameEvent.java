@@ -0,0 +1,35 @@
+package debug;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A flight recorder event for a frame, from its input to its drawing, with the time spent in each of its phases. When the scenes are pipelined, it is committed by the render thread once the frame
+ * is on screen, and holds the updates of the update thread since the last frame as well as the drawing of the render thread.
+ */
+@Name("indagame.Frame")
+@Label("Frame")
+@Category("IndaGame")
+@Description("A frame, from its input to its drawing.")
+class FrameEvent extends Event
+{
+	@Label("Input")
+	@Timespan(Timespan.NANOSECONDS)
+	long input;
+
+	@Label("Update")
+	@Timespan(Timespan.NANOSECONDS)
+	long update;
+
+	@Label("Render")
+	@Timespan(Timespan.NANOSECONDS)
+	long render;
+
+	@Label("Draw")
+	@Timespan(Timespan.NANOSECONDS)
+	long draw;
+}
\ No newline at end of file
@@ -0,0 +1,500 @@
+package debug;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+/**
+ * The metrics registry keeps the engine's counters, gauges and latency histograms by name, so that they can be watched over long runs without the debug window. It is published as an MBean named
+ * "indagame:type=Metrics", with an attribute for every counter and gauge and attributes for the count, median, 99th percentile and maximum of every histogram, which JConsole and other JMX clients
+ * can read and chart while the game runs.
+ */
+public class MetricsRegistry implements DynamicMBean
+{
+	// The name the registry is published under.
+	public static final String Name = "indagame:type=Metrics";
+
+	// The singleton instance.
+	private static MetricsRegistry _Instance;
+
+	// The metrics, by name in the order they were registered.
+	private LinkedHashMap<String, Object> _Metrics;
+
+	/**
+	 * Constructor for a metrics registry, publishing it to the platform's MBean server.
+	 */
+	private MetricsRegistry()
+	{
+		_Metrics = new LinkedHashMap<String, Object>();
+
+		// Try to publish the registry.
+		try
+		{
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(Name));
+		}
+		// Catch the exceptions.
+		catch (Exception e)
+		{
+			System.out.println(this + ": Register MBean Error. (" + e + ")");
+		}
+	}
+
+	/**
+	 * Get the singleton instance of the metrics registry.
+	 * 
+	 * @return The metrics registry.
+	 */
+	public static synchronized MetricsRegistry getInstance()
+	{
+		// If the registry has not been created yet, do so.
+		if (_Instance == null)
+		{
+			_Instance = new MetricsRegistry();
+		}
+
+		return _Instance;
+	}
+
+	/**
+	 * Get the counter with a name, registering it if there is none.
+	 * 
+	 * @param name
+	 *            The name of the counter.
+	 * @return The counter.
+	 */
+	public synchronized Counter counter(String name)
+	{
+		Object metric = _Metrics.get(name);
+		if (metric == null)
+		{
+			metric = new Counter();
+			_Metrics.put(name, metric);
+		}
+
+		return (Counter) metric;
+	}
+
+	/**
+	 * Get the gauge with a name that holds the value it was last set to, registering it if there is none.
+	 * 
+	 * @param name
+	 *            The name of the gauge.
+	 * @return The gauge.
+	 */
+	public synchronized Value value(String name)
+	{
+		Object metric = _Metrics.get(name);
+		if (metric == null)
+		{
+			metric = new Value();
+			_Metrics.put(name, metric);
+		}
+
+		return (Value) metric;
+	}
+
+	/**
+	 * Register a gauge that reads its value from elsewhere whenever asked, replacing any metric with the same name.
+	 * 
+	 * @param name
+	 *            The name of the gauge.
+	 * @param gauge
+	 *            The gauge.
+	 * @return The gauge.
+	 */
+	public synchronized Gauge gauge(String name, Gauge gauge)
+	{
+		_Metrics.put(name, gauge);
+		return gauge;
+	}
+
+	/**
+	 * Get the histogram with a name, registering it if there is none.
+	 * 
+	 * @param name
+	 *            The name of the histogram.
+	 * @return The histogram.
+	 */
+	public synchronized Histogram histogram(String name)
+	{
+		Object metric = _Metrics.get(name);
+		if (metric == null)
+		{
+			metric = new Histogram();
+			_Metrics.put(name, metric);
+		}
+
+		return (Histogram) metric;
+	}
+
+	/**
+	 * Reset every counter and histogram, starting a new measurement.
+	 */
+	public synchronized void reset()
+	{
+		for (Object metric : _Metrics.values())
+		{
+			if (metric instanceof Counter)
+			{
+				((Counter) metric).reset();
+			}
+			else if (metric instanceof Histogram)
+			{
+				((Histogram) metric).reset();
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public synchronized Object getAttribute(String attribute) throws AttributeNotFoundException
+	{
+		// Counters and gauges are read as they are.
+		Object metric = _Metrics.get(attribute);
+		if (metric instanceof Counter) { return ((Counter) metric).get(); }
+		if (metric instanceof Gauge) { return ((Gauge) metric).getValue(); }
+
+		// Histograms are read through their statistics, in milliseconds.
+		int dot = attribute.lastIndexOf('.');
+		if (dot > 0 && _Metrics.get(attribute.substring(0, dot)) instanceof Histogram)
+		{
+			Histogram histogram = (Histogram) _Metrics.get(attribute.substring(0, dot));
+			String statistic = attribute.substring(dot + 1);
+			if (statistic.equals("count")) { return histogram.getCount(); }
+			if (statistic.equals("p50")) { return histogram.getPercentile(50) / 1e6; }
+			if (statistic.equals("p99")) { return histogram.getPercentile(99) / 1e6; }
+			if (statistic.equals("max")) { return histogram.getMax() / 1e6; }
+		}
+
+		throw new AttributeNotFoundException(attribute);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public AttributeList getAttributes(String[] attributes)
+	{
+		AttributeList list = new AttributeList();
+		for (String attribute : attributes)
+		{
+			try
+			{
+				list.add(new Attribute(attribute, getAttribute(attribute)));
+			}
+			catch (AttributeNotFoundException e)
+			{
+				// Attributes that do not exist are left out.
+			}
+		}
+
+		return list;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void setAttribute(Attribute attribute) throws AttributeNotFoundException
+	{
+		throw new AttributeNotFoundException("The metrics are read-only.");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public AttributeList setAttributes(AttributeList attributes)
+	{
+		return new AttributeList();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException
+	{
+		// The only operation resets the metrics.
+		if (actionName.equals("reset"))
+		{
+			reset();
+			return null;
+		}
+
+		throw new ReflectionException(new NoSuchMethodException(actionName));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public synchronized MBeanInfo getMBeanInfo()
+	{
+		// Describe every metric as one or more read-only attributes.
+		ArrayList<MBeanAttributeInfo> attributes = new ArrayList<MBeanAttributeInfo>();
+		for (Map.Entry<String, Object> entry : _Metrics.entrySet())
+		{
+			String name = entry.getKey();
+			if (entry.getValue() instanceof Counter)
+			{
+				attributes.add(new MBeanAttributeInfo(name, "long", "Counter " + name + ".", true, false, false));
+			}
+			else if (entry.getValue() instanceof Gauge)
+			{
+				attributes.add(new MBeanAttributeInfo(name, "double", "Gauge " + name + ".", true, false, false));
+			}
+			else if (entry.getValue() instanceof Histogram)
+			{
+				attributes.add(new MBeanAttributeInfo(name + ".count", "long", "The number of values recorded by " + name + ".", true, false, false));
+				attributes.add(new MBeanAttributeInfo(name + ".p50", "double", "The median of " + name + " in milliseconds.", true, false, false));
+				attributes.add(new MBeanAttributeInfo(name + ".p99", "double", "The 99th percentile of " + name + " in milliseconds.", true, false, false));
+				attributes.add(new MBeanAttributeInfo(name + ".max", "double", "The maximum of " + name + " in milliseconds.", true, false, false));
+			}
+		}
+
+		// The reset operation.
+		MBeanOperationInfo reset = new MBeanOperationInfo("reset", "Reset every counter and histogram.", null, "void", MBeanOperationInfo.ACTION);
+
+		return new MBeanInfo(getClass().getName(), "The engine's metrics.", attributes.toArray(new MBeanAttributeInfo[attributes.size()]), null, new MBeanOperationInfo[] { reset }, null);
+	}
+
+	/**
+	 * A counter counts something up, eg. the number of pairs of bodies tested.
+	 */
+	public static class Counter
+	{
+		// The count.
+		private AtomicLong _Count = new AtomicLong();
+
+		/**
+		 * Count one up.
+		 */
+		public void increment()
+		{
+			_Count.incrementAndGet();
+		}
+
+		/**
+		 * Count a number up.
+		 * 
+		 * @param amount
+		 *            The amount to add.
+		 */
+		public void add(long amount)
+		{
+			_Count.addAndGet(amount);
+		}
+
+		/**
+		 * Get the count.
+		 * 
+		 * @return The count.
+		 */
+		public long get()
+		{
+			return _Count.get();
+		}
+
+		/**
+		 * Reset the count to 0.
+		 */
+		public void reset()
+		{
+			_Count.set(0);
+		}
+	}
+
+	/**
+	 * A gauge measures something as it is at the moment, eg. the number of entities drawn last frame.
+	 */
+	public static abstract class Gauge
+	{
+		/**
+		 * Get the value of the gauge.
+		 * 
+		 * @return The value.
+		 */
+		public abstract double getValue();
+	}
+
+	/**
+	 * A value is a gauge that holds what it was last set to.
+	 */
+	public static class Value extends Gauge
+	{
+		// The value.
+		private volatile double _Value;
+
+		/**
+		 * Set the value.
+		 * 
+		 * @param value
+		 *            The new value.
+		 */
+		public void set(double value)
+		{
+			_Value = value;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		public double getValue()
+		{
+			return _Value;
+		}
+	}
+
+	/**
+	 * A histogram records the distribution of a latency in nanoseconds, in the manner of an HDR histogram. Values are counted in buckets that double in size with every power of two but are split into
+	 * sub-buckets, so that every value is kept to within about two percent however large it is, in a fixed amount of memory and without allocating anything when recording.
+	 */
+	public static class Histogram
+	{
+		// The number of bits of a value kept exactly, and the number of sub-buckets that makes.
+		public static final int SubBucketBits = 7;
+		public static final int SubBucketCount = 1 << SubBucketBits;
+		private static final int HalfCount = SubBucketCount / 2;
+
+		// The number of values in every bucket.
+		private long[] _Counts;
+		// The number of values, their sum and the largest of them.
+		private long _Count;
+		private long _Total;
+		private long _Max;
+
+		/**
+		 * Constructor for a histogram.
+		 */
+		public Histogram()
+		{
+			_Counts = new long[getIndex(Long.MAX_VALUE) + 1];
+		}
+
+		/**
+		 * Get the bucket of a value.
+		 * 
+		 * @param value
+		 *            The value, at least 0.
+		 * @return The index of the bucket.
+		 */
+		private static int getIndex(long value)
+		{
+			// Small values have buckets of their own.
+			if (value < SubBucketCount) { return (int) value; }
+
+			// Larger values are shifted down until only their top bits are left, which pick the sub-bucket.
+			int shift = 63 - Long.numberOfLeadingZeros(value) - (SubBucketBits - 1);
+			return SubBucketCount + (shift - 1) * HalfCount + (int) (value >> shift) - HalfCount;
+		}
+
+		/**
+		 * Get the largest value that ends up in a bucket.
+		 * 
+		 * @param index
+		 *            The index of the bucket.
+		 * @return The value.
+		 */
+		private static long getValue(int index)
+		{
+			// Small values have buckets of their own.
+			if (index < SubBucketCount) { return index; }
+
+			int shift = (index - SubBucketCount) / HalfCount + 1;
+			long sub = (index - SubBucketCount) % HalfCount + HalfCount;
+			return ((sub + 1) << shift) - 1;
+		}
+
+		/**
+		 * Record a value.
+		 * 
+		 * @param value
+		 *            The value, where negative values count as 0.
+		 */
+		public synchronized void record(long value)
+		{
+			value = Math.max(value, 0);
+			_Counts[getIndex(value)]++;
+			_Count++;
+			_Total += value;
+			_Max = Math.max(_Max, value);
+		}
+
+		/**
+		 * Get a percentile of the values recorded.
+		 * 
+		 * @param percentile
+		 *            The percentile, between 0 and 100.
+		 * @return The value below which the percentile of values lie, or 0 if none have been recorded.
+		 */
+		public synchronized long getPercentile(double percentile)
+		{
+			// If nothing has been recorded, there is nothing to go by.
+			if (_Count == 0) { return 0; }
+
+			// Walk through the buckets until enough values have been passed.
+			long target = Math.max(1, (long) Math.ceil(percentile / 100 * _Count));
+			long passed = 0;
+			for (int i = 0; i < _Counts.length; i++)
+			{
+				passed += _Counts[i];
+				if (passed >= target) { return Math.min(getValue(i), _Max); }
+			}
+
+			return _Max;
+		}
+
+		/**
+		 * Get the number of values recorded.
+		 * 
+		 * @return The count.
+		 */
+		public synchronized long getCount()
+		{
+			return _Count;
+		}
+
+		/**
+		 * Get the mean of the values recorded.
+		 * 
+		 * @return The mean, or 0 if none have been recorded.
+		 */
+		public synchronized double getMean()
+		{
+			return (_Count == 0) ? 0 : (double) _Total / _Count;
+		}
+
+		/**
+		 * Get the largest value recorded.
+		 * 
+		 * @return The maximum.
+		 */
+		public synchronized long getMax()
+		{
+			return _Max;
+		}
+
+		/**
+		 * Forget every value recorded.
+		 */
+		public synchronized void reset()
+		{
+			for (int i = 0; i < _Counts.length; i++)
+			{
+				_Counts[i] = 0;
+			}
+			_Count = 0;
+			_Total = 0;
+			_Max = 0;
+		}
+	}
+}
\ No newline at end of file
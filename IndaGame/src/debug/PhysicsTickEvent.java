@@ -0,0 +1,28 @@
+package debug;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for an update of the physics simulator.
+ */
+@Name("indagame.PhysicsTick")
+@Label("Physics Tick")
+@Category("IndaGame")
+@Description("An update of the physics simulator.")
+class PhysicsTickEvent extends Event
+{
+	@Label("Bodies")
+	int bodyCount;
+
+	@Label("Pairs")
+	@Description("The pairs of bodies that passed the broad phase.")
+	int pairCount;
+
+	@Label("Contacts")
+	@Description("The pairs of bodies found to collide.")
+	int contactCount;
+}
\ No newline at end of file
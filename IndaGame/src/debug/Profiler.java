@@ -0,0 +1,559 @@
+package debug;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+
+/**
+ * The profiler times the parts of a frame with nanosecond precision. Code to be timed is wrapped in a scope, which nests in whatever scope is open on the same thread:
+ * 
+ * <pre>
+ * try (Profiler.Scope scope = Profiler.scope(&quot;physics&quot;))
+ * {
+ * 	...
+ * }
+ * </pre>
+ * 
+ * Every thread keeps a tree of the scopes it has opened, with their average time per frame, which the debug manager draws as a flame summary. Every thread also keeps the most recent scopes in a ring
+ * buffer, which can be written to a file in Chrome's trace event format and opened in chrome://tracing. Scopes are reused, so that timing a frame allocates nothing once every scope has been opened
+ * once.
+ */
+public class Profiler
+{
+	// The number of scopes every thread remembers for the trace.
+	public static final int TraceCapacity = 1 << 15;
+	// How much the latest frame counts in the average time of a scope.
+	public static final double Smoothing = .1;
+	// The deepest scopes can be nested.
+	public static final int MaxDepth = 32;
+
+	// Whether the profiler times anything.
+	private static volatile boolean _IsEnabled = !"false".equals(System.getProperty("indagame.profiler"));
+	// The threads that have opened a scope.
+	private static ArrayList<ThreadProfile> _Threads = new ArrayList<ThreadProfile>();
+	// The profile of the current thread.
+	private static ThreadLocal<ThreadProfile> _Current = new ThreadLocal<ThreadProfile>()
+	{
+		protected ThreadProfile initialValue()
+		{
+			synchronized (_Threads)
+			{
+				ThreadProfile profile = new ThreadProfile(Thread.currentThread().getName(), _Threads.size() + 1);
+				_Threads.add(profile);
+				return profile;
+			}
+		}
+	};
+	// The scope handed out while the profiler is disabled.
+	private static final Scope _Disabled = new Scope(null, 0);
+	// The time all traces are relative to.
+	private static final long _Epoch = System.nanoTime();
+
+	/**
+	 * Open a scope on the current thread, which is timed until it is closed.
+	 * 
+	 * @param name
+	 *            The name of the scope.
+	 * @return The scope, which must be closed on the same thread.
+	 */
+	public static Scope scope(String name)
+	{
+		if (!_IsEnabled) { return _Disabled; }
+
+		return _Current.get().open(name);
+	}
+
+	/**
+	 * Add time spent on something within the current scope that was too fine grained to be given scopes of its own, such as a test done for every pair of bodies. It counts as a scope of its own in
+	 * the flame summary, and is laid out after the other times added to the current scope in the trace.
+	 * 
+	 * @param name
+	 *            The name of the time.
+	 * @param nanos
+	 *            The time in nanoseconds.
+	 */
+	public static void addTime(String name, long nanos)
+	{
+		if (!_IsEnabled) { return; }
+
+		_Current.get().add(name, nanos);
+	}
+
+	/**
+	 * End the current thread's frame, folding the time of its scopes into their averages.
+	 */
+	public static void endFrame()
+	{
+		if (!_IsEnabled) { return; }
+
+		_Current.get().endFrame();
+	}
+
+	/**
+	 * Get the average time per frame spent in the scopes with a name, on all threads.
+	 * 
+	 * @param name
+	 *            The name of the scopes.
+	 * @return The time in milliseconds.
+	 */
+	public static double getTime(String name)
+	{
+		double time = 0;
+		for (Node root : getRoots())
+		{
+			time += root.getTime(name);
+		}
+
+		return time / 1e6;
+	}
+
+	/**
+	 * Get the roots of the threads' scope trees, named after their threads.
+	 * 
+	 * @return The roots, in the order the threads first opened a scope.
+	 */
+	public static Node[] getRoots()
+	{
+		synchronized (_Threads)
+		{
+			Node[] roots = new Node[_Threads.size()];
+			for (int i = 0; i < roots.length; i++)
+			{
+				roots[i] = _Threads.get(i)._Root;
+			}
+			return roots;
+		}
+	}
+
+	/**
+	 * Write the scopes remembered by all threads to a file in Chrome's trace event format.
+	 * 
+	 * @param file
+	 *            The file to write to.
+	 * @return Whether the trace was written.
+	 */
+	public static boolean writeTrace(File file)
+	{
+		// The threads to write.
+		ThreadProfile[] threads;
+		synchronized (_Threads)
+		{
+			threads = _Threads.toArray(new ThreadProfile[_Threads.size()]);
+		}
+
+		// Try to write the trace.
+		Writer writer = null;
+		try
+		{
+			writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+			writer.write("{\"traceEvents\":[");
+			boolean first = true;
+			for (ThreadProfile thread : threads)
+			{
+				// Name the thread.
+				writer.write(first ? "\n" : ",\n");
+				writer.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + thread._Id + ",\"args\":{\"name\":\"" + escape(thread._Name) + "\"}}");
+				first = false;
+
+				// Write its scopes, oldest first.
+				synchronized (thread)
+				{
+					long start = Math.max(0, thread._TraceCount - TraceCapacity);
+					for (long i = start; i < thread._TraceCount; i++)
+					{
+						int index = (int) (i & (TraceCapacity - 1));
+						writer.write(",\n{\"name\":\"" + escape(thread._TraceNames[index]) + "\",\"ph\":\"X\",\"pid\":1,\"tid\":" + thread._Id + ",\"ts\":"
+								+ ((thread._TraceStarts[index] - _Epoch) / 1e3) + ",\"dur\":" + (thread._TraceDurations[index] / 1e3) + "}");
+					}
+				}
+			}
+			writer.write("\n]}\n");
+
+			return true;
+		}
+		// Catch the exceptions.
+		catch (IOException e)
+		{
+			System.out.println("Profiler: Write Trace Error. (" + e + ")");
+			return false;
+		}
+		// Close the file.
+		finally
+		{
+			if (writer != null)
+			{
+				try
+				{
+					writer.close();
+				}
+				catch (IOException e)
+				{
+					System.out.println("Profiler: Close Trace Error. (" + e + ")");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Escape a name for a JSON string.
+	 * 
+	 * @param name
+	 *            The name.
+	 * @return The escaped name.
+	 */
+	private static String escape(String name)
+	{
+		return name.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+
+	/**
+	 * Whether the profiler times anything. It is enabled unless the system property "indagame.profiler" is "false".
+	 * 
+	 * @return Whether the profiler is enabled.
+	 */
+	public static boolean isEnabled()
+	{
+		return _IsEnabled;
+	}
+
+	/**
+	 * Set whether the profiler times anything. Scopes opened while it is disabled are not timed.
+	 * 
+	 * @param enable
+	 *            Whether to enable the profiler.
+	 */
+	public static void setEnabled(boolean enable)
+	{
+		_IsEnabled = enable;
+	}
+
+	/**
+	 * A scope times the code between its opening and its closing.
+	 */
+	public static class Scope implements AutoCloseable
+	{
+		// The profile of the thread the scope belongs to and the depth it is at.
+		private ThreadProfile _Profile;
+		private int _Depth;
+		// The node the scope adds its time to, when it was opened and where the next added time starts.
+		private Node _Node;
+		private long _Start;
+		private long _Cursor;
+
+		/**
+		 * Constructor for a scope.
+		 * 
+		 * @param profile
+		 *            The profile of the thread the scope belongs to.
+		 * @param depth
+		 *            The depth the scope is at.
+		 */
+		private Scope(ThreadProfile profile, int depth)
+		{
+			_Profile = profile;
+			_Depth = depth;
+		}
+
+		/**
+		 * Close the scope, adding the time since it was opened to it.
+		 */
+		public void close()
+		{
+			if (_Profile != null)
+			{
+				_Profile.close(this);
+			}
+		}
+	}
+
+	/**
+	 * A node in a thread's scope tree, holding the time of all scopes with the same name opened within the same parent.
+	 */
+	public static class Node
+	{
+		// The name of the scope and its children.
+		private String _Name;
+		private volatile ArrayList<Node> _Children;
+		// The time spent in the scope this frame, its average time per frame and the number of times it was opened this frame.
+		private long _Time;
+		private volatile double _AverageTime;
+		private int _Calls;
+		private volatile int _LastCalls;
+
+		/**
+		 * Constructor for a node.
+		 * 
+		 * @param name
+		 *            The name of the scope.
+		 */
+		private Node(String name)
+		{
+			_Name = name;
+			_Children = new ArrayList<Node>();
+		}
+
+		/**
+		 * Get the child with a name, creating it if there is none.
+		 * 
+		 * @param name
+		 *            The name of the child.
+		 * @return The child.
+		 */
+		private Node getChild(String name)
+		{
+			// Scope names are usually constants, so try comparing references first.
+			for (int i = 0; i < _Children.size(); i++)
+			{
+				if (_Children.get(i)._Name == name) { return _Children.get(i); }
+			}
+			for (int i = 0; i < _Children.size(); i++)
+			{
+				if (_Children.get(i)._Name.equals(name)) { return _Children.get(i); }
+			}
+
+			// Otherwise add a child, without disturbing anyone going through the children.
+			Node child = new Node(name);
+			synchronized (this)
+			{
+				ArrayList<Node> children = new ArrayList<Node>(_Children);
+				children.add(child);
+				_Children = children;
+			}
+
+			return child;
+		}
+
+		/**
+		 * Fold the time of this frame into the average, for the node and all of its children.
+		 */
+		private void endFrame()
+		{
+			_AverageTime += (_Time - _AverageTime) * Smoothing;
+			_LastCalls = _Calls;
+			_Time = 0;
+			_Calls = 0;
+			for (int i = 0; i < _Children.size(); i++)
+			{
+				_Children.get(i).endFrame();
+			}
+		}
+
+		/**
+		 * Get the average time per frame spent in the scopes with a name, among this node and its descendants.
+		 * 
+		 * @param name
+		 *            The name of the scopes.
+		 * @return The time in nanoseconds.
+		 */
+		private double getTime(String name)
+		{
+			if (_Name.equals(name)) { return _AverageTime; }
+
+			double time = 0;
+			ArrayList<Node> children = _Children;
+			for (int i = 0; i < children.size(); i++)
+			{
+				time += children.get(i).getTime(name);
+			}
+
+			return time;
+		}
+
+		/**
+		 * Get the name of the scope.
+		 * 
+		 * @return The name.
+		 */
+		public String getName()
+		{
+			return _Name;
+		}
+
+		/**
+		 * Get the average time per frame spent in the scope, including its children. For the root of a thread, this is the time of all scopes at the top.
+		 * 
+		 * @return The time in nanoseconds.
+		 */
+		public double getAverageTime()
+		{
+			return _AverageTime;
+		}
+
+		/**
+		 * Get the number of times the scope was opened last frame.
+		 * 
+		 * @return The call count.
+		 */
+		public int getCalls()
+		{
+			return _LastCalls;
+		}
+
+		/**
+		 * Get the number of children.
+		 * 
+		 * @return The child count.
+		 */
+		public int getChildCount()
+		{
+			return _Children.size();
+		}
+
+		/**
+		 * Get a child.
+		 * 
+		 * @param index
+		 *            The index of the child, in the order they were first opened.
+		 * @return The child.
+		 */
+		public Node getChild(int index)
+		{
+			return _Children.get(index);
+		}
+	}
+
+	/**
+	 * The profile of a single thread, ie. its open scopes, its scope tree and its trace.
+	 */
+	private static class ThreadProfile
+	{
+		// The name and trace id of the thread.
+		private String _Name;
+		private int _Id;
+		// The scopes, by depth, and the depth of the innermost open scope.
+		private Scope[] _Scopes;
+		private int _Depth;
+		// The root of the scope tree.
+		private Node _Root;
+		// The most recent scopes and the number of scopes ever traced.
+		private String[] _TraceNames;
+		private long[] _TraceStarts;
+		private long[] _TraceDurations;
+		private long _TraceCount;
+
+		/**
+		 * Constructor for a thread profile.
+		 * 
+		 * @param name
+		 *            The name of the thread.
+		 * @param id
+		 *            The id of the thread in the trace.
+		 */
+		private ThreadProfile(String name, int id)
+		{
+			_Name = name;
+			_Id = id;
+			_Scopes = new Scope[MaxDepth + 1];
+			_Scopes[0] = new Scope(this, 0);
+			_Scopes[0]._Node = new Node(name);
+			_Scopes[0]._Cursor = System.nanoTime();
+			_Depth = 0;
+			_Root = _Scopes[0]._Node;
+			_TraceNames = new String[TraceCapacity];
+			_TraceStarts = new long[TraceCapacity];
+			_TraceDurations = new long[TraceCapacity];
+			_TraceCount = 0;
+		}
+
+		/**
+		 * Open a scope within the innermost open one.
+		 * 
+		 * @param name
+		 *            The name of the scope.
+		 * @return The scope.
+		 */
+		private Scope open(String name)
+		{
+			// If the scopes are nested too deeply, hand out one that does nothing.
+			if (_Depth == MaxDepth) { return _Disabled; }
+
+			// Reuse the scope at the depth.
+			Scope parent = _Scopes[_Depth++];
+			Scope scope = _Scopes[_Depth];
+			if (scope == null)
+			{
+				scope = new Scope(this, _Depth);
+				_Scopes[_Depth] = scope;
+			}
+			scope._Node = parent._Node.getChild(name);
+			scope._Start = System.nanoTime();
+			scope._Cursor = scope._Start;
+
+			return scope;
+		}
+
+		/**
+		 * Close a scope, along with any scopes within it left open.
+		 * 
+		 * @param scope
+		 *            The scope.
+		 */
+		private void close(Scope scope)
+		{
+			// If the scope is not open, there is nothing to close.
+			if (scope._Depth > _Depth || _Scopes[scope._Depth] != scope) { return; }
+
+			// Time it.
+			long end = System.nanoTime();
+			scope._Node._Time += end - scope._Start;
+			scope._Node._Calls++;
+			trace(scope._Node._Name, scope._Start, end - scope._Start);
+			_Depth = scope._Depth - 1;
+		}
+
+		/**
+		 * Add time within the innermost open scope.
+		 * 
+		 * @param name
+		 *            The name of the time.
+		 * @param nanos
+		 *            The time in nanoseconds.
+		 */
+		private void add(String name, long nanos)
+		{
+			Scope parent = _Scopes[_Depth];
+			Node node = parent._Node.getChild(name);
+			node._Time += nanos;
+			node._Calls++;
+			trace(name, parent._Cursor, nanos);
+			parent._Cursor += nanos;
+		}
+
+		/**
+		 * Remember a timed scope in the trace.
+		 * 
+		 * @param name
+		 *            The name of the scope.
+		 * @param start
+		 *            When it was opened.
+		 * @param duration
+		 *            How long it was open.
+		 */
+		private synchronized void trace(String name, long start, long duration)
+		{
+			int index = (int) (_TraceCount++ & (TraceCapacity - 1));
+			_TraceNames[index] = name;
+			_TraceStarts[index] = start;
+			_TraceDurations[index] = duration;
+		}
+
+		/**
+		 * End the thread's frame, making the time of the scopes at the top the root's time.
+		 */
+		private void endFrame()
+		{
+			long time = 0;
+			for (int i = 0; i < _Root._Children.size(); i++)
+			{
+				time += _Root._Children.get(i)._Time;
+			}
+			_Root._Time = time;
+			_Root.endFrame();
+			_Scopes[0]._Cursor = System.nanoTime();
+		}
+	}
+}
\ No newline at end of file
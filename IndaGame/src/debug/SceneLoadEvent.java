@@ -0,0 +1,28 @@
+package debug;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for the loading of a scene from file.
+ */
+@Name("indagame.SceneLoad")
+@Label("Scene Load")
+@Category("IndaGame")
+@Description("The loading of a scene from file.")
+class SceneLoadEvent extends Event
+{
+	@Label("Name")
+	String sceneName;
+
+	@Label("Entities")
+	int entityCount;
+
+	@Label("Bytes Read")
+	@DataAmount
+	long bytesRead;
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package debug;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for the decoding of an image file.
+ */
+@Name("indagame.TextureDecode")
+@Label("Texture Decode")
+@Category("IndaGame")
+@Description("The decoding of an image file.")
+class TextureDecodeEvent extends Event
+{
+	@Label("Path")
+	String path;
+
+	@Label("Width")
+	int width;
+
+	@Label("Height")
+	int height;
+
+	@Label("Size")
+	@DataAmount
+	long size;
+}
\ No newline at end of file
@@ -0,0 +1,155 @@
+package graphics;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An animation clock works out which frame of an animation is showing from the game's total time, instead of every sprite counting time on its own. Sprites with the same frames, time per frame and
+ * frame range share a clock, so that the frame is computed once per update however many sprites play the animation, and they all play it in step.
+ */
+public class AnimationClock
+{
+	// The maximum number of clocks kept around for sprites to share.
+	public static final int MaxClocks = 256;
+
+	// The clocks, keyed by the animation they play and ordered by when they were last asked for.
+	private static LinkedHashMap<String, AnimationClock> _Clocks = new LinkedHashMap<String, AnimationClock>(64, .75f, true)
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, AnimationClock> eldest)
+		{
+			return size() > MaxClocks;
+		}
+	};
+
+	// The time in seconds every frame is shown.
+	private float _TimePerFrame;
+	// The range of frames played.
+	private int _StartIndex;
+	private int _EndIndex;
+	// Whether the animation goes forward.
+	private boolean _IsForward;
+	// The time the frame index was last computed at and the index itself.
+	private double _Time;
+	private int _FrameIndex;
+
+	/**
+	 * Constructor for an animation clock.
+	 * 
+	 * @param timePerFrame
+	 *            The time in seconds every frame is shown.
+	 * @param start
+	 *            The index of the first frame played.
+	 * @param end
+	 *            The index of the last frame played.
+	 * @param forward
+	 *            Whether the animation goes forward.
+	 */
+	private AnimationClock(float timePerFrame, int start, int end, boolean forward)
+	{
+		_TimePerFrame = timePerFrame;
+		_StartIndex = start;
+		_EndIndex = end;
+		_IsForward = forward;
+		_Time = Double.NaN;
+		_FrameIndex = forward ? start : end;
+	}
+
+	/**
+	 * Get the clock of an animation, creating it if no sprite plays the same animation yet.
+	 * 
+	 * @param frames
+	 *            The frames of the animation.
+	 * @param timePerFrame
+	 *            The time in seconds every frame is shown.
+	 * @param start
+	 *            The index of the first frame played.
+	 * @param end
+	 *            The index of the last frame played.
+	 * @param forward
+	 *            Whether the animation goes forward.
+	 * @return The animation clock.
+	 */
+	public static synchronized AnimationClock getClock(List<Frame> frames, float timePerFrame, int start, int end, boolean forward)
+	{
+		// If a clock already plays the animation, use it.
+		String key = getKey(frames, timePerFrame, start, end, forward);
+		AnimationClock clock = _Clocks.get(key);
+		if (clock != null) { return clock; }
+
+		// Otherwise create it.
+		clock = new AnimationClock(timePerFrame, start, end, forward);
+		_Clocks.put(key, clock);
+
+		return clock;
+	}
+
+	/**
+	 * Get the key of an animation. Frames are told apart by the path of their image, or by the frame itself if it has none.
+	 * 
+	 * @param frames
+	 *            The frames of the animation.
+	 * @param timePerFrame
+	 *            The time in seconds every frame is shown.
+	 * @param start
+	 *            The index of the first frame played.
+	 * @param end
+	 *            The index of the last frame played.
+	 * @param forward
+	 *            Whether the animation goes forward.
+	 * @return The key.
+	 */
+	private static String getKey(List<Frame> frames, float timePerFrame, int start, int end, boolean forward)
+	{
+		StringBuilder key = new StringBuilder();
+		key.append(timePerFrame).append(':').append(start).append(':').append(end).append(':').append(forward);
+		for (Frame frame : frames)
+		{
+			key.append('|');
+			if (frame.getPathName() == null || frame.getPathName().isEmpty())
+			{
+				key.append('#').append(System.identityHashCode(frame));
+			}
+			else
+			{
+				key.append(frame.getPathName());
+			}
+		}
+
+		return key.toString();
+	}
+
+	/**
+	 * Get the index of the frame showing at a given time. It is only worked out once for every time asked for.
+	 * 
+	 * @param time
+	 *            The total time of the game in seconds.
+	 * @return The frame index.
+	 */
+	public synchronized int getFrameIndex(double time)
+	{
+		// If the time has not changed, neither has the frame.
+		if (time == _Time) { return _FrameIndex; }
+		_Time = time;
+
+		// The number of frames shown since the start of the game, wrapped around the range.
+		int count = _EndIndex - _StartIndex + 1;
+		int step = (_TimePerFrame > 0 && count > 1) ? (int) ((long) (time / _TimePerFrame) % count) : 0;
+		_FrameIndex = _IsForward ? _StartIndex + step : _EndIndex - step;
+
+		return _FrameIndex;
+	}
+
+	/**
+	 * Get the number of clocks kept around.
+	 * 
+	 * @return The clock count.
+	 */
+	public static synchronized int getClockCount()
+	{
+		return _Clocks.size();
+	}
+}
\ No newline at end of file
@@ -2,14 +2,23 @@ package graphics;
 
 import java.awt.Composite;
 import java.awt.CompositeContext;
+import java.awt.Graphics2D;
 import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
 import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
 import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
 import java.awt.image.WritableRaster;
 import java.util.Arrays;
 
+import debug.MetricsRegistry;
 import main.Entity;
+import physics.DepthMap;
 
+import auxillary.Helper;
 import auxillary.Vector2;
 
 /**
@@ -22,11 +31,51 @@ public class DepthComposite implements Composite, CompositeContext
 	protected final static byte B_BAND = 2;
 	protected final static byte A_BAND = 3;
 
-	protected double[] clearBuffer;
-	protected double[] buffer;
+	// The depth a cleared pixel has.
+	public final static float ClearDepth = Float.MIN_VALUE;
+
+	// The depth of every pixel, only valid where the pixel's stamp matches the current frame.
+	protected float[] _Depths;
+	// The frame each pixel's depth was written in. Pixels stamped with another frame count as cleared. Along with the depths, the z-buffer takes 5 bytes per pixel.
+	protected byte[] _Stamps;
+	// The current frame, never 0 so that fresh stamps count as cleared.
+	protected byte _Frame;
 	protected int _Width;
 	protected int _Height;
 	protected Entity _Entity;
+	// The depth map of the current entity's shape and the depth of the shape's position, which the map is relative to.
+	protected DepthMap _DepthMap;
+	protected double _Base;
+	// The transform from the screen to the currently drawn image's local coordinates, if known, and the other way around.
+	protected AffineTransform _SourceTransform;
+	protected AffineTransform _ImageTransform;
+	// Whether the source transform is a whole pixel translation, in which case the offsets below are used instead.
+	protected boolean _IsSourceTranslation;
+	protected int _SourceX;
+	protected int _SourceY;
+	// The mip level of the currently drawn image. When drawn as a translation, the offsets above are in the level's coordinates.
+	protected int _Level;
+	// The rows of opaque spans of the currently drawn image, if known, and the image's offset within its untrimmed bounds.
+	protected int[][] _Spans;
+	protected int _SpanOffsetX;
+	protected int _SpanOffsetY;
+	// Whether the colors of the source are premultiplied by their alpha.
+	protected boolean _IsSourcePremultiplied;
+	// The pick id of the entity drawn topmost at every pixel, or -1 where there is none. Only kept if picking is enabled.
+	protected int[] _Ids;
+	// The pick id of the current entity.
+	protected int _EntityId;
+	// Whether the composite is clearing ids rather than drawing.
+	protected boolean _IsClearingIds;
+	// Whether rasters of packed int pixels are composed a row at a time instead of sample by sample.
+	protected boolean _IsPackedKernelEnabled;
+	// The composite's own vector kernel, if the JVM can run it, and whether rows are composed several pixels at a time with it.
+	protected RowKernel _VectorKernel;
+	protected boolean _IsVectorKernelEnabled;
+	private static final boolean IsVectorKernelAvailable = createVectorKernel() != null;
+	// The number of pixels visited this frame, leaving out those skipped as outside of the opaque spans or the z-buffer, which is added to the metric at the end of it.
+	protected long _PixelsComposed;
+	private static final MetricsRegistry.Counter PixelsComposited = MetricsRegistry.getInstance().counter("composite.pixels");
 
 	public DepthComposite(Vector2 size)
 	{
@@ -34,11 +83,38 @@ public class DepthComposite implements Composite, CompositeContext
 		_Width = (int) size.x;
 		_Height = (int) size.y;
 
-		// Set up the buffers.
-		buffer = new double[_Height * _Width];
-		clearBuffer = new double[_Height * _Width];
-		Arrays.fill(clearBuffer, Double.MIN_VALUE);
-		clearBufferBit();
+		// Set up the buffers. All pixels start out cleared.
+		_Depths = new float[_Height * _Width];
+		_Stamps = new byte[_Height * _Width];
+		_Frame = 1;
+
+		// Picking is disabled until asked for.
+		_Ids = null;
+		_EntityId = -1;
+		_IsClearingIds = false;
+		_IsPackedKernelEnabled = true;
+		_VectorKernel = IsVectorKernelAvailable ? createVectorKernel() : null;
+		_IsVectorKernelEnabled = _VectorKernel != null;
+	}
+
+	/**
+	 * Create a vector kernel. It is compiled apart from the rest and needs the Vector API, so it is looked up by name and left out if it cannot be loaded or the CPU does not support it.
+	 * 
+	 * @return The vector kernel, or null if the JVM cannot run it.
+	 */
+	private static RowKernel createVectorKernel()
+	{
+		try
+		{
+			Class<?> type = Class.forName("graphics.VectorRowKernel");
+			if (!(Boolean) type.getMethod("isSupported").invoke(null)) { return null; }
+
+			return (RowKernel) type.getDeclaredConstructor().newInstance();
+		}
+		catch (Throwable e)
+		{
+			return null;
+		}
 	}
 
 	/**
@@ -46,6 +122,8 @@ public class DepthComposite implements Composite, CompositeContext
 	 */
 	public CompositeContext createContext(ColorModel srcColorModel, ColorModel dstColorModel, RenderingHints hints)
 	{
+		// Translucent pixels are blended differently depending on how the source stores them.
+		_IsSourcePremultiplied = srcColorModel.isAlphaPremultiplied();
 		return this;
 	}
 
@@ -54,10 +132,21 @@ public class DepthComposite implements Composite, CompositeContext
 	 */
 	public void compose(Raster src, Raster dstIn, WritableRaster dstOut)
 	{
+		// If the ids are being cleared, nothing is drawn.
+		if (_IsClearingIds)
+		{
+			composeClear(dstIn, dstOut);
+			return;
+		}
+
 		if (_Entity == null) { throw new IllegalArgumentException("You must set an entity before drawing anything with this composite."); }
 
 		try
 		{
+			// The depth of the entity's shape and the depth map of the drawn level, which is relative to it.
+			DepthMap map = _DepthMap.getLevel(_Level);
+			double base = _Base;
+
 			// Get the max bounds of the writable raster.
 			int maxX = dstOut.getMinX() + dstOut.getWidth();
 			int maxY = dstOut.getMinY() + dstOut.getHeight();
@@ -65,41 +154,82 @@ public class DepthComposite implements Composite, CompositeContext
 			// Translate coordinates from the raster's space to the SampleModel's space.
 			int dstInX = -dstIn.getSampleModelTranslateX();
 			int dstInY = -dstIn.getSampleModelTranslateY();
+			// The same for the source raster, which gives the coordinates in the entity's image even when only a part of it is drawn.
+			int srcX = -src.getSampleModelTranslateX();
+			int srcY = -src.getSampleModelTranslateY();
+
+			// If the image's position on screen is known, use it to find the local coordinates instead. This works for atlas pages and scaled images too.
+			if (_IsSourceTranslation)
+			{
+				srcX = dstInX - _SourceX;
+				srcY = dstInY - _SourceY;
+			}
 
 			// Whether the source raster supports a 4th color band, ie. alpha.
 			boolean supportsAlpha = src.getNumBands() >= 4;
 
-			// For each pixel in the writable raster.
-			for (int y = dstOut.getMinY(); y < maxY; y++)
+			// Pixels that are not drawn keep their destination color. If the destination is not written to in place, copy it over first.
+			if (dstIn != dstOut)
 			{
-				for (int x = dstOut.getMinX(); x < maxX; x++)
-				{
-					// Get the depth (z) for both the destination and source rasters.
-					double dstZ = getZ(dstInX + x, dstInY + y);
-					double srcZ = _Entity.getDepthSort(x, y);
+				dstOut.setRect(dstOut.getMinX() - dstIn.getMinX(), dstOut.getMinY() - dstIn.getMinY(), dstIn);
+			}
+
+			// If both rasters hold packed int pixels and the image is drawn unscaled, compose whole rows on the packed pixels.
+			if (_IsPackedKernelEnabled && _IsSourceTranslation && isPacked(src) && isPacked(dstOut))
+			{
+				composePacked(src, dstOut, map, base, dstInX, dstInY, srcX, srcY, supportsAlpha);
+				return;
+			}
 
-					// Get the pixel's alpha value.
-					int alpha = supportsAlpha ? src.getSample(x, y, A_BAND) : 1;
+			// If the image's opaque spans are known and it is drawn unscaled, only visit those.
+			if (_Spans != null && _IsSourceTranslation)
+			{
+				// The offset from the writable raster to the stored, trimmed image.
+				int spanX = srcX - _SpanOffsetX;
+				int spanY = srcY - _SpanOffsetY;
 
-					// If to overwrite or keep the source raster's data.
-					if (srcZ > dstZ && alpha > 0)
+				// For each row in the writable raster.
+				for (int y = dstOut.getMinY(); y < maxY; y++)
+				{
+					// Skip rows outside of the image.
+					int row = spanY + y;
+					if (row < 0 || row >= _Spans.length)
 					{
-						setZ(dstInX + x, dstInY + y, srcZ);
-						dstOut.setSample(x, y, R_BAND, src.getSample(x, y, R_BAND)); // R
-						dstOut.setSample(x, y, G_BAND, src.getSample(x, y, G_BAND)); // G
-						dstOut.setSample(x, y, B_BAND, src.getSample(x, y, B_BAND)); // B
+						continue;
 					}
-					else if (srcZ == dstZ && alpha > 0)
+
+					// For each opaque span on the row, clipped to the raster.
+					int[] spans = _Spans[row];
+					for (int i = 0; i < spans.length; i += 2)
 					{
-						dstOut.setSample(x, y, R_BAND, src.getSample(x, y, R_BAND)); // R
-						dstOut.setSample(x, y, G_BAND, src.getSample(x, y, G_BAND)); // G
-						dstOut.setSample(x, y, B_BAND, src.getSample(x, y, B_BAND)); // B
+						int start = Math.max(spans[i] - spanX, dstOut.getMinX());
+						int end = Math.min(spans[i + 1] - spanX, maxX);
+						_PixelsComposed += Math.max(end - start, 0);
+						for (int x = start; x < end; x++)
+						{
+							composePixel(src, dstOut, x, y, dstInX + x, dstInY + y, base + map.get(srcX + x, srcY + y), supportsAlpha ? src.getSample(x, y, A_BAND) : 255);
+						}
 					}
-					else
+				}
+			}
+			else
+			{
+				// For each pixel in the writable raster.
+				_PixelsComposed += (long) dstOut.getWidth() * dstOut.getHeight();
+				for (int y = dstOut.getMinY(); y < maxY; y++)
+				{
+					for (int x = dstOut.getMinX(); x < maxX; x++)
 					{
-						dstOut.setSample(x, y, R_BAND, dstIn.getSample(x, y, R_BAND)); // R
-						dstOut.setSample(x, y, G_BAND, dstIn.getSample(x, y, G_BAND)); // G
-						dstOut.setSample(x, y, B_BAND, dstIn.getSample(x, y, B_BAND)); // B
+						// Skip transparent pixels.
+						int alpha = supportsAlpha ? src.getSample(x, y, A_BAND) : 255;
+						if (alpha == 0)
+						{
+							continue;
+						}
+
+						// Get the depth of the source pixel and draw it.
+						double srcZ = (_SourceTransform == null || _IsSourceTranslation) ? base + map.get(srcX + x, srcY + y) : getTransformedDepthSort(dstInX + x, dstInY + y);
+						composePixel(src, dstOut, x, y, dstInX + x, dstInY + y, srcZ, alpha);
 					}
 				}
 			}
@@ -110,6 +240,408 @@ public class DepthComposite implements Composite, CompositeContext
 		}
 	}
 
+	/**
+	 * Compose rasters of packed int pixels, one row or opaque span at a time. The pixels are read and written straight from the data buffers and the depth of every source pixel is looked up in the
+	 * shape's depth map, which makes for a tight loop without a single sample lookup. Only used for images drawn unscaled.
+	 * 
+	 * @param src
+	 *            The source raster.
+	 * @param dstOut
+	 *            The writable raster.
+	 * @param map
+	 *            The depth map of the drawn level of the entity's shape.
+	 * @param base
+	 *            The depth the depth map is relative to.
+	 * @param dstInX
+	 *            The x-coordinate of the rasters on screen.
+	 * @param dstInY
+	 *            The y-coordinate of the rasters on screen.
+	 * @param srcX
+	 *            The x-coordinate of the rasters in the image's local coordinates.
+	 * @param srcY
+	 *            The y-coordinate of the rasters in the image's local coordinates.
+	 * @param supportsAlpha
+	 *            Whether the source pixels have alpha.
+	 */
+	private void composePacked(Raster src, WritableRaster dstOut, DepthMap map, double base, int dstInX, int dstInY, int srcX, int srcY, boolean supportsAlpha)
+	{
+		// The bounds of the writable raster and the part of it that lies within the z-buffer.
+		int minX = dstOut.getMinX();
+		int maxX = minX + dstOut.getWidth();
+		int maxY = dstOut.getMinY() + dstOut.getHeight();
+		int fromX = Math.max(minX, -dstInX);
+		int toX = Math.min(maxX, _Width - dstInX);
+		int fromY = Math.max(dstOut.getMinY(), -dstInY);
+		int toY = Math.min(maxY, _Height - dstInY);
+
+		// The data buffers and the layout of their pixels.
+		DataBufferInt srcData = (DataBufferInt) src.getDataBuffer();
+		DataBufferInt dstData = (DataBufferInt) dstOut.getDataBuffer();
+		SinglePixelPackedSampleModel srcModel = (SinglePixelPackedSampleModel) src.getSampleModel();
+		SinglePixelPackedSampleModel dstModel = (SinglePixelPackedSampleModel) dstOut.getSampleModel();
+
+		// For each row in the writable raster that lies within the z-buffer.
+		for (int y = fromY; y < toY; y++)
+		{
+			// The index of the row's first pixel in the buffers.
+			int srcRow = srcModel.getOffset(minX - src.getSampleModelTranslateX(), y - src.getSampleModelTranslateY()) - minX;
+			int dstRow = dstModel.getOffset(minX - dstOut.getSampleModelTranslateX(), y - dstOut.getSampleModelTranslateY()) - minX;
+			int screenRow = (dstInY + y) * _Width + dstInX;
+
+			// Without spans the whole row is composed.
+			if (_Spans == null)
+			{
+				composeRow(srcData, dstData, map, base, srcRow, dstRow, screenRow, fromX, toX, srcX, srcY + y, supportsAlpha);
+				continue;
+			}
+
+			// Otherwise only the opaque spans on the row, clipped to the raster and the z-buffer.
+			int row = srcY - _SpanOffsetY + y;
+			if (row < 0 || row >= _Spans.length)
+			{
+				continue;
+			}
+			int[] spans = _Spans[row];
+			for (int i = 0; i < spans.length; i += 2)
+			{
+				int from = Math.max(spans[i] - srcX + _SpanOffsetX, fromX);
+				int to = Math.min(spans[i + 1] - srcX + _SpanOffsetX, toX);
+				composeRow(srcData, dstData, map, base, srcRow, dstRow, screenRow, from, to, srcX, srcY + y, supportsAlpha);
+			}
+		}
+	}
+
+	/**
+	 * Compose a run of packed int pixels on a row. If the vector kernel is enabled, it composes the parts of the run within and outside the depth map as far as it can, and the rest is composed
+	 * pixel by pixel.
+	 * 
+	 * @param srcData
+	 *            The source data buffer.
+	 * @param dstData
+	 *            The destination data buffer.
+	 * @param map
+	 *            The depth map of the entity's shape.
+	 * @param base
+	 *            The depth the depth map is relative to.
+	 * @param srcRow
+	 *            The index in the source buffer of the row's pixel at x-coordinate 0.
+	 * @param dstRow
+	 *            The index in the destination buffer of the row's pixel at x-coordinate 0.
+	 * @param screenRow
+	 *            The index in the z-buffer of the row's pixel at x-coordinate 0.
+	 * @param from
+	 *            The x-coordinate in the rasters to start at.
+	 * @param to
+	 *            The x-coordinate in the rasters to stop before.
+	 * @param localX
+	 *            The x-coordinate of the rasters in the image's local coordinates.
+	 * @param localY
+	 *            The y-coordinate of the row in the image's local coordinates.
+	 * @param supportsAlpha
+	 *            Whether the source pixels have alpha.
+	 */
+	private void composeRow(DataBufferInt srcData, DataBufferInt dstData, DepthMap map, double base, int srcRow, int dstRow, int screenRow, int from, int to, int localX, int localY,
+			boolean supportsAlpha)
+	{
+		// Count the pixels visited.
+		_PixelsComposed += Math.max(to - from, 0);
+
+		// If there is no vector kernel to use, compose pixel by pixel.
+		if (!_IsVectorKernelEnabled || _VectorKernel == null)
+		{
+			composePixels(srcData, dstData, map, base, srcRow, dstRow, screenRow, from, to, localX, localY, supportsAlpha);
+			return;
+		}
+
+		// Split the run where it enters and leaves the depth map. If the row is outside of the map, so is the whole run.
+		boolean isRowMapped = localY >= 0 && localY < map.getHeight();
+		int inside = isRowMapped ? Helper.clamp(-localX, from, to) : to;
+		int outside = isRowMapped ? Helper.clamp(map.getWidth() - localX, inside, to) : to;
+
+		// Compose the parts.
+		composeVector(srcData, dstData, map, base, srcRow, dstRow, screenRow, from, inside, localX, localY, supportsAlpha, false);
+		composeVector(srcData, dstData, map, base, srcRow, dstRow, screenRow, inside, outside, localX, localY, supportsAlpha, true);
+		composeVector(srcData, dstData, map, base, srcRow, dstRow, screenRow, outside, to, localX, localY, supportsAlpha, false);
+	}
+
+	/**
+	 * Compose a run of packed int pixels on a row with the vector kernel, which reads and writes the buffers' arrays directly, and finish what it leaves pixel by pixel. The run must lie either
+	 * entirely within the depth map or entirely outside of it.
+	 * 
+	 * @param srcData
+	 *            The source data buffer.
+	 * @param dstData
+	 *            The destination data buffer.
+	 * @param map
+	 *            The depth map of the entity's shape.
+	 * @param base
+	 *            The depth the depth map is relative to.
+	 * @param srcRow
+	 *            The index in the source buffer of the row's pixel at x-coordinate 0.
+	 * @param dstRow
+	 *            The index in the destination buffer of the row's pixel at x-coordinate 0.
+	 * @param screenRow
+	 *            The index in the z-buffer of the row's pixel at x-coordinate 0.
+	 * @param from
+	 *            The x-coordinate in the rasters to start at.
+	 * @param to
+	 *            The x-coordinate in the rasters to stop before.
+	 * @param localX
+	 *            The x-coordinate of the rasters in the image's local coordinates.
+	 * @param localY
+	 *            The y-coordinate of the row in the image's local coordinates.
+	 * @param supportsAlpha
+	 *            Whether the source pixels have alpha.
+	 * @param isMapped
+	 *            Whether the run lies within the depth map.
+	 */
+	private void composeVector(DataBufferInt srcData, DataBufferInt dstData, DepthMap map, double base, int srcRow, int dstRow, int screenRow, int from, int to, int localX, int localY,
+			boolean supportsAlpha, boolean isMapped)
+	{
+		// If the run is empty, stop here.
+		if (from >= to) { return; }
+
+		// Let the kernel compose what it can, where the elements of the data buffers are offset within their arrays.
+		float[] values = isMapped ? map.getValues() : null;
+		int valueIndex = isMapped ? localY * map.getWidth() + localX + from : 0;
+		int done = _VectorKernel.compose(this, srcData.getData(), srcData.getOffset() + srcRow + from, dstData.getData(), dstData.getOffset() + dstRow + from, screenRow + from, values, valueIndex,
+				base, to - from, supportsAlpha);
+
+		// Compose the rest pixel by pixel.
+		composePixels(srcData, dstData, map, base, srcRow, dstRow, screenRow, from + done, to, localX, localY, supportsAlpha);
+	}
+
+	/**
+	 * Compose a run of packed int pixels on a row, one pixel at a time.
+	 * 
+	 * @param srcData
+	 *            The source data buffer.
+	 * @param dstData
+	 *            The destination data buffer.
+	 * @param map
+	 *            The depth map of the entity's shape.
+	 * @param base
+	 *            The depth the depth map is relative to.
+	 * @param srcRow
+	 *            The index in the source buffer of the row's pixel at x-coordinate 0.
+	 * @param dstRow
+	 *            The index in the destination buffer of the row's pixel at x-coordinate 0.
+	 * @param screenRow
+	 *            The index in the z-buffer of the row's pixel at x-coordinate 0.
+	 * @param from
+	 *            The x-coordinate in the rasters to start at.
+	 * @param to
+	 *            The x-coordinate in the rasters to stop before.
+	 * @param localX
+	 *            The x-coordinate of the rasters in the image's local coordinates.
+	 * @param localY
+	 *            The y-coordinate of the row in the image's local coordinates.
+	 * @param supportsAlpha
+	 *            Whether the source pixels have alpha.
+	 */
+	private void composePixels(DataBufferInt srcData, DataBufferInt dstData, DepthMap map, double base, int srcRow, int dstRow, int screenRow, int from, int to, int localX, int localY,
+			boolean supportsAlpha)
+	{
+		// The id buffer, read once as picking may be toggled meanwhile.
+		int[] ids = _Ids;
+
+		for (int x = from; x < to; x++)
+		{
+			// Skip transparent pixels.
+			int s = srcData.getElem(srcRow + x);
+			int alpha = supportsAlpha ? s >>> 24 : 255;
+			if (alpha == 0)
+			{
+				continue;
+			}
+
+			// If the source pixel is hidden, keep the destination's data.
+			int i = screenRow + x;
+			float z = (float) (base + map.get(localX + x, localY));
+			float dstZ = (_Stamps[i] == _Frame) ? _Depths[i] : ClearDepth;
+			if (z < dstZ)
+			{
+				continue;
+			}
+
+			// If the source pixel is in front, it is the new front.
+			if (z > dstZ)
+			{
+				_Depths[i] = z;
+				_Stamps[i] = _Frame;
+			}
+
+			// The entity can now be picked at this pixel.
+			if (ids != null)
+			{
+				ids[i] = _EntityId;
+			}
+
+			// Overwrite or blend the destination's color, keeping whatever it has in the alpha byte.
+			int d = dstData.getElem(dstRow + x);
+			if (alpha < 255)
+			{
+				s = blend(s, d, alpha);
+			}
+			dstData.setElem(dstRow + x, (d & 0xFF000000) | (s & 0xFFFFFF));
+		}
+	}
+
+	/**
+	 * Blend a translucent packed source pixel with a packed destination pixel.
+	 * 
+	 * @param s
+	 *            The source pixel.
+	 * @param d
+	 *            The destination pixel.
+	 * @param alpha
+	 *            The alpha of the source pixel, between 0 and 255.
+	 * @return The blended pixel, without alpha.
+	 */
+	private int blend(int s, int d, int alpha)
+	{
+		int color = 0;
+		for (int shift = 0; shift <= 16; shift += 8)
+		{
+			int sc = (s >> shift) & 0xFF;
+			int dc = (d >> shift) & 0xFF;
+			int c = _IsSourcePremultiplied ? sc + dc * (255 - alpha) / 255 : (sc * alpha + dc * (255 - alpha)) / 255;
+			color |= Math.min(c, 255) << shift;
+		}
+
+		return color;
+	}
+
+	/**
+	 * Whether a raster holds pixels packed into ints in the usual order, ie. (alpha,) red, green and blue from the highest byte to the lowest.
+	 * 
+	 * @param raster
+	 *            The raster.
+	 * @return Whether the packed kernel can be used on the raster.
+	 */
+	private static boolean isPacked(Raster raster)
+	{
+		// The pixels must be packed into ints.
+		if (!(raster.getSampleModel() instanceof SinglePixelPackedSampleModel) || !(raster.getDataBuffer() instanceof DataBufferInt)) { return false; }
+
+		// The colors must come in the usual order.
+		int[] masks = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getBitMasks();
+		return (masks.length == 3 || (masks.length == 4 && masks[3] == 0xFF000000)) && masks[0] == 0xFF0000 && masks[1] == 0xFF00 && masks[2] == 0xFF;
+	}
+
+	/**
+	 * Draw a non-transparent source pixel if it is not hidden behind what already has been drawn there. Translucent pixels are blended with the destination.
+	 * 
+	 * @param src
+	 *            The source raster.
+	 * @param dstOut
+	 *            The writable raster.
+	 * @param x
+	 *            The x-coordinate in the rasters.
+	 * @param y
+	 *            The y-coordinate in the rasters.
+	 * @param screenX
+	 *            The x-coordinate on screen.
+	 * @param screenY
+	 *            The y-coordinate on screen.
+	 * @param srcZ
+	 *            The depth of the source pixel.
+	 * @param alpha
+	 *            The alpha of the source pixel, between 0 and 255.
+	 */
+	private void composePixel(Raster src, WritableRaster dstOut, int x, int y, int screenX, int screenY, double srcZ, int alpha)
+	{
+		// Get the depth (z) of the destination and the source at the buffer's precision.
+		int i = screenY * _Width + screenX;
+		float dstZ = (_Stamps[i] == _Frame) ? _Depths[i] : ClearDepth;
+		float z = (float) srcZ;
+
+		// If the source pixel is hidden, keep the destination's data.
+		if (z < dstZ) { return; }
+
+		// If the source pixel is in front, it is the new front.
+		if (z > dstZ)
+		{
+			_Depths[i] = z;
+			_Stamps[i] = _Frame;
+		}
+
+		// The entity can now be picked at this pixel.
+		if (_Ids != null)
+		{
+			_Ids[i] = _EntityId;
+		}
+
+		// If the source pixel is opaque, overwrite the destination's data.
+		if (alpha >= 255)
+		{
+			dstOut.setSample(x, y, R_BAND, src.getSample(x, y, R_BAND)); // R
+			dstOut.setSample(x, y, G_BAND, src.getSample(x, y, G_BAND)); // G
+			dstOut.setSample(x, y, B_BAND, src.getSample(x, y, B_BAND)); // B
+			return;
+		}
+
+		// Otherwise blend it with the destination's data.
+		for (int band = R_BAND; band <= B_BAND; band++)
+		{
+			int s = src.getSample(x, y, band);
+			int d = dstOut.getSample(x, y, band);
+			dstOut.setSample(x, y, band, _IsSourcePremultiplied ? s + d * (255 - alpha) / 255 : (s * alpha + d * (255 - alpha)) / 255);
+		}
+	}
+
+	/**
+	 * Clear the ids of the pixels in the writable raster, leaving their colors as they are.
+	 * 
+	 * @param dstIn
+	 *            The destination raster.
+	 * @param dstOut
+	 *            The writable raster.
+	 */
+	private void composeClear(Raster dstIn, WritableRaster dstOut)
+	{
+		// Keep the destination's colors.
+		if (dstIn != dstOut)
+		{
+			dstOut.setRect(dstOut.getMinX() - dstIn.getMinX(), dstOut.getMinY() - dstIn.getMinY(), dstIn);
+		}
+
+		// The position of the raster on screen.
+		int x = -dstIn.getSampleModelTranslateX() + dstOut.getMinX();
+		int y = -dstIn.getSampleModelTranslateY() + dstOut.getMinY();
+
+		// Clear the ids row by row, staying within the buffer.
+		int minX = Math.max(x, 0);
+		int maxX = Math.min(x + dstOut.getWidth(), _Width);
+		for (int row = Math.max(y, 0); row < Math.min(y + dstOut.getHeight(), _Height); row++)
+		{
+			if (minX < maxX)
+			{
+				Arrays.fill(_Ids, row * _Width + minX, row * _Width + maxX, -1);
+			}
+		}
+	}
+
+	/**
+	 * Get the depth sorting value for a screen pixel by transforming it into the local coordinates of the current image.
+	 * 
+	 * @param x
+	 *            The x-coordinate on screen.
+	 * @param y
+	 *            The y-coordinate on screen.
+	 * @return The depth sorting value.
+	 */
+	private double getTransformedDepthSort(int x, int y)
+	{
+		// Transform the pixel's center.
+		double px = x + .5;
+		double py = y + .5;
+		double lx = _SourceTransform.getScaleX() * px + _SourceTransform.getShearX() * py + _SourceTransform.getTranslateX();
+		double ly = _SourceTransform.getShearY() * px + _SourceTransform.getScaleY() * py + _SourceTransform.getTranslateY();
+
+		return _Base + _DepthMap.get((int) Math.floor(lx), (int) Math.floor(ly));
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -124,14 +656,47 @@ public class DepthComposite implements Composite, CompositeContext
 	{
 		// Clear the z-buffer.
 		clearBufferBit();
+
+		// Publish the number of pixels composed.
+		PixelsComposited.add(_PixelsComposed);
+		_PixelsComposed = 0;
 	}
 
 	/**
-	 * Clear ZBuffer (fill buffer with Float.MAX_VALUE).
+	 * Clear the z-buffer. Moving on to the next frame leaves every pixel stamped with an old frame, which clears them all at once. Only when the frame counter wraps around do the stamps have to be
+	 * reset.
 	 */
 	public void clearBufferBit()
 	{
-		System.arraycopy(clearBuffer, 0, buffer, 0, buffer.length);
+		// Move on to the next frame.
+		_Frame++;
+
+		// If the counter has wrapped around, old stamps could match again, so reset them.
+		if (_Frame == 0)
+		{
+			Arrays.fill(_Stamps, (byte) 0);
+			_Frame = 1;
+		}
+	}
+
+	/**
+	 * Get the width of the buffers.
+	 * 
+	 * @return The width in pixels.
+	 */
+	public int getWidth()
+	{
+		return _Width;
+	}
+
+	/**
+	 * Get the height of the buffers.
+	 * 
+	 * @return The height in pixels.
+	 */
+	public int getHeight()
+	{
+		return _Height;
 	}
 
 	/**
@@ -151,8 +716,314 @@ public class DepthComposite implements Composite, CompositeContext
 	 *            The next entity to process.
 	 */
 	public void setEntity(Entity entity)
+	{
+		// Go by the entity's shape as it is now.
+		if (entity == null)
+		{
+			setEntity(null, null, 0, -1);
+			return;
+		}
+		setEntity(entity, entity.getBody().getShape().getDepthMap(), entity.getBody().getShape().getPosition().y + entity.getBody().getShape().getPosition().z, entity.getPickId());
+	}
+
+	/**
+	 * Set the next entity to process, along with the depth of its shape as it was when captured, so that the entity may have moved on since.
+	 * 
+	 * @param entity
+	 *            The next entity to process.
+	 * @param map
+	 *            The depth map of the entity's shape.
+	 * @param base
+	 *            The depth of the shape's position, ie. its y- plus z-coordinate.
+	 * @param id
+	 *            The id the entity is picked by, or -1 if it cannot be picked.
+	 */
+	public void setEntity(Entity entity, DepthMap map, double base, int id)
 	{
 		_Entity = entity;
+		_DepthMap = map;
+		_Base = base;
+		_SourceTransform = null;
+		_ImageTransform = null;
+		_IsSourceTranslation = false;
+		_Level = 0;
+		_Spans = null;
+		_EntityId = id;
+	}
+
+	/**
+	 * Whether rasters of packed int pixels are composed a row at a time. If not, or if the rasters are laid out differently, every sample is read and written on its own.
+	 * 
+	 * @return Whether the packed kernel is enabled.
+	 */
+	public boolean getEnablePackedKernel()
+	{
+		return _IsPackedKernelEnabled;
+	}
+
+	/**
+	 * Set whether rasters of packed int pixels are composed a row at a time. Both ways draw the same pixels, so this is mostly useful for comparing them.
+	 * 
+	 * @param enable
+	 *            Whether to enable the packed kernel.
+	 */
+	public void setEnablePackedKernel(boolean enable)
+	{
+		_IsPackedKernelEnabled = enable;
+	}
+
+	/**
+	 * Whether the vector kernel could be loaded, ie. whether the JVM has the Vector API and the CPU the vectors it needs.
+	 * 
+	 * @return Whether the vector kernel is available.
+	 */
+	public static boolean isVectorKernelAvailable()
+	{
+		return IsVectorKernelAvailable;
+	}
+
+	/**
+	 * Whether the packed kernel composes rows several pixels at a time with the vector kernel.
+	 * 
+	 * @return Whether the vector kernel is enabled.
+	 */
+	public boolean getEnableVectorKernel()
+	{
+		return _IsVectorKernelEnabled;
+	}
+
+	/**
+	 * Set whether the packed kernel composes rows several pixels at a time with the vector kernel, if it is available. It reads and writes the images' pixel arrays directly, which keeps Java 2D from
+	 * caching them in video memory. Like the packed kernel, it draws the same pixels either way.
+	 * 
+	 * @param enable
+	 *            Whether to enable the vector kernel.
+	 */
+	public void setEnableVectorKernel(boolean enable)
+	{
+		_IsVectorKernelEnabled = enable;
+	}
+
+	/**
+	 * Whether the composite keeps track of which entity is drawn at every pixel.
+	 * 
+	 * @return Whether picking is enabled.
+	 */
+	public boolean getEnablePicking()
+	{
+		return _Ids != null;
+	}
+
+	/**
+	 * Set whether the composite keeps track of which entity is drawn at every pixel. Until everything has been drawn once, no entity can be found.
+	 * 
+	 * @param enable
+	 *            Whether to enable picking.
+	 */
+	public void setEnablePicking(boolean enable)
+	{
+		// If nothing changes, stop here.
+		if (enable == (_Ids != null)) { return; }
+
+		// Create or drop the id buffer.
+		_Ids = enable ? new int[_Width * _Height] : null;
+		if (_Ids != null)
+		{
+			Arrays.fill(_Ids, -1);
+		}
+	}
+
+	/**
+	 * Clear the ids of an area before it is drawn again, so that only what is drawn there from now on can be picked. Only the pixels the graphics component actually draws to are cleared, ie. those
+	 * within both the area and the clip.
+	 * 
+	 * @param graphics
+	 *            The graphics component that will draw the area.
+	 * @param area
+	 *            The area to clear.
+	 */
+	public void clearIds(Graphics2D graphics, Shape area)
+	{
+		// If picking is disabled, there is nothing to clear.
+		if (_Ids == null) { return; }
+
+		// Let the composite clear every pixel the area covers.
+		Composite old = graphics.getComposite();
+		graphics.setComposite(this);
+		_IsClearingIds = true;
+		graphics.fill(area);
+		_IsClearingIds = false;
+		graphics.setComposite(old);
+	}
+
+	/**
+	 * Move the ids along with the contents of the screen. The uncovered pixels have no ids until drawn again.
+	 * 
+	 * @param dx
+	 *            The amount of movement on the x-axis.
+	 * @param dy
+	 *            The amount of movement on the y-axis.
+	 */
+	public void scrollIds(int dx, int dy)
+	{
+		// If picking is disabled or nothing moves, stop here.
+		if (_Ids == null || (dx == 0 && dy == 0)) { return; }
+
+		// If everything moves off screen, just clear it all.
+		if (Math.abs(dx) >= _Width || Math.abs(dy) >= _Height)
+		{
+			Arrays.fill(_Ids, -1);
+			return;
+		}
+
+		// Move the rows, starting with the one moving into the furthest uncovered row so that no row is overwritten before it has been moved.
+		int width = _Width - Math.abs(dx);
+		for (int i = 0; i < _Height; i++)
+		{
+			int row = (dy > 0) ? _Height - 1 - i : i;
+			int from = row - dy;
+			if (from < 0 || from >= _Height)
+			{
+				Arrays.fill(_Ids, row * _Width, (row + 1) * _Width, -1);
+				continue;
+			}
+
+			System.arraycopy(_Ids, from * _Width + Math.max(-dx, 0), _Ids, row * _Width + Math.max(dx, 0), width);
+			Arrays.fill(_Ids, row * _Width + ((dx > 0) ? 0 : width), row * _Width + ((dx > 0) ? dx : _Width), -1);
+		}
+	}
+
+	/**
+	 * Take over the ids of another composite, such as the one a render thread draws with, so that what it drew can be picked with this one. If the other composite has another size or keeps no ids,
+	 * nothing can be picked until the ids are taken over again.
+	 * 
+	 * @param composite
+	 *            The composite to copy the ids of.
+	 */
+	public void copyIds(DepthComposite composite)
+	{
+		// If picking is disabled, there is nothing to copy to.
+		if (_Ids == null) { return; }
+
+		// Copy the ids if they cover the same pixels, otherwise forget them.
+		if (composite._Ids != null && composite._Width == _Width && composite._Height == _Height)
+		{
+			System.arraycopy(composite._Ids, 0, _Ids, 0, _Ids.length);
+		}
+		else
+		{
+			Arrays.fill(_Ids, -1);
+		}
+	}
+
+	/**
+	 * Get the pick id of the entity drawn topmost at a pixel. The scene the entity is part of knows which entity the id belongs to.
+	 * 
+	 * @param x
+	 *            The x-coordinate on screen.
+	 * @param y
+	 *            The y-coordinate on screen.
+	 * @return The pick id or -1 if there is none or picking is disabled.
+	 */
+	public int getIdAt(int x, int y)
+	{
+		// If picking is disabled or the pixel is outside of the buffer, there is nothing there.
+		if (_Ids == null || x < 0 || y < 0 || x >= _Width || y >= _Height) { return -1; }
+
+		return _Ids[y * _Width + x];
+	}
+
+	/**
+	 * Tell the composite where the next image will be drawn, so that it can map screen pixels back to the image. Without this the composite assumes that the whole image is drawn unscaled.
+	 * 
+	 * @param transform
+	 *            The graphics transform used when drawing.
+	 * @param x
+	 *            The x-coordinate the image is drawn at.
+	 * @param y
+	 *            The y-coordinate the image is drawn at.
+	 */
+	public void setSourceTransform(AffineTransform transform, int x, int y)
+	{
+		// Forget the spans and level of the last image.
+		_Spans = null;
+		_Level = 0;
+
+		try
+		{
+			// The transform from the image to the screen, inverted.
+			_ImageTransform = new AffineTransform(transform);
+			_ImageTransform.translate(x, y);
+			_SourceTransform = _ImageTransform.createInverse();
+		}
+		catch (NoninvertibleTransformException e)
+		{
+			_SourceTransform = null;
+			_ImageTransform = null;
+			_IsSourceTranslation = false;
+			return;
+		}
+
+		// If the transform is a whole pixel translation, the cheaper offsets can be used.
+		double tx = -_SourceTransform.getTranslateX();
+		double ty = -_SourceTransform.getTranslateY();
+		_IsSourceTranslation = (_SourceTransform.getType() & ~AffineTransform.TYPE_TRANSLATION) == 0 && tx == Math.rint(tx) && ty == Math.rint(ty);
+		_SourceX = (int) tx;
+		_SourceY = (int) ty;
+	}
+
+	/**
+	 * Tell the composite that the next image is a mip level of the image whose transform was given, scaled up by the level's size to cover the same area. If the scaling cancels out the transform's,
+	 * the level is drawn pixel for pixel and the cheaper offsets, spans and the level's depth map are used. Otherwise the composite keeps mapping screen pixels back to the full image. Must be set
+	 * after the source transform.
+	 * 
+	 * @param level
+	 *            The mip level, where every pixel covers 2^level by 2^level pixels of the full image.
+	 * @param spans
+	 *            The opaque spans of the level's image.
+	 * @param offsetX
+	 *            The x-coordinate of the level's image within the level's untrimmed bounds.
+	 * @param offsetY
+	 *            The y-coordinate of the level's image within the level's untrimmed bounds.
+	 */
+	public void setSourceLevel(int level, int[][] spans, int offsetX, int offsetY)
+	{
+		// If the transform is unknown, there is nothing to go by.
+		if (_ImageTransform == null) { return; }
+
+		// The transform from the level to the screen.
+		AffineTransform t = new AffineTransform(_ImageTransform);
+		t.scale(1 << level, 1 << level);
+
+		// If it is close enough to a whole pixel translation, draw the level pixel for pixel.
+		double tx = t.getTranslateX();
+		double ty = t.getTranslateY();
+		if (Math.abs(t.getScaleX() - 1) < 1e-4 && Math.abs(t.getScaleY() - 1) < 1e-4 && Math.abs(t.getShearX()) < 1e-4 && Math.abs(t.getShearY()) < 1e-4 && Math.abs(tx - Math.rint(tx)) < 1e-3
+				&& Math.abs(ty - Math.rint(ty)) < 1e-3)
+		{
+			_IsSourceTranslation = true;
+			_SourceX = (int) Math.rint(tx);
+			_SourceY = (int) Math.rint(ty);
+			_Level = level;
+			setSourceSpans(spans, offsetX, offsetY);
+		}
+	}
+
+	/**
+	 * Tell the composite which spans of the next image are opaque, so that the rest can be skipped. Only used for images drawn unscaled and must be set after the source transform.
+	 * 
+	 * @param spans
+	 *            The opaque spans, as pairs of start and end x-coordinates for every row of the image.
+	 * @param offsetX
+	 *            The x-coordinate of the image within its untrimmed bounds.
+	 * @param offsetY
+	 *            The y-coordinate of the image within its untrimmed bounds.
+	 */
+	public void setSourceSpans(int[][] spans, int offsetX, int offsetY)
+	{
+		_Spans = spans;
+		_SpanOffsetX = offsetX;
+		_SpanOffsetY = offsetY;
 	}
 
 	/**
@@ -169,17 +1040,8 @@ public class DepthComposite implements Composite, CompositeContext
 	{
 		if (x >= _Width || x < 0 || y >= _Height || y < 0) { throw new IllegalArgumentException("Point [" + x + ", " + y + "] is outside of the Z Buffer array"); }
 
-		buffer[y * _Width + x] = value;
-	}
-
-	/**
-	 * Get Z Buffer values in array.
-	 * 
-	 * @return The values in the array.
-	 */
-	public double[] getBuffer()
-	{
-		return buffer;
+		_Depths[y * _Width + x] = (float) value;
+		_Stamps[y * _Width + x] = _Frame;
 	}
 
 	/**
@@ -193,7 +1055,8 @@ public class DepthComposite implements Composite, CompositeContext
 	 */
 	public double getZ(int realX, int realY)
 	{
-		return buffer[realY * _Width + realX];
+		int i = realY * _Width + realX;
+		return (_Stamps[i] == _Frame) ? _Depths[i] : ClearDepth;
 	}
 
 	/**
@@ -1,5 +1,6 @@
 package graphics;
 
+import java.awt.Dimension;
 import java.awt.image.BufferedImage;
 
 import javax.xml.bind.annotation.XmlAccessType;
@@ -7,7 +8,6 @@ import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
 
-import auxillary.Helper;
 import auxillary.Vector2;
 
 /**
@@ -26,6 +26,7 @@ public class Frame
 	@XmlElement(name = "Origin")
 	private Vector2 _Origin;
 	private BufferedImage _Texture;
+	private Texture _Handle;
 
 	/**
 	 * Empty constructor for a frame.
@@ -70,6 +71,7 @@ public class Frame
 		// Initialize a few variables.
 		_PathName = name;
 		_Texture = texture;
+		_Handle = null;
 
 		// Update the frame's bounds.
 		updateBounds();
@@ -93,9 +95,23 @@ public class Frame
 		{
 			if (_PathName.equals("")) { return; }
 
-			BufferedImage texture = Helper.loadImage(_PathName, true);
-			_Height = texture.getHeight();
-			_Width = texture.getWidth();
+			// Let the texture cache read the size, which does not require the image to be decoded.
+			Dimension size = TextureCache.getInstance().getSize(_PathName);
+			_Height = size.height;
+			_Width = size.width;
+		}
+	}
+
+	/**
+	 * Release the frame's texture, letting the texture cache drop it if nobody else uses it.
+	 */
+	public void unloadContent()
+	{
+		// Release the texture.
+		if (_Handle != null)
+		{
+			_Handle.release();
+			_Handle = null;
 		}
 	}
 
@@ -117,6 +133,9 @@ public class Frame
 	 */
 	public void setPathName(String path)
 	{
+		// Release the old texture.
+		unloadContent();
+
 		_PathName = path;
 		updateBounds();
 		// Calculate the origin.
@@ -124,13 +143,37 @@ public class Frame
 	}
 
 	/**
-	 * Get the texture of the frame, if there exists one.
+	 * Get the texture of the frame, if there exists one. Frames with a path name get their texture from the texture cache.
 	 * 
 	 * @return The texture of the frame.
 	 */
 	public BufferedImage getTexture()
 	{
-		return _Texture;
+		// If the frame was given a texture of its own, use that.
+		if (_Texture != null) { return _Texture; }
+
+		// Otherwise use the cached texture for its path.
+		Texture handle = getTextureHandle();
+		return (handle != null) ? handle.getImage() : null;
+	}
+
+	/**
+	 * Get the handle to the frame's cached texture, acquiring it if needed.
+	 * 
+	 * @return The texture handle or null if the frame has no path name.
+	 */
+	public Texture getTextureHandle()
+	{
+		// If the frame has no path, there is nothing to cache.
+		if (_PathName == null || _PathName.equals("")) { return null; }
+
+		// Acquire the texture from the cache.
+		if (_Handle == null)
+		{
+			_Handle = TextureCache.getInstance().acquire(_PathName);
+		}
+
+		return _Handle;
 	}
 
 	/**
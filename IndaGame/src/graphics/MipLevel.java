@@ -0,0 +1,78 @@
+package graphics;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+/**
+ * A mip level is a smaller, box filtered version of a texture's image, used when the image would be drawn scaled down anyway. Level 1 is half the size of the image, level 2 a quarter, and so on.
+ * Just like the image itself, a level is trimmed and knows which spans of every row are not transparent.
+ */
+public class MipLevel
+{
+	// The highest level created.
+	public static final int MaxLevel = 2;
+
+	// The level's image.
+	private BufferedImage _Image;
+	// The bounds of the image, in the level's coordinates of the untrimmed image.
+	private Rectangle _Bounds;
+	// The spans of every row of the image that are not transparent, as pairs of start and end x-coordinates.
+	private int[][] _Spans;
+
+	/**
+	 * Constructor for a mip level.
+	 * 
+	 * @param image
+	 *            The level's image.
+	 * @param bounds
+	 *            The bounds of the image, in the level's coordinates of the untrimmed image.
+	 * @param spans
+	 *            The spans of the image that are not transparent.
+	 */
+	MipLevel(BufferedImage image, Rectangle bounds, int[][] spans)
+	{
+		_Image = image;
+		_Bounds = bounds;
+		_Spans = spans;
+	}
+
+	/**
+	 * Get the level's image.
+	 * 
+	 * @return The image.
+	 */
+	public BufferedImage getImage()
+	{
+		return _Image;
+	}
+
+	/**
+	 * Get the bounds of the level's image, in the level's coordinates of the untrimmed image. A pixel at level n covers 2^n by 2^n pixels of the untrimmed image.
+	 * 
+	 * @return The bounds.
+	 */
+	public Rectangle getBounds()
+	{
+		return _Bounds;
+	}
+
+	/**
+	 * Get the spans of the level's image that are not transparent. Each row holds pairs of start and end x-coordinates, the end being exclusive.
+	 * 
+	 * @return The spans.
+	 */
+	public int[][] getSpans()
+	{
+		return _Spans;
+	}
+
+	/**
+	 * Get the amount of memory the level's image occupies.
+	 * 
+	 * @return The size in bytes.
+	 */
+	public long getByteSize()
+	{
+		return (long) _Bounds.width * _Bounds.height * 4;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package graphics;
+
+/**
+ * A row kernel composes a run of packed int pixels on a row for the depth composite, several at a time. It works on the composite's buffers directly and only ever composes whole batches of pixels,
+ * leaving the rest of the run for the composite to finish pixel by pixel. Every pixel must end up exactly as if the composite had drawn it on its own.
+ */
+interface RowKernel
+{
+	/**
+	 * Compose as many pixels as the kernel can from the start of a run.
+	 * 
+	 * @param composite
+	 *            The depth composite, whose z-buffer, stamps and ids are written to.
+	 * @param src
+	 *            The source pixels.
+	 * @param srcIndex
+	 *            The index of the run's first pixel in the source.
+	 * @param dst
+	 *            The destination pixels.
+	 * @param dstIndex
+	 *            The index of the run's first pixel in the destination.
+	 * @param screenIndex
+	 *            The index of the run's first pixel in the z-buffer.
+	 * @param values
+	 *            The depth map's values, or null if the run lies outside of the map and every pixel is at the base depth.
+	 * @param valueIndex
+	 *            The index of the run's first pixel in the depth map's values.
+	 * @param base
+	 *            The depth the depth map is relative to.
+	 * @param count
+	 *            The number of pixels in the run.
+	 * @param supportsAlpha
+	 *            Whether the source pixels have alpha.
+	 * @return The number of pixels composed, counted from the start of the run.
+	 */
+	public int compose(DepthComposite composite, int[] src, int srcIndex, int[] dst, int dstIndex, int screenIndex, float[] values, int valueIndex, double base, int count, boolean supportsAlpha);
+}
\ No newline at end of file
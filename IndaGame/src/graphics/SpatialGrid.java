@@ -0,0 +1,206 @@
+package graphics;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+
+/**
+ * A spatial grid divides a plane into square cells and keeps track of which items overlap which cells. This makes it cheap to find all items within an area, for instance all entities that can be seen
+ * by the camera.
+ */
+public class SpatialGrid<T>
+{
+	// The size of a cell.
+	private int _CellSize;
+	// The cells, keyed by their packed coordinates.
+	private HashMap<Long, ArrayList<T>> _Cells;
+	// The number of items in the grid.
+	private int _Count;
+
+	/**
+	 * Constructor for a spatial grid.
+	 * 
+	 * @param cellSize
+	 *            The width and height of a cell.
+	 */
+	public SpatialGrid(int cellSize)
+	{
+		// Initialize the grid.
+		_CellSize = Math.max(cellSize, 1);
+		_Cells = new HashMap<Long, ArrayList<T>>();
+		_Count = 0;
+	}
+
+	/**
+	 * Add an item to the grid.
+	 * 
+	 * @param item
+	 *            The item to add.
+	 * @param bounds
+	 *            The area the item covers. If null, the item is not added.
+	 */
+	public void add(T item, Rectangle bounds)
+	{
+		// If the item has no bounds, it cannot be found anyway.
+		if (bounds == null) { return; }
+
+		// Add the item to every cell it overlaps.
+		for (int y = getCell(bounds.y); y <= getCell(bounds.y + bounds.height - 1); y++)
+		{
+			for (int x = getCell(bounds.x); x <= getCell(bounds.x + bounds.width - 1); x++)
+			{
+				// Get the cell, or create it if it does not exist.
+				ArrayList<T> cell = _Cells.get(getKey(x, y));
+				if (cell == null)
+				{
+					cell = new ArrayList<T>();
+					_Cells.put(getKey(x, y), cell);
+				}
+
+				cell.add(item);
+			}
+		}
+
+		_Count++;
+	}
+
+	/**
+	 * Remove an item from the grid.
+	 * 
+	 * @param item
+	 *            The item to remove.
+	 * @param bounds
+	 *            The area the item was added with.
+	 * @return Whether the item was found in the grid.
+	 */
+	public boolean remove(T item, Rectangle bounds)
+	{
+		// If the item has no bounds, it was never added.
+		if (bounds == null) { return false; }
+
+		// Remove the item from every cell it overlaps.
+		boolean removed = false;
+		for (int y = getCell(bounds.y); y <= getCell(bounds.y + bounds.height - 1); y++)
+		{
+			for (int x = getCell(bounds.x); x <= getCell(bounds.x + bounds.width - 1); x++)
+			{
+				// Get the cell.
+				ArrayList<T> cell = _Cells.get(getKey(x, y));
+				if (cell == null)
+				{
+					continue;
+				}
+
+				// Remove the item and the cell too if it has become empty.
+				removed |= cell.remove(item);
+				if (cell.isEmpty())
+				{
+					_Cells.remove(getKey(x, y));
+				}
+			}
+		}
+
+		// Only count the item as gone if it actually was there.
+		if (removed)
+		{
+			_Count--;
+		}
+
+		return removed;
+	}
+
+	/**
+	 * Move an item within the grid.
+	 * 
+	 * @param item
+	 *            The item to move.
+	 * @param oldBounds
+	 *            The area the item used to cover.
+	 * @param newBounds
+	 *            The area the item now covers.
+	 */
+	public void move(T item, Rectangle oldBounds, Rectangle newBounds)
+	{
+		// If the item still covers the same cells, there is nothing to do.
+		if (oldBounds != null && newBounds != null && getCell(oldBounds.x) == getCell(newBounds.x) && getCell(oldBounds.y) == getCell(newBounds.y)
+				&& getCell(oldBounds.x + oldBounds.width - 1) == getCell(newBounds.x + newBounds.width - 1)
+				&& getCell(oldBounds.y + oldBounds.height - 1) == getCell(newBounds.y + newBounds.height - 1)) { return; }
+
+		// Otherwise remove the item and add it again.
+		remove(item, oldBounds);
+		add(item, newBounds);
+	}
+
+	/**
+	 * Find all items in cells that overlap the given area. Note that the items themselves do not necessarily overlap the area.
+	 * 
+	 * @param area
+	 *            The area to search.
+	 * @param result
+	 *            The collection to add the found items to. Use a set to avoid duplicates.
+	 */
+	public void query(Rectangle area, Collection<T> result)
+	{
+		// If the area is empty, nothing can be found.
+		if (area == null || area.isEmpty()) { return; }
+
+		// Gather the items of every cell the area overlaps.
+		for (int y = getCell(area.y); y <= getCell(area.y + area.height - 1); y++)
+		{
+			for (int x = getCell(area.x); x <= getCell(area.x + area.width - 1); x++)
+			{
+				ArrayList<T> cell = _Cells.get(getKey(x, y));
+				if (cell != null)
+				{
+					result.addAll(cell);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remove all items from the grid.
+	 */
+	public void clear()
+	{
+		_Cells.clear();
+		_Count = 0;
+	}
+
+	/**
+	 * Get the number of items in the grid.
+	 * 
+	 * @return The item count.
+	 */
+	public int getCount()
+	{
+		return _Count;
+	}
+
+	/**
+	 * Get the cell coordinate of a position.
+	 * 
+	 * @param position
+	 *            The position along either axis.
+	 * @return The cell coordinate.
+	 */
+	private int getCell(int position)
+	{
+		return (position >= 0) ? position / _CellSize : ((position + 1) / _CellSize) - 1;
+	}
+
+	/**
+	 * Pack two cell coordinates into a key.
+	 * 
+	 * @param x
+	 *            The cell's x-coordinate.
+	 * @param y
+	 *            The cell's y-coordinate.
+	 * @return The key of the cell.
+	 */
+	private long getKey(int x, int y)
+	{
+		return ((long) x << 32) | (y & 0xffffffffL);
+	}
+}
\ No newline at end of file
@@ -5,10 +5,8 @@ import infrastructure.Enums.Visibility;
 import infrastructure.GameTimer;
 
 import java.awt.Graphics2D;
-import java.awt.geom.AffineTransform;
-import java.awt.image.AffineTransformOp;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
-import java.awt.image.BufferedImageOp;
 import java.util.ArrayList;
 
 import javax.xml.bind.annotation.XmlAccessType;
@@ -16,7 +14,6 @@ import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
 
-import auxillary.Helper;
 import auxillary.Vector2;
 
 /**
@@ -50,7 +47,7 @@ public class Sprite
 	private boolean _EnableAnimation;
 	@XmlElement(name = "AnimationDirection")
 	private boolean _AnimationDirection;
-	private float _TotalElapsedTime;
+	private AnimationClock _Clock;
 	@XmlElement(name = "Rotation")
 	private double _Rotation;
 	@XmlElement(name = "Scale")
@@ -63,6 +60,8 @@ public class Sprite
 	private Visibility _Visibility;
 	@XmlElement(name = "Orientation")
 	private Orientation _Orientation;
+	private boolean _IsDirty;
+	private SpriteState _State;
 
 	/**
 	 * Empty constructor for a sprite.
@@ -107,7 +106,9 @@ public class Sprite
 		_Visibility = Visibility.Visible;
 		_Orientation = Orientation.Right;
 		_Frames = new ArrayList<Frame>();
-		_TotalElapsedTime = 0;
+		_Clock = null;
+		_IsDirty = true;
+		_State = new SpriteState();
 	}
 
 	/**
@@ -119,6 +120,17 @@ public class Sprite
 		loadFrame();
 	}
 
+	/**
+	 * Unload content, ie. release the textures of all frames.
+	 */
+	public void unloadContent()
+	{
+		for (Frame frame : _Frames)
+		{
+			frame.unloadContent();
+		}
+	}
+
 	/**
 	 * Update the sprite and all its frames.
 	 * 
@@ -143,45 +155,33 @@ public class Sprite
 	 */
 	public void draw(Graphics2D graphics)
 	{
-		// If the sprite is not visible, end here.
-		if (_Visibility == Visibility.Invisible) { return; }
-
-		// Manage the orientation.
-		if (_Orientation == Orientation.Left)
-		{
-		}
+		// Draw the sprite as it is now.
+		captureState(_State).draw(graphics);
+	}
 
-		// Try to draw.
-		try
-		{
-			// Temporarily save the old matrix.
-			// AffineTransform old = graphics.getTransform();
-			// Whip up a drawing matrix to enable scale and rotation and add it to the current matrix.
-			// graphics.transform(AffineTransform.getRotateInstance(_Rotation).getScaleInstance(_Scale, _Scale));
-
-			// Rotate and scale the sprite.
-			/*
-			 * AffineTransform matrix = new AffineTransform(); matrix.translate(_Frames.get(_FrameIndex).getOrigin().x, _Frames.get(_FrameIndex).getOrigin().y); matrix.rotate(_Rotation);
-			 * matrix.scale(_Scale, _Scale); matrix.translate(-_Frames.get(_FrameIndex).getOrigin().x / _Scale, -_Frames.get(_FrameIndex).getOrigin().y / _Scale);
-			 * 
-			 * BufferedImageOp bio = new AffineTransformOp(matrix, AffineTransformOp.TYPE_BILINEAR);
-			 */
-
-			// The 'real' position, including the offset and origin.
-			Vector2 position = Vector2.subtract(Vector2.add(_Position, _PositionOffset), _Frames.get(_FrameIndex).getOrigin());
-
-			// Draw the sprite.
-			graphics.drawImage(_Texture, (int) position.x, (int) position.y, null);
-			// graphics.drawImage(bio.filter(_Texture, null), (int) position.x, (int) position.y, null);
-
-			// Revert to the old matrix configuration.
-			// graphics.setTransform(old);
-		}
-		// Catch
-		catch (Exception e)
-		{
-			System.out.println(this + ": Draw Sprite Error. (" + e + ")");
-		}
+	/**
+	 * Capture everything needed to draw the sprite as it is now.
+	 * 
+	 * @param state
+	 *            The state to capture the sprite into.
+	 * @return The state.
+	 */
+	public SpriteState captureState(SpriteState state)
+	{
+		Frame frame = getCurrentFrame();
+		state._Frame = frame;
+		state._Handle = (frame != null) ? frame.getTextureHandle() : null;
+		state._Texture = _Texture;
+		state._X = _Position.x + _PositionOffset.x;
+		state._Y = _Position.y + _PositionOffset.y;
+		state._Rotation = _Rotation;
+		state._Scale = _Scale;
+		state._Transparence = _Transparence;
+		state._Orientation = _Orientation;
+		state._IsVisible = _Visibility != Visibility.Invisible;
+		state.captureTexture();
+
+		return state;
 	}
 
 	/**
@@ -196,6 +196,7 @@ public class Sprite
 		// Add the frame to the list of frames.
 		_Frames.add(frame);
 		_FrameEndIndex++;
+		_Clock = null;
 		return frame;
 	}
 
@@ -227,6 +228,7 @@ public class Sprite
 	public void removeFrame(String name)
 	{
 		_Frames.remove(getFrameIndex(name));
+		_Clock = null;
 	}
 
 	/**
@@ -239,16 +241,11 @@ public class Sprite
 			// Quit if there is not enough frames.
 			if (_FrameIndex >= _Frames.size()) { return; }
 
-			// If a frame has a texture already stored on its premises, load that texture.
-			if (_Frames.get(_FrameIndex).getTexture() != null)
-			{
-				_Texture = _Frames.get(_FrameIndex).getTexture();
-			}
-			// Otherwise load one by using the name of the frame.
-			else
-			{
-				_Texture = Helper.loadImage(_Frames.get(_FrameIndex).getPathName(), true);
-			}
+			// Get the frame's texture, which the texture cache only decodes once.
+			_Texture = _Frames.get(_FrameIndex).getTexture();
+
+			// The sprite will look different from now on.
+			_IsDirty = true;
 		}
 		catch (Exception e)
 		{
@@ -257,53 +254,26 @@ public class Sprite
 	}
 
 	/**
-	 * Update the sprite's frames.
+	 * Update the sprite's frames. The frame showing is taken from the animation clock shared by all sprites playing the same animation.
 	 * 
 	 * @param gameTime
 	 *            The game timer.
 	 */
 	public void updateFrame(GameTimer gameTime)
 	{
-		// Get the time since the last Update.
-		_TotalElapsedTime += (float) gameTime.getElapsedTime().TotalSeconds();
-
-		// If it's not time to change frame yet, stop here.
-		if (_TotalElapsedTime < _TimePerFrame) { return; }
-
-		// If the animation is going forward.
-		if (_AnimationDirection)
+		// Find the clock of the animation the first time around or after the animation has changed.
+		if (_Clock == null)
 		{
-			// If the number of drawn frames are less than the total, change to the next.
-			if (_FrameIndex < _FrameEndIndex)
-			{
-				_FrameIndex++;
-			}
-			// Make the animation start over.
-			else
-			{
-				_FrameIndex = _FrameStartIndex;
-			}
-		}
-		// If the animation is going backwards.
-		else
-		{
-			// If the number of drawn frames are less than the total, change to the next.
-			if (_FrameIndex > _FrameStartIndex)
-			{
-				_FrameIndex--;
-			}
-			// Make the animation start over.
-			else
-			{
-				_FrameIndex = _FrameEndIndex;
-			}
+			_Clock = AnimationClock.getClock(_Frames, _TimePerFrame, _FrameStartIndex, _FrameEndIndex, _AnimationDirection);
 		}
 
+		// If the frame has not changed, stop here.
+		int index = _Clock.getFrameIndex(gameTime.totalElapsedSeconds());
+		if (index == _FrameIndex) { return; }
+
 		// Load the new frame's texture into memory.
+		_FrameIndex = index;
 		loadFrame();
-
-		// Subtract the time per frame, to be certain the next frame is drawn in time.
-		_TotalElapsedTime -= _TimePerFrame;
 	}
 
 	/**
@@ -370,6 +340,8 @@ public class Sprite
 	 */
 	public void setPosition(Vector2 position)
 	{
+		// If the position has changed, the sprite needs to be redrawn.
+		_IsDirty = _IsDirty || !isSamePosition(_Position, position);
 		_Position = position;
 	}
 
@@ -381,9 +353,82 @@ public class Sprite
 	 */
 	public void setPositionOffset(Vector2 offset)
 	{
+		// If the offset has changed, the sprite needs to be redrawn.
+		_IsDirty = _IsDirty || !isSamePosition(_PositionOffset, offset);
 		_PositionOffset = offset;
 	}
 
+	/**
+	 * Whether two positions are equal.
+	 * 
+	 * @param a
+	 *            The first position.
+	 * @param b
+	 *            The second position.
+	 * @return Whether the positions are equal.
+	 */
+	private boolean isSamePosition(Vector2 a, Vector2 b)
+	{
+		return (a == b) || (a != null && b != null && a.x == b.x && a.y == b.y);
+	}
+
+	/**
+	 * Get the area the sprite covers when drawn, ie. the bounds of its current texture at its position.
+	 * 
+	 * @return The bounds of the sprite or null if it has no texture or is invisible.
+	 */
+	public Rectangle getBounds()
+	{
+		return captureState(_State).getBounds();
+	}
+
+	/**
+	 * Whether the sprite is drawn at a point, ie. has a pixel there that is not transparent. Flipped, rotated, scaled and faded sprites are only tested against their bounds.
+	 * 
+	 * @param x
+	 *            The x-coordinate in the world.
+	 * @param y
+	 *            The y-coordinate in the world.
+	 * @return Whether the point is covered by the sprite.
+	 */
+	public boolean contains(int x, int y)
+	{
+		// If the point is outside of the sprite, stop here.
+		Rectangle bounds = getBounds();
+		if (bounds == null || !bounds.contains(x, y)) { return false; }
+
+		// Without opaque spans to go by, the bounds will have to do.
+		Texture handle = getCurrentFrame().getTextureHandle();
+		if (handle == null || handle.getSpans() == null || _State.getVariant(handle.getTrim()) != null) { return true; }
+
+		// See if the point lies on one of the opaque spans of its row.
+		int[] spans = handle.getSpans()[y - bounds.y];
+		for (int i = 0; i < spans.length; i += 2)
+		{
+			if (x - bounds.x >= spans[i] && x - bounds.x < spans[i + 1]) { return true; }
+		}
+
+		return false;
+	}
+
+	/**
+	 * Whether the sprite has changed in a way that requires it to be redrawn since the dirty flag was last cleared.
+	 * 
+	 * @return Whether the sprite is dirty.
+	 */
+	public boolean isDirty()
+	{
+		return _IsDirty;
+	}
+
+	/**
+	 * Clear the sprite's dirty flag. This is done once its changes have been taken care of.
+	 */
+	public void clearDirty()
+	{
+		_IsDirty = false;
+	}
+
 	/**
 	 * Get the sprite's name. This has no bearing on any image paths.
 	 * 
@@ -435,6 +480,16 @@ public class Sprite
 		_FrameIndex = index;
 	}
 
+	/**
+	 * Get all frames of the sprite.
+	 * 
+	 * @return The list of frames.
+	 */
+	public ArrayList<Frame> getFrames()
+	{
+		return new ArrayList<Frame>(_Frames);
+	}
+
 	/**
 	 * Get the current frame.
 	 * 
@@ -454,6 +509,7 @@ public class Sprite
 	public void setTimePerFrame(float timePerFrame)
 	{
 		_TimePerFrame = timePerFrame;
+		_Clock = null;
 	}
 
 	/**
@@ -477,6 +533,24 @@ public class Sprite
 		return _Depth;
 	}
 
+	/**
+	 * Set the depth the sprite is being drawn at. Sprites with a higher depth are drawn on top.
+	 * 
+	 * @param depth
+	 *            The new depth.
+	 */
+	public void setDepth(int depth)
+	{
+		// If the depth changes, the manager has to sort its sprites again.
+		if (_Depth != depth && _Manager != null)
+		{
+			_Manager.invalidateOrder();
+		}
+
+		_IsDirty = _IsDirty || _Depth != depth;
+		_Depth = depth;
+	}
+
 	/**
 	 * Set the transparence of the sprite. The values lies between 0 and 1.
 	 * 
@@ -485,9 +559,42 @@ public class Sprite
 	 */
 	public void setTransparence(float transparence)
 	{
+		_IsDirty = _IsDirty || _Transparence != transparence;
 		_Transparence = transparence;
 	}
 
+	/**
+	 * Get the transparence of the sprite.
+	 * 
+	 * @return The transparence, between 0 and 1.
+	 */
+	public float getTransparence()
+	{
+		return _Transparence;
+	}
+
+	/**
+	 * Get the sprite's orientation. Sprites facing left are drawn mirrored.
+	 * 
+	 * @return The orientation.
+	 */
+	public Orientation getOrientation()
+	{
+		return _Orientation;
+	}
+
+	/**
+	 * Set the sprite's orientation. Sprites facing left are drawn mirrored.
+	 * 
+	 * @param orientation
+	 *            The new orientation.
+	 */
+	public void setOrientation(Orientation orientation)
+	{
+		_IsDirty = _IsDirty || _Orientation != orientation;
+		_Orientation = orientation;
+	}
+
 	/**
 	 * Set the state of visibility for the sprite.
 	 * 
@@ -496,6 +603,7 @@ public class Sprite
 	 */
 	public void setVisibility(Visibility visiblity)
 	{
+		_IsDirty = _IsDirty || _Visibility != visiblity;
 		_Visibility = visiblity;
 	}
 
@@ -507,9 +615,30 @@ public class Sprite
 	 */
 	public void setScale(double scale)
 	{
+		_IsDirty = _IsDirty || _Scale != scale;
 		_Scale = scale;
 	}
 
+	/**
+	 * Get the sprite's scale.
+	 * 
+	 * @return The scale.
+	 */
+	public double getScale()
+	{
+		return _Scale;
+	}
+
+	/**
+	 * Get the sprite's rotation.
+	 * 
+	 * @return The rotation in radians.
+	 */
+	public double getRotation()
+	{
+		return _Rotation;
+	}
+
 	/**
 	 * Set the sprite's rotation.
 	 * 
@@ -518,6 +647,7 @@ public class Sprite
 	 */
 	public void setRotation(double rotation)
 	{
+		_IsDirty = _IsDirty || _Rotation != rotation;
 		_Rotation = rotation;
 	}
 }
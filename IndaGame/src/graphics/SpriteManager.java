@@ -4,6 +4,7 @@ import infrastructure.Enums.Visibility;
 import infrastructure.GameTimer;
 
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.util.ArrayList;
 import java.util.Collections;
 
@@ -11,6 +12,7 @@ import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
 
 import auxillary.Vector2;
 
@@ -21,10 +23,15 @@ import auxillary.Vector2;
 @XmlAccessorType(XmlAccessType.FIELD)
 public class SpriteManager
 {
+	// The comparator that sorts sprites by their depth.
+	private static final SpriteDepthComparator _DepthComparator = new SpriteDepthComparator();
+
 	// The list of sprites.
-	// Note: Every time the list needs to be iterated through use a new list to avoid exceptions when modifying it.
 	@XmlElement(name = "Sprites")
 	private ArrayList<Sprite> _Sprites;
+	// Whether the sprites are sorted by their depth.
+	@XmlTransient
+	private boolean _IsSorted;
 
 	/**
 	 * Constructor for a sprite manager.
@@ -42,6 +49,7 @@ public class SpriteManager
 	{
 		// Initialize variables.
 		_Sprites = new ArrayList<Sprite>();
+		_IsSorted = false;
 	}
 
 	/**
@@ -50,9 +58,22 @@ public class SpriteManager
 	public void loadContent()
 	{
 		// If there's any sprites in the list, load their content.
-		for (Sprite sprite : new ArrayList<Sprite>(_Sprites))
+		for (int i = 0; i < _Sprites.size(); i++)
 		{
-			sprite.loadContent();
+			_Sprites.get(i).setSpriteManager(this);
+			_Sprites.get(i).loadContent();
+		}
+	}
+
+	/**
+	 * Unload content.
+	 */
+	public void unloadContent()
+	{
+		// Let all sprites release their content.
+		for (Sprite sprite : _Sprites)
+		{
+			sprite.unloadContent();
 		}
 	}
 
@@ -78,12 +99,17 @@ public class SpriteManager
 	 */
 	public void update(GameTimer gameTime, Vector2 position)
 	{
-		// Sort the list of sprites by their depth. This is vital for drawing them in the right order.
-		Collections.sort(_Sprites, new SpriteDepthComparator());
+		// Sort the list of sprites by their depth if it has changed. This is vital for drawing them in the right order.
+		if (!_IsSorted)
+		{
+			Collections.sort(_Sprites, _DepthComparator);
+			_IsSorted = true;
+		}
 
 		// Update all sprites.
-		for (Sprite sprite : new ArrayList<Sprite>(_Sprites))
+		for (int i = 0; i < _Sprites.size(); i++)
 		{
+			Sprite sprite = _Sprites.get(i);
 			if (position != null)
 			{
 				sprite.setPosition(position);
@@ -102,12 +128,79 @@ public class SpriteManager
 	public void draw(Graphics2D graphics)
 	{
 		// Loop through all sprites and draw them.
-		for (Sprite sprite : new ArrayList<Sprite>(_Sprites))
+		for (int i = 0; i < _Sprites.size(); i++)
+		{
+			_Sprites.get(i).draw(graphics);
+		}
+	}
+
+	/**
+	 * Whether any of the sprites have changed in a way that requires them to be redrawn.
+	 * 
+	 * @return Whether any sprite is dirty.
+	 */
+	public boolean isDirty()
+	{
+		for (Sprite sprite : _Sprites)
+		{
+			if (sprite.isDirty()) { return true; }
+		}
+
+		return false;
+	}
+
+	/**
+	 * Clear the dirty flag of all sprites.
+	 */
+	public void clearDirty()
+	{
+		for (Sprite sprite : _Sprites)
 		{
-			sprite.draw(graphics);
+			sprite.clearDirty();
 		}
 	}
 
+	/**
+	 * Get the area covered by all visible sprites.
+	 * 
+	 * @return The united bounds of all sprites or null if none of them will be drawn.
+	 */
+	public Rectangle getBounds()
+	{
+		// Unite the bounds of all sprites.
+		Rectangle bounds = null;
+		for (Sprite sprite : _Sprites)
+		{
+			Rectangle r = sprite.getBounds();
+			if (r == null)
+			{
+				continue;
+			}
+			bounds = (bounds == null) ? r : bounds.union(r);
+		}
+
+		return bounds;
+	}
+
+	/**
+	 * Whether any visible sprite is drawn at a point, ie. has a pixel there that is not transparent.
+	 * 
+	 * @param x
+	 *            The x-coordinate in the world.
+	 * @param y
+	 *            The y-coordinate in the world.
+	 * @return Whether the point is covered by a sprite.
+	 */
+	public boolean contains(int x, int y)
+	{
+		for (Sprite sprite : _Sprites)
+		{
+			if (sprite.contains(x, y)) { return true; }
+		}
+
+		return false;
+	}
+
 	/**
 	 * Add a sprite.
 	 * 
@@ -120,6 +213,7 @@ public class SpriteManager
 		// Add the sprite to the list and return it.
 		_Sprites.add(sprite);
 		sprite.setSpriteManager(this);
+		_IsSorted = false;
 		return sprite;
 	}
 
@@ -145,7 +239,7 @@ public class SpriteManager
 	public Sprite getSprite(String tag)
 	{
 		// Loop through the list of sprites and find the one with the right name.
-		for (Sprite sprite : new ArrayList<Sprite>(_Sprites))
+		for (Sprite sprite : _Sprites)
 		{
 			if (sprite.getTag().equals(tag)) { return sprite; }
 		}
@@ -186,6 +280,7 @@ public class SpriteManager
 		// Set the sprite.
 		_Sprites.set(index, sprite);
 		sprite.setSpriteManager(this);
+		_IsSorted = false;
 	}
 
 	/**
@@ -228,12 +323,20 @@ public class SpriteManager
 	 */
 	private void setVisibility(Visibility visibility)
 	{
-		for (Sprite sprite : new ArrayList<Sprite>(_Sprites))
+		for (Sprite sprite : _Sprites)
 		{
 			sprite.setVisibility(visibility);
 		}
 	}
 
+	/**
+	 * Let the manager know that the depth of one of its sprites has changed, so that the sprites are sorted again before the next update.
+	 */
+	void invalidateOrder()
+	{
+		_IsSorted = false;
+	}
+
 	/**
 	 * Get the manager's sprite count.
 	 */
@@ -0,0 +1,282 @@
+package graphics;
+
+import infrastructure.Enums.Orientation;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * A sprite state holds everything needed to draw a sprite as it was at one moment, ie. its current frame, position and looks. A sprite draws itself through one, and a state captured at the end of
+ * an update can be drawn by another thread while the sprite itself moves on.
+ */
+public class SpriteState
+{
+	// The current frame, its cached texture and its image.
+	Frame _Frame;
+	Texture _Handle;
+	BufferedImage _Texture;
+	// The texture as it was, ie. the bounds of its trimmed image, its opaque spans and the atlas page and region it was packed into, if any. The texture itself may be packed or unpacked since.
+	Rectangle _Trim;
+	int[][] _Spans;
+	BufferedImage _Page;
+	Rectangle _Region;
+	// Whether the mip level to draw was picked when captured, and the level picked.
+	boolean _IsLevelCaptured;
+	int _Mip;
+	MipLevel _Level;
+	// The position of the sprite, including its offset.
+	double _X;
+	double _Y;
+	// The looks of the sprite.
+	double _Rotation;
+	double _Scale;
+	float _Transparence;
+	Orientation _Orientation;
+	// Whether the sprite is visible.
+	boolean _IsVisible;
+
+	/**
+	 * Constructor for a sprite state. It draws nothing until a sprite has been captured into it.
+	 */
+	public SpriteState()
+	{
+		_Trim = new Rectangle();
+		_Region = new Rectangle();
+		_IsVisible = false;
+		_IsLevelCaptured = false;
+	}
+
+	/**
+	 * Capture the texture as it is now, so that drawing the state never has to ask the texture itself. Called by the sprite when capturing its state.
+	 */
+	void captureTexture()
+	{
+		// Without a cached texture, the image is drawn as it is.
+		if (_Handle == null)
+		{
+			if (_Texture != null)
+			{
+				_Trim.setBounds(0, 0, _Texture.getWidth(), _Texture.getHeight());
+			}
+			_Spans = null;
+			_Page = null;
+		}
+		else
+		{
+			_Trim.setBounds(_Handle.getTrim());
+			_Spans = _Handle.getSpans();
+			_Page = _Handle.getPage();
+			if (_Page != null)
+			{
+				_Region.setBounds(_Handle.getRegion());
+			}
+		}
+
+		// The mip level is picked when drawn, unless asked for now.
+		_IsLevelCaptured = false;
+		_Level = null;
+	}
+
+	/**
+	 * Pick the mip level to draw with now rather than when drawn, which would have to ask the texture for it. Do this when the state is to be drawn by another thread.
+	 * 
+	 * @param transform
+	 *            The transform the state will be drawn with.
+	 */
+	public void captureLevel(AffineTransform transform)
+	{
+		// Variants are drawn instead of mip levels.
+		_Mip = (isDrawable() && _Handle != null && isIdentity()) ? getLevel(transform) : 0;
+		_Level = (_Mip > 0) ? _Handle.getLevel(_Mip) : null;
+		_IsLevelCaptured = true;
+	}
+
+	/**
+	 * Whether there is anything to draw, ie. whether the sprite is visible and has a texture.
+	 * 
+	 * @return Whether the state can be drawn.
+	 */
+	public boolean isDrawable()
+	{
+		return _IsVisible && _Texture != null && _Frame != null;
+	}
+
+	/**
+	 * Draw the sprite as captured.
+	 * 
+	 * @param graphics
+	 *            The graphics component to use.
+	 */
+	public void draw(Graphics2D graphics)
+	{
+		// If the sprite is not visible, end here.
+		if (!isDrawable()) { return; }
+
+		// Try to draw.
+		try
+		{
+			// The part of the image left after trimming its transparent borders.
+			Rectangle trim = getTrim();
+
+			// If the sprite is flipped, rotated, scaled or faded, draw a cached variant of it instead of filtering the image every time.
+			TextureVariantCache.Variant variant = getVariant(trim);
+			if (variant != null)
+			{
+				// The variant is placed relative to the sprite's position, which is where the origin ends up.
+				int px = (int) _X;
+				int py = (int) _Y;
+
+				// Let the depth composite know how to map the variant back to the untrimmed image.
+				if (graphics.getComposite() instanceof DepthComposite)
+				{
+					AffineTransform transform = graphics.getTransform();
+					transform.translate(px, py);
+					transform.concatenate(variant.getTransform());
+					((DepthComposite) graphics.getComposite()).setSourceTransform(transform, 0, 0);
+				}
+
+				graphics.drawImage(variant.getImage(), px + variant.getX(), py + variant.getY(), null);
+				return;
+			}
+
+			// The 'real' position, including the offset and origin.
+			int x = (int) (_X - _Frame.getOrigin().x);
+			int y = (int) (_Y - _Frame.getOrigin().y);
+
+			// If the image is scaled down when drawn, use a smaller mip level of it, which leaves fewer pixels to go through.
+			int mip = _Mip;
+			MipLevel level = _Level;
+			if (!_IsLevelCaptured)
+			{
+				mip = (_Handle != null) ? getLevel(graphics.getTransform()) : 0;
+				level = (mip > 0) ? _Handle.getLevel(mip) : null;
+			}
+
+			// Let the depth composite know where the untrimmed image ends up and which of its pixels are opaque.
+			if (graphics.getComposite() instanceof DepthComposite)
+			{
+				DepthComposite composite = (DepthComposite) graphics.getComposite();
+				composite.setSourceTransform(graphics.getTransform(), x, y);
+				if (level != null)
+				{
+					composite.setSourceLevel(mip, level.getSpans(), level.getBounds().x, level.getBounds().y);
+				}
+				else if (_Spans != null)
+				{
+					composite.setSourceSpans(_Spans, trim.x, trim.y);
+				}
+			}
+
+			// Draw the mip level scaled up to the size of the image.
+			if (level != null)
+			{
+				int size = 1 << mip;
+				AffineTransform old = graphics.getTransform();
+				graphics.translate(x + level.getBounds().x * size, y + level.getBounds().y * size);
+				graphics.scale(size, size);
+				graphics.drawImage(level.getImage(), 0, 0, null);
+				graphics.setTransform(old);
+				return;
+			}
+
+			// Draw the sprite, either as a region of its atlas page or as an image of its own.
+			x += trim.x;
+			y += trim.y;
+			if (_Page != null)
+			{
+				Rectangle r = _Region;
+				graphics.drawImage(_Page, x, y, x + r.width, y + r.height, r.x, r.y, r.x + r.width, r.y + r.height, null);
+			}
+			else
+			{
+				graphics.drawImage(_Texture, x, y, null);
+			}
+		}
+		// Catch
+		catch (Exception e)
+		{
+			System.out.println(this + ": Draw Sprite Error. (" + e + ")");
+		}
+	}
+
+	/**
+	 * Get the area the sprite covers when drawn, ie. the bounds of its texture at its position.
+	 * 
+	 * @return The bounds of the sprite or null if it has no texture or is invisible.
+	 */
+	public Rectangle getBounds()
+	{
+		// If there is nothing to draw, there are no bounds.
+		if (!isDrawable()) { return null; }
+
+		// The part of the image left after trimming its transparent borders.
+		Rectangle trim = getTrim();
+
+		// If a variant is drawn, return its bounds.
+		TextureVariantCache.Variant variant = getVariant(trim);
+		if (variant != null) { return new Rectangle((int) _X + variant.getX(), (int) _Y + variant.getY(), variant.getImage().getWidth(), variant.getImage().getHeight()); }
+
+		// Return the bounds of the trimmed image, placed by its origin.
+		return new Rectangle((int) (_X - _Frame.getOrigin().x) + trim.x, (int) (_Y - _Frame.getOrigin().y) + trim.y, trim.width, trim.height);
+	}
+
+	/**
+	 * Get the cached variant of the image that matches the sprite's orientation, rotation, scale and transparence.
+	 * 
+	 * @param trim
+	 *            The bounds of the trimmed image within the frame.
+	 * @return The variant or null if the image is drawn as it is.
+	 */
+	TextureVariantCache.Variant getVariant(Rectangle trim)
+	{
+		// If the image is drawn as it is, there is no need for a variant.
+		if (isIdentity()) { return null; }
+
+		// Sprites facing left are mirrored.
+		return TextureVariantCache.getInstance().getVariant(_Texture, trim, _Frame.getOrigin(), _Orientation == Orientation.Left, _Rotation, _Scale, _Transparence);
+	}
+
+	/**
+	 * Whether the image is drawn as it is, ie. neither flipped, rotated, scaled nor faded.
+	 * 
+	 * @return Whether no variant is needed.
+	 */
+	private boolean isIdentity()
+	{
+		return TextureVariantCache.isIdentity(_Orientation == Orientation.Left, _Rotation, _Scale, _Transparence);
+	}
+
+	/**
+	 * Get the part of the image that is left after trimming its transparent borders, as it was when captured.
+	 * 
+	 * @return The trimmed bounds, relative to the frame's untrimmed image. They belong to the state and must not be modified.
+	 */
+	Rectangle getTrim()
+	{
+		return _Trim;
+	}
+
+	/**
+	 * Get the mip level to draw with a transform, ie. the smallest level that is still not scaled down.
+	 * 
+	 * @param transform
+	 *            The transform used when drawing.
+	 * @return The level, where 0 is the image itself.
+	 */
+	private static int getLevel(AffineTransform transform)
+	{
+		// The scale of the transform.
+		double scale = Math.sqrt(Math.abs(transform.getDeterminant()));
+
+		// Go down a level for every halving of the scale.
+		int level = 0;
+		while (level < MipLevel.MaxLevel && scale * (2 << level) <= 1 + 1e-3)
+		{
+			level++;
+		}
+
+		return level;
+	}
+}
\ No newline at end of file
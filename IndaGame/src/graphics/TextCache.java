@@ -0,0 +1,611 @@
+package graphics;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.Transparency;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.LineMetrics;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import auxillary.Helper;
+
+/**
+ * The text cache keeps rasterized strings around, so that a string only has to be turned into glyph outlines and filled once instead of every time it is drawn. Strings are rasterized opaque at the
+ * scale they end up on screen, quantized, and the color's alpha is applied when they are drawn, so fading text does not create new entries. The least recently used strings are dropped once the cache
+ * grows beyond its memory budget.
+ * 
+ * Numbers that change every frame would fill the cache with strings drawn only once, which is why digits can also be drawn from a fixed-width atlas holding every digit of a font.
+ */
+public class TextCache
+{
+	// The default memory budget in bytes.
+	public static final long DefaultBudget = 4L * 1024 * 1024;
+	// The number of steps a scale of one is divided into.
+	public static final int ScaleSteps = 16;
+	// The maximum number of digit atlases kept around.
+	public static final int MaxAtlases = 16;
+	// The characters held by a digit atlas.
+	public static final String AtlasCharacters = "0123456789.-";
+
+	// The singleton text cache instance.
+	private static TextCache _Instance;
+
+	// The rasterized strings, ordered by when they were last used.
+	private LinkedHashMap<Key, Entry> _Entries;
+	// The digit atlases, ordered by when they were last used.
+	private LinkedHashMap<Key, Atlas> _Atlases;
+	// The font render context strings are rasterized with.
+	private FontRenderContext _Context;
+	// The memory budget in bytes.
+	private long _Budget;
+	// The amount of memory used by the rasterized strings in bytes.
+	private long _MemoryUsage;
+
+	/**
+	 * Private constructor for a text cache.
+	 */
+	private TextCache()
+	{
+		initialize();
+	}
+
+	/**
+	 * Initialize the text cache.
+	 */
+	private void initialize()
+	{
+		// Initialize the variables.
+		_Entries = new LinkedHashMap<Key, Entry>(64, .75f, true);
+		_Atlases = new LinkedHashMap<Key, Atlas>(16, .75f, true);
+		_Context = new FontRenderContext(null, false, false);
+		_Budget = DefaultBudget;
+		_MemoryUsage = 0;
+	}
+
+	/**
+	 * Get the singleton instance of this text cache.
+	 * 
+	 * @return The singleton text cache.
+	 */
+	public static TextCache getInstance()
+	{
+		// If the cache has not been created yet, do so.
+		if (_Instance == null)
+		{
+			_Instance = new TextCache();
+		}
+
+		// Return the instance.
+		return _Instance;
+	}
+
+	/**
+	 * Draw a string with its baseline starting at the origin of a transformation.
+	 * 
+	 * @param s
+	 *            The text to draw.
+	 * @param font
+	 *            The font to use.
+	 * @param transform
+	 *            The text transformations in use, ie. scale and rotation.
+	 * @param color
+	 *            The color of the text.
+	 * @param graphics
+	 *            The graphics component running the show.
+	 */
+	public void draw(String s, Font font, AffineTransform transform, Color color, Graphics2D graphics)
+	{
+		// Save the old transformation and composite.
+		AffineTransform oldTransform = graphics.getTransform();
+		Composite oldComposite = graphics.getComposite();
+
+		// Find the string rasterized at the scale it ends up on screen.
+		graphics.transform(transform);
+		int scale = getScaleStep(graphics.getTransform());
+		Entry entry = getEntry(s, font, color, scale);
+
+		// Draw the rasterized string, undoing the scale it was rasterized at.
+		setAlpha(color, graphics);
+		graphics.scale((double) ScaleSteps / scale, (double) ScaleSteps / scale);
+		graphics.drawImage(entry.image, entry.x, entry.y, null);
+
+		// Restore the transformation and composite.
+		graphics.setTransform(oldTransform);
+		graphics.setComposite(oldComposite);
+	}
+
+	/**
+	 * Draw a string holding numbers that change often with its baseline starting at the given position. The digits are drawn from a fixed-width atlas and only the text in between them is cached
+	 * as strings.
+	 * 
+	 * @param s
+	 *            The text to draw.
+	 * @param font
+	 *            The font to use.
+	 * @param color
+	 *            The color of the text.
+	 * @param x
+	 *            The x-coordinate of the start of the baseline.
+	 * @param y
+	 *            The y-coordinate of the baseline.
+	 * @param graphics
+	 *            The graphics component running the show.
+	 * @return The advance of the text, ie. how far the next text would start to the right.
+	 */
+	public float drawNumbers(String s, Font font, Color color, float x, float y, Graphics2D graphics)
+	{
+		// Save the old transformation and composite.
+		AffineTransform oldTransform = graphics.getTransform();
+		Composite oldComposite = graphics.getComposite();
+
+		// Draw in the scale the text is rasterized at, from the start of the baseline.
+		graphics.translate(x, y);
+		int scale = getScaleStep(graphics.getTransform());
+		float factor = (float) scale / ScaleSteps;
+		setAlpha(color, graphics);
+		graphics.scale(1 / factor, 1 / factor);
+
+		// Go through the text, one run of digits or other characters at a time.
+		Atlas atlas = null;
+		float advance = 0;
+		int start = 0;
+		while (start < s.length())
+		{
+			// Find the end of the run.
+			boolean isDigits = isAtlasCharacter(s.charAt(start));
+			int end = start + 1;
+			while (end < s.length() && isAtlasCharacter(s.charAt(end)) == isDigits)
+			{
+				end++;
+			}
+
+			// Dashes and dots on their own are no number.
+			if (isDigits && !hasDigit(s, start, end))
+			{
+				isDigits = false;
+			}
+
+			// The position of the run in the rasterized scale.
+			int pen = Math.round(advance * factor);
+
+			// Draw the digits from the atlas, one fixed-width cell each.
+			if (isDigits)
+			{
+				if (atlas == null)
+				{
+					atlas = getAtlas(font, color, scale);
+				}
+
+				for (int i = start; i < end; i++)
+				{
+					int cell = AtlasCharacters.indexOf(s.charAt(i));
+					int dx = pen + Math.round((i - start) * atlas.advance * factor) + atlas.x;
+					graphics.drawImage(atlas.image, dx, atlas.y, dx + atlas.cellWidth, atlas.y + atlas.image.getHeight(), cell * atlas.cellWidth, 0, (cell + 1) * atlas.cellWidth,
+							atlas.image.getHeight(), null);
+				}
+				advance += (end - start) * atlas.advance;
+			}
+			// Draw any other text as a cached string.
+			else
+			{
+				Entry entry = getEntry(s.substring(start, end), font, color, scale);
+				graphics.drawImage(entry.image, pen + entry.x, entry.y, null);
+				advance += entry.advance;
+			}
+
+			start = end;
+		}
+
+		// Restore the transformation and composite.
+		graphics.setTransform(oldTransform);
+		graphics.setComposite(oldComposite);
+
+		return advance;
+	}
+
+	/**
+	 * Apply the alpha of a color to the composite of a graphics component, as the text is rasterized opaque.
+	 * 
+	 * @param color
+	 *            The color of the text.
+	 * @param graphics
+	 *            The graphics component.
+	 */
+	private void setAlpha(Color color, Graphics2D graphics)
+	{
+		// Opaque text is drawn with the composite in use.
+		if (color.getAlpha() == 255 || !(graphics.getComposite() instanceof AlphaComposite)) { return; }
+
+		// Otherwise fade it on top of any fading already going on.
+		AlphaComposite composite = (AlphaComposite) graphics.getComposite();
+		graphics.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, composite.getAlpha() * color.getAlpha() / 255f));
+	}
+
+	/**
+	 * Get a rasterized string, creating it if it does not exist yet.
+	 * 
+	 * @param s
+	 *            The string.
+	 * @param font
+	 *            The font.
+	 * @param color
+	 *            The color, of which the alpha is ignored.
+	 * @param scale
+	 *            The scale step to rasterize the string at.
+	 * @return The rasterized string.
+	 */
+	private synchronized Entry getEntry(String s, Font font, Color color, int scale)
+	{
+		// If the string has already been rasterized, use it.
+		Key key = new Key(s, font, color.getRGB() | 0xFF000000, scale);
+		Entry entry = _Entries.get(key);
+		if (entry != null) { return entry; }
+
+		// Otherwise rasterize it and make sure the cache stays within its budget.
+		entry = createEntry(key);
+		_Entries.put(key, entry);
+		_MemoryUsage += entry.getByteSize();
+		evict();
+
+		return entry;
+	}
+
+	/**
+	 * Rasterize a string.
+	 * 
+	 * @param key
+	 *            The string, font, color and scale to rasterize.
+	 * @return The rasterized string.
+	 */
+	private Entry createEntry(Key key)
+	{
+		// The outline of the string at the scale it is rasterized at.
+		GlyphVector glyphs = key.font.createGlyphVector(_Context, key.text);
+		double factor = (double) key.scale / ScaleSteps;
+		Shape outline = AffineTransform.getScaleInstance(factor, factor).createTransformedShape(glyphs.getOutline());
+		Rectangle bounds = outline.getBounds();
+		bounds.width = Math.max(bounds.width, 1);
+		bounds.height = Math.max(bounds.height, 1);
+
+		// Fill the outline.
+		BufferedImage image = Helper.createCompatibleImage(bounds.width, bounds.height, Transparency.TRANSLUCENT);
+		Graphics2D g = image.createGraphics();
+		g.setColor(new Color(key.color, false));
+		g.translate(-bounds.x, -bounds.y);
+		g.fill(outline);
+		g.dispose();
+
+		return new Entry(image, bounds.x, bounds.y, (float) glyphs.getLogicalBounds().getWidth());
+	}
+
+	/**
+	 * Get the digit atlas of a font, creating it if it does not exist yet.
+	 * 
+	 * @param font
+	 *            The font.
+	 * @param color
+	 *            The color, of which the alpha is ignored.
+	 * @param scale
+	 *            The scale step to rasterize the digits at.
+	 * @return The digit atlas.
+	 */
+	private synchronized Atlas getAtlas(Font font, Color color, int scale)
+	{
+		// If the atlas already exists, use it.
+		Key key = new Key(null, font, color.getRGB() | 0xFF000000, scale);
+		Atlas atlas = _Atlases.get(key);
+		if (atlas != null) { return atlas; }
+
+		// Otherwise create it, dropping the least recently used atlas if there are too many.
+		atlas = createAtlas(key);
+		_Atlases.put(key, atlas);
+		Iterator<Atlas> atlases = _Atlases.values().iterator();
+		while (_Atlases.size() > MaxAtlases && atlases.hasNext())
+		{
+			atlases.next();
+			atlases.remove();
+		}
+
+		return atlas;
+	}
+
+	/**
+	 * Create a digit atlas, where every character gets a cell as wide as the widest of them.
+	 * 
+	 * @param key
+	 *            The font, color and scale of the atlas.
+	 * @return The digit atlas.
+	 */
+	private Atlas createAtlas(Key key)
+	{
+		// The glyphs and the widest advance among them.
+		GlyphVector glyphs = key.font.createGlyphVector(_Context, AtlasCharacters);
+		float advance = 0;
+		for (int i = 0; i < AtlasCharacters.length(); i++)
+		{
+			advance = Math.max(advance, glyphs.getGlyphMetrics(i).getAdvance());
+		}
+
+		// The size of a cell at the scale the atlas is rasterized at, leaving room for glyphs reaching beyond their advance.
+		double factor = (double) key.scale / ScaleSteps;
+		LineMetrics metrics = key.font.getLineMetrics(AtlasCharacters, _Context);
+		int ascent = (int) Math.ceil(metrics.getAscent() * factor);
+		int padding = (int) Math.ceil(advance * factor / 4);
+		int cellWidth = (int) Math.ceil(advance * factor) + padding * 2;
+		int height = Math.max(ascent + (int) Math.ceil(metrics.getDescent() * factor), 1);
+
+		// Fill every glyph in its own cell, centered on the advance.
+		BufferedImage image = Helper.createCompatibleImage(cellWidth * AtlasCharacters.length(), height, Transparency.TRANSLUCENT);
+		Graphics2D g = image.createGraphics();
+		g.setColor(new Color(key.color, false));
+		g.scale(factor, factor);
+		for (int i = 0; i < AtlasCharacters.length(); i++)
+		{
+			double x = (i * cellWidth + padding) / factor + (advance - glyphs.getGlyphMetrics(i).getAdvance()) / 2 - glyphs.getGlyphPosition(i).getX();
+			g.fill(AffineTransform.getTranslateInstance(x, ascent / factor).createTransformedShape(glyphs.getGlyphOutline(i)));
+		}
+		g.dispose();
+
+		return new Atlas(image, cellWidth, -padding, -ascent, advance);
+	}
+
+	/**
+	 * Drop the least recently used strings until the cache fits within its budget. The most recently used string is always kept.
+	 */
+	private void evict()
+	{
+		// Go through the strings from least to most recently used.
+		Iterator<Entry> entries = _Entries.values().iterator();
+		while (_MemoryUsage > _Budget && _Entries.size() > 1 && entries.hasNext())
+		{
+			_MemoryUsage -= entries.next().getByteSize();
+			entries.remove();
+		}
+	}
+
+	/**
+	 * Drop all rasterized strings and digit atlases.
+	 */
+	public synchronized void clear()
+	{
+		_Entries.clear();
+		_Atlases.clear();
+		_MemoryUsage = 0;
+	}
+
+	/**
+	 * Get the memory budget.
+	 * 
+	 * @return The budget in bytes.
+	 */
+	public long getBudget()
+	{
+		return _Budget;
+	}
+
+	/**
+	 * Set the memory budget. Strings are dropped until the cache fits.
+	 * 
+	 * @param budget
+	 *            The new budget in bytes.
+	 */
+	public synchronized void setBudget(long budget)
+	{
+		_Budget = Math.max(budget, 0);
+		evict();
+	}
+
+	/**
+	 * Get the amount of memory used by the rasterized strings.
+	 * 
+	 * @return The memory usage in bytes.
+	 */
+	public long getMemoryUsage()
+	{
+		return _MemoryUsage;
+	}
+
+	/**
+	 * Get the number of rasterized strings in the cache.
+	 * 
+	 * @return The string count.
+	 */
+	public synchronized int getEntryCount()
+	{
+		return _Entries.size();
+	}
+
+	/**
+	 * Whether a character is drawn from the digit atlas.
+	 * 
+	 * @param c
+	 *            The character.
+	 * @return Whether the atlas holds the character.
+	 */
+	private static boolean isAtlasCharacter(char c)
+	{
+		return AtlasCharacters.indexOf(c) >= 0;
+	}
+
+	/**
+	 * Whether part of a string holds a digit.
+	 * 
+	 * @param s
+	 *            The string.
+	 * @param start
+	 *            The index to start at.
+	 * @param end
+	 *            The index to end before.
+	 * @return Whether there is a digit.
+	 */
+	private static boolean hasDigit(String s, int start, int end)
+	{
+		for (int i = start; i < end; i++)
+		{
+			if (Character.isDigit(s.charAt(i))) { return true; }
+		}
+
+		return false;
+	}
+
+	/**
+	 * Quantize the scale of a transformation, ie. how much it enlarges the area of what it draws.
+	 * 
+	 * @param transform
+	 *            The transformation.
+	 * @return The scale step. It never reaches zero.
+	 */
+	private static int getScaleStep(AffineTransform transform)
+	{
+		return Math.max((int) Math.round(Math.sqrt(Math.abs(transform.getDeterminant())) * ScaleSteps), 1);
+	}
+
+	/**
+	 * A rasterized string, along with where it ends up relative to the start of its baseline.
+	 */
+	private static class Entry
+	{
+		// The image of the string.
+		BufferedImage image;
+		// The position of the image relative to the start of the baseline, in the scale it was rasterized at.
+		int x;
+		int y;
+		// The advance of the string in the scale of the font.
+		float advance;
+
+		/**
+		 * Constructor for a rasterized string.
+		 * 
+		 * @param image
+		 *            The image of the string.
+		 * @param x
+		 *            The x-coordinate of the image relative to the start of the baseline.
+		 * @param y
+		 *            The y-coordinate of the image relative to the baseline.
+		 * @param advance
+		 *            The advance of the string.
+		 */
+		Entry(BufferedImage image, int x, int y, float advance)
+		{
+			this.image = image;
+			this.x = x;
+			this.y = y;
+			this.advance = advance;
+		}
+
+		/**
+		 * Get the amount of memory the string occupies.
+		 * 
+		 * @return The size in bytes.
+		 */
+		long getByteSize()
+		{
+			return (long) image.getWidth() * image.getHeight() * 4;
+		}
+	}
+
+	/**
+	 * A digit atlas, holding every character it draws in a cell of the same width.
+	 */
+	private static class Atlas
+	{
+		// The image of the cells.
+		BufferedImage image;
+		// The width of a cell in the scale it was rasterized at.
+		int cellWidth;
+		// The position of a cell relative to the start of its character's baseline, in the scale it was rasterized at.
+		int x;
+		int y;
+		// The advance of every character in the scale of the font.
+		float advance;
+
+		/**
+		 * Constructor for a digit atlas.
+		 * 
+		 * @param image
+		 *            The image of the cells.
+		 * @param cellWidth
+		 *            The width of a cell.
+		 * @param x
+		 *            The x-coordinate of a cell relative to the start of its character's baseline.
+		 * @param y
+		 *            The y-coordinate of a cell relative to the baseline.
+		 * @param advance
+		 *            The advance of every character.
+		 */
+		Atlas(BufferedImage image, int cellWidth, int x, int y, float advance)
+		{
+			this.image = image;
+			this.cellWidth = cellWidth;
+			this.x = x;
+			this.y = y;
+			this.advance = advance;
+		}
+	}
+
+	/**
+	 * The key of a rasterized string or digit atlas, ie. the text, font, opaque color and quantized scale it was rasterized with.
+	 */
+	private static class Key
+	{
+		// The text, or null for a digit atlas.
+		String text;
+		// The font and opaque color.
+		Font font;
+		int color;
+		// The quantized scale.
+		int scale;
+
+		/**
+		 * Constructor for a key.
+		 * 
+		 * @param text
+		 *            The text, or null for a digit atlas.
+		 * @param font
+		 *            The font.
+		 * @param color
+		 *            The opaque color.
+		 * @param scale
+		 *            The scale step.
+		 */
+		Key(String text, Font font, int color, int scale)
+		{
+			this.text = text;
+			this.font = font;
+			this.color = color;
+			this.scale = scale;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(Object o)
+		{
+			if (!(o instanceof Key)) { return false; }
+			Key k = (Key) o;
+			return (text == null ? k.text == null : text.equals(k.text)) && font.equals(k.font) && color == k.color && scale == k.scale;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode()
+		{
+			int hash = (text == null) ? 0 : text.hashCode();
+			hash = 31 * hash + font.hashCode();
+			hash = 31 * hash + color;
+			return 31 * hash + scale;
+		}
+	}
+}
\ No newline at end of file
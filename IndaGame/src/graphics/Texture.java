@@ -0,0 +1,317 @@
+package graphics;
+
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * A texture is a handle to an image kept by the texture cache. The image itself may be loaded lazily and dropped again by the cache whenever nobody holds a reference to the texture.
+ */
+public class Texture
+{
+	// The cache this texture belongs to.
+	private TextureCache _Cache;
+	// The path name of the image, relative to the images folder.
+	private String _PathName;
+	// The loaded image, if any.
+	private BufferedImage _Image;
+	// The size of the image, before any trimming.
+	private int _Width;
+	private int _Height;
+	// The part of the image that is not fully transparent, which is all that is kept in memory.
+	private Rectangle _Trim;
+	// The transparency of the trimmed image, ie. opaque, bitmask or translucent.
+	private int _Transparency;
+	// The opaque spans of every row of the trimmed image, as pairs of start and end x-coordinates.
+	private int[][] _Spans;
+	// The number of references held to this texture.
+	private int _References;
+	// The atlas page and the region on it, if the texture has been packed into an atlas.
+	private BufferedImage _Page;
+	private Rectangle _Region;
+	// The smaller versions of the image, created when first drawn scaled down.
+	private MipLevel[] _Levels;
+
+	/**
+	 * Constructor for a texture.
+	 * 
+	 * @param cache
+	 *            The cache this texture belongs to.
+	 * @param path
+	 *            The path name of the image.
+	 * @param width
+	 *            The width of the image.
+	 * @param height
+	 *            The height of the image.
+	 */
+	Texture(TextureCache cache, String path, int width, int height)
+	{
+		// Initialize the texture.
+		_Cache = cache;
+		_PathName = path;
+		_Image = null;
+		_Width = width;
+		_Height = height;
+		_Trim = null;
+		_Transparency = Transparency.TRANSLUCENT;
+		_Spans = null;
+		_References = 0;
+		_Page = null;
+		_Region = null;
+		_Levels = null;
+	}
+
+	/**
+	 * Get the texture's image, loading it if needed.
+	 * 
+	 * @return The image.
+	 */
+	public BufferedImage getImage()
+	{
+		return _Cache.getImage(this);
+	}
+
+	/**
+	 * Get a smaller version of the texture's image, creating it if needed.
+	 * 
+	 * @param level
+	 *            The level, where 1 is half the size and each level above halves it again.
+	 * @return The mip level or null if there is no such level.
+	 */
+	public MipLevel getLevel(int level)
+	{
+		// If there is no such level, stop here.
+		if (level < 1 || level > MipLevel.MaxLevel) { return null; }
+
+		// The cache drops the levels while holding its lock, so hold it too.
+		synchronized (_Cache)
+		{
+			// Create the level if it does not exist yet and account for its memory.
+			MipLevel[] levels = _Levels;
+			if (levels == null)
+			{
+				levels = new MipLevel[MipLevel.MaxLevel];
+				_Levels = levels;
+			}
+			if (levels[level - 1] == null)
+			{
+				levels[level - 1] = TextureImporter.createLevel(this, level);
+				_Cache.addMemoryUsage(levels[level - 1].getByteSize());
+			}
+
+			return levels[level - 1];
+		}
+	}
+
+	/**
+	 * Let go of the texture. Once every reference has been released the cache is free to drop the image.
+	 */
+	public void release()
+	{
+		_Cache.release(this);
+	}
+
+	/**
+	 * Get the path name of the texture's image.
+	 * 
+	 * @return The path name.
+	 */
+	public String getPathName()
+	{
+		return _PathName;
+	}
+
+	/**
+	 * Get the width of the texture.
+	 * 
+	 * @return The width.
+	 */
+	public int getWidth()
+	{
+		return _Width;
+	}
+
+	/**
+	 * Get the height of the texture.
+	 * 
+	 * @return The height.
+	 */
+	public int getHeight()
+	{
+		return _Height;
+	}
+
+	/**
+	 * Get the part of the image that is kept after trimming its transparent borders. Until the image has been loaded, this is the whole image.
+	 * 
+	 * @return The trimmed bounds, relative to the untrimmed image.
+	 */
+	public Rectangle getTrim()
+	{
+		return (_Trim != null) ? _Trim : new Rectangle(0, 0, _Width, _Height);
+	}
+
+	/**
+	 * Get the transparency of the trimmed image.
+	 * 
+	 * @return The transparency, ie. opaque, bitmask or translucent.
+	 */
+	public int getTransparency()
+	{
+		return _Transparency;
+	}
+
+	/**
+	 * Get the opaque spans of the trimmed image. Each row holds pairs of start and end x-coordinates, the end being exclusive.
+	 * 
+	 * @return The spans or null if the image has not been loaded yet.
+	 */
+	public int[][] getSpans()
+	{
+		return _Spans;
+	}
+
+	/**
+	 * Get the amount of memory the texture's trimmed image occupies when loaded.
+	 * 
+	 * @return The size in bytes.
+	 */
+	public long getByteSize()
+	{
+		Rectangle trim = getTrim();
+		return (long) trim.width * trim.height * 4;
+	}
+
+	/**
+	 * Get the amount of memory the texture's mip levels occupy.
+	 * 
+	 * @return The size in bytes.
+	 */
+	public long getLevelByteSize()
+	{
+		// Add up the levels that have been created.
+		long size = 0;
+		MipLevel[] levels = _Levels;
+		for (int i = 0; levels != null && i < levels.length; i++)
+		{
+			size += (levels[i] != null) ? levels[i].getByteSize() : 0;
+		}
+
+		return size;
+	}
+
+	/**
+	 * Whether the texture's image is currently loaded.
+	 * 
+	 * @return Whether the image is in memory.
+	 */
+	public boolean isLoaded()
+	{
+		return _Image != null;
+	}
+
+	/**
+	 * Whether the texture has been packed into an atlas.
+	 * 
+	 * @return Whether the texture is part of an atlas.
+	 */
+	public boolean isAtlased()
+	{
+		return _Page != null;
+	}
+
+	/**
+	 * Get the atlas page the texture has been packed into.
+	 * 
+	 * @return The page or null if the texture is not part of an atlas.
+	 */
+	public BufferedImage getPage()
+	{
+		return _Page;
+	}
+
+	/**
+	 * Get the region of the atlas page the texture occupies.
+	 * 
+	 * @return The region or null if the texture is not part of an atlas.
+	 */
+	public Rectangle getRegion()
+	{
+		return _Region;
+	}
+
+	/**
+	 * Get the number of references held to this texture.
+	 * 
+	 * @return The reference count.
+	 */
+	public int getReferences()
+	{
+		return _References;
+	}
+
+	/**
+	 * Get the loaded image without loading it. Only used by the cache.
+	 * 
+	 * @return The image or null.
+	 */
+	BufferedImage getLoadedImage()
+	{
+		return _Image;
+	}
+
+	/**
+	 * Set the loaded image. Only used by the importer.
+	 * 
+	 * @param image
+	 *            The trimmed image.
+	 * @param trim
+	 *            The trimmed bounds, relative to the untrimmed image.
+	 * @param transparency
+	 *            The transparency of the trimmed image.
+	 * @param spans
+	 *            The opaque spans of the trimmed image.
+	 */
+	void setLoadedImage(BufferedImage image, Rectangle trim, int transparency, int[][] spans)
+	{
+		_Image = image;
+		_Trim = trim;
+		_Transparency = transparency;
+		_Spans = spans;
+	}
+
+	/**
+	 * Drop the loaded image and its mip levels, keeping what is known about it. Only used by the cache.
+	 */
+	void dropImage()
+	{
+		_Image = null;
+		_Levels = null;
+	}
+
+	/**
+	 * Set the atlas page and region of the texture. Its image will from now on be a view of that region. Only used by the cache.
+	 * 
+	 * @param page
+	 *            The atlas page or null to leave the atlas.
+	 * @param region
+	 *            The region on the page.
+	 */
+	void setAtlasRegion(BufferedImage page, Rectangle region)
+	{
+		_Page = page;
+		_Region = region;
+		_Image = (page != null) ? page.getSubimage(region.x, region.y, region.width, region.height) : null;
+	}
+
+	/**
+	 * Change the reference count. Only used by the cache.
+	 * 
+	 * @param amount
+	 *            The amount to add.
+	 */
+	void addReferences(int amount)
+	{
+		_References = Math.max(_References + amount, 0);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,264 @@
+package graphics;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+
+import auxillary.Helper;
+
+/**
+ * A texture atlas packs many small textures into a few large pages. Sprites then draw sub-regions of the pages instead of a multitude of tiny images, which is kinder to the caches and cuts the
+ * overhead of every single draw.
+ */
+public class TextureAtlas
+{
+	// The width and height of a page.
+	public static final int PageSize = 1024;
+	// The space left between packed textures.
+	public static final int Padding = 1;
+
+	// The pages of the atlas.
+	private ArrayList<Page> _Pages;
+	// The textures packed into the atlas.
+	private ArrayList<Texture> _Textures;
+
+	/**
+	 * Constructor for a texture atlas.
+	 */
+	public TextureAtlas()
+	{
+		// Initialize the atlas.
+		_Pages = new ArrayList<Page>();
+		_Textures = new ArrayList<Texture>();
+	}
+
+	/**
+	 * Pack textures into the atlas. Their images are loaded first, so that only the trimmed images take up room. Textures that already are packed into an atlas or do not fit on a page are skipped.
+	 * 
+	 * @param textures
+	 *            The textures to pack.
+	 */
+	public void add(Collection<Texture> textures)
+	{
+		// Only pack textures that have not already been packed and that fit on a page.
+		ArrayList<Texture> pack = new ArrayList<Texture>();
+		for (Texture texture : textures)
+		{
+			if (texture.isAtlased() || pack.contains(texture) || texture.getImage() == null || texture.getTrim().width + Padding > PageSize || texture.getTrim().height + Padding > PageSize)
+			{
+				continue;
+			}
+			pack.add(texture);
+		}
+
+		// Pack the tallest textures first, which makes for tighter pages.
+		Collections.sort(pack, new Comparator<Texture>()
+		{
+			@Override
+			public int compare(Texture a, Texture b)
+			{
+				Rectangle ta = a.getTrim();
+				Rectangle tb = b.getTrim();
+				return (tb.height != ta.height) ? tb.height - ta.height : tb.width - ta.width;
+			}
+		});
+
+		// Pack the textures one by one.
+		for (Texture texture : pack)
+		{
+			// Find room on an existing page or create a new one.
+			Rectangle trim = texture.getTrim();
+			Page page = null;
+			Rectangle region = null;
+			for (Page p : _Pages)
+			{
+				region = p.insert(trim.width, trim.height);
+				if (region != null)
+				{
+					page = p;
+					break;
+				}
+			}
+			if (page == null)
+			{
+				page = new Page();
+				_Pages.add(page);
+				TextureCache.getInstance().addMemoryUsage((long) PageSize * PageSize * 4);
+				region = page.insert(trim.width, trim.height);
+			}
+
+			// Copy the texture onto the page.
+			Graphics2D g = page.image.createGraphics();
+			g.setComposite(AlphaComposite.Src);
+			g.drawImage(texture.getImage(), region.x, region.y, null);
+			g.dispose();
+
+			// Let the texture refer to the page from now on and hold on to it.
+			TextureCache.getInstance().acquire(texture.getPathName());
+			TextureCache.getInstance().pack(texture, page.image, region);
+			_Textures.add(texture);
+		}
+	}
+
+	/**
+	 * Dispose of the atlas. All textures go back to using images of their own.
+	 */
+	public void dispose()
+	{
+		// Unpack and release all textures.
+		for (Texture texture : _Textures)
+		{
+			TextureCache.getInstance().unpack(texture);
+			texture.release();
+		}
+
+		// Drop the pages.
+		TextureCache.getInstance().addMemoryUsage(-(long) PageSize * PageSize * 4 * _Pages.size());
+		_Textures.clear();
+		_Pages.clear();
+	}
+
+	/**
+	 * Get the number of pages in the atlas.
+	 * 
+	 * @return The page count.
+	 */
+	public int getPageCount()
+	{
+		return _Pages.size();
+	}
+
+	/**
+	 * Get the number of textures packed into the atlas.
+	 * 
+	 * @return The texture count.
+	 */
+	public int getTextureCount()
+	{
+		return _Textures.size();
+	}
+
+	/**
+	 * A page of the atlas, packed by the skyline method. The skyline is the outline of the tops of all packed textures, stored as horizontal segments from left to right. A new texture is placed on
+	 * the segment where it ends up closest to the top of the page.
+	 */
+	private static class Page
+	{
+		// The image of the page.
+		BufferedImage image;
+		// The skyline segments, each holding x, y and width.
+		ArrayList<int[]> skyline;
+
+		/**
+		 * Constructor for a page.
+		 */
+		Page()
+		{
+			image = Helper.createCompatibleImage(PageSize, PageSize);
+			skyline = new ArrayList<int[]>();
+			skyline.add(new int[] { 0, 0, PageSize });
+		}
+
+		/**
+		 * Find room for a texture on the page.
+		 * 
+		 * @param width
+		 *            The width of the texture.
+		 * @param height
+		 *            The height of the texture.
+		 * @return The region the texture was given or null if it does not fit.
+		 */
+		Rectangle insert(int width, int height)
+		{
+			// The padded size.
+			int w = width + Padding;
+			int h = height + Padding;
+
+			// Find the segment where the texture ends up closest to the top.
+			int bestIndex = -1;
+			int bestY = Integer.MAX_VALUE;
+			for (int i = 0; i < skyline.size(); i++)
+			{
+				int y = fit(i, w, h);
+				if (y >= 0 && y < bestY)
+				{
+					bestY = y;
+					bestIndex = i;
+				}
+			}
+
+			// If there is no room, stop here.
+			if (bestIndex < 0) { return null; }
+
+			// Add the texture to the skyline.
+			int x = skyline.get(bestIndex)[0];
+			skyline.add(bestIndex, new int[] { x, bestY + h, w });
+
+			// Shrink or remove the segments now covered by the texture.
+			for (int i = bestIndex + 1; i < skyline.size(); i++)
+			{
+				int[] segment = skyline.get(i);
+				int overlap = x + w - segment[0];
+				if (overlap <= 0)
+				{
+					break;
+				}
+				if (overlap < segment[2])
+				{
+					segment[0] += overlap;
+					segment[2] -= overlap;
+					break;
+				}
+				skyline.remove(i--);
+			}
+
+			// Merge neighbouring segments of the same height.
+			for (int i = 0; i < skyline.size() - 1; i++)
+			{
+				if (skyline.get(i)[1] == skyline.get(i + 1)[1])
+				{
+					skyline.get(i)[2] += skyline.get(i + 1)[2];
+					skyline.remove(i + 1);
+					i--;
+				}
+			}
+
+			return new Rectangle(x, bestY, width, height);
+		}
+
+		/**
+		 * See at what height a texture would end up if placed at the start of a segment.
+		 * 
+		 * @param index
+		 *            The index of the segment.
+		 * @param width
+		 *            The padded width of the texture.
+		 * @param height
+		 *            The padded height of the texture.
+		 * @return The y-coordinate of the texture's top or -1 if it does not fit.
+		 */
+		private int fit(int index, int width, int height)
+		{
+			// If the texture sticks out to the right, it does not fit.
+			int x = skyline.get(index)[0];
+			if (x + width > PageSize) { return -1; }
+
+			// The texture rests on the highest segment beneath it.
+			int y = 0;
+			int left = width;
+			for (int i = index; left > 0; i++)
+			{
+				y = Math.max(y, skyline.get(i)[1]);
+				left -= skyline.get(i)[2];
+			}
+
+			// If the texture sticks out at the bottom, it does not fit.
+			return (y + height > PageSize) ? -1 : y;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,388 @@
+package graphics;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import debug.MetricsRegistry;
+import auxillary.Helper;
+
+/**
+ * The texture cache keeps every loaded image in memory so that it only has to be decoded once. Textures are reference counted and those no longer referenced are dropped, least recently used first,
+ * once the cache grows beyond its memory budget.
+ */
+public class TextureCache
+{
+	// The default memory budget in bytes.
+	public static final long DefaultBudget = 64L * 1024 * 1024;
+
+	// The singleton texture cache instance.
+	private static TextureCache _Instance;
+
+	// The textures, keyed by path name and ordered by when they were last used.
+	private LinkedHashMap<String, Texture> _Textures;
+	// The memory budget in bytes.
+	private long _Budget;
+	// The amount of memory used by loaded images in bytes.
+	private long _MemoryUsage;
+	// The statistics.
+	private long _Hits;
+	private long _Misses;
+	private long _Evictions;
+
+	/**
+	 * Private constructor for a texture cache.
+	 */
+	private TextureCache()
+	{
+		initialize();
+	}
+
+	/**
+	 * Initialize the texture cache.
+	 */
+	private void initialize()
+	{
+		// Initialize the variables.
+		_Textures = new LinkedHashMap<String, Texture>(64, .75f, true);
+		_Budget = DefaultBudget;
+		_MemoryUsage = 0;
+		_Hits = 0;
+		_Misses = 0;
+		_Evictions = 0;
+
+		// Publish the hits, misses and evictions as metrics.
+		MetricsRegistry.getInstance().gauge("textures.hits", new MetricsRegistry.Gauge()
+		{
+			public double getValue()
+			{
+				return getHits();
+			}
+		});
+		MetricsRegistry.getInstance().gauge("textures.misses", new MetricsRegistry.Gauge()
+		{
+			public double getValue()
+			{
+				return getMisses();
+			}
+		});
+		MetricsRegistry.getInstance().gauge("textures.evictions", new MetricsRegistry.Gauge()
+		{
+			public double getValue()
+			{
+				return getEvictions();
+			}
+		});
+	}
+
+	/**
+	 * Get the singleton instance of this texture cache.
+	 * 
+	 * @return The singleton texture cache.
+	 */
+	public static synchronized TextureCache getInstance()
+	{
+		// If the texture cache has not been created yet, do so.
+		if (_Instance == null)
+		{
+			_Instance = new TextureCache();
+		}
+
+		// Return the instance.
+		return _Instance;
+	}
+
+	/**
+	 * Get a texture and hold a reference to it, so that it will not be dropped until released.
+	 * 
+	 * @param path
+	 *            The path name of the image, relative to the images folder.
+	 * @return The texture.
+	 */
+	public synchronized Texture acquire(String path)
+	{
+		// Get the texture and add a reference to it.
+		Texture texture = getTexture(path);
+		texture.addReferences(1);
+
+		return texture;
+	}
+
+	/**
+	 * Release a reference to a texture.
+	 * 
+	 * @param texture
+	 *            The texture to release.
+	 */
+	public synchronized void release(Texture texture)
+	{
+		// Remove the reference.
+		texture.addReferences(-1);
+
+		// If the texture is no longer used, the cache may have to drop something.
+		if (texture.getReferences() == 0)
+		{
+			evict();
+		}
+	}
+
+	/**
+	 * Get a texture's image, loading it if it is not already in memory.
+	 * 
+	 * @param texture
+	 *            The texture.
+	 * @return The image.
+	 */
+	public synchronized BufferedImage getImage(Texture texture)
+	{
+		// Mark the texture as recently used, adding it again if it has been dropped.
+		if (_Textures.get(texture.getPathName()) == null)
+		{
+			_Textures.put(texture.getPathName(), texture);
+		}
+
+		// If the image already is in memory, use it.
+		if (texture.isLoaded())
+		{
+			_Hits++;
+			return texture.getLoadedImage();
+		}
+
+		// Otherwise load it.
+		_Misses++;
+		TextureImporter.load(texture);
+		_MemoryUsage += texture.getByteSize();
+
+		// Make sure the cache stays within its budget.
+		evict();
+
+		return texture.getLoadedImage();
+	}
+
+	/**
+	 * Get the size of an image without decoding it.
+	 * 
+	 * @param path
+	 *            The path name of the image, relative to the images folder.
+	 * @return The size of the image.
+	 */
+	public synchronized Dimension getSize(String path)
+	{
+		Texture texture = getTexture(path);
+		return new Dimension(texture.getWidth(), texture.getHeight());
+	}
+
+	/**
+	 * Get the texture with the given path, creating it if it does not exist. Creating a texture only reads the size of its image.
+	 * 
+	 * @param path
+	 *            The path name of the image.
+	 * @return The texture.
+	 */
+	private Texture getTexture(String path)
+	{
+		// If the texture already exists, return it.
+		Texture texture = _Textures.get(path);
+		if (texture != null) { return texture; }
+
+		// Otherwise read the image's size and create a texture for it.
+		Dimension size = readSize(path);
+		texture = new Texture(this, path, size.width, size.height);
+		_Textures.put(path, texture);
+
+		return texture;
+	}
+
+	/**
+	 * Read the size of an image from its header.
+	 * 
+	 * @param path
+	 *            The path name of the image, relative to the images folder.
+	 * @return The size of the image.
+	 */
+	private Dimension readSize(String path)
+	{
+		try
+		{
+			// Open the image file.
+			ImageInputStream stream = ImageIO.createImageInputStream(new File(Helper.ContentRoot + "images/" + path));
+
+			try
+			{
+				// Let the first reader able to read the file tell the size.
+				Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+				if (readers.hasNext())
+				{
+					ImageReader reader = readers.next();
+					reader.setInput(stream);
+					Dimension size = new Dimension(reader.getWidth(0), reader.getHeight(0));
+					reader.dispose();
+					return size;
+				}
+			}
+			finally
+			{
+				stream.close();
+			}
+		}
+		catch (Exception e)
+		{
+			System.out.println(this + ": Read Size Error. (" + e + ", Path: " + path + ")");
+		}
+
+		// No reader could tell the size, so decode the whole image.
+		BufferedImage image = TextureImporter.decode(path);
+		return new Dimension(image.getWidth(), image.getHeight());
+	}
+
+	/**
+	 * Let a texture use a region of an atlas page instead of an image of its own.
+	 * 
+	 * @param texture
+	 *            The texture.
+	 * @param page
+	 *            The atlas page.
+	 * @param region
+	 *            The texture's region on the page.
+	 */
+	synchronized void pack(Texture texture, BufferedImage page, Rectangle region)
+	{
+		// The texture's own image is no longer needed.
+		if (texture.isLoaded() && !texture.isAtlased())
+		{
+			_MemoryUsage -= texture.getByteSize();
+		}
+
+		texture.setAtlasRegion(page, region);
+	}
+
+	/**
+	 * Let a texture leave its atlas. Its image will be loaded again the next time it is used.
+	 * 
+	 * @param texture
+	 *            The texture.
+	 */
+	synchronized void unpack(Texture texture)
+	{
+		texture.setAtlasRegion(null, null);
+	}
+
+	/**
+	 * Account for memory used by images outside of the cache's control, such as atlas pages.
+	 * 
+	 * @param amount
+	 *            The amount of bytes to add.
+	 */
+	synchronized void addMemoryUsage(long amount)
+	{
+		_MemoryUsage += amount;
+	}
+
+	/**
+	 * Drop the least recently used images that are no longer referenced until the cache fits within its budget.
+	 */
+	private void evict()
+	{
+		// If the cache fits, stop here.
+		if (_MemoryUsage <= _Budget) { return; }
+
+		// Go through the textures from least to most recently used.
+		for (Texture texture : new ArrayList<Texture>(_Textures.values()))
+		{
+			// Only drop loaded textures that nobody uses.
+			if (texture.getReferences() > 0 || !texture.isLoaded())
+			{
+				continue;
+			}
+
+			// Drop the texture along with its mip levels.
+			_MemoryUsage -= texture.getByteSize() + texture.getLevelByteSize();
+			texture.dropImage();
+			_Textures.remove(texture.getPathName());
+			_Evictions++;
+
+			// If the cache now fits, stop here.
+			if (_MemoryUsage <= _Budget) { return; }
+		}
+	}
+
+	/**
+	 * Get the memory budget.
+	 * 
+	 * @return The budget in bytes.
+	 */
+	public long getBudget()
+	{
+		return _Budget;
+	}
+
+	/**
+	 * Set the memory budget. Unreferenced images are dropped until the cache fits.
+	 * 
+	 * @param budget
+	 *            The new budget in bytes.
+	 */
+	public synchronized void setBudget(long budget)
+	{
+		_Budget = Math.max(budget, 0);
+		evict();
+	}
+
+	/**
+	 * Get the amount of memory used by loaded images.
+	 * 
+	 * @return The memory usage in bytes.
+	 */
+	public long getMemoryUsage()
+	{
+		return _MemoryUsage;
+	}
+
+	/**
+	 * Get the number of textures known to the cache.
+	 * 
+	 * @return The texture count.
+	 */
+	public synchronized int getTextureCount()
+	{
+		return _Textures.size();
+	}
+
+	/**
+	 * Get the number of times an image was found in memory.
+	 * 
+	 * @return The number of hits.
+	 */
+	public long getHits()
+	{
+		return _Hits;
+	}
+
+	/**
+	 * Get the number of times an image had to be loaded.
+	 * 
+	 * @return The number of misses.
+	 */
+	public long getMisses()
+	{
+		return _Misses;
+	}
+
+	/**
+	 * Get the number of images dropped to stay within budget.
+	 * 
+	 * @return The number of evictions.
+	 */
+	public long getEvictions()
+	{
+		return _Evictions;
+	}
+}
\ No newline at end of file
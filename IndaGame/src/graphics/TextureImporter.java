@@ -0,0 +1,233 @@
+package graphics;
+
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+import debug.FlightRecorder;
+import auxillary.Helper;
+
+/**
+ * The texture importer prepares an image for drawing when it is loaded. It trims away fully transparent borders, finds out whether the image is opaque, bitmask or translucent and records which
+ * spans of every row are not transparent, so that the depth composite can skip the rest.
+ */
+public final class TextureImporter
+{
+	/**
+	 * Private constructor, the importer only has static methods.
+	 */
+	private TextureImporter()
+	{
+	}
+
+	/**
+	 * Load a texture's image and give it to the texture along with its trim, transparency and opaque spans.
+	 * 
+	 * @param texture
+	 *            The texture to load.
+	 */
+	public static void load(Texture texture)
+	{
+		// Read the raw image.
+		BufferedImage raw = decode(texture.getPathName());
+
+		// Get the pixels of the image.
+		int width = raw.getWidth();
+		int height = raw.getHeight();
+		int[] pixels = raw.getRGB(0, 0, width, height, null, 0, width);
+
+		// Find the bounds of all pixels that are not fully transparent.
+		int minX = width;
+		int minY = height;
+		int maxX = -1;
+		int maxY = -1;
+		for (int y = 0; y < height; y++)
+		{
+			for (int x = 0; x < width; x++)
+			{
+				if ((pixels[y * width + x] >>> 24) != 0)
+				{
+					minX = Math.min(minX, x);
+					minY = Math.min(minY, y);
+					maxX = Math.max(maxX, x);
+					maxY = Math.max(maxY, y);
+				}
+			}
+		}
+
+		// A fully transparent image is trimmed down to a single pixel.
+		Rectangle trim = (maxX < 0) ? new Rectangle(0, 0, 1, 1) : new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+
+		// Classify the trimmed image and record its opaque spans.
+		boolean isOpaque = true;
+		boolean isBitmask = true;
+		int[][] spans = new int[trim.height][];
+		int[] row = new int[trim.width + 1];
+		for (int y = 0; y < trim.height; y++)
+		{
+			for (int x = 0; x < trim.width; x++)
+			{
+				int alpha = pixels[(trim.y + y) * width + trim.x + x] >>> 24;
+				isOpaque = isOpaque && alpha == 255;
+				isBitmask = isBitmask && (alpha == 0 || alpha == 255);
+			}
+
+			spans[y] = findSpans(pixels, (trim.y + y) * width + trim.x, trim.width, row);
+		}
+
+		// Decide on the transparency.
+		int transparency = isOpaque ? Transparency.OPAQUE : (isBitmask ? Transparency.BITMASK : Transparency.TRANSLUCENT);
+
+		// Let the texture use the trimmed, compatible image.
+		BufferedImage image = Helper.makeCompatible(raw.getSubimage(trim.x, trim.y, trim.width, trim.height), transparency);
+		texture.setLoadedImage(image, trim, transparency, spans);
+	}
+
+	/**
+	 * Decode an image file, letting the helper have a go at it should reading fail. The decoding is recorded as a flight recorder event.
+	 * 
+	 * @param path
+	 *            The path name of the image, relative to the images folder.
+	 * @return The raw image.
+	 */
+	static BufferedImage decode(String path)
+	{
+		// Record the decoding.
+		Object event = FlightRecorder.beginTextureDecode();
+		File file = new File(Helper.ContentRoot + "images/" + path);
+
+		// Read the raw image, letting the helper have a go at it should reading fail.
+		BufferedImage image = null;
+		try
+		{
+			image = ImageIO.read(file);
+		}
+		catch (Exception e)
+		{
+			System.out.println("TextureImporter: Read Image Error. (" + e + ", Path: " + path + ")");
+		}
+		if (image == null)
+		{
+			image = Helper.loadImage(path, true);
+		}
+
+		FlightRecorder.endTextureDecode(event, file.getPath(), image.getWidth(), image.getHeight(), file.length());
+		return image;
+	}
+
+	/**
+	 * Create a mip level of a texture's image by averaging boxes of its pixels. Colors are weighed by their alpha, so that transparent pixels do not darken the edges.
+	 * 
+	 * @param texture
+	 *            The texture, which must be loaded.
+	 * @param level
+	 *            The level to create, where a pixel covers 2^level by 2^level pixels of the image.
+	 * @return The mip level.
+	 */
+	static MipLevel createLevel(Texture texture, int level)
+	{
+		// Get the pixels of the trimmed image.
+		BufferedImage image = texture.getImage();
+		Rectangle trim = texture.getTrim();
+		int width = image.getWidth();
+		int height = image.getHeight();
+		int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+
+		// The bounds of the level, ie. the boxes of the untrimmed image that the trimmed image touches.
+		int size = 1 << level;
+		int minX = trim.x / size;
+		int minY = trim.y / size;
+		Rectangle bounds = new Rectangle(minX, minY, (trim.x + width + size - 1) / size - minX, (trim.y + height + size - 1) / size - minY);
+
+		// Average every box of pixels, leaving out those outside of the trimmed image.
+		int[] levelPixels = new int[bounds.width * bounds.height];
+		for (int v = 0; v < bounds.height; v++)
+		{
+			for (int u = 0; u < bounds.width; u++)
+			{
+				long a = 0;
+				long r = 0;
+				long g = 0;
+				long b = 0;
+				for (int j = 0; j < size; j++)
+				{
+					int y = (minY + v) * size + j - trim.y;
+					for (int i = 0; i < size && y >= 0 && y < height; i++)
+					{
+						int x = (minX + u) * size + i - trim.x;
+						if (x < 0 || x >= width)
+						{
+							continue;
+						}
+
+						int pixel = pixels[y * width + x];
+						int alpha = pixel >>> 24;
+						a += alpha;
+						r += ((pixel >> 16) & 0xFF) * alpha;
+						g += ((pixel >> 8) & 0xFF) * alpha;
+						b += (pixel & 0xFF) * alpha;
+					}
+				}
+
+				// The alpha is averaged over the whole box, the colors over the alpha.
+				int alpha = (int) ((a + size * size / 2) / (size * size));
+				levelPixels[v * bounds.width + u] = (a == 0) ? 0 : (alpha << 24) | (int) (r / a) << 16 | (int) (g / a) << 8 | (int) (b / a);
+			}
+		}
+
+		// Record the spans of the level.
+		int[][] spans = new int[bounds.height][];
+		int[] row = new int[bounds.width + 1];
+		for (int v = 0; v < bounds.height; v++)
+		{
+			spans[v] = findSpans(levelPixels, v * bounds.width, bounds.width, row);
+		}
+
+		// Create the level's image.
+		BufferedImage levelImage = Helper.createCompatibleImage(bounds.width, bounds.height, Transparency.TRANSLUCENT);
+		levelImage.setRGB(0, 0, bounds.width, bounds.height, levelPixels, 0, bounds.width);
+
+		return new MipLevel(levelImage, bounds, spans);
+	}
+
+	/**
+	 * Find the spans of a row of pixels that are not fully transparent.
+	 * 
+	 * @param pixels
+	 *            The pixels.
+	 * @param offset
+	 *            The index of the row's first pixel.
+	 * @param width
+	 *            The width of the row.
+	 * @param row
+	 *            A buffer of at least the width plus one to gather the spans in.
+	 * @return The spans, as pairs of start and end x-coordinates.
+	 */
+	private static int[] findSpans(int[] pixels, int offset, int width, int[] row)
+	{
+		// Go through the row, noting where each span starts and ends.
+		int count = 0;
+		boolean inSpan = false;
+		for (int x = 0; x < width; x++)
+		{
+			// A span starts at the first visible pixel and ends at the first transparent one.
+			if (((pixels[offset + x] >>> 24) != 0) != inSpan)
+			{
+				row[count++] = x;
+				inSpan = !inSpan;
+			}
+		}
+
+		// Close a span reaching the end of the row.
+		if (inSpan)
+		{
+			row[count++] = width;
+		}
+
+		return Arrays.copyOf(row, count);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,432 @@
+package graphics;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import auxillary.Helper;
+import auxillary.Vector2;
+
+/**
+ * The texture variant cache keeps flipped, rotated, scaled and faded copies of images around, so that a sprite only has to be filtered once instead of every time it is drawn. Rotation, scale and
+ * transparency are quantized to keep the number of variants down, and the least recently used variants are dropped once the cache grows beyond its memory budget.
+ */
+public class TextureVariantCache
+{
+	// The default memory budget in bytes.
+	public static final long DefaultBudget = 16L * 1024 * 1024;
+	// The number of steps a full turn is divided into.
+	public static final int RotationSteps = 64;
+	// The number of steps a scale of one is divided into.
+	public static final int ScaleSteps = 16;
+	// The number of steps full opacity is divided into.
+	public static final int AlphaSteps = 32;
+
+	// The singleton texture variant cache instance.
+	private static TextureVariantCache _Instance;
+
+	// The variants, ordered by when they were last used.
+	private LinkedHashMap<Key, Variant> _Variants;
+	// The memory budget in bytes.
+	private long _Budget;
+	// The amount of memory used by the variants in bytes.
+	private long _MemoryUsage;
+
+	/**
+	 * Private constructor for a texture variant cache.
+	 */
+	private TextureVariantCache()
+	{
+		initialize();
+	}
+
+	/**
+	 * Initialize the texture variant cache.
+	 */
+	private void initialize()
+	{
+		// Initialize the variables.
+		_Variants = new LinkedHashMap<Key, Variant>(64, .75f, true);
+		_Budget = DefaultBudget;
+		_MemoryUsage = 0;
+	}
+
+	/**
+	 * Get the singleton instance of this texture variant cache.
+	 * 
+	 * @return The singleton texture variant cache.
+	 */
+	public static synchronized TextureVariantCache getInstance()
+	{
+		// If the cache has not been created yet, do so.
+		if (_Instance == null)
+		{
+			_Instance = new TextureVariantCache();
+		}
+
+		// Return the instance.
+		return _Instance;
+	}
+
+	/**
+	 * Whether an image drawn with the given settings looks just like the image itself, once the settings have been quantized.
+	 * 
+	 * @param flip
+	 *            Whether the image is flipped horizontally.
+	 * @param rotation
+	 *            The rotation in radians.
+	 * @param scale
+	 *            The scale.
+	 * @param alpha
+	 *            The opacity, between 0 and 1.
+	 * @return Whether no variant is needed.
+	 */
+	public static boolean isIdentity(boolean flip, double rotation, double scale, float alpha)
+	{
+		return !flip && getRotationStep(rotation) == 0 && getScaleStep(scale) == ScaleSteps && getAlphaStep(alpha) == AlphaSteps;
+	}
+
+	/**
+	 * Get a variant of an image, creating it if it does not exist yet.
+	 * 
+	 * @param image
+	 *            The trimmed image.
+	 * @param trim
+	 *            The bounds of the trimmed image within its untrimmed bounds.
+	 * @param origin
+	 *            The point within the untrimmed bounds that the image is flipped, rotated and scaled around.
+	 * @param flip
+	 *            Whether to flip the image horizontally.
+	 * @param rotation
+	 *            The rotation in radians.
+	 * @param scale
+	 *            The scale.
+	 * @param alpha
+	 *            The opacity, between 0 and 1.
+	 * @return The variant.
+	 */
+	public synchronized Variant getVariant(BufferedImage image, Rectangle trim, Vector2 origin, boolean flip, double rotation, double scale, float alpha)
+	{
+		// If the variant already exists, use it.
+		Key key = new Key(image, origin, flip, getRotationStep(rotation), getScaleStep(scale), getAlphaStep(alpha));
+		Variant variant = _Variants.get(key);
+		if (variant != null) { return variant; }
+
+		// Otherwise create it and make sure the cache stays within its budget.
+		variant = createVariant(image, trim, origin, key);
+		_Variants.put(key, variant);
+		_MemoryUsage += variant.getByteSize();
+		evict();
+
+		return variant;
+	}
+
+	/**
+	 * Create a variant of an image.
+	 * 
+	 * @param image
+	 *            The trimmed image.
+	 * @param trim
+	 *            The bounds of the trimmed image within its untrimmed bounds.
+	 * @param origin
+	 *            The point within the untrimmed bounds that the image is flipped, rotated and scaled around.
+	 * @param key
+	 *            The quantized settings of the variant.
+	 * @return The variant.
+	 */
+	private Variant createVariant(BufferedImage image, Rectangle trim, Vector2 origin, Key key)
+	{
+		// The transform from the untrimmed image to the variant, relative to the origin.
+		AffineTransform transform = new AffineTransform();
+		transform.rotate(2 * Math.PI * key.rotation / RotationSteps);
+		transform.scale((double) key.scale / ScaleSteps, (double) key.scale / ScaleSteps);
+		if (key.flip)
+		{
+			transform.scale(-1, 1);
+		}
+		transform.translate(-origin.x, -origin.y);
+
+		// The bounds of the transformed image.
+		Rectangle2D area = transform.createTransformedShape(trim).getBounds2D();
+		int x = (int) Math.floor(area.getMinX());
+		int y = (int) Math.floor(area.getMinY());
+		int width = Math.max((int) Math.ceil(area.getMaxX()) - x, 1);
+		int height = Math.max((int) Math.ceil(area.getMaxY()) - y, 1);
+
+		// Draw the image onto the variant.
+		BufferedImage variant = Helper.createCompatibleImage(width, height);
+		Graphics2D g = variant.createGraphics();
+		if (key.rotation != 0 || key.scale != ScaleSteps)
+		{
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		}
+		g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) key.alpha / AlphaSteps));
+		g.translate(-x, -y);
+		g.transform(transform);
+		g.drawImage(image, trim.x, trim.y, null);
+		g.dispose();
+
+		return new Variant(variant, x, y, transform);
+	}
+
+	/**
+	 * Drop the least recently used variants until the cache fits within its budget. The most recently used variant is always kept.
+	 */
+	private void evict()
+	{
+		// Go through the variants from least to most recently used.
+		Iterator<Variant> variants = _Variants.values().iterator();
+		while (_MemoryUsage > _Budget && _Variants.size() > 1 && variants.hasNext())
+		{
+			_MemoryUsage -= variants.next().getByteSize();
+			variants.remove();
+		}
+	}
+
+	/**
+	 * Drop all variants.
+	 */
+	public synchronized void clear()
+	{
+		_Variants.clear();
+		_MemoryUsage = 0;
+	}
+
+	/**
+	 * Get the memory budget.
+	 * 
+	 * @return The budget in bytes.
+	 */
+	public long getBudget()
+	{
+		return _Budget;
+	}
+
+	/**
+	 * Set the memory budget. Variants are dropped until the cache fits.
+	 * 
+	 * @param budget
+	 *            The new budget in bytes.
+	 */
+	public synchronized void setBudget(long budget)
+	{
+		_Budget = Math.max(budget, 0);
+		evict();
+	}
+
+	/**
+	 * Get the amount of memory used by the variants.
+	 * 
+	 * @return The memory usage in bytes.
+	 */
+	public long getMemoryUsage()
+	{
+		return _MemoryUsage;
+	}
+
+	/**
+	 * Get the number of variants in the cache.
+	 * 
+	 * @return The variant count.
+	 */
+	public synchronized int getVariantCount()
+	{
+		return _Variants.size();
+	}
+
+	/**
+	 * Quantize a rotation.
+	 * 
+	 * @param rotation
+	 *            The rotation in radians.
+	 * @return The rotation step, between 0 and the number of steps.
+	 */
+	private static int getRotationStep(double rotation)
+	{
+		int step = (int) Math.round(rotation / (2 * Math.PI) * RotationSteps) % RotationSteps;
+		return (step < 0) ? step + RotationSteps : step;
+	}
+
+	/**
+	 * Quantize a scale. It never reaches zero.
+	 * 
+	 * @param scale
+	 *            The scale.
+	 * @return The scale step.
+	 */
+	private static int getScaleStep(double scale)
+	{
+		return Math.max((int) Math.round(scale * ScaleSteps), 1);
+	}
+
+	/**
+	 * Quantize an opacity.
+	 * 
+	 * @param alpha
+	 *            The opacity, between 0 and 1.
+	 * @return The alpha step, between 0 and the number of steps.
+	 */
+	private static int getAlphaStep(float alpha)
+	{
+		return Math.min(Math.max(Math.round(alpha * AlphaSteps), 0), AlphaSteps);
+	}
+
+	/**
+	 * A variant of an image, along with where it ends up relative to the point it was transformed around.
+	 */
+	public static class Variant
+	{
+		// The image of the variant.
+		private BufferedImage _Image;
+		// The position of the image relative to the origin.
+		private int _X;
+		private int _Y;
+		// The transform from the untrimmed image to the variant, relative to the origin.
+		private AffineTransform _Transform;
+
+		/**
+		 * Constructor for a variant.
+		 * 
+		 * @param image
+		 *            The image of the variant.
+		 * @param x
+		 *            The x-coordinate of the image relative to the origin.
+		 * @param y
+		 *            The y-coordinate of the image relative to the origin.
+		 * @param transform
+		 *            The transform from the untrimmed image to the variant, relative to the origin.
+		 */
+		Variant(BufferedImage image, int x, int y, AffineTransform transform)
+		{
+			_Image = image;
+			_X = x;
+			_Y = y;
+			_Transform = transform;
+		}
+
+		/**
+		 * Get the image of the variant.
+		 * 
+		 * @return The image.
+		 */
+		public BufferedImage getImage()
+		{
+			return _Image;
+		}
+
+		/**
+		 * Get the x-coordinate of the image relative to the origin.
+		 * 
+		 * @return The x-coordinate.
+		 */
+		public int getX()
+		{
+			return _X;
+		}
+
+		/**
+		 * Get the y-coordinate of the image relative to the origin.
+		 * 
+		 * @return The y-coordinate.
+		 */
+		public int getY()
+		{
+			return _Y;
+		}
+
+		/**
+		 * Get the transform from the untrimmed image to the variant, relative to the origin.
+		 * 
+		 * @return The transform.
+		 */
+		public AffineTransform getTransform()
+		{
+			return new AffineTransform(_Transform);
+		}
+
+		/**
+		 * Get the amount of memory the variant occupies.
+		 * 
+		 * @return The size in bytes.
+		 */
+		public long getByteSize()
+		{
+			return (long) _Image.getWidth() * _Image.getHeight() * 4;
+		}
+	}
+
+	/**
+	 * The key of a variant, ie. the image and the quantized settings it was created with.
+	 */
+	private static class Key
+	{
+		// The image and the point it is transformed around.
+		BufferedImage image;
+		double originX;
+		double originY;
+		// The quantized settings.
+		boolean flip;
+		int rotation;
+		int scale;
+		int alpha;
+
+		/**
+		 * Constructor for a key.
+		 * 
+		 * @param image
+		 *            The trimmed image.
+		 * @param origin
+		 *            The point the image is transformed around.
+		 * @param flip
+		 *            Whether the image is flipped horizontally.
+		 * @param rotation
+		 *            The rotation step.
+		 * @param scale
+		 *            The scale step.
+		 * @param alpha
+		 *            The alpha step.
+		 */
+		Key(BufferedImage image, Vector2 origin, boolean flip, int rotation, int scale, int alpha)
+		{
+			this.image = image;
+			this.originX = origin.x;
+			this.originY = origin.y;
+			this.flip = flip;
+			this.rotation = rotation;
+			this.scale = scale;
+			this.alpha = alpha;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(Object o)
+		{
+			if (!(o instanceof Key)) { return false; }
+			Key k = (Key) o;
+			return image == k.image && originX == k.originX && originY == k.originY && flip == k.flip && rotation == k.rotation && scale == k.scale && alpha == k.alpha;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode()
+		{
+			int hash = System.identityHashCode(image);
+			hash = 31 * hash + Double.valueOf(originX).hashCode();
+			hash = 31 * hash + Double.valueOf(originY).hashCode();
+			hash = 31 * hash + (flip ? 1 : 0);
+			hash = 31 * hash + rotation;
+			hash = 31 * hash + scale;
+			return 31 * hash + alpha;
+		}
+	}
+}
\ No newline at end of file
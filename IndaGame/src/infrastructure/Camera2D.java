@@ -149,6 +149,36 @@ public class Camera2D
 		_ZoomValue = Helper.clamp(_ZoomValue, _MaxZoom, _MinZoom);
 	}
 
+	/**
+	 * Get the camera's zoom.
+	 * 
+	 * @return The zoom value, where 1 shows the world at its actual size.
+	 */
+	public float getZoom()
+	{
+		return _ZoomValue;
+	}
+
+	/**
+	 * Set how far the camera can zoom out and in. Zooming out to a half or a quarter lets sprites be drawn from their smaller mip levels.
+	 * 
+	 * @param out
+	 *            The smallest zoom value, ie. how far the camera can zoom out.
+	 * @param in
+	 *            The largest zoom value, ie. how far the camera can zoom in.
+	 */
+	public void setZoomLimits(float out, float in)
+	{
+		// Set the limits and keep the zoom within them.
+		_MaxZoom = out;
+		_MinZoom = in;
+		zoom(0);
+
+		// Keep the camera within bounds and update the matrix.
+		clamp();
+		updateCamera();
+	}
+
 	/**
 	 * Get the camera's transformation matrix. This also updates the matrix.
 	 * 
@@ -162,6 +192,10 @@ public class Camera2D
 		_Transform.translate(-_Position.x, -_Position.y);
 		_Transform.translate(_Origin.x / _ZoomValue, _Origin.y / _ZoomValue);
 
+		// Snap the translation to whole pixels, so that the screen can be scrolled instead of redrawn when the camera moves.
+		_Transform.setTransform(_Transform.getScaleX(), _Transform.getShearY(), _Transform.getShearX(), _Transform.getScaleY(), Math.round(_Transform.getTranslateX()),
+				Math.round(_Transform.getTranslateY()));
+
 		// Return the matrix.
 		return _Transform;
 	}
@@ -264,6 +298,28 @@ public class Camera2D
 		return new Vector2(t.x, t.y);
 	}
 
+	/**
+	 * Get the area of the world that the camera can see, ie. the viewport transformed back into world coordinates. If the camera is rotated this is the bounding box of the rotated viewport.
+	 * 
+	 * @return The visible area in world coordinates.
+	 */
+	public Rectangle getVisibleArea()
+	{
+		// The inverted transformation matrix.
+		AffineTransform inverse = new AffineTransform(getTransformMatrix());
+		try
+		{
+			inverse.invert();
+		}
+		catch (Exception e)
+		{
+			System.out.println(this + ": Invert Matrix Error. (" + e + ")");
+		}
+
+		// Transform the viewport and return its bounds.
+		return inverse.createTransformedShape(new Rectangle(0, 0, _Viewport.width, _Viewport.height)).getBounds();
+	}
+
 	/**
 	 * Get the camera viewport's position.
 	 * 
@@ -294,4 +350,21 @@ public class Camera2D
 	{
 		return new Vector2(_Viewport.width, _Viewport.height);
 	}
+
+	/**
+	 * Set the size of the camera's viewport, for instance when the window has been resized. The camera keeps looking at the same position, now from the center of the new viewport.
+	 * 
+	 * @param size
+	 *            The new size of the viewport.
+	 */
+	public void setViewportSize(Vector2 size)
+	{
+		// Resize the viewport and center the origin in it.
+		_Viewport = new Rectangle(0, 0, (int) size.x, (int) size.y);
+		_Origin = new Vector2(_Viewport.getWidth() / 2, _Viewport.getHeight() / 2);
+
+		// Keep the camera within bounds and update the matrix.
+		clamp();
+		updateCamera();
+	}
 }
@@ -0,0 +1,208 @@
+package infrastructure;
+
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.Area;
+import java.util.ArrayList;
+
+/**
+ * A dirty region keeps track of the parts of a back-buffer that have changed since it was last presented. Only those parts need to be redrawn, which saves a lot of work when most of the screen
+ * stays the same from one frame to the next.
+ */
+public class DirtyRegion
+{
+	// The maximum number of separate rectangles kept before they are all merged into one.
+	public static final int MaxRectangles = 8;
+
+	// The bounds of the back-buffer.
+	private Rectangle _Bounds;
+	// The list of dirty rectangles. They never intersect each other.
+	private ArrayList<Rectangle> _Rectangles;
+	// Whether the whole back-buffer needs to be redrawn.
+	private boolean _IsFullRedraw;
+
+	/**
+	 * Constructor for a dirty region. The region starts out fully dirty.
+	 * 
+	 * @param width
+	 *            The width of the back-buffer.
+	 * @param height
+	 *            The height of the back-buffer.
+	 */
+	public DirtyRegion(int width, int height)
+	{
+		// Initialize the region.
+		_Bounds = new Rectangle(0, 0, width, height);
+		_Rectangles = new ArrayList<Rectangle>();
+		_IsFullRedraw = true;
+	}
+
+	/**
+	 * Add a rectangle to the region. Rectangles that intersect each other are merged.
+	 * 
+	 * @param rectangle
+	 *            The area that has changed.
+	 */
+	public void add(Rectangle rectangle)
+	{
+		// If the whole back-buffer is going to be redrawn anyway, stop here.
+		if (_IsFullRedraw || rectangle == null) { return; }
+
+		// Only keep the part that lies within the back-buffer.
+		Rectangle r = rectangle.intersection(_Bounds);
+		if (r.isEmpty()) { return; }
+
+		// Merge the rectangle with every rectangle it touches until it touches nothing.
+		boolean merged = true;
+		while (merged)
+		{
+			merged = false;
+			for (int i = 0; i < _Rectangles.size(); i++)
+			{
+				if (_Rectangles.get(i).intersects(r))
+				{
+					r = r.union(_Rectangles.remove(i));
+					merged = true;
+					break;
+				}
+			}
+		}
+
+		// Add the merged rectangle.
+		_Rectangles.add(r);
+
+		// If there are too many rectangles, merge them all into their common bounds.
+		if (_Rectangles.size() > MaxRectangles)
+		{
+			Rectangle union = getBounds();
+			_Rectangles.clear();
+			_Rectangles.add(union);
+		}
+	}
+
+	/**
+	 * Mark the whole back-buffer as dirty.
+	 */
+	public void invalidate()
+	{
+		_IsFullRedraw = true;
+		_Rectangles.clear();
+	}
+
+	/**
+	 * Move all dirty rectangles. This is used when the contents of the back-buffer have been scrolled.
+	 * 
+	 * @param dx
+	 *            The amount of movement on the x-axis.
+	 * @param dy
+	 *            The amount of movement on the y-axis.
+	 */
+	public void translate(int dx, int dy)
+	{
+		// Move the rectangles and add them again, so that they are clipped and merged.
+		ArrayList<Rectangle> rectangles = new ArrayList<Rectangle>(_Rectangles);
+		_Rectangles.clear();
+		for (Rectangle r : rectangles)
+		{
+			r.translate(dx, dy);
+			add(r);
+		}
+	}
+
+	/**
+	 * Forget all changes, usually done after the back-buffer has been presented.
+	 */
+	public void clear()
+	{
+		_IsFullRedraw = false;
+		_Rectangles.clear();
+	}
+
+	/**
+	 * Whether the whole back-buffer needs to be redrawn.
+	 * 
+	 * @return Whether this is a full redraw.
+	 */
+	public boolean isFullRedraw()
+	{
+		return _IsFullRedraw;
+	}
+
+	/**
+	 * Whether nothing needs to be redrawn.
+	 * 
+	 * @return Whether the region is empty.
+	 */
+	public boolean isEmpty()
+	{
+		return !_IsFullRedraw && _Rectangles.isEmpty();
+	}
+
+	/**
+	 * Get the dirty rectangles. If the whole back-buffer is dirty, its bounds are returned as the only rectangle.
+	 * 
+	 * @return The list of dirty rectangles.
+	 */
+	public ArrayList<Rectangle> getRectangles()
+	{
+		// If the whole back-buffer is dirty, return its bounds.
+		if (_IsFullRedraw)
+		{
+			ArrayList<Rectangle> full = new ArrayList<Rectangle>();
+			full.add(new Rectangle(_Bounds));
+			return full;
+		}
+
+		return new ArrayList<Rectangle>(_Rectangles);
+	}
+
+	/**
+	 * Get the bounds of all dirty rectangles.
+	 * 
+	 * @return The bounding rectangle of the region.
+	 */
+	public Rectangle getBounds()
+	{
+		// If the whole back-buffer is dirty, return its bounds.
+		if (_IsFullRedraw) { return new Rectangle(_Bounds); }
+
+		// Unite all rectangles.
+		Rectangle bounds = null;
+		for (Rectangle r : _Rectangles)
+		{
+			bounds = (bounds == null) ? new Rectangle(r) : bounds.union(r);
+		}
+
+		return (bounds == null) ? new Rectangle() : bounds;
+	}
+
+	/**
+	 * Get a clipping shape that covers exactly the dirty rectangles.
+	 * 
+	 * @return The clipping shape.
+	 */
+	public Shape getClip()
+	{
+		// If there is a single rectangle, use it directly.
+		if (_IsFullRedraw || _Rectangles.size() <= 1) { return getBounds(); }
+
+		// Otherwise add the rectangles together.
+		Area area = new Area();
+		for (Rectangle r : _Rectangles)
+		{
+			area.add(new Area(r));
+		}
+
+		return area;
+	}
+
+	/**
+	 * Get the size of the back-buffer this region covers.
+	 * 
+	 * @return The bounds of the back-buffer.
+	 */
+	public Rectangle getBufferBounds()
+	{
+		return new Rectangle(_Bounds);
+	}
+}
\ No newline at end of file
@@ -145,7 +145,7 @@ public class EntityInfoPanel extends JPanel
 
 			// Initialize the entity to the state of this info panel.
 			_Entity.getBody().setIsImmaterial(true);
-			_Image = Helper.loadImage(entity.getSprites().getSprite(0).getCurrentFrame().getPathName(), true);
+			_Image = entity.getSprites().getSprite(0).getCurrentFrame().getTexture();
 			_ImagePosition = new Vector2((getWidth() / 2) - (_Image.getWidth() / 2), 200);
 		}
 		catch (Exception e)
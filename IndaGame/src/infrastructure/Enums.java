@@ -28,4 +28,13 @@ public final class Enums
 	{
 		Uniform, Top, Bottom, Right, Left
 	}
+
+	/**
+	 * The way a scene is rendered. Depth buffer means that every pixel is depth tested by the depth composite, whereas painters order means that entities are sorted back to front and simply drawn
+	 * on top of each other.
+	 */
+	public static enum RenderMode
+	{
+		DepthBuffer, PaintersOrder
+	}
 }
@@ -0,0 +1,289 @@
+package infrastructure;
+
+import java.util.concurrent.locks.LockSupport;
+
+import main.Game;
+
+/**
+ * The frame scheduler paces the game loop, telling it when the next update and the next drawing are due and waiting for them in between. Deadlines are kept in nanoseconds and advanced by exactly one
+ * period at a time, so that the pace does not drift. Waiting sleeps for the bulk of the time, parks for the rest of it and spins through the last moments, which hits a deadline far closer than
+ * sleeping alone. If the game falls behind, drawings are skipped so that the updates can catch up, and deadlines that are too far gone are dropped.
+ * 
+ * The rates can be set with the system properties "indagame.updateRate" and "indagame.renderRate", and "indagame.uncapped" runs the loop as fast as it can for benchmarking.
+ */
+public class FrameScheduler
+{
+	// The default number of updates and drawings per second.
+	public static final int DefaultRate = 1000 / Game.TimePerFrame;
+	// The most drawings in a row that may be skipped to catch up with the updates.
+	public static final int MaxFrameSkip = 5;
+	// How long before a deadline to stop sleeping and start parking, and to stop parking and start spinning, in nanoseconds.
+	public static final long SleepMargin = 2000000L;
+	public static final long SpinMargin = 200000L;
+
+	// The time between updates and between drawings, in nanoseconds.
+	private long _UpdatePeriod;
+	private long _RenderPeriod;
+	// Whether the loop runs as fast as it can.
+	private boolean _IsUncapped;
+	// When the next update and drawing are due. A render thread may wait for the drawings while the game loop waits for the updates.
+	private volatile long _NextUpdate;
+	private volatile long _NextRender;
+	// The number of drawings skipped in a row and in total, and the number of update deadlines dropped.
+	private int _SkippedInRow;
+	private long _SkippedRenders;
+	private long _DroppedUpdates;
+
+	/**
+	 * Constructor for a frame scheduler, with its rates read from the system properties.
+	 */
+	public FrameScheduler()
+	{
+		this(Integer.getInteger("indagame.updateRate", DefaultRate), Integer.getInteger("indagame.renderRate", DefaultRate), Boolean.getBoolean("indagame.uncapped"));
+	}
+
+	/**
+	 * Constructor for a frame scheduler.
+	 * 
+	 * @param updateRate
+	 *            The number of updates per second.
+	 * @param renderRate
+	 *            The number of drawings per second.
+	 * @param uncapped
+	 *            Whether the loop runs as fast as it can.
+	 */
+	public FrameScheduler(int updateRate, int renderRate, boolean uncapped)
+	{
+		setUpdateRate(updateRate);
+		setRenderRate(renderRate);
+		_IsUncapped = uncapped;
+		start();
+	}
+
+	/**
+	 * Start the schedule anew, with an update and a drawing due right away.
+	 */
+	public void start()
+	{
+		_NextUpdate = System.nanoTime();
+		_NextRender = _NextUpdate;
+		_SkippedInRow = 0;
+	}
+
+	/**
+	 * Whether an update is due. If so, the next one is scheduled a period later. If the game has fallen more than a period behind, the missed deadlines are dropped, since the game's time is measured
+	 * by the timer and running the missed updates would only add to the lag.
+	 * 
+	 * @return Whether to update.
+	 */
+	public boolean isUpdateDue()
+	{
+		// When uncapped, every frame is updated.
+		if (_IsUncapped) { return true; }
+
+		// If the deadline has not been reached, wait.
+		long now = System.nanoTime();
+		if (now - _NextUpdate < 0) { return false; }
+
+		// Schedule the next update and drop the deadlines that have been missed.
+		_NextUpdate += _UpdatePeriod;
+		if (now - _NextUpdate >= 0)
+		{
+			_DroppedUpdates += (now - _NextUpdate) / _UpdatePeriod + 1;
+			_NextUpdate = now + _UpdatePeriod;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Whether a drawing is due. If so, the next one is scheduled a period later. If the next update is already due, the drawing is skipped so that the update can catch up, though never more than
+	 * MaxFrameSkip times in a row.
+	 * 
+	 * @return Whether to draw.
+	 */
+	public boolean isRenderDue()
+	{
+		// When uncapped, every frame is drawn.
+		if (_IsUncapped) { return true; }
+
+		// If the deadline has not been reached, wait.
+		long now = System.nanoTime();
+		if (now - _NextRender < 0) { return false; }
+
+		// Schedule the next drawing, dropping the deadlines that have been missed.
+		_NextRender += _RenderPeriod;
+		if (now - _NextRender >= 0)
+		{
+			_NextRender = now + _RenderPeriod;
+		}
+
+		// If the updates are falling behind, skip the drawing.
+		if (now - _NextUpdate >= 0 && _SkippedInRow < MaxFrameSkip)
+		{
+			_SkippedInRow++;
+			_SkippedRenders++;
+			return false;
+		}
+
+		_SkippedInRow = 0;
+		return true;
+	}
+
+	/**
+	 * Wait until the next update is due.
+	 */
+	public void waitForUpdate()
+	{
+		if (!_IsUncapped)
+		{
+			waitUntil(_NextUpdate);
+		}
+	}
+
+	/**
+	 * Wait until the next drawing is due.
+	 */
+	public void waitForRender()
+	{
+		if (!_IsUncapped)
+		{
+			waitUntil(_NextRender);
+		}
+	}
+
+	/**
+	 * Wait until either the next update or the next drawing is due, whichever comes first.
+	 */
+	public void waitForFrame()
+	{
+		if (!_IsUncapped)
+		{
+			waitUntil((_NextUpdate - _NextRender < 0) ? _NextUpdate : _NextRender);
+		}
+	}
+
+	/**
+	 * Wait until a deadline, sleeping while it is far off, parking as it comes closer and spinning through the last moments.
+	 * 
+	 * @param deadline
+	 *            The deadline, as given by System.nanoTime.
+	 */
+	public static void waitUntil(long deadline)
+	{
+		long remaining = deadline - System.nanoTime();
+		while (remaining > 0)
+		{
+			// Sleep for the bulk of the time, which lets the CPU rest but may overshoot by a millisecond or more.
+			if (remaining > SleepMargin + 1000000L)
+			{
+				try
+				{
+					Thread.sleep((remaining - SleepMargin) / 1000000L);
+				}
+				// Catch the exceptions.
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+			// Park for most of the rest, which is far more precise.
+			else if (remaining > SpinMargin)
+			{
+				LockSupport.parkNanos(remaining - SpinMargin);
+			}
+			// Spin through the last moments.
+			else
+			{
+				Thread.yield();
+			}
+
+			remaining = deadline - System.nanoTime();
+		}
+	}
+
+	/**
+	 * Get the number of updates per second.
+	 * 
+	 * @return The update rate.
+	 */
+	public double getUpdateRate()
+	{
+		return 1e9 / _UpdatePeriod;
+	}
+
+	/**
+	 * Set the number of updates per second.
+	 * 
+	 * @param rate
+	 *            The update rate, at least 1.
+	 */
+	public void setUpdateRate(double rate)
+	{
+		_UpdatePeriod = (long) (1e9 / Math.max(rate, 1));
+	}
+
+	/**
+	 * Get the number of drawings per second.
+	 * 
+	 * @return The render rate.
+	 */
+	public double getRenderRate()
+	{
+		return 1e9 / _RenderPeriod;
+	}
+
+	/**
+	 * Set the number of drawings per second. Drawing faster than the game is updated only draws the same frame again.
+	 * 
+	 * @param rate
+	 *            The render rate, at least 1.
+	 */
+	public void setRenderRate(double rate)
+	{
+		_RenderPeriod = (long) (1e9 / Math.max(rate, 1));
+	}
+
+	/**
+	 * Whether the loop runs as fast as it can, without waiting or skipping anything.
+	 * 
+	 * @return Whether the loop is uncapped.
+	 */
+	public boolean getEnableUncapped()
+	{
+		return _IsUncapped;
+	}
+
+	/**
+	 * Set whether the loop runs as fast as it can, without waiting or skipping anything. This is meant for benchmarking.
+	 * 
+	 * @param enable
+	 *            Whether to uncap the loop.
+	 */
+	public void setEnableUncapped(boolean enable)
+	{
+		_IsUncapped = enable;
+		start();
+	}
+
+	/**
+	 * Get the number of drawings skipped so far to let the updates catch up.
+	 * 
+	 * @return The skipped drawing count.
+	 */
+	public long getSkippedRenders()
+	{
+		return _SkippedRenders;
+	}
+
+	/**
+	 * Get the number of update deadlines dropped so far because the game fell too far behind.
+	 * 
+	 * @return The dropped update count.
+	 */
+	public long getDroppedUpdates()
+	{
+		return _DroppedUpdates;
+	}
+}
\ No newline at end of file
@@ -7,6 +7,7 @@ import java.awt.Graphics2D;
 import screens.GameOverScreen;
 
 import auxillary.Helper;
+import auxillary.Vector2;
 
 /**
  * A screen is a single layer that has update and draw logic, and which can be combined with other layers to build up a complex menu system. For instance the main menu, the options menu, the "are you
@@ -25,6 +26,7 @@ public abstract class GameScreen
 	// The fields.
 	protected ScreenManager _ScreenManager;
 	protected boolean _IsPopup = false;
+	protected boolean _IsIncremental = false;
 	protected TimeSpan _TransitionOnTime;
 	protected TimeSpan _TransitionOffTime;
 	protected float _TransitionPosition;
@@ -40,6 +42,7 @@ public abstract class GameScreen
 		// Initialize the fields.
 		_ScreenManager = screenManager;
 		_IsPopup = false;
+		_IsIncremental = false;
 		_TransitionOnTime = TimeSpan.Zero;
 		_TransitionOffTime = TimeSpan.Zero;
 		_TransitionPosition = 1;
@@ -142,7 +145,7 @@ public abstract class GameScreen
 		}
 		else
 		{
-			transitionDelta = (float) (gameTime.getElapsedTime().TotalMilliseconds() / time.TotalMilliseconds());
+			transitionDelta = (float) (gameTime.elapsedSeconds() / time.TotalSeconds());
 		}
 
 		// Update the transition position.
@@ -182,6 +185,31 @@ public abstract class GameScreen
 
 	}
 
+	/**
+	 * This is called by the render thread, if the game has one, to do the drawing that does not need the screen. It runs while the next frame is updated, so it may only use state the screen handed
+	 * over at the end of its last update.
+	 */
+	public void render()
+	{
+	}
+
+	/**
+	 * This is called by the render thread, if the game has one, once no update is running, to hand what render drew over to the state the updates use. The drawing is put on screen right after.
+	 */
+	public void commitRender()
+	{
+	}
+
+	/**
+	 * This is called when the window has been resized. The whole window is redrawn afterwards.
+	 * 
+	 * @param size
+	 *            The new size of the window.
+	 */
+	public void resize(Vector2 size)
+	{
+	}
+
 	/**
 	 * Tells the screen to go away. Unlike ScreenManager.RemoveScreen, which instantly kills the screen, this method respects the transition timings and will give the screen a chance to gradually
 	 * transition off.
@@ -222,6 +250,17 @@ public abstract class GameScreen
 		return _IsPopup;
 	}
 
+	/**
+	 * Whether the screen reports every change it makes to the screen manager, so that only the changed parts of the window have to be redrawn. Screens that do not will cause the whole window to be
+	 * redrawn every frame they are visible.
+	 * 
+	 * @return If the screen can be drawn incrementally.
+	 */
+	public boolean getIsIncremental()
+	{
+		return _IsIncremental;
+	}
+
 	/**
 	 * Indicates how long the screen takes to transition on when it is activated.
 	 * 
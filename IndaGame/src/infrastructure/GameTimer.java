@@ -5,14 +5,17 @@ package infrastructure;
  */
 public class GameTimer
 {
-	// The time when the timer was started.
-	TimeSpan _StartTime;
-	// The total elapsed time since the beginning.
-	TimeSpan _TotalElapsedTime;
-	// The elapsed time since last update.
-	TimeSpan _ElapsedTime;
+	// The time when the timer was started, in nanoseconds as given by System.nanoTime.
+	long _StartTime;
+	// The total elapsed time since the beginning, in nanoseconds.
+	long _TotalElapsedTime;
+	// The elapsed time since last update, in nanoseconds.
+	long _ElapsedTime;
 	// Whether the timer is currently running.
 	boolean _IsRunning;
+	// The elapsed times as time spans, created only when asked for and kept until the next update.
+	TimeSpan _ElapsedSpan;
+	TimeSpan _TotalElapsedSpan;
 
 	/**
 	 * Constructor for the game timer.
@@ -31,9 +34,9 @@ public class GameTimer
 		if (!_IsRunning)
 		{
 			_IsRunning = true;
-			_StartTime = new TimeSpan(System.nanoTime() / TimeSpan.NanosecondsPerTick);
-			_TotalElapsedTime = TimeSpan.Zero;
-			_ElapsedTime = TimeSpan.Zero;
+			_StartTime = System.nanoTime() - _TotalElapsedTime;
+			_ElapsedTime = 0;
+			clearSpans();
 		}
 	}
 
@@ -45,8 +48,7 @@ public class GameTimer
 		// If the timer is currently running, turn it off.
 		if (_IsRunning)
 		{
-			_TotalElapsedTime.Add(TimeSpan.Subtract(System.nanoTime() / TimeSpan.NanosecondsPerTick, _StartTime));
-			_ElapsedTime.Add(TimeSpan.Subtract(System.nanoTime() / TimeSpan.NanosecondsPerTick, _StartTime));
+			update();
 			_IsRunning = false;
 		}
 	}
@@ -58,8 +60,9 @@ public class GameTimer
 	{
 		// Reset the timer.
 		_IsRunning = false;
-		_TotalElapsedTime = TimeSpan.Zero;
-		_ElapsedTime = TimeSpan.Zero;
+		_TotalElapsedTime = 0;
+		_ElapsedTime = 0;
+		clearSpans();
 	}
 
 	/**
@@ -68,7 +71,8 @@ public class GameTimer
 	public void resetElapsedTime()
 	{
 		// Reset the elapsed time.
-		_ElapsedTime = TimeSpan.Zero;
+		_ElapsedTime = 0;
+		_ElapsedSpan = null;
 	}
 
 	/**
@@ -77,28 +81,103 @@ public class GameTimer
 	public void update()
 	{
 		// Calculate the time elapsed since last update.
-		_ElapsedTime = TimeSpan.Subtract(System.nanoTime() / TimeSpan.NanosecondsPerTick, _StartTime.Add(_TotalElapsedTime));
+		_ElapsedTime = System.nanoTime() - _StartTime - _TotalElapsedTime;
 		// Add the elapsed time to the total elapsed time.
-		_TotalElapsedTime = _TotalElapsedTime.Add(_ElapsedTime);
+		_TotalElapsedTime += _ElapsedTime;
+		clearSpans();
 	}
 
 	/**
-	 * Get the elapsed time since last update.
+	 * Update the game timer by a fixed step rather than by the clock, for running the game faster or slower than real time, as when simulating without a window.
+	 * 
+	 * @param nanos
+	 *            The time elapsed since last update, in nanoseconds.
+	 */
+	public void step(long nanos)
+	{
+		// Let the step pass.
+		_ElapsedTime = nanos;
+		_TotalElapsedTime += nanos;
+		clearSpans();
+	}
+
+	/**
+	 * Forget the time spans of the last update, which are created again if asked for.
+	 */
+	private void clearSpans()
+	{
+		_ElapsedSpan = null;
+		_TotalElapsedSpan = null;
+	}
+
+	/**
+	 * Get the elapsed time since last update in nanoseconds. Unlike getElapsedTime, this allocates nothing and is meant for code that runs every frame.
 	 * 
 	 * @return The time elapsed since last update.
 	 */
-	public TimeSpan getElapsedTime()
+	public long elapsedNanos()
 	{
 		return _ElapsedTime;
 	}
 
 	/**
-	 * Get the total elapsed time since the start of the game (timer).
+	 * Get the elapsed time since last update in seconds. Unlike getElapsedTime, this allocates nothing and is meant for code that runs every frame.
+	 * 
+	 * @return The time elapsed since last update.
+	 */
+	public double elapsedSeconds()
+	{
+		return _ElapsedTime / 1e9;
+	}
+
+	/**
+	 * Get the total elapsed time since the start of the game (timer) in nanoseconds. Unlike getTotalElapsedTime, this allocates nothing and is meant for code that runs every frame.
 	 * 
 	 * @return The time elapsed since start of the timer.
 	 */
-	public TimeSpan getTotalElapsedTime()
+	public long totalElapsedNanos()
 	{
 		return _TotalElapsedTime;
 	}
-}
+
+	/**
+	 * Get the total elapsed time since the start of the game (timer) in seconds. Unlike getTotalElapsedTime, this allocates nothing and is meant for code that runs every frame.
+	 * 
+	 * @return The time elapsed since start of the timer.
+	 */
+	public double totalElapsedSeconds()
+	{
+		return _TotalElapsedTime / 1e9;
+	}
+
+	/**
+	 * Get the elapsed time since last update. The time span is created the first time it is asked for after an update, so code that runs every frame should use elapsedNanos or elapsedSeconds.
+	 * 
+	 * @return The time elapsed since last update.
+	 */
+	public TimeSpan getElapsedTime()
+	{
+		if (_ElapsedSpan == null)
+		{
+			_ElapsedSpan = new TimeSpan(_ElapsedTime / TimeSpan.NanosecondsPerTick);
+		}
+
+		return _ElapsedSpan;
+	}
+
+	/**
+	 * Get the total elapsed time since the start of the game (timer). The time span is created the first time it is asked for after an update, so code that runs every frame should use
+	 * totalElapsedNanos or totalElapsedSeconds.
+	 * 
+	 * @return The time elapsed since start of the timer.
+	 */
+	public TimeSpan getTotalElapsedTime()
+	{
+		if (_TotalElapsedSpan == null)
+		{
+			_TotalElapsedSpan = new TimeSpan(_TotalElapsedTime / TimeSpan.NanosecondsPerTick);
+		}
+
+		return _TotalElapsedSpan;
+	}
+}
\ No newline at end of file
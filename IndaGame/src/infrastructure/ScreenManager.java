@@ -6,9 +6,11 @@ import input.InputManager;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.util.ArrayList;
 
 import main.Game;
+import debug.Profiler;
 import auxillary.Vector2;
 
 /**
@@ -22,6 +24,8 @@ public class ScreenManager
 	private WindowFrame _Window;
 	private ArrayList<GameScreen> _Screens;
 	private ArrayList<GameScreen> _ScreensToUpdate;
+	private volatile GameScreen[] _ScreensToRender;
+	private GameScreen[] _ScreensRendered;
 	private InputManager _Input;
 	private boolean _IsInitialized;
 	private Font _TextFont;
@@ -49,6 +53,8 @@ public class ScreenManager
 		_Window = game.getWindow();
 		_Screens = new ArrayList<GameScreen>();
 		_ScreensToUpdate = new ArrayList<GameScreen>();
+		_ScreensToRender = new GameScreen[0];
+		_ScreensRendered = _ScreensToRender;
 		_Input = InputManager.getInstance();
 		_IsInitialized = true;
 		_TextFont = new Font("Lucida Sans", Font.PLAIN, 12);
@@ -90,6 +96,15 @@ public class ScreenManager
 	 */
 	public void update(GameTimer gameTime)
 	{
+		// If the window has been resized, let the screens adapt to the new size.
+		if (_Window.updateSize())
+		{
+			for (GameScreen screen : _Screens)
+			{
+				screen.resize(getWindowBounds());
+			}
+		}
+
 		// Make a copy of the master screen list, to avoid confusion if
 		// the process of updating one screen adds or removes others.
 		_ScreensToUpdate.clear();
@@ -109,9 +124,19 @@ public class ScreenManager
 			GameScreen screen = _ScreensToUpdate.get(_ScreensToUpdate.size() - 1);
 			_ScreensToUpdate.remove(_ScreensToUpdate.size() - 1);
 
+			// Remember the screen's state before updating it.
+			ScreenState state = screen.getScreenState();
+			float transition = screen.getTransitionPosition();
+
 			// Update the screen.
 			screen.update(gameTime, otherScreenHasFocus, coveredByOtherScreen);
 
+			// If the screen changed its state or is in the middle of a transition, it has to be redrawn completely.
+			if (state != screen.getScreenState() || transition != screen.getTransitionPosition())
+			{
+				invalidate();
+			}
+
 			if (screen.getScreenState() == ScreenState.TransitionOn || screen.getScreenState() == ScreenState.Active)
 			{
 				// If this is the first active screen we came across, give it a chance to handle input.
@@ -129,6 +154,51 @@ public class ScreenManager
 				}
 			}
 		}
+
+		// If a visible screen cannot keep track of its own changes, redraw everything.
+		for (GameScreen screen : _Screens)
+		{
+			if (screen.getScreenState() != ScreenState.Hidden && !screen.getIsIncremental())
+			{
+				invalidate();
+				break;
+			}
+		}
+
+		// Hand the visible screens over to the render thread.
+		ArrayList<GameScreen> visible = new ArrayList<GameScreen>();
+		for (GameScreen screen : _Screens)
+		{
+			if (screen.getScreenState() != ScreenState.Hidden)
+			{
+				visible.add(screen);
+			}
+		}
+		_ScreensToRender = visible.toArray(new GameScreen[visible.size()]);
+	}
+
+	/**
+	 * Tells each screen that was visible at the end of the last update to do its drawing on the render thread. Unlike draw, this runs alongside the next update.
+	 */
+	public void render()
+	{
+		_ScreensRendered = _ScreensToRender;
+		for (GameScreen screen : _ScreensRendered)
+		{
+			screen.render();
+		}
+	}
+
+	/**
+	 * Tells each screen that did its drawing on the render thread to hand what it drew over to the rest of the game. This is done by the render thread while no update is running, right before the
+	 * screens are drawn.
+	 */
+	public void commitRender()
+	{
+		for (GameScreen screen : _ScreensRendered)
+		{
+			screen.commitRender();
+		}
 	}
 
 	/**
@@ -141,15 +211,21 @@ public class ScreenManager
 	 */
 	public void draw(GameTimer gameTime)
 	{
-		for (GameScreen screen : _Screens)
+		// If nothing has changed since the last frame, there is nothing to draw.
+		if (_Window.getDirtyRegion().isEmpty()) { return; }
+
+		try (Profiler.Scope scope = Profiler.scope("screens"))
 		{
-			if (screen.getScreenState() == ScreenState.Hidden)
+			for (GameScreen screen : _Screens)
 			{
-				continue;
-			}
+				if (screen.getScreenState() == ScreenState.Hidden)
+				{
+					continue;
+				}
 
-			// Draw the screen.
-			screen.draw(gameTime, _Window.getBufferGraphics());
+				// Draw the screen.
+				screen.draw(gameTime, _Window.getBufferGraphics());
+			}
 		}
 	}
 
@@ -171,6 +247,9 @@ public class ScreenManager
 		}
 
 		_Screens.add(screen);
+
+		// Make sure the new screen is drawn completely.
+		invalidate();
 	}
 
 	/**
@@ -190,6 +269,41 @@ public class ScreenManager
 
 		_Screens.remove(screen);
 		_ScreensToUpdate.remove(screen);
+
+		// Make sure the screen is erased completely.
+		invalidate();
+	}
+
+	/**
+	 * Redraw everything next frame.
+	 */
+	public void invalidate()
+	{
+		_Window.invalidate();
+	}
+
+	/**
+	 * Redraw a part of the window next frame.
+	 * 
+	 * @param area
+	 *            The area that has changed, in screen coordinates.
+	 */
+	public void invalidate(Rectangle area)
+	{
+		_Window.invalidate(area);
+	}
+
+	/**
+	 * Scroll the contents of the window, so that only the uncovered strips have to be redrawn next frame.
+	 * 
+	 * @param dx
+	 *            The amount to scroll on the x-axis.
+	 * @param dy
+	 *            The amount to scroll on the y-axis.
+	 */
+	public void scroll(int dx, int dy)
+	{
+		_Window.scroll(dx, dy);
 	}
 
 	/**
@@ -218,7 +332,7 @@ public class ScreenManager
 
 			// Set the background color and fill the screen with it. Switch back to the old color.
 			_Window.getBufferGraphics().setColor(new Color(0, 0, 0, alpha));
-			_Window.getBufferGraphics().fillRect(0, 0, _Window.getWidth(), _Window.getHeight());
+			_Window.getBufferGraphics().fillRect(0, 0, _Window.getBufferWidth(), _Window.getBufferHeight());
 			_Window.getBufferGraphics().setColor(old);
 		}
 		catch (Exception e)
@@ -258,13 +372,23 @@ public class ScreenManager
 	}
 
 	/**
-	 * Get the window's bounds.
+	 * Get the window's bounds, ie. the size of its back-buffer.
 	 * 
 	 * @return The bounds of the window used by the screen manager.
 	 */
 	public Vector2 getWindowBounds()
 	{
-		return new Vector2(_Window.WIDTH, _Window.HEIGHT);
+		return new Vector2(_Window.getBufferWidth(), _Window.getBufferHeight());
+	}
+
+	/**
+	 * Get the color the window is cleared with before the screens are drawn.
+	 * 
+	 * @return The back-buffer color.
+	 */
+	public Color getBackBufferColor()
+	{
+		return _Window.getBackBufferColor();
 	}
 
 	/**
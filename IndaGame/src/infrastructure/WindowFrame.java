@@ -7,12 +7,16 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.Insets;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Toolkit;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
 
 import javax.swing.JFrame;
@@ -23,9 +27,12 @@ import javax.swing.JPanel;
  */
 public class WindowFrame extends JFrame
 {
-	// The Bounds of the window.
+	// The initial bounds of the window.
 	public static final int WIDTH = 800;
 	public static final int HEIGHT = 600;
+	// The smallest bounds the window can be resized to.
+	public static final int MinWidth = 320;
+	public static final int MinHeight = 240;
 
 	// The Keyboard and Mouse input handlers.
 	public InputManager inputManager = InputManager.getInstance();
@@ -37,6 +44,22 @@ public class WindowFrame extends JFrame
 
 	// The back-buffer color.
 	private Color _BackBufferColor;
+	// The back-buffer that the screens draw to. It is kept between frames so that only the dirty parts of it have to be redrawn.
+	private BufferedImage _BackBuffer;
+	// The parts of the back-buffer that have changed since the last frame.
+	private DirtyRegion _DirtyRegion;
+	// Whether the whole back-buffer has to be presented this frame, for instance after it has been scrolled.
+	private boolean _PresentAll;
+	// Whether the back-buffer has been presented this frame.
+	private boolean _IsPresented;
+	// Whether overlays were drawn on top of the back-buffer this frame or the last.
+	private boolean _HasOverlay;
+	private boolean _HadOverlay;
+	// The size of the back-buffer.
+	private int _Width;
+	private int _Height;
+	// Whether the window has been resized since the back-buffer was last resized. Set by the event thread.
+	private volatile boolean _IsResized;
 
 	/**
 	 * Constructor for a window frame.
@@ -46,10 +69,11 @@ public class WindowFrame extends JFrame
 		// Create a JFrame as window.
 		super("Inda11 - A game made by Sebastian Wigren and Philip Rendn");
 
-		// Set the window's bounds, make the window visible and make the window unable to resize.
+		// Set the window's bounds, make the window visible and let it be resized.
 		setVisible(true);
 		setSize(WIDTH, HEIGHT);
-		setResizable(false);
+		setMinimumSize(new Dimension(MinWidth, MinHeight));
+		setResizable(true);
 
 		// Create a JPanel to display everything on.
 		JPanel panel = (JPanel) getContentPane();
@@ -68,6 +92,24 @@ public class WindowFrame extends JFrame
 		createBufferStrategy(2);
 		strategy = getBufferStrategy();
 
+		// Create the back-buffer and mark all of it as dirty.
+		_Width = getWidth();
+		_Height = getHeight();
+		_BackBuffer = getGraphicsConfiguration().createCompatibleImage(_Width, _Height);
+		_DirtyRegion = new DirtyRegion(_Width, _Height);
+		_PresentAll = true;
+
+		// Let the back-buffer follow the window when it is resized.
+		_IsResized = false;
+		addComponentListener(new ComponentAdapter()
+		{
+			@Override
+			public void componentResized(ComponentEvent e)
+			{
+				_IsResized = true;
+			}
+		});
+
 		// Add Key and Mouse listeners.
 		addKeyListener(inputManager);
 		addMouseListener(inputManager);
@@ -85,16 +127,46 @@ public class WindowFrame extends JFrame
 	}
 
 	/**
-	 * Begin drawing.
+	 * Resize the back-buffer if the window has been resized since the last time. The new back-buffer is marked as dirty all over. This must be called between frames, never while drawing.
+	 * 
+	 * @return Whether the back-buffer was resized.
+	 */
+	public boolean updateSize()
+	{
+		// If the window has not been resized, stop here.
+		if (!_IsResized) { return false; }
+		_IsResized = false;
+
+		// If the size is the same after all, stop here.
+		int width = Math.max(getWidth(), 1);
+		int height = Math.max(getHeight(), 1);
+		if (width == _Width && height == _Height) { return false; }
+
+		// Create a new back-buffer of the right size and redraw all of it.
+		_Width = width;
+		_Height = height;
+		_BackBuffer.flush();
+		_BackBuffer = getGraphicsConfiguration().createCompatibleImage(_Width, _Height);
+		_DirtyRegion = new DirtyRegion(_Width, _Height);
+		_PresentAll = true;
+
+		return true;
+	}
+
+	/**
+	 * Begin drawing. Only the dirty parts of the back-buffer will be cleared and drawn to.
 	 */
 	public void drawBegin()
 	{
-		// Get the Graphics instance and translate it to the right position.
-		_Graphics = (Graphics2D) strategy.getDrawGraphics();
-		
-		// Clear the back-buffer.
+		// Get the back-buffer's graphics instance and only let it draw within the dirty region.
+		_Graphics = _BackBuffer.createGraphics();
+		_Graphics.setClip(_DirtyRegion.getClip());
+		_IsPresented = false;
+		_HasOverlay = false;
+
+		// Clear the dirty parts of the back-buffer.
 		_Graphics.setColor(_BackBufferColor);
-		_Graphics.fillRect(0, 0, getWidth(), getHeight());
+		_Graphics.fillRect(0, 0, _Width, _Height);
 
 		// Set some graphics flags.
 		//_Graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
@@ -104,21 +176,125 @@ public class WindowFrame extends JFrame
 		_Graphics.setColor(Color.black);
 	}
 
+	/**
+	 * Begin drawing overlays, ie. things that are drawn on top of the back-buffer but not kept in it between frames. This presents the back-buffer.
+	 */
+	public void drawOverlayBegin()
+	{
+		// Present the back-buffer and continue drawing directly on the screen's buffer.
+		present();
+		_HasOverlay = true;
+	}
+
 	/**
 	 * End the drawing.
 	 */
 	public void drawEnd()
 	{
+		// Present the back-buffer, if not already done.
+		present();
+
 		// Show the frame.
 		_Graphics.setTransform(AffineTransform.getTranslateInstance(getInsets().left, getInsets().top));
 		getLayeredPane().paintComponents(_Graphics);
 		strategy.show();
 		_Graphics.dispose();
 
+		// Remember whether there are overlays to erase next frame.
+		_HadOverlay = _HasOverlay;
+
 		// Synchronize with the display refresh rate.
 		Toolkit.getDefaultToolkit().sync();
 	}
 
+	/**
+	 * Copy the dirty parts of the back-buffer to the screen's buffer and start drawing to the latter. If the screen's buffer cannot be trusted to still hold the last frame, all of the back-buffer is
+	 * copied.
+	 */
+	private void present()
+	{
+		// If the back-buffer already has been presented this frame, stop here.
+		if (_IsPresented) { return; }
+
+		// Stop drawing to the back-buffer and get the screen's buffer instead.
+		_Graphics.dispose();
+		_Graphics = (Graphics2D) strategy.getDrawGraphics();
+
+		// Copy all of the back-buffer if needed, otherwise just its dirty rectangles.
+		if (_PresentAll || _HadOverlay || _DirtyRegion.isFullRedraw() || strategy.contentsRestored() || strategy.getCapabilities().isPageFlipping())
+		{
+			_Graphics.drawImage(_BackBuffer, 0, 0, null);
+		}
+		else
+		{
+			for (Rectangle r : _DirtyRegion.getRectangles())
+			{
+				_Graphics.drawImage(_BackBuffer, r.x, r.y, r.x + r.width, r.y + r.height, r.x, r.y, r.x + r.width, r.y + r.height, null);
+			}
+		}
+
+		// The back-buffer is now up to date.
+		_DirtyRegion.clear();
+		_PresentAll = false;
+		_IsPresented = true;
+		_Graphics.setColor(Color.black);
+	}
+
+	/**
+	 * Mark all of the back-buffer as dirty, so that it will be redrawn next frame.
+	 */
+	public void invalidate()
+	{
+		_DirtyRegion.invalidate();
+	}
+
+	/**
+	 * Mark a part of the back-buffer as dirty, so that it will be redrawn next frame.
+	 * 
+	 * @param area
+	 *            The area that has changed, in screen coordinates.
+	 */
+	public void invalidate(Rectangle area)
+	{
+		_DirtyRegion.add(area);
+	}
+
+	/**
+	 * Scroll the contents of the back-buffer. The strips that are uncovered by the scroll are marked as dirty.
+	 * 
+	 * @param dx
+	 *            The amount to scroll on the x-axis.
+	 * @param dy
+	 *            The amount to scroll on the y-axis.
+	 */
+	public void scroll(int dx, int dy)
+	{
+		// If there is nothing to scroll or everything will be redrawn anyway, stop here.
+		if ((dx == 0 && dy == 0) || _DirtyRegion.isFullRedraw()) { return; }
+
+		// If the scroll is too big, redraw everything.
+		if (Math.abs(dx) >= _Width || Math.abs(dy) >= _Height)
+		{
+			invalidate();
+			return;
+		}
+
+		// Move the contents of the back-buffer.
+		Graphics2D g = _BackBuffer.createGraphics();
+		g.copyArea(0, 0, _Width, _Height, dx, dy);
+		g.dispose();
+
+		// Move the dirty rectangles along with the contents.
+		_DirtyRegion.translate(dx, dy);
+
+		// Add the uncovered strips.
+		_DirtyRegion.add((dx > 0) ? new Rectangle(0, 0, dx, _Height) : new Rectangle(_Width + dx, 0, -dx, _Height));
+		_DirtyRegion.add((dy > 0) ? new Rectangle(0, 0, _Width, dy) : new Rectangle(0, _Height + dy, _Width, -dy));
+
+		// The whole back-buffer has moved and must be presented.
+		_PresentAll = true;
+	}
+
 	/**
 	 * Get the graphics component for this window.
 	 * 
@@ -155,7 +331,48 @@ public class WindowFrame extends JFrame
 		// If the color is null, quit.
 		if (color == null) { return; }
 
-		// Set the color.
+		// Set the color and redraw everything with it.
 		_BackBufferColor = color;
+		invalidate();
+	}
+
+	/**
+	 * Get the back-buffer color.
+	 * 
+	 * @return The back-buffer color.
+	 */
+	public Color getBackBufferColor()
+	{
+		return _BackBufferColor;
+	}
+
+	/**
+	 * Get the width of the back-buffer, ie. the width of the window the last time it was resized.
+	 * 
+	 * @return The width of the back-buffer.
+	 */
+	public int getBufferWidth()
+	{
+		return _Width;
+	}
+
+	/**
+	 * Get the height of the back-buffer, ie. the height of the window the last time it was resized.
+	 * 
+	 * @return The height of the back-buffer.
+	 */
+	public int getBufferHeight()
+	{
+		return _Height;
+	}
+
+	/**
+	 * Get the parts of the back-buffer that have changed since the last frame.
+	 * 
+	 * @return The dirty region.
+	 */
+	public DirtyRegion getDirtyRegion()
+	{
+		return _DirtyRegion;
 	}
 }
\ No newline at end of file
@@ -58,6 +58,8 @@ public final class InputManager extends MouseInputAdapter implements KeyListener
 
 	// Variable that indicates the position of the mouse when the latest event fired.
 	private Vector2 eventPosition = new Vector2();
+	// Variable that indicates the position of the mouse when it last moved, whether a button was held or not.
+	private Vector2 movePosition = new Vector2();
 
 	// The only instantiated object
 	private static InputManager instance = new InputManager();
@@ -205,6 +207,21 @@ public final class InputManager extends MouseInputAdapter implements KeyListener
 		// The Mouse position.
 		eventPosition.x = e.getX();
 		eventPosition.y = e.getY();
+		movePosition.x = e.getX();
+		movePosition.y = e.getY();
+	}
+
+	/**
+	 * This function is specified in the MouseMotionListener interface. It keeps track of where the mouse is.
+	 * 
+	 * @param e
+	 *            The MouseEvent fired by the awt Toolkit
+	 */
+	public void mouseMoved(MouseEvent e)
+	{
+		// The Mouse position.
+		movePosition.x = e.getX();
+		movePosition.y = e.getY();
 	}
 
 	/**
@@ -340,6 +357,16 @@ public final class InputManager extends MouseInputAdapter implements KeyListener
 		return eventPosition;
 	}
 
+	/**
+	 * Returns the position of the mouse when it last moved, relative to the window.
+	 * 
+	 * @return The mouse's position.
+	 */
+	public Vector2 mouseMovePosition()
+	{
+		return movePosition;
+	}
+
 	/**
 	 * Returns the position of the mouse.
 	 * 
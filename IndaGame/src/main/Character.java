@@ -92,6 +92,7 @@ public class Character extends Entity
 	public void loadContent()
 	{
 		// Clear all sprites.
+		_Sprites.unloadContent();
 		_Sprites = new SpriteManager();
 
 		// Add and load all the different sprites.
@@ -187,7 +188,7 @@ public class Character extends Entity
 	private void moveRandomly(GameTimer gameTime)
 	{
 		// Get the time since the last Update.
-		_ElapsedTime += (float) gameTime.getElapsedTime().TotalSeconds();
+		_ElapsedTime += (float) gameTime.elapsedSeconds();
 
 		// Get a random direction and move, but only if there is some time left on the timer.
 		if (_ElapsedTime < _TimeToWalk && _Body.getVelocity().toVector2().getLength() < _MaxSpeed)
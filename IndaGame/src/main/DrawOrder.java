@@ -0,0 +1,509 @@
+package main;
+
+import graphics.SpatialGrid;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import physics.Shape;
+
+/**
+ * The draw order keeps a scene's entities sorted back to front, so that they can be painted on top of each other without a per-pixel depth test. Entities whose images overlap are ordered by the
+ * boxes of their shapes, which gives a dependency graph that is sorted topologically. Once sorted, the order is kept by an online topological sort: whenever an entity that has moved is found on
+ * the wrong side of one it overlaps, only the entities between the two that depend on either are reordered. Every entity's place in the order is kept in an index and the overlapping entities are
+ * found through the grid, so that the cost of a repair depends on the entities involved rather than on the size of the scene.
+ */
+public class DrawOrder
+{
+	// The entities, ordered from back to front.
+	private ArrayList<Entity> _Order;
+	// The place of every entity in the order.
+	private HashMap<Entity, Integer> _Index;
+	// The entities that have moved since the order was last repaired.
+	private HashSet<Entity> _Moved;
+	// Whether the whole order has to be sorted again.
+	private boolean _IsOutdated;
+	// The grid that keeps track of where the entities are drawn.
+	private SpatialGrid<Entity> _Grid;
+	// The candidates found in the grid and the entities found to overlap, kept between calls to spare the allocations.
+	private HashSet<Entity> _Candidates;
+	private ArrayList<Entity> _Neighbours;
+	// The pairs of entities found in the wrong order, the entities gathered to reorder them, their places and the entities already gathered either way, also kept between calls.
+	private ArrayList<Entity> _Behind;
+	private ArrayList<Entity> _Front;
+	private ArrayList<Entity> _Forward;
+	private ArrayList<Entity> _Backward;
+	private ArrayList<Integer> _Places;
+	private HashSet<Entity> _Visited;
+	private HashSet<Entity> _VisitedBehind;
+	// The comparator that sorts entities by their place in the order.
+	private Comparator<Entity> _IndexComparator;
+
+	/**
+	 * Constructor for a draw order.
+	 * 
+	 * @param grid
+	 *            The grid that keeps track of where the entities are drawn, used to find those that overlap.
+	 */
+	public DrawOrder(SpatialGrid<Entity> grid)
+	{
+		// Initialize the draw order.
+		_Order = new ArrayList<Entity>();
+		_Index = new HashMap<Entity, Integer>();
+		_Moved = new HashSet<Entity>();
+		_IsOutdated = true;
+		_Grid = grid;
+		_Candidates = new HashSet<Entity>();
+		_Neighbours = new ArrayList<Entity>();
+		_Behind = new ArrayList<Entity>();
+		_Front = new ArrayList<Entity>();
+		_Forward = new ArrayList<Entity>();
+		_Backward = new ArrayList<Entity>();
+		_Places = new ArrayList<Integer>();
+		_Visited = new HashSet<Entity>();
+		_VisitedBehind = new HashSet<Entity>();
+		_IndexComparator = new Comparator<Entity>()
+		{
+			@Override
+			public int compare(Entity e1, Entity e2)
+			{
+				return Integer.compare(getIndex(e1), getIndex(e2));
+			}
+		};
+	}
+
+	/**
+	 * Add an entity. It is put in place the next time the order is updated.
+	 * 
+	 * @param entity
+	 *            The entity to add.
+	 */
+	public void add(Entity entity)
+	{
+		_Index.put(entity, _Order.size());
+		_Order.add(entity);
+		_Moved.add(entity);
+	}
+
+	/**
+	 * Remove an entity.
+	 * 
+	 * @param entity
+	 *            The entity to remove.
+	 */
+	public void remove(Entity entity)
+	{
+		// If the entity is not in the order, there is nothing to remove.
+		Integer index = _Index.remove(entity);
+		if (index == null) { return; }
+
+		// Take it out and move the entities after it up a place.
+		_Order.remove((int) index);
+		updateIndex(index, _Order.size() - 1);
+		_Moved.remove(entity);
+	}
+
+	/**
+	 * Let the order know that an entity has moved. It is put back in place the next time the order is updated.
+	 * 
+	 * @param entity
+	 *            The entity that has moved.
+	 */
+	public void move(Entity entity)
+	{
+		_Moved.add(entity);
+	}
+
+	/**
+	 * Replace all entities. The whole order is sorted the next time it is updated.
+	 * 
+	 * @param entities
+	 *            The new entities.
+	 */
+	public void reset(Collection<Entity> entities)
+	{
+		_Order = new ArrayList<Entity>(entities);
+		_Index.clear();
+		updateIndex(0, _Order.size() - 1);
+		_Moved.clear();
+		_IsOutdated = true;
+	}
+
+	/**
+	 * Bring the order up to date. The order is kept by repairing every broken constraint of the entities that have moved, and a new order, or one that has been reset, is sorted as a whole.
+	 */
+	public void update()
+	{
+		// Repair the order around the entities that have moved.
+		if (!_IsOutdated)
+		{
+			for (Entity entity : _Moved)
+			{
+				repair(entity);
+			}
+		}
+		// If the order is new, sort everything.
+		else
+		{
+			sort();
+		}
+
+		_Moved.clear();
+		_IsOutdated = false;
+	}
+
+	/**
+	 * Repair the order around an entity that has moved, so that it is drawn after all overlapping entities it has to be drawn in front of and before all those it has to be drawn behind.
+	 * 
+	 * @param entity
+	 *            The entity that has moved.
+	 */
+	private void repair(Entity entity)
+	{
+		// Find the overlapping entities that are drawn on the wrong side of the entity, as pairs of the one to draw first and the one to draw after it.
+		_Behind.clear();
+		_Front.clear();
+		ArrayList<Entity> neighbours = getNeighbours(entity);
+		for (int i = 0; i < neighbours.size(); i++)
+		{
+			Entity other = neighbours.get(i);
+			int order = compare(entity, other);
+			if (order > 0 && getIndex(other) > getIndex(entity))
+			{
+				_Behind.add(other);
+				_Front.add(entity);
+			}
+			else if (order < 0 && getIndex(other) < getIndex(entity))
+			{
+				_Behind.add(entity);
+				_Front.add(other);
+			}
+		}
+
+		// Put each pair in order, unless an earlier one already did.
+		for (int i = 0; i < _Behind.size(); i++)
+		{
+			if (getIndex(_Behind.get(i)) > getIndex(_Front.get(i)))
+			{
+				reorder(_Behind.get(i), _Front.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Put an entity drawn too late before another one, moving only the entities in between that depend on either. The entities that have to be drawn after the second one and the entities that have
+	 * to be drawn before the first one are gathered, as far as they lie between the two, and those places are handed out again with the first group after the second. If the first entity turns out
+	 * to have to be drawn after the second one as well, they are caught in a cycle and the order is left as it is, which breaks the cycle.
+	 * 
+	 * @param behind
+	 *            The entity to draw first, currently drawn after the other one.
+	 * @param front
+	 *            The entity to draw after it.
+	 * @return Whether the entities could be put in order.
+	 */
+	private boolean reorder(Entity behind, Entity front)
+	{
+		// The places between which the entities are moved.
+		int lower = getIndex(front);
+		int upper = getIndex(behind);
+
+		// Gather the entities that have to be drawn after the front one, up to the entity behind. If that one is among them, there is a cycle.
+		_Visited.clear();
+		_VisitedBehind.clear();
+		_VisitedBehind.add(behind);
+		if (!gather(front, _Forward, _Visited, _VisitedBehind, upper, true)) { return false; }
+
+		// Gather the entities that have to be drawn before the one behind, down to the front one. If any of those has to be drawn after the front one too, there is a cycle.
+		if (!gather(behind, _Backward, _VisitedBehind, _Visited, lower, false)) { return false; }
+
+		// Hand out their places again, keeping the order within each group, with the entities before the one behind first.
+		Collections.sort(_Forward, _IndexComparator);
+		Collections.sort(_Backward, _IndexComparator);
+		_Places.clear();
+		for (int i = 0; i < _Backward.size(); i++)
+		{
+			_Places.add(getIndex(_Backward.get(i)));
+		}
+		for (int i = 0; i < _Forward.size(); i++)
+		{
+			_Places.add(getIndex(_Forward.get(i)));
+		}
+		Collections.sort(_Places);
+		for (int i = 0; i < _Places.size(); i++)
+		{
+			Entity entity = (i < _Backward.size()) ? _Backward.get(i) : _Forward.get(i - _Backward.size());
+			_Order.set(_Places.get(i), entity);
+			_Index.put(entity, _Places.get(i));
+		}
+
+		return true;
+	}
+
+	/**
+	 * Gather the entities that depend on an entity within a range of places, by following the overlapping entities either in front of or behind each found entity.
+	 * 
+	 * @param start
+	 *            The entity to start from, which is gathered too.
+	 * @param found
+	 *            The list to gather the entities into.
+	 * @param visited
+	 *            The set of entities already gathered, which the found entities are added to.
+	 * @param avoid
+	 *            The entities that may not be reached.
+	 * @param bound
+	 *            The place beyond which entities are not followed, the highest if going forward and the lowest if going backward.
+	 * @param forward
+	 *            Whether to follow the entities in front, rather than those behind.
+	 * @return Whether none of the entities that may not be reached were.
+	 */
+	private boolean gather(Entity start, ArrayList<Entity> found, HashSet<Entity> visited, HashSet<Entity> avoid, int bound, boolean forward)
+	{
+		// Start with the entity itself.
+		found.clear();
+		found.add(start);
+		visited.add(start);
+
+		// Follow the dependencies of every found entity, within the range.
+		for (int i = 0; i < found.size(); i++)
+		{
+			Entity entity = found.get(i);
+			ArrayList<Entity> neighbours = getNeighbours(entity);
+			for (int j = 0; j < neighbours.size(); j++)
+			{
+				Entity other = neighbours.get(j);
+				int index = getIndex(other);
+				if ((forward ? index > bound : index < bound) || visited.contains(other) || compare(other, entity) != (forward ? 1 : -1))
+				{
+					continue;
+				}
+
+				// If an entity that may not be reached is, there is a cycle.
+				if (avoid.contains(other)) { return false; }
+
+				visited.add(other);
+				found.add(other);
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Update the index for a range of places in the order.
+	 * 
+	 * @param from
+	 *            The first place to update.
+	 * @param to
+	 *            The last place to update.
+	 */
+	private void updateIndex(int from, int to)
+	{
+		for (int i = from; i <= to; i++)
+		{
+			_Index.put(_Order.get(i), i);
+		}
+	}
+
+	/**
+	 * Sort all entities topologically. Entities drawn in front of others have an edge from each of those. Whenever a cycle keeps the sort from going on, the entity furthest back in it is drawn
+	 * first, which breaks the cycle.
+	 */
+	private void sort()
+	{
+		// Build the graph, with edges going from the entity behind to the entity in front.
+		HashMap<Entity, ArrayList<Entity>> edges = new HashMap<Entity, ArrayList<Entity>>();
+		HashMap<Entity, Integer> degrees = new HashMap<Entity, Integer>();
+		for (Entity entity : _Order)
+		{
+			edges.put(entity, new ArrayList<Entity>());
+			degrees.put(entity, 0);
+		}
+		for (Entity entity : _Order)
+		{
+			ArrayList<Entity> neighbours = getNeighbours(entity);
+			for (int i = 0; i < neighbours.size(); i++)
+			{
+				// Each pair is visited twice, but only adds the edge pointing at the one in front.
+				Entity other = neighbours.get(i);
+				if (edges.containsKey(other) && compare(entity, other) > 0)
+				{
+					edges.get(other).add(entity);
+					degrees.put(entity, degrees.get(entity) + 1);
+				}
+			}
+		}
+
+		// The entities ready to be drawn, furthest back first.
+		Comparator<Entity> comparator = new Comparator<Entity>()
+		{
+			@Override
+			public int compare(Entity e1, Entity e2)
+			{
+				return Double.compare(getKey(e1), getKey(e2));
+			}
+		};
+		PriorityQueue<Entity> ready = new PriorityQueue<Entity>(Math.max(_Order.size(), 1), comparator);
+		LinkedHashSet<Entity> remaining = new LinkedHashSet<Entity>(_Order);
+		for (Entity entity : _Order)
+		{
+			if (degrees.get(entity) == 0)
+			{
+				ready.add(entity);
+			}
+		}
+
+		// Draw the entities in order, removing their edges as they go.
+		ArrayList<Entity> order = new ArrayList<Entity>(_Order.size());
+		while (!remaining.isEmpty())
+		{
+			// If nothing is ready, there is a cycle. Break it at the entity furthest back.
+			if (ready.isEmpty())
+			{
+				Entity back = null;
+				for (Entity entity : remaining)
+				{
+					if (back == null || getKey(entity) < getKey(back))
+					{
+						back = entity;
+					}
+				}
+				degrees.put(back, 0);
+				ready.add(back);
+			}
+
+			// Draw the next entity and see which entities it frees up.
+			Entity entity = ready.poll();
+			if (!remaining.remove(entity))
+			{
+				continue;
+			}
+			order.add(entity);
+			for (Entity next : edges.get(entity))
+			{
+				int degree = degrees.get(next) - 1;
+				degrees.put(next, degree);
+				if (degree == 0 && remaining.contains(next))
+				{
+					ready.add(next);
+				}
+			}
+		}
+
+		// Keep the new order and the entities' places in it.
+		_Order = order;
+		updateIndex(0, _Order.size() - 1);
+	}
+
+	/**
+	 * Find the entities whose images overlap an entity's image. The list is reused by the next call, so it must not be kept.
+	 * 
+	 * @param entity
+	 *            The entity.
+	 * @return The overlapping entities.
+	 */
+	private ArrayList<Entity> getNeighbours(Entity entity)
+	{
+		// If the entity has not been drawn yet, it overlaps nothing.
+		_Neighbours.clear();
+		Rectangle bounds = entity.getDrawnBounds();
+		if (bounds == null) { return _Neighbours; }
+
+		// Ask the grid and only keep those in the order that truly overlap.
+		_Candidates.clear();
+		_Grid.query(bounds, _Candidates);
+		for (Entity other : _Candidates)
+		{
+			if (other != entity && other.getDrawnBounds() != null && bounds.intersects(other.getDrawnBounds()) && _Index.containsKey(other))
+			{
+				_Neighbours.add(other);
+			}
+		}
+
+		return _Neighbours;
+	}
+
+	/**
+	 * Compare two overlapping entities by the boxes of their shapes. Boxes side by side along the x-axis cannot hide each other, so their order does not matter. Otherwise, looking down along the
+	 * y- and z-axis, a box lying entirely in front of or above another is drawn after it. If the boxes intersect, their centers decide.
+	 * 
+	 * @param e1
+	 *            The first entity.
+	 * @param e2
+	 *            The second entity.
+	 * @return 1 if the first entity is drawn in front, -1 if the second is and 0 if it does not matter.
+	 */
+	public static int compare(Entity e1, Entity e2)
+	{
+		// The shapes of the entities.
+		Shape s1 = e1.getBody().getShape();
+		Shape s2 = e2.getBody().getShape();
+
+		// If the boxes are side by side.
+		if (s1.getPosition().x - s1.getWidth() / 2 >= s2.getPosition().x + s2.getWidth() / 2 || s2.getPosition().x - s2.getWidth() / 2 >= s1.getPosition().x + s1.getWidth() / 2) { return 0; }
+
+		// If one box is in front of the other.
+		if (s1.getPosition().y - s1.getHeight() / 2 >= s2.getPosition().y + s2.getHeight() / 2) { return 1; }
+		if (s2.getPosition().y - s2.getHeight() / 2 >= s1.getPosition().y + s1.getHeight() / 2) { return -1; }
+
+		// If one box is above the other.
+		if (s1.getBottomDepth() >= s2.getTopDepth()) { return 1; }
+		if (s2.getBottomDepth() >= s1.getTopDepth()) { return -1; }
+
+		// The boxes intersect, go by their centers.
+		return (int) Math.signum(getKey(e1) - getKey(e2));
+	}
+
+	/**
+	 * Get the key used to order entities that have nothing else to go by, ie. the depth of the center of their shape.
+	 * 
+	 * @param entity
+	 *            The entity.
+	 * @return The key.
+	 */
+	private static double getKey(Entity entity)
+	{
+		return entity.getBody().getShape().getPosition().y + entity.getBody().getShape().getPosition().z;
+	}
+
+	/**
+	 * Get the place of an entity in the order.
+	 * 
+	 * @param entity
+	 *            The entity.
+	 * @return The place, counted from the back, or -1 if the entity is not in the order.
+	 */
+	public int getIndex(Entity entity)
+	{
+		Integer index = _Index.get(entity);
+		return (index != null) ? index : -1;
+	}
+
+	/**
+	 * Sort some of the entities by their place in the order, ie. from back to front. This is cheaper than going through the whole order when only a few entities are of interest.
+	 * 
+	 * @param entities
+	 *            The entities to sort.
+	 */
+	public void sort(List<Entity> entities)
+	{
+		Collections.sort(entities, _IndexComparator);
+	}
+
+	/**
+	 * Get the entities ordered from back to front.
+	 * 
+	 * @return The list of entities.
+	 */
+	public ArrayList<Entity> getEntities()
+	{
+		return _Order;
+	}
+}
\ No newline at end of file
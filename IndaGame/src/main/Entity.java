@@ -8,6 +8,7 @@ import infrastructure.GameTimer;
 import input.InputManager;
 
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.util.concurrent.ExecutionException;
 
 import javax.xml.bind.annotation.XmlAccessType;
@@ -34,6 +35,10 @@ public class Entity
 	// The Sprite and Body.
 	protected SpriteManager _Sprites;
 	protected Body _Body;
+	// The area the entity covered the last time it was drawn.
+	protected Rectangle _DrawnBounds;
+	// The id the scene lets the entity be picked by on screen, or -1 if it has none.
+	protected int _PickId;
 
 	/**
 	 * Constructor for an entity.
@@ -58,6 +63,7 @@ public class Entity
 		_Name = "";
 		_Scene = scene;
 		_Sprites = new SpriteManager();
+		_PickId = -1;
 		_Body = new Body(_Scene != null ? _Scene.getPhysicsSimulator() : null);
 		_Body.setEntity(this);
 		_Body.addBody();
@@ -85,6 +91,7 @@ public class Entity
 	public void loadContent(String spritePath, float height)
 	{
 		// Clear all sprites.
+		_Sprites.unloadContent();
 		_Sprites = new SpriteManager();
 
 		// Add a sprite.
@@ -103,6 +110,14 @@ public class Entity
 		_Sprites.getSprite(0).setPositionOffset(new Vector2(0, -_Sprites.getSprite(0).getCurrentFrame().getOrigin().y + (_Body.getShape().getHeight() / 2)));
 	}
 
+	/**
+	 * Unload content, ie. release the textures of all sprites.
+	 */
+	public void unloadContent()
+	{
+		_Sprites.unloadContent();
+	}
+
 	/**
 	 * Handle input.
 	 * 
@@ -111,21 +126,7 @@ public class Entity
 	 */
 	public void handleInput(InputManager input)
 	{
-		// Check if the left mouse button is down.
-		if (input.isMouseButtonDown(1))
-		{
-			// Transform the mouse coordinates into world space.
-
-			// Check if the Body has been clicked on.
-			if ((input.mouseEventPosition().x <= (_Body.getLayeredPosition().x + (_Body.getShape().getWidth() / 2)))
-					&& (input.mouseEventPosition().x >= (_Body.getLayeredPosition().x - (_Body.getShape().getWidth() / 2)))
-					&& (input.mouseEventPosition().y <= (_Body.getLayeredPosition().y + (_Body.getShape().getHeight() / 2)))
-					&& (input.mouseEventPosition().y >= (_Body.getLayeredPosition().y - (_Body.getShape().getHeight() / 2))))
-			{
-				// Turn the debug isClicked variable on.
-				_Body._IsClicked = !_Body._IsClicked;
-			}
-		}
+		// Clicks are picked by the scene, so a plain entity has nothing to respond to.
 	}
 
 	/**
@@ -140,6 +141,30 @@ public class Entity
 		_Sprites.update(gameTime, Helper.getScreenPosition(new Vector3(_Body.getLayeredPosition(), _Body.getShape().getBottomDepth())));
 	}
 
+	/**
+	 * Let the scene know which areas need to be redrawn if the entity has changed since it was last drawn, ie. both the area where it was and where it is now.
+	 */
+	public void updateDirtyArea()
+	{
+		// Get the area the entity covers now.
+		Rectangle bounds = _Sprites.getBounds();
+
+		// If nothing has changed, stop here.
+		if (!_Sprites.isDirty() && (bounds == null ? _DrawnBounds == null : bounds.equals(_DrawnBounds))) { return; }
+
+		// Report both the old and the new area and let the scene know where the entity now is.
+		if (_Scene != null)
+		{
+			_Scene.addDirtyArea(_DrawnBounds);
+			_Scene.addDirtyArea(bounds);
+			_Scene.moveEntity(this, _DrawnBounds, bounds);
+		}
+
+		// The changes have been taken care of.
+		_DrawnBounds = bounds;
+		_Sprites.clearDirty();
+	}
+
 	/**
 	 * Draw the entity.
 	 * 
@@ -163,8 +188,40 @@ public class Entity
 	 */
 	public double getDepthSort(int x, int y)
 	{
-		// No stored depth value found, get a fresh one.
-		return _Body.getShape().getDepthSort(x, y);
+		// Look up the stored depth value relative to the shape's position.
+		Vector3 position = _Body.getShape().getPosition();
+		return position.y + position.z + _Body.getShape().getDepthMap().get(x, y);
+	}
+
+	/**
+	 * Get the area the entity covered the last time it was reported to the scene.
+	 * 
+	 * @return The bounds in world coordinates, or null if the entity has not been drawn.
+	 */
+	public Rectangle getDrawnBounds()
+	{
+		return _DrawnBounds;
+	}
+
+	/**
+	 * Get the id the entity is picked by on screen, given to it by its scene.
+	 * 
+	 * @return The pick id, or -1 if the entity is not part of a scene.
+	 */
+	public int getPickId()
+	{
+		return _PickId;
+	}
+
+	/**
+	 * Set the id the entity is picked by on screen. Only the scene should do this.
+	 * 
+	 * @param id
+	 *            The pick id, or -1 if the entity has none.
+	 */
+	void setPickId(int id)
+	{
+		_PickId = id;
 	}
 
 	/**
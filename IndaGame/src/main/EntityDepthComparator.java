@@ -2,14 +2,12 @@ package main;
 
 import java.util.Comparator;
 
-import auxillary.Helper;
-import auxillary.Vector2;
-import auxillary.Vector3;
-
 import physics.Shape;
 
 /**
- * This comparator compares two Entity objects and sorts them by ascending depth. This method is far from bullet-proof and should only be used as a sort of prebuffer.
+ * This comparator compares two Entity objects and sorts them by ascending depth, ie. from back to front. Every entity is given a single key, the depth sorting value of the back-bottom edge of its
+ * shape, which makes the order consistent no matter how many entities are sorted. It is far from bullet-proof for boxes that overlap and should only be used as a sort of prebuffer; the depth
+ * composite and the draw order decide what truly ends up on top.
  */
 public class EntityDepthComparator implements Comparator<Entity>
 {
@@ -19,33 +17,19 @@ public class EntityDepthComparator implements Comparator<Entity>
 	@Override
 	public int compare(Entity e1, Entity e2)
 	{
-		// Whether the entities' shapes overlap.
-		int overlap = Shape.isOverlaping(e1.getBody().getShape(), e2.getBody().getShape());
-
-		// If the entities do not overlap, we are finished here.
-		if (overlap != 0)
-		{
-			return overlap;
-		}
-		else
-		{
-			// The entities' bottom positions.
-			double y1 = Helper.getScreenPosition(new Vector3(0, e1.getBody().getShape().getBottomLeft().y, e1.getBody().getShape().getBottomDepth())).y;
-			double y2 = Helper.getScreenPosition(new Vector3(0, e2.getBody().getShape().getBottomLeft().y, e2.getBody().getShape().getBottomDepth())).y;
+		return Double.compare(getKey(e1), getKey(e2));
+	}
 
-			// If an overlap exists, go by their y-coordinates instead.
-			if (y1 < y2)
-			{
-				return -1;
-			}
-			else if (y1 > y2)
-			{
-				return 1;
-			}
-			else
-			{
-				return 0;
-			}
-		}
+	/**
+	 * Get the key an entity is sorted by, ie. the depth sorting value (y + z) of the back-bottom edge of its shape.
+	 * 
+	 * @param entity
+	 *            The entity.
+	 * @return The key.
+	 */
+	public static double getKey(Entity entity)
+	{
+		Shape shape = entity.getBody().getShape();
+		return shape.getPosition().y - shape.getHeight() / 2 + shape.getBottomDepth();
 	}
-}
+}
\ No newline at end of file
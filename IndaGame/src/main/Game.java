@@ -1,13 +1,17 @@
 package main;
 
+import infrastructure.FrameScheduler;
 import infrastructure.GameTimer;
 import infrastructure.ScreenManager;
-import infrastructure.TimeSpan;
 import infrastructure.WindowFrame;
 import input.InputManager;
 import screens.BackgroundScreen;
 import screens.MainMenuScreen;
+import debug.AllocationTracker;
 import debug.DebugManager;
+import debug.FlightRecorder;
+import debug.MetricsRegistry;
+import debug.Profiler;
 
 public class Game
 {
@@ -19,12 +23,29 @@ public class Game
 
 	// The game timer.
 	private GameTimer timer;
+	// The scheduler that paces the updates and drawings.
+	private FrameScheduler _Scheduler;
+	// The time spent on every frame, from its input to its drawing, and on every drawing of the render thread, in nanoseconds.
+	private MetricsRegistry.Histogram _FrameTime;
+	private MetricsRegistry.Histogram _RenderTime;
+	// The tracker of the bytes allocated in every phase of a frame.
+	private AllocationTracker _Allocations;
 
 	// The screen manager.
 	private ScreenManager _ScreenManager;
 
 	private boolean exit;
 
+	// Whether the scenes are drawn on a render thread while the next frame is updated.
+	private boolean _IsPipelined;
+	// The lock the update and render threads take turns holding, and whether there is an updated frame the render thread has not drawn yet.
+	private final Object _FrameLock = new Object();
+	private boolean _HasNewFrame;
+	// The frame event begun with the first update the render thread has not drawn yet, and the time spent handling input and updating since, which are recorded once it is drawn.
+	private Object _PendingEvent;
+	private long _PendingInput;
+	private long _PendingUpdate;
+
 	/**
 	 * The static main method of the game. This is where the game starts.
 	 * 
@@ -46,8 +67,14 @@ public class Game
 		// The window panel.
 		window = new WindowFrame();
 		timer = new GameTimer();
+		_Scheduler = new FrameScheduler();
+		_FrameTime = MetricsRegistry.getInstance().histogram("frame.time");
+		_RenderTime = MetricsRegistry.getInstance().histogram("frame.renderTime");
+		_Allocations = AllocationTracker.getInstance();
 		_ScreenManager = new ScreenManager(this);
 		exit = false;
+		_IsPipelined = Boolean.getBoolean("indagame.pipelined");
+		_HasNewFrame = false;
 
 		// Initialize.
 		initialize();
@@ -73,78 +100,214 @@ public class Game
 	{
 		// Send the Key and Mouse Events to the Debug Manager.
 		DebugManager.getInstance().handleInput(window.inputManager);
-
-		// Calculate the used time by the handle input function.
-		DebugManager.getInstance().setPhaseTime(0);
 	}
 
 	public void draw()
 	{
-		// Begin drawing.
-		window.drawBegin();
+		// Time the drawing.
+		try (Profiler.Scope scope = Profiler.scope("draw"))
+		{
+			// Begin drawing.
+			window.drawBegin();
 
-		// Let the screen manager distribute the drawing.
-		_ScreenManager.draw(timer);
+			// Let the screen manager distribute the drawing.
+			_ScreenManager.draw(timer);
+
+			// Debug Draw. It is drawn as an overlay, so that it never ends up in the back-buffer.
+			if (DebugManager.getInstance().debug)
+			{
+				window.drawOverlayBegin();
+				DebugManager.getInstance().draw(window.getBufferGraphics());
+			}
 
-		// Debug Draw.
-		DebugManager.getInstance().draw(window.getBufferGraphics());
+			// End drawing.
+			window.drawEnd();
+		}
+	}
 
-		// End drawing.
-		window.drawEnd();
+	/**
+	 * Start the render thread, which draws every updated frame while the next one is being updated. The screens first draw what they can from the state handed to them at the end of the update,
+	 * outside the frame lock, and then put it on screen while holding it.
+	 */
+	private void startRenderThread()
+	{
+		Thread thread = new Thread("Render")
+		{
+			public void run()
+			{
+				// The frame event and the time spent handling input and updating for the frame to draw, kept when a drawing is skipped.
+				Object event = null;
+				long input = 0;
+				long update = 0;
 
-		// Calculate the used time by the drawing function.
-		DebugManager.getInstance().setPhaseTime(3);
+				try
+				{
+					while (!exit)
+					{
+						// Wait for a frame to be updated and take over the updates that led up to it.
+						synchronized (_FrameLock)
+						{
+							while (!_HasNewFrame && !exit)
+							{
+								_FrameLock.wait();
+							}
+							_HasNewFrame = false;
+
+							event = (event != null) ? event : _PendingEvent;
+							input += _PendingInput;
+							update += _PendingUpdate;
+							_PendingEvent = null;
+							_PendingInput = 0;
+							_PendingUpdate = 0;
+						}
+
+						// Wait for the drawing to be due, unless it is skipped to let the updates catch up.
+						_Scheduler.waitForRender();
+						if (!_Scheduler.isRenderDue())
+						{
+							continue;
+						}
+
+						// Draw the scenes alongside the next update.
+						long allocated = _Allocations.getAllocatedBytes();
+						long start = System.nanoTime();
+						try (Profiler.Scope scope = Profiler.scope("render"))
+						{
+							_ScreenManager.render();
+						}
+						long render = System.nanoTime() - start;
+
+						// Hand the drawing over and put the frame on screen once the update thread is done.
+						long draw;
+						synchronized (_FrameLock)
+						{
+							start = System.nanoTime();
+							_ScreenManager.commitRender();
+							draw();
+							draw = System.nanoTime() - start;
+						}
+						// Record the frame now that it is on screen, from its input to its drawing.
+						Profiler.endFrame();
+						FlightRecorder.endFrame(event, input, update, render, draw);
+						_FrameTime.record(input + update + render + draw);
+						_RenderTime.record(render + draw);
+						_Allocations.addRender(_Allocations.getAllocatedBytes() - allocated);
+						event = null;
+						input = 0;
+						update = 0;
+					}
+				}
+				// Catch the exceptions.
+				catch (InterruptedException e)
+				{
+					System.out.println(this + ": Interrupted Error. (" + e + ")");
+				}
+			}
+		};
+		thread.setDaemon(true);
+		thread.start();
 	}
 
 	public void updateLoop()
 	{
-		// Start the timer.
+		// Start the timer and the schedule.
 		timer.start();
+		_Scheduler.start();
+
+		// If the drawing is pipelined, start the thread that does it.
+		if (_IsPipelined)
+		{
+			startRenderThread();
+		}
 
 		// Loop as long as the window is visible.
 		while (isVisible() && !exit)
 		{
-			// Update the timer.
-			timer.update();
-
-			// Calculate the startup time.
-			DebugManager.getInstance().setPhaseStartTime();
-
-			// Handle the mouse and keyboard input.
-			handleInput();
-
-			// Calculate the used time by the physics update function.
-			DebugManager.getInstance().setPhaseTime(1);
-
-			// Calculate the used time by the body update function.
-			DebugManager.getInstance().setPhaseTime(2);
-
-			// Draw all Objects.
-			draw();
-
-			// Update the screen manager.
-			_ScreenManager.update(timer);
-			// Update the Window.
-			window.update();
+			// Keep the render thread from putting a frame on screen while this one is updated.
+			synchronized (_FrameLock)
+			{
+				// Whether anything was done this time around, and how long each phase took and how many bytes it allocated.
+				boolean frame = false;
+				Object event = FlightRecorder.beginFrame();
+				long input = 0;
+				long update = 0;
+				long draw = 0;
+				long inputBytes = 0;
+				long updateBytes = 0;
+				long drawBytes = 0;
+				long allocated = _Allocations.getAllocatedBytes();
+
+				// If an update is due, do it.
+				if (_Scheduler.isUpdateDue())
+				{
+					// Update the timer.
+					timer.update();
+
+					// Handle the mouse and keyboard input.
+					long start = System.nanoTime();
+					try (Profiler.Scope scope = Profiler.scope("input"))
+					{
+						handleInput();
+					}
+					input = System.nanoTime() - start;
+					inputBytes = _Allocations.getAllocatedBytes() - allocated;
+					allocated += inputBytes;
+
+					// Update the screen manager, and with it the scenes and their physics, and the window.
+					start = System.nanoTime();
+					try (Profiler.Scope scope = Profiler.scope("update"))
+					{
+						_ScreenManager.update(timer);
+						window.update();
+					}
+					update = System.nanoTime() - start;
+					updateBytes = _Allocations.getAllocatedBytes() - allocated;
+					allocated += updateBytes;
+
+					// Let the render thread know there is a new frame to draw.
+					_HasNewFrame = true;
+					_FrameLock.notifyAll();
+					frame = true;
+				}
 
-			// Calculate the used time at end of the game loop. FIX THE FPS COUNTER!!!
-			DebugManager.getInstance().setPhaseEndTime();
+				// Draw all Objects if the frame has changed and a drawing is due, unless the render thread does so.
+				if (!_IsPipelined && _HasNewFrame && _Scheduler.isRenderDue())
+				{
+					long start = System.nanoTime();
+					draw();
+					draw = System.nanoTime() - start;
+					drawBytes = _Allocations.getAllocatedBytes() - allocated;
+					_HasNewFrame = false;
+					frame = true;
+				}
 
-			// Sleep some time.
-			try
-			{
-				// The time left.
-				int sleep = TimeSpan.FromMilliseconds(TimePerFrame).Subtract(timer.getElapsedTime()).Milliseconds();
-				// If there is time left, sleep.
-				if (sleep > 0)
+				// Let the profiler, the flight recorder and the allocation tracker know the frame has ended. When pipelined, the frame is recorded by the render thread once it is drawn.
+				if (frame)
 				{
-					Thread.sleep(sleep);
+					Profiler.endFrame();
+					_Allocations.endFrame(inputBytes, updateBytes, drawBytes);
+					if (_IsPipelined)
+					{
+						_PendingEvent = (_PendingEvent != null) ? _PendingEvent : event;
+						_PendingInput += input;
+						_PendingUpdate += update;
+					}
+					else
+					{
+						FlightRecorder.endFrame(event, input, update, 0, draw);
+						_FrameTime.record(input + update + draw);
+					}
 				}
 			}
-			// Catch the exceptions.
-			catch (InterruptedException e)
+
+			// Wait for the next update or drawing to be due.
+			if (_IsPipelined)
+			{
+				_Scheduler.waitForUpdate();
+			}
+			else
 			{
-				System.out.println(this + ": Interrupted Error. (" + e + ")");
+				_Scheduler.waitForFrame();
 			}
 		}
 
@@ -177,6 +340,26 @@ public class Game
 		exit = true;
 	}
 
+	/**
+	 * Whether the scenes are drawn on a render thread while the next frame is updated. It is enabled by the system property "indagame.pipelined".
+	 * 
+	 * @return Whether pipelining is enabled.
+	 */
+	public boolean getEnablePipelining()
+	{
+		return _IsPipelined;
+	}
+
+	/**
+	 * Get the scheduler that paces the game's updates and drawings.
+	 * 
+	 * @return The frame scheduler.
+	 */
+	public FrameScheduler getScheduler()
+	{
+		return _Scheduler;
+	}
+
 	/**
 	 * Get the game's window.
 	 * 
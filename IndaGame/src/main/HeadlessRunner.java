@@ -0,0 +1,314 @@
+package main;
+
+import infrastructure.Camera2D;
+import infrastructure.GameTimer;
+
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+import auxillary.Helper;
+import auxillary.Vector2;
+import debug.AllocationTracker;
+import debug.MetricsRegistry;
+
+/**
+ * The headless runner simulates a scene without a window, screens or input, ticking its physics and entities as fast as it can for a number of steps and printing how fast that went. It is meant for
+ * measuring the simulation's throughput on machines without a screen, such as build agents. The scene is either a scene class or a scene file in the content root's scenes folder, and the runner can
+ * draw every step to an image off screen to include the drawing in the measurements. Generated scenes of any size can be run as "StressScene", sized by the scene generator's system properties.
+ * 
+ * Usage: HeadlessRunner &lt;scene class or file.xml&gt; [-steps N] [-warmup N] [-render] [-size WxH]
+ */
+public class HeadlessRunner
+{
+	// The default number of steps measured, and run before measuring to let the JIT compiler settle.
+	public static final int DefaultSteps = 1000;
+	public static final int DefaultWarmup = 200;
+	// The default size of the viewport, and the size of the world.
+	public static final Vector2 DefaultViewport = new Vector2(1024, 768);
+	public static final Vector2 WorldSize = new Vector2(3000, 3000);
+	// How to use the runner.
+	public static final String Usage = "Usage: HeadlessRunner <scene class or file.xml> [-steps N] [-warmup N] [-render] [-size WxH]";
+
+	// The timer, stepped a frame at a time regardless of the clock.
+	private GameTimer _Timer;
+	// The scene manager and the camera, which has nowhere to show the scene.
+	private SceneManager _SceneManager;
+	private Camera2D _Camera;
+	// The image the scene is drawn to, if it is drawn at all.
+	private BufferedImage _Image;
+	// The time each step took to update and draw, in nanoseconds.
+	private MetricsRegistry.Histogram _UpdateTime;
+	private MetricsRegistry.Histogram _DrawTime;
+
+	/**
+	 * The static main method of the headless runner.
+	 * 
+	 * @param args
+	 *            The scene to run, followed by the options.
+	 */
+	public static void main(String[] args)
+	{
+		// There is no screen to draw to.
+		if (System.getProperty("java.awt.headless") == null)
+		{
+			System.setProperty("java.awt.headless", "true");
+		}
+
+		// Read the arguments.
+		if (args.length < 1)
+		{
+			System.out.println(Usage);
+			return;
+		}
+		int steps = DefaultSteps;
+		int warmup = DefaultWarmup;
+		boolean render = false;
+		Vector2 viewport = DefaultViewport;
+		for (int i = 1; i < args.length; i++)
+		{
+			// Options without a value.
+			String option = args[i];
+			if (option.equals("-render"))
+			{
+				render = true;
+				continue;
+			}
+
+			// Every other option takes a value.
+			if (!(option.equals("-steps") || option.equals("-warmup") || option.equals("-size")) || i + 1 >= args.length)
+			{
+				System.out.println("Unknown option or missing value: " + option);
+				System.out.println(Usage);
+				return;
+			}
+
+			// Which must be valid.
+			String value = args[++i];
+			int[] counts = parseCounts(value, option.equals("-size") ? 2 : 1, option.equals("-warmup") ? 0 : 1);
+			if (counts == null)
+			{
+				System.out.println("Invalid value for " + option + ": " + value);
+				System.out.println(Usage);
+				return;
+			}
+
+			// Use the value.
+			if (option.equals("-steps"))
+			{
+				steps = counts[0];
+			}
+			else if (option.equals("-warmup"))
+			{
+				warmup = counts[0];
+			}
+			else
+			{
+				viewport = new Vector2(counts[0], counts[1]);
+			}
+		}
+
+		// Load the scene and run it.
+		HeadlessRunner runner = new HeadlessRunner(viewport, render);
+		if (runner.loadScene(args[0]) == null)
+		{
+			System.exit(1);
+		}
+		runner.run(warmup, steps);
+	}
+
+	/**
+	 * Parse the counts given as an option's value, separated by an 'x' if there are more than one.
+	 * 
+	 * @param value
+	 *            The value.
+	 * @param number
+	 *            The number of counts the value must hold.
+	 * @param min
+	 *            The smallest valid count.
+	 * @return The counts, or null if there are not as many as asked for or one of them is not a number or smaller than allowed.
+	 */
+	private static int[] parseCounts(String value, int number, int min)
+	{
+		// Split the value into the counts.
+		String[] parts = value.split("x", -1);
+		if (parts.length != number) { return null; }
+
+		// Parse them.
+		int[] counts = new int[number];
+		try
+		{
+			for (int i = 0; i < number; i++)
+			{
+				counts[i] = Integer.parseInt(parts[i].trim());
+				if (counts[i] < min) { return null; }
+			}
+		}
+		// Catch the exceptions.
+		catch (NumberFormatException e)
+		{
+			return null;
+		}
+
+		return counts;
+	}
+
+	/**
+	 * Constructor for a headless runner.
+	 * 
+	 * @param viewport
+	 *            The size of the camera's viewport, and of the image the scene is drawn to.
+	 * @param render
+	 *            Whether to draw the scene every step.
+	 */
+	public HeadlessRunner(Vector2 viewport, boolean render)
+	{
+		_Timer = new GameTimer();
+		_Camera = new Camera2D(viewport, WorldSize);
+		_SceneManager = new SceneManager(null, _Camera);
+		_Image = render ? Helper.createCompatibleImage((int) viewport.x, (int) viewport.y, Transparency.OPAQUE) : null;
+		_UpdateTime = new MetricsRegistry.Histogram();
+		_DrawTime = new MetricsRegistry.Histogram();
+	}
+
+	/**
+	 * Load a scene and make it the current one. A name ending in ".xml" is loaded from the content root's scenes folder, while any other name is taken to be a scene class, looked for in the scenes
+	 * package if it is not qualified.
+	 * 
+	 * @param name
+	 *            The scene class or file.
+	 * @return The loaded scene, or null if it could not be loaded.
+	 */
+	public Scene loadScene(String name)
+	{
+		Scene scene = null;
+
+		// Load the scene from file.
+		if (name.endsWith(".xml"))
+		{
+			scene = Helper.loadScene(name, _SceneManager);
+		}
+		// Create the scene from its class.
+		else
+		{
+			try
+			{
+				String className = (name.indexOf('.') < 0) ? "scenes." + name : name;
+				scene = (Scene) Class.forName(className).getConstructor(SceneManager.class).newInstance(_SceneManager);
+			}
+			// Catch the exceptions.
+			catch (Exception e)
+			{
+				System.out.println(this + ": Load Scene Error. (" + e + ")");
+			}
+		}
+
+		// Add the scene to the manager, which loads its content and makes it current.
+		if (scene != null)
+		{
+			_SceneManager.addScene(scene);
+		}
+
+		return scene;
+	}
+
+	/**
+	 * Run the current scene, first for a number of steps that are not measured and then for those that are, and print the results.
+	 * 
+	 * @param warmup
+	 *            The number of steps to run before measuring.
+	 * @param steps
+	 *            The number of steps to measure.
+	 */
+	public void run(int warmup, int steps)
+	{
+		// Let the JIT compiler settle before measuring.
+		_Timer.start();
+		for (int i = 0; i < warmup; i++)
+		{
+			step();
+		}
+		_UpdateTime.reset();
+		_DrawTime.reset();
+
+		// Measure the steps and how much they allocate.
+		AllocationTracker allocations = AllocationTracker.getInstance();
+		MetricsRegistry.Counter collections = MetricsRegistry.getInstance().counter("gc.count");
+		allocations.endFrame(0, 0, 0);
+		long count = collections.get();
+		long allocated = allocations.getAllocatedBytes();
+		long start = System.nanoTime();
+		for (int i = 0; i < steps; i++)
+		{
+			step();
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		allocated = allocations.getAllocatedBytes() - allocated;
+		allocations.endFrame(0, 0, 0);
+
+		// Print the results.
+		Scene scene = _SceneManager.getCurrentScene();
+		System.out.println("Scene: " + scene.getName() + " (" + scene.getEntities().size() + " entities, " + scene.getPhysicsSimulator().bodyCount() + " bodies)");
+		System.out.println("Steps: " + steps + " in " + round(seconds * 1000) + " ms, " + round(steps / seconds) + " ticks/s");
+		printTimes("Update", _UpdateTime);
+		if (_Image != null)
+		{
+			printTimes("Draw", _DrawTime);
+		}
+		if (allocations.isSupported())
+		{
+			System.out.println("Allocated: " + (allocated / Math.max(steps, 1)) + " B/tick, " + round(allocated / seconds / (1 << 20)) + " MB/s");
+		}
+		System.out.println("GC: " + (collections.get() - count) + " collections");
+	}
+
+	/**
+	 * Run a single step, updating the scene by a frame's worth of time and drawing it if asked to.
+	 */
+	private void step()
+	{
+		// Update the scene, and with it its physics and entities.
+		long start = System.nanoTime();
+		_Timer.step(Game.TimePerFrame * 1000000L);
+		_SceneManager.update(_Timer);
+		long time = System.nanoTime();
+		_UpdateTime.record(time - start);
+
+		// Draw the scene off screen.
+		if (_Image != null)
+		{
+			Graphics2D graphics = _Image.createGraphics();
+			graphics.setColor(Helper.ZealPalace);
+			graphics.fillRect(0, 0, _Image.getWidth(), _Image.getHeight());
+			_SceneManager.draw(graphics);
+			graphics.dispose();
+			_DrawTime.record(System.nanoTime() - time);
+		}
+	}
+
+	/**
+	 * Print the mean and percentiles of the times a phase took.
+	 * 
+	 * @param name
+	 *            The name of the phase.
+	 * @param times
+	 *            The times, in nanoseconds.
+	 */
+	private void printTimes(String name, MetricsRegistry.Histogram times)
+	{
+		System.out.println(name + ": mean " + round(times.getMean() / 1e6) + " ms, p50 " + round(times.getPercentile(50) / 1e6) + " ms, p90 " + round(times.getPercentile(90) / 1e6) + " ms, p99 "
+				+ round(times.getPercentile(99) / 1e6) + " ms, max " + round(times.getMax() / 1e6) + " ms");
+	}
+
+	/**
+	 * Round a value to two decimals for printing.
+	 * 
+	 * @param value
+	 *            The value.
+	 * @return The rounded value.
+	 */
+	private static double round(double value)
+	{
+		return Math.round(value * 100) / 100.0;
+	}
+}
\ No newline at end of file
@@ -4,6 +4,7 @@ import graphics.Frame;
 import graphics.Sprite;
 import graphics.SpriteManager;
 import infrastructure.Enums.DepthDistribution;
+import infrastructure.Enums.Orientation;
 import infrastructure.Enums.Visibility;
 import infrastructure.GameTimer;
 import input.InputManager;
@@ -11,8 +12,6 @@ import input.InputManager;
 import java.awt.event.KeyEvent;
 import java.awt.image.BufferedImage;
 
-import org.omg.CORBA._PolicyStub;
-
 import physics.Body;
 import physics.PhysicsSimulator;
 import auxillary.Helper;
@@ -73,6 +72,7 @@ public class Player extends Entity
 	public void loadContent()
 	{
 		// Clear all sprites.
+		_Sprites.unloadContent();
 		_Sprites = new SpriteManager();
 
 		// Front.
@@ -94,11 +94,12 @@ public class Player extends Entity
 		right.addFrame(new Frame("Character/ZombieGuy1_Right[1].png"));
 		right.addFrame(new Frame("Character/ZombieGuy1_Right[2].png"));
 
-		// Left.
+		// Left, which simply is right mirrored.
 		Sprite left = _Sprites.addSprite(new Sprite("Left"));
-		left.addFrame(new Frame("Character/ZombieGuy1_Left[0].png"));
-		left.addFrame(new Frame("Character/ZombieGuy1_Left[1].png"));
-		left.addFrame(new Frame("Character/ZombieGuy1_Left[2].png"));
+		left.addFrame(new Frame("Character/ZombieGuy1_Right[0].png"));
+		left.addFrame(new Frame("Character/ZombieGuy1_Right[1].png"));
+		left.addFrame(new Frame("Character/ZombieGuy1_Right[2].png"));
+		left.setOrientation(Orientation.Left);
 
 		// Only make one sprite visible.
 		back.setVisibility(Visibility.Invisible);
@@ -341,7 +342,11 @@ public class Player extends Entity
 		// If the health has dropped beneath 0, end the game.
 		if (_Health < 0 && !_IsDead)
 		{
-			_Scene.getSceneManager().getScreen().gameOver(false);
+			// Let the screen know, unless the scene is run without one.
+			if (_Scene.getSceneManager().getScreen() != null)
+			{
+				_Scene.getSceneManager().getScreen().gameOver(false);
+			}
 			_IsDead = true;
 		}
 	}
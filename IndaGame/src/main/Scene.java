@@ -1,20 +1,32 @@
 package main;
 
 import graphics.DepthComposite;
+import graphics.Frame;
+import graphics.SpatialGrid;
+import graphics.Sprite;
+import graphics.Texture;
+import graphics.TextureAtlas;
+import infrastructure.Camera2D;
+import infrastructure.Enums.RenderMode;
 import infrastructure.GameTimer;
 import input.InputManager;
 
 import java.awt.Composite;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 
 import auxillary.Vector2;
 import auxillary.Vector3;
 
 import physics.PhysicsSimulator;
 import debug.DebugManager;
+import debug.Profiler;
 
 /**
  * A scene is a map of the game world and can be populated by entities.
@@ -33,6 +45,32 @@ public class Scene
 	protected DepthComposite _Composite;
 	// The entrance positions.
 	protected ArrayList<Vector3> _Entrances;
+	// The areas in world coordinates that have changed since the scene was last drawn.
+	protected ArrayList<Rectangle> _DirtyAreas;
+	// The grid that keeps track of where the entities are drawn, used to skip those that cannot be seen.
+	protected SpatialGrid<Entity> _EntityGrid;
+	// The entities found to be in view when drawing, both as a set and sorted back to front.
+	protected HashSet<Entity> _VisibleEntities;
+	protected ArrayList<Entity> _VisibleOrder;
+	// The entities by the id they are picked by, with null where an id is not in use, the ids free to be given out again and those let go of since the scene was last drawn, which may still be
+	// found in the composite's id buffer.
+	protected ArrayList<Entity> _PickEntities;
+	protected ArrayList<Integer> _FreePickIds;
+	protected ArrayList<Integer> _ReleasedPickIds;
+	// The number of ids ever released, of which all but the ones waiting for the scene to be redrawn have been freed.
+	protected long _PickIdsReleased;
+	// The area, the entities found there and their order, reused when picking entities painted in order.
+	protected Rectangle _PickArea;
+	protected HashSet<Entity> _PickFound;
+	protected ArrayList<Entity> _PickOrder;
+	// The atlas the entities' textures are packed into and whether it is missing some of them.
+	protected TextureAtlas _Atlas;
+	protected boolean _IsAtlasOutdated;
+	// How the scene is rendered and the back to front order of the entities used when painting them in order.
+	protected RenderMode _RenderMode;
+	protected DrawOrder _DrawOrder;
+	// The comparator that keeps the entities roughly sorted by depth.
+	protected static final EntityDepthComparator DepthComparator = new EntityDepthComparator();
 
 	/**
 	 * Empty constructor for a scene.
@@ -66,8 +104,23 @@ public class Scene
 		_SceneManager = manager;
 		_Entities = new ArrayList<>();
 		_Physics = new PhysicsSimulator();
-		_Composite = new DepthComposite(_SceneManager.getCamera().getViewportSize());
+		_Composite = new DepthComposite(_SceneManager.getSceneSize());
 		_Entrances = new ArrayList<Vector3>();
+		_DirtyAreas = new ArrayList<Rectangle>();
+		_EntityGrid = new SpatialGrid<Entity>(256);
+		_VisibleEntities = new HashSet<Entity>();
+		_VisibleOrder = new ArrayList<Entity>();
+		_PickEntities = new ArrayList<Entity>();
+		_FreePickIds = new ArrayList<Integer>();
+		_ReleasedPickIds = new ArrayList<Integer>();
+		_PickIdsReleased = 0;
+		_PickArea = new Rectangle();
+		_PickFound = new HashSet<Entity>();
+		_PickOrder = new ArrayList<Entity>();
+		_Atlas = new TextureAtlas();
+		_IsAtlasOutdated = true;
+		_RenderMode = RenderMode.DepthBuffer;
+		_DrawOrder = new DrawOrder(_EntityGrid);
 	}
 
 	/**
@@ -78,6 +131,48 @@ public class Scene
 		// Load all entities' content.
 	}
 
+	/**
+	 * Unload content.
+	 */
+	public void unloadContent()
+	{
+		// Let go of the atlas.
+		_Atlas.dispose();
+		_IsAtlasOutdated = true;
+
+		// Unload all entities' content.
+		for (Entity entity : _Entities)
+		{
+			entity.unloadContent();
+		}
+	}
+
+	/**
+	 * Pack the textures of all entities' frames into the scene's atlas. Textures already packed are left as they are.
+	 */
+	public void updateAtlas()
+	{
+		// Gather the textures of all frames.
+		ArrayList<Texture> textures = new ArrayList<Texture>();
+		for (Entity entity : _Entities)
+		{
+			for (Sprite sprite : entity.getSprites().getSprites())
+			{
+				for (Frame frame : sprite.getFrames())
+				{
+					if (frame.getTextureHandle() != null)
+					{
+						textures.add(frame.getTextureHandle());
+					}
+				}
+			}
+		}
+
+		// Pack them.
+		_Atlas.add(textures);
+		_IsAtlasOutdated = false;
+	}
+
 	/**
 	 * Handle input.
 	 * 
@@ -86,10 +181,20 @@ public class Scene
 	 */
 	public void handleInput(InputManager input)
 	{
-		// Let all entities respond to input.
-		for (Entity entity : new ArrayList<Entity>(_Entities))
+		// Let the entity clicked on know about it.
+		if (input.isMouseButtonDown(1))
 		{
-			entity.handleInput(input);
+			Entity entity = pick((int) input.mouseEventPosition().x, (int) input.mouseEventPosition().y);
+			if (entity != null)
+			{
+				entity.getBody()._IsClicked = !entity.getBody()._IsClicked;
+			}
+		}
+
+		// Let all entities respond to input. Entities added meanwhile are handled too.
+		for (int i = 0; i < _Entities.size(); i++)
+		{
+			_Entities.get(i).handleInput(input);
 		}
 	}
 
@@ -101,13 +206,24 @@ public class Scene
 	 */
 	public void update(GameTimer gameTime)
 	{
+		// If entities have been added since the atlas was built, pack their textures too.
+		if (_IsAtlasOutdated)
+		{
+			updateAtlas();
+		}
+
 		// Update the physics simulator.
 		_Physics.update();
 
 		// Update all entities.
-		for (Entity entity : new ArrayList<Entity>(_Entities))
+		try (Profiler.Scope scope = Profiler.scope("entities"))
 		{
-			entity.update(gameTime);
+			for (int i = 0; i < _Entities.size(); i++)
+			{
+				Entity entity = _Entities.get(i);
+				entity.update(gameTime);
+				entity.updateDirtyArea();
+			}
 		}
 	}
 
@@ -119,21 +235,343 @@ public class Scene
 	 */
 	public void draw(Graphics2D graphics)
 	{
+		// The area of the scene that can be seen and needs to be drawn, ie. the camera's view limited by the graphics clip.
+		Rectangle view = _SceneManager.getCamera().getVisibleArea();
+		Rectangle clip = graphics.getClipBounds();
+		if (clip != null)
+		{
+			view = view.intersection(clip);
+		}
+
+		// Find the entities in view.
+		findVisibleEntities(view);
+
+		// Draw the entities in view, either depth tested or in order.
+		int drawn;
+		try (Profiler.Scope scope = Profiler.scope("composite"))
+		{
+			drawn = (_RenderMode == RenderMode.PaintersOrder) ? drawInOrder(graphics, view) : drawDepthTested(graphics, view);
+		}
+
+		// The entities removed since the last frame have now been erased from the id buffer, so their ids can be given out again.
+		freePickIds(_PickIdsReleased);
+
+		// Let the debug manager know how many entities were drawn and culled.
+		DebugManager.getInstance().setCullingStatistics(drawn, _Entities.size() - drawn);
+	}
+
+	/**
+	 * Capture the entities in view as they are now, so that they can be drawn from the snapshot while the scene moves on. They are captured in the order they are drawn.
+	 * 
+	 * @param snapshot
+	 *            The snapshot to capture the scene into.
+	 */
+	public void capture(SceneSnapshot snapshot)
+	{
+		// The area of the scene the camera can see.
+		Camera2D camera = _SceneManager.getCamera();
+		Rectangle view = camera.getVisibleArea();
+		snapshot.begin(this, camera.getTransformMatrix(), view, _Composite, _SceneManager.getResolutionScale());
+
+		// Find the entities in view.
+		findVisibleEntities(view);
+
+		// Capture the entities in view, in the draw order if painted on top of each other.
+		if (_RenderMode == RenderMode.PaintersOrder)
+		{
+			_DrawOrder.update();
+			_DrawOrder.sort(_VisibleOrder);
+		}
+		for (int i = 0; i < _VisibleOrder.size(); i++)
+		{
+			snapshot.add(_VisibleOrder.get(i));
+		}
+	}
+
+	/**
+	 * Find the entities whose images overlap an area, asking the grid rather than going through every entity. They are kept both as a set and sorted back to front, which is the order they are depth
+	 * tested in.
+	 * 
+	 * @param view
+	 *            The area of the scene in view.
+	 */
+	protected void findVisibleEntities(Rectangle view)
+	{
+		// Find the entities in the cells the area overlaps.
+		_VisibleEntities.clear();
+		_EntityGrid.query(view, _VisibleEntities);
+
+		// Keep only those that truly overlap the area.
+		_VisibleOrder.clear();
+		for (Iterator<Entity> entities = _VisibleEntities.iterator(); entities.hasNext();)
+		{
+			Entity entity = entities.next();
+			if (view.intersects(entity.getDrawnBounds()))
+			{
+				_VisibleOrder.add(entity);
+			}
+			else
+			{
+				entities.remove();
+			}
+		}
+
+		// Sort them back to front.
+		Collections.sort(_VisibleOrder, DepthComparator);
+	}
+
+	/**
+	 * Draw the scene as it was captured in a snapshot, either depth tested or in order. Only the snapshot is used, never the scene itself, so this may be done by a render thread while the scene is
+	 * being updated.
+	 * 
+	 * @param graphics
+	 *            The graphics component.
+	 * @param snapshot
+	 *            The snapshot of the scene.
+	 * @param composite
+	 *            The depth composite to draw with, which must have the size the snapshot was drawn at.
+	 * @return The number of entities drawn.
+	 */
+	public static int draw(Graphics2D graphics, SceneSnapshot snapshot, DepthComposite composite)
+	{
+		// The area of the scene that was seen and needs to be drawn, limited by the graphics clip.
+		Rectangle view = snapshot.getVisibleArea();
+		Rectangle clip = graphics.getClipBounds();
+		if (clip != null)
+		{
+			view = view.intersection(clip);
+		}
+
+		// Depth test the entities, if the scene was depth tested.
+		boolean depthTested = snapshot.getRenderMode() == RenderMode.DepthBuffer;
+		Composite old = graphics.getComposite();
+		if (depthTested)
+		{
+			composite.clearIds(graphics, view);
+			graphics.setComposite(composite);
+		}
+
+		// Draw the captured entities that are in view.
+		int drawn = 0;
+		try (Profiler.Scope scope = Profiler.scope("composite"))
+		{
+			for (int i = 0; i < snapshot.getEntityCount(); i++)
+			{
+				// Skip the entity if it cannot be seen.
+				SceneSnapshot.EntityState state = snapshot.getEntity(i);
+				if (!view.intersects(state.getBounds()))
+				{
+					continue;
+				}
+
+				// Let the composite know the depth of the entity as it was captured.
+				if (depthTested)
+				{
+					composite.setEntity(state.getEntity(), state.getDepthMap(), state.getBase(), state.getPickId());
+				}
+				state.draw(graphics);
+				drawn++;
+			}
+		}
+
+		// Notify the depth composite that the frame has ended, at least for the scene.
+		if (depthTested)
+		{
+			composite.endFrame();
+			graphics.setComposite(old);
+		}
+
+		return drawn;
+	}
+
+	/**
+	 * Take over what a render thread found out drawing a snapshot of the scene. The ids it drew are copied to the scene's own composite to pick entities with, and the entities removed before the
+	 * snapshot was taken have now been erased, so their ids can be given out again. This must be done while the scene is not being updated.
+	 * 
+	 * @param snapshot
+	 *            The snapshot drawn.
+	 * @param composite
+	 *            The depth composite it was drawn with.
+	 */
+	public void commit(SceneSnapshot snapshot, DepthComposite composite)
+	{
+		_Composite.copyIds(composite);
+		freePickIds(snapshot.getReleasedPickIds());
+	}
+
+	/**
+	 * Draw the entities in view with the depth composite, which depth tests every pixel.
+	 * 
+	 * @param graphics
+	 *            The graphics component.
+	 * @param view
+	 *            The area of the scene to draw.
+	 * @return The number of entities drawn.
+	 */
+	protected int drawDepthTested(Graphics2D graphics, Rectangle view)
+	{
+		// Forget who was drawn where in the area about to be redrawn.
+		_Composite.clearIds(graphics, view);
+
 		// Enable depth sorting by composite.
 		Composite old = graphics.getComposite();
 		graphics.setComposite(_Composite);
 
-		// Draw all entities.
-		for (Entity entity : new ArrayList<Entity>(_Entities))
+		// Draw all entities in view, back to front.
+		for (int i = 0; i < _VisibleOrder.size(); i++)
 		{
 			// Prepare the graphics device for depth-sorting.
-			((DepthComposite) graphics.getComposite()).setEntity(entity);
+			Entity entity = _VisibleOrder.get(i);
+			_Composite.setEntity(entity);
 			entity.draw(graphics);
 		}
 
 		// Notify the depth composite that the frame has ended, at least for the scene.
 		_Composite.endFrame();
 		graphics.setComposite(old);
+
+		return _VisibleOrder.size();
+	}
+
+	/**
+	 * Draw the entities in view from back to front, each simply painted on top of the ones before it.
+	 * 
+	 * @param graphics
+	 *            The graphics component.
+	 * @param view
+	 *            The area of the scene to draw.
+	 * @return The number of entities drawn.
+	 */
+	protected int drawInOrder(Graphics2D graphics, Rectangle view)
+	{
+		// Put the entities that have moved back in order, and the entities in view along with them.
+		_DrawOrder.update();
+		_DrawOrder.sort(_VisibleOrder);
+
+		// Draw all entities in view.
+		for (int i = 0; i < _VisibleOrder.size(); i++)
+		{
+			_VisibleOrder.get(i).draw(graphics);
+		}
+
+		return _VisibleOrder.size();
+	}
+
+	/**
+	 * Find the entity drawn topmost at a pixel on screen. When depth tested, this is looked up in the depth composite's id buffer and takes the same time however many entities there are. When painted
+	 * in order no ids are kept, so the entities at the point are instead sorted and tested from front to back against their sprites, which takes longer the more entities overlap there. Only pixels
+	 * that are not transparent count.
+	 * 
+	 * @param screenX
+	 *            The x-coordinate on screen.
+	 * @param screenY
+	 *            The y-coordinate on screen.
+	 * @return The entity or null if there is none or picking is disabled.
+	 */
+	public Entity pick(int screenX, int screenY)
+	{
+		// If the scene is depth tested, the composite knows who was drawn where, at the resolution the scene is drawn at.
+		if (_RenderMode == RenderMode.DepthBuffer)
+		{
+			float scale = _SceneManager.getResolutionScale();
+			int id = _Composite.getIdAt((int) (screenX * scale), (int) (screenY * scale));
+			Entity entity = (id >= 0 && id < _PickEntities.size()) ? _PickEntities.get(id) : null;
+			return (entity != null && _VisibleEntities.contains(entity)) ? entity : null;
+		}
+
+		// If picking is disabled, stop here.
+		if (!_Composite.getEnablePicking()) { return null; }
+
+		// Otherwise find the entities at the point in the world.
+		Vector2 point = _SceneManager.getCamera().convertScreenToWorld(new Vector2(screenX, screenY));
+		int x = (int) Math.floor(point.x);
+		int y = (int) Math.floor(point.y);
+		_PickArea.setBounds(x, y, 1, 1);
+		_PickFound.clear();
+		_EntityGrid.query(_PickArea, _PickFound);
+
+		// Test them from front to back.
+		_PickOrder.clear();
+		_PickOrder.addAll(_PickFound);
+		_DrawOrder.sort(_PickOrder);
+		Entity picked = null;
+		for (int i = _PickOrder.size() - 1; i >= 0 && picked == null; i--)
+		{
+			Entity entity = _PickOrder.get(i);
+			if (entity.getSprites().contains(x, y))
+			{
+				picked = entity;
+			}
+		}
+
+		// Let go of the entities, as the collections are kept.
+		_PickFound.clear();
+		_PickOrder.clear();
+
+		return picked;
+	}
+
+	/**
+	 * Move what is known about the screen along with its contents when the camera has scrolled.
+	 * 
+	 * @param dx
+	 *            The amount of movement on the x-axis.
+	 * @param dy
+	 *            The amount of movement on the y-axis.
+	 */
+	public void scroll(int dx, int dy)
+	{
+		_Composite.scrollIds(dx, dy);
+	}
+
+	/**
+	 * Set the size of the area the scene is drawn to. The depth composite is replaced by one of the new size, keeping its settings. The new one knows nothing of what has already been drawn, so the
+	 * whole scene must be redrawn.
+	 * 
+	 * @param size
+	 *            The new size in pixels.
+	 */
+	public void setViewportSize(Vector2 size)
+	{
+		// If the size has not changed, stop here.
+		if ((int) size.x == _Composite.getWidth() && (int) size.y == _Composite.getHeight()) { return; }
+
+		// Replace the composite.
+		DepthComposite old = _Composite;
+		_Composite = new DepthComposite(size);
+		_Composite.setEnablePicking(old.getEnablePicking());
+		_Composite.setEnablePackedKernel(old.getEnablePackedKernel());
+		_Composite.setEnableVectorKernel(old.getEnableVectorKernel());
+	}
+
+	/**
+	 * Whether entities can be picked on screen.
+	 * 
+	 * @return Whether picking is enabled.
+	 */
+	public boolean getEnablePicking()
+	{
+		return _Composite.getEnablePicking();
+	}
+
+	/**
+	 * Set whether entities can be picked on screen. Enabling it lets the depth composite keep track of which entity is drawn at every pixel, so all entities are redrawn once.
+	 * 
+	 * @param enable
+	 *            Whether to enable picking.
+	 */
+	public void setEnablePicking(boolean enable)
+	{
+		// Redraw all entities so that the composite finds out where they are.
+		if (enable && !_Composite.getEnablePicking())
+		{
+			for (Entity entity : _Entities)
+			{
+				addDirtyArea(entity.getDrawnBounds());
+			}
+		}
+
+		_Composite.setEnablePicking(enable);
 	}
 
 	/**
@@ -145,11 +583,115 @@ public class Scene
 	 */
 	public Entity addEntity(Entity entity)
 	{
-		_Entities.add(entity);
+		// Keep the entities roughly sorted by depth by inserting the entity where it belongs. Entities that have moved since they were added may make the spot a rough one.
+		int index = Collections.binarySearch(_Entities, entity, DepthComparator);
+		_Entities.add((index < 0) ? -index - 1 : index, entity);
+		register(entity);
+
+		return entity;
+	}
+
+	/**
+	 * Add a number of entities to the scene at once, sorting them by depth only once they all have been added. Prefer this to adding many entities one by one.
+	 * 
+	 * @param entities
+	 *            The entities to add.
+	 */
+	public void addEntities(Collection<? extends Entity> entities)
+	{
+		// Add the entities and sort them all.
+		_Entities.addAll(entities);
+		for (Entity entity : entities)
+		{
+			register(entity);
+		}
+		Collections.sort(_Entities, DepthComparator);
+	}
+
+	/**
+	 * Let the physics simulator, the grid and the draw order know of an entity that has been added.
+	 * 
+	 * @param entity
+	 *            The added entity.
+	 */
+	private void register(Entity entity)
+	{
 		entity.setScene(this);
 		_Physics.addBody(entity.getBody());
-		Collections.sort(_Entities, new EntityDepthComparator());
-		return entity;
+		_EntityGrid.add(entity, entity.getDrawnBounds());
+		_DrawOrder.add(entity);
+		_IsAtlasOutdated = true;
+		assignPickId(entity);
+	}
+
+	/**
+	 * Give an entity an id to be picked by, reusing one let go of by a removed entity if there is any.
+	 * 
+	 * @param entity
+	 *            The entity added to the scene.
+	 */
+	private void assignPickId(Entity entity)
+	{
+		// If the entity already has an id in this scene, keep it.
+		int id = entity.getPickId();
+		if (id >= 0 && id < _PickEntities.size() && _PickEntities.get(id) == entity) { return; }
+
+		// Take a free id or make a new one.
+		if (_FreePickIds.isEmpty())
+		{
+			id = _PickEntities.size();
+			_PickEntities.add(entity);
+		}
+		else
+		{
+			id = _FreePickIds.remove(_FreePickIds.size() - 1);
+			_PickEntities.set(id, entity);
+		}
+		entity.setPickId(id);
+	}
+
+	/**
+	 * Let go of the id an entity is picked by. The id may still be found in the composite's id buffer where the entity was drawn, so it is only given out again once the scene has been redrawn.
+	 * 
+	 * @param entity
+	 *            The entity removed from the scene.
+	 */
+	private void releasePickId(Entity entity)
+	{
+		// If the id is not this scene's to let go of, stop here.
+		int id = entity.getPickId();
+		if (id < 0 || id >= _PickEntities.size() || _PickEntities.get(id) != entity) { return; }
+
+		_PickEntities.set(id, null);
+		_ReleasedPickIds.add(id);
+		_PickIdsReleased++;
+		entity.setPickId(-1);
+	}
+
+	/**
+	 * Free the released ids that can no longer be found in the composite's id buffer, so that they can be given out again.
+	 * 
+	 * @param released
+	 *            The number of ids released, ever, when the scene was last drawn.
+	 */
+	private void freePickIds(long released)
+	{
+		// The ids are freed in the order they were released, and those still waiting are the last ones released.
+		int count = _ReleasedPickIds.size() - (int) (_PickIdsReleased - released);
+		if (count <= 0) { return; }
+
+		_FreePickIds.addAll(_ReleasedPickIds.subList(0, count));
+		_ReleasedPickIds.subList(0, count).clear();
+	}
+
+	/**
+	 * Get the number of pick ids the scene has released, ever.
+	 * 
+	 * @return The number of released ids.
+	 */
+	long getReleasedPickIdCount()
+	{
+		return _PickIdsReleased;
 	}
 
 	/**
@@ -162,6 +704,60 @@ public class Scene
 	{
 		_Entities.remove(entity);
 		_Physics.removeBody(entity.getBody());
+		_EntityGrid.remove(entity, entity.getDrawnBounds());
+		_DrawOrder.remove(entity);
+		releasePickId(entity);
+
+		// Erase the entity from the screen.
+		addDirtyArea(entity.getDrawnBounds());
+	}
+
+	/**
+	 * Update where an entity is drawn, so that it can be found when drawing the scene.
+	 * 
+	 * @param entity
+	 *            The entity that has moved.
+	 * @param oldBounds
+	 *            The area the entity used to cover in world coordinates.
+	 * @param newBounds
+	 *            The area the entity now covers in world coordinates.
+	 */
+	public void moveEntity(Entity entity, Rectangle oldBounds, Rectangle newBounds)
+	{
+		_EntityGrid.move(entity, oldBounds, newBounds);
+		_DrawOrder.move(entity);
+	}
+
+	/**
+	 * Mark an area of the scene as changed, so that it will be redrawn.
+	 * 
+	 * @param area
+	 *            The area in world coordinates.
+	 */
+	public void addDirtyArea(Rectangle area)
+	{
+		if (area != null)
+		{
+			_DirtyAreas.add(area);
+		}
+	}
+
+	/**
+	 * Get the areas of the scene that have changed since they were last cleared.
+	 * 
+	 * @return The list of dirty areas in world coordinates.
+	 */
+	public ArrayList<Rectangle> getDirtyAreas()
+	{
+		return _DirtyAreas;
+	}
+
+	/**
+	 * Forget all dirty areas, usually done once they have been handed over to the screen.
+	 */
+	public void clearDirtyAreas()
+	{
+		_DirtyAreas.clear();
 	}
 
 	/**
@@ -247,7 +843,74 @@ public class Scene
 	 */
 	public void setEntities(ArrayList<Entity> entities)
 	{
+		// Let go of the old entities' ids and give the new ones theirs.
+		for (Entity entity : _Entities)
+		{
+			releasePickId(entity);
+		}
+		for (Entity entity : entities)
+		{
+			assignPickId(entity);
+		}
 		_Entities = entities;
+
+		// Rebuild the grid of entities.
+		_EntityGrid.clear();
+		for (Entity entity : _Entities)
+		{
+			_EntityGrid.add(entity, entity.getDrawnBounds());
+		}
+		_DrawOrder.reset(_Entities);
+	}
+
+	/**
+	 * Get the scene's texture atlas.
+	 * 
+	 * @return The atlas.
+	 */
+	public TextureAtlas getAtlas()
+	{
+		return _Atlas;
+	}
+
+	/**
+	 * Get how the scene is rendered.
+	 * 
+	 * @return The render mode.
+	 */
+	public RenderMode getRenderMode()
+	{
+		return _RenderMode;
+	}
+
+	/**
+	 * Set how the scene is rendered. Painters order is much faster, but scenes where entities overlap in cycles are better off depth tested.
+	 * 
+	 * @param mode
+	 *            The new render mode.
+	 */
+	public void setRenderMode(RenderMode mode)
+	{
+		// Every entity may be drawn differently now.
+		if (_RenderMode != mode)
+		{
+			for (Entity entity : _Entities)
+			{
+				addDirtyArea(entity.getDrawnBounds());
+			}
+		}
+
+		_RenderMode = mode;
+	}
+
+	/**
+	 * Get the back to front order of the entities used when painting them in order.
+	 * 
+	 * @return The draw order.
+	 */
+	public DrawOrder getDrawOrder()
+	{
+		return _DrawOrder;
 	}
 
 	/**
@@ -1,15 +1,27 @@
 package main;
 
+import graphics.DepthComposite;
 import infrastructure.Camera2D;
+import infrastructure.DirtyRegion;
 import infrastructure.GameScreen;
 import infrastructure.GameTimer;
+import infrastructure.ScreenManager;
 import input.InputManager;
 
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Transparency;
 import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 
 import auxillary.Helper;
+import auxillary.TripleBuffer;
+import auxillary.Vector2;
 
 import debug.DebugManager;
 
@@ -18,6 +30,13 @@ import debug.DebugManager;
  */
 public class SceneManager
 {
+	// The lowest resolution the scenes are drawn at, relative to the screen.
+	public static final float MinResolutionScale = .5f;
+	// The factor the resolution is lowered by at a time when drawing takes too long.
+	public static final float ResolutionStep = .9f;
+	// The default time in nanoseconds that drawing a scene may take before the resolution is lowered.
+	public static final long DefaultFrameBudget = Game.TimePerFrame * 1000000L / 2;
+
 	// The screen this scene manager is displayed in.
 	private GameScreen _Screen;
 	// The camera.
@@ -26,6 +45,44 @@ public class SceneManager
 	private ArrayList<Scene> _Scenes;
 	// The current scene.
 	private Scene _CurrentScene;
+	// The scene and camera matrix used the last time the screen was told what to redraw.
+	private Scene _DrawnScene;
+	private AffineTransform _DrawnTransform;
+	// The resolution the scenes are drawn at relative to the screen and the buffer they are drawn to when it is lower than the screen's. Only changed by the update thread.
+	private volatile float _ResolutionScale;
+	private BufferedImage _SceneBuffer;
+	// Whether the resolution follows the time it takes to draw, how long drawing may take and how long it has taken lately, in nanoseconds.
+	private boolean _IsDynamicResolution;
+	private long _FrameBudget;
+	private double _DrawTime;
+	// Whether the scenes are drawn by a render thread from snapshots and the snapshots handed to it.
+	private volatile boolean _IsPipelined;
+	private TripleBuffer<SceneSnapshot> _Snapshots;
+	// The number of the last snapshot taken, of the last one the render thread has drawn and of the first one that must be drawn in full, which is 0 if there is none and the largest number there is
+	// if it is the next one taken.
+	private long _SnapshotSequence;
+	private AtomicLong _RenderedSequence;
+	private long _RedrawSequence;
+	// The scene's dirty areas the render thread has not drawn yet and the numbers of the snapshots they were first handed over in. Only used by the update thread.
+	private ArrayList<Rectangle> _PendingAreas;
+	private long[] _PendingSequences;
+	// The buffer the render thread draws the snapshots to, the resolution it was last drawn at and the depth composite it draws with. Only used by the render thread.
+	private BufferedImage _RenderBuffer;
+	private float _RenderScale;
+	private DepthComposite _RenderComposite;
+	// The part of the render buffer redrawn for the latest snapshot and how far its contents were scrolled, which the screen takes over once committed. Only used by the render thread.
+	private DirtyRegion _RenderRegion;
+	private int _RenderScrollX;
+	private int _RenderScrollY;
+	// The scene and camera matrix of the latest snapshot drawn, and the matrix its dirty areas are transformed to the buffer with. Only used by the render thread.
+	private Scene _RenderedScene;
+	private AffineTransform _RenderedTransform;
+	private AffineTransform _RenderTransform;
+	// The number of entities drawn the last time and whether the scene has yet to take over what was drawn. Only used by the render thread.
+	private int _RenderDrawn;
+	private boolean _IsRenderCommitted;
+	// The time the render thread took to draw the last snapshot in nanoseconds, or -1 if the update thread has already adapted the resolution to it.
+	private AtomicLong _RenderTime;
 
 	/**
 	 * Constructor for a scene manager.
@@ -55,6 +112,32 @@ public class SceneManager
 		_Camera = camera;
 		_Scenes = new ArrayList<>();
 		_CurrentScene = null;
+		_DrawnScene = null;
+		_DrawnTransform = null;
+		_ResolutionScale = 1;
+		_SceneBuffer = null;
+		_IsDynamicResolution = false;
+		_FrameBudget = DefaultFrameBudget;
+		_DrawTime = 0;
+		_IsPipelined = false;
+		_Snapshots = new TripleBuffer<SceneSnapshot>(new SceneSnapshot(), new SceneSnapshot(), new SceneSnapshot());
+		_SnapshotSequence = 0;
+		_RenderedSequence = new AtomicLong(0);
+		_RedrawSequence = 0;
+		_PendingAreas = new ArrayList<Rectangle>();
+		_PendingSequences = new long[16];
+		_RenderBuffer = null;
+		_RenderScale = 1;
+		_RenderComposite = null;
+		_RenderRegion = null;
+		_RenderScrollX = 0;
+		_RenderScrollY = 0;
+		_RenderedScene = null;
+		_RenderedTransform = null;
+		_RenderTransform = new AffineTransform();
+		_RenderDrawn = 0;
+		_IsRenderCommitted = true;
+		_RenderTime = new AtomicLong(-1);
 	}
 
 	/**
@@ -69,6 +152,17 @@ public class SceneManager
 		}
 	}
 
+	/**
+	 * Unload content for all scenes in the manager.
+	 */
+	public void unloadContent()
+	{
+		for (Scene scene : _Scenes)
+		{
+			scene.unloadContent();
+		}
+	}
+
 	/**
 	 * Handle input.
 	 * 
@@ -105,8 +199,358 @@ public class SceneManager
 		}
 		_Camera.update(gameTime);
 
-		// Share the camera matrix with the debug manager.
+		// Share the camera matrix and what it sees with the debug manager.
 		DebugManager.getInstance().setTransformMatrix(_Camera.getTransformMatrix());
+		DebugManager.getInstance().setVisibleArea(_Camera.getVisibleArea());
+
+		// If the scene is drawn by the render thread, adapt the resolution to the time it took last and hand it a snapshot of the scene and what has changed in it.
+		if (_IsPipelined)
+		{
+			long time = _RenderTime.getAndSet(-1);
+			if (time >= 0)
+			{
+				updateResolutionScale(time);
+			}
+			publishSnapshot();
+		}
+		// Otherwise let the screen know which parts of it have changed.
+		else
+		{
+			updateDirtyAreas();
+		}
+	}
+
+	/**
+	 * Capture the current scene as it is now and hand it to the render thread, along with the areas of the scene that have changed since the last snapshot the render thread drew. The render thread
+	 * may skip snapshots, so the areas are handed over again and again until it has drawn a snapshot holding them.
+	 */
+	private void publishSnapshot()
+	{
+		// If there is nowhere to draw or nothing to draw, stop here.
+		if (_Screen == null || _Screen.getScreenManager() == null || _CurrentScene == null) { return; }
+
+		// Number the snapshot and forget what the render thread has already drawn.
+		long sequence = ++_SnapshotSequence;
+		long rendered = _RenderedSequence.get();
+		forgetPendingAreas(rendered);
+		if (_RedrawSequence <= rendered)
+		{
+			_RedrawSequence = 0;
+		}
+		else if (_RedrawSequence == Long.MAX_VALUE)
+		{
+			_RedrawSequence = sequence;
+		}
+
+		// Keep the scene's changes until they have been drawn.
+		for (Rectangle area : _CurrentScene.getDirtyAreas())
+		{
+			addPendingArea(area, sequence);
+		}
+		_CurrentScene.clearDirtyAreas();
+
+		// Capture the scene and its changes into the back buffer and publish it.
+		SceneSnapshot snapshot = _Snapshots.getBack();
+		_CurrentScene.capture(snapshot);
+		snapshot.setSequence(sequence, _RedrawSequence != 0);
+		for (int i = 0; i < _PendingAreas.size(); i++)
+		{
+			snapshot.addDirtyArea(_PendingAreas.get(i));
+		}
+		_Snapshots.publish();
+
+		// The screen will be told what has changed by the render thread, so if pipelining is disabled the scene must be redrawn in full.
+		_DrawnTransform = null;
+	}
+
+	/**
+	 * Keep a dirty area until the render thread has drawn a snapshot holding it.
+	 * 
+	 * @param area
+	 *            The area in world coordinates.
+	 * @param sequence
+	 *            The number of the first snapshot it is handed over in.
+	 */
+	private void addPendingArea(Rectangle area, long sequence)
+	{
+		// Make room for the number.
+		int index = _PendingAreas.size();
+		if (index == _PendingSequences.length)
+		{
+			_PendingSequences = Arrays.copyOf(_PendingSequences, index * 2);
+		}
+
+		_PendingAreas.add(area);
+		_PendingSequences[index] = sequence;
+	}
+
+	/**
+	 * Forget the dirty areas the render thread has drawn, ie. those first handed over in a snapshot up to the last one it has drawn. The areas were added in order, so those are the first ones.
+	 * 
+	 * @param rendered
+	 *            The number of the last snapshot the render thread has drawn.
+	 */
+	private void forgetPendingAreas(long rendered)
+	{
+		// Count the areas drawn.
+		int count = 0;
+		while (count < _PendingAreas.size() && _PendingSequences[count] <= rendered)
+		{
+			count++;
+		}
+		if (count == 0) { return; }
+
+		// Remove them, keeping the numbers of the others alongside them.
+		_PendingAreas.subList(0, count).clear();
+		System.arraycopy(_PendingSequences, count, _PendingSequences, 0, _PendingAreas.size());
+	}
+
+	/**
+	 * Draw the latest snapshot of the current scene to the render buffer, if there is a new one. This is done by the render thread while the next frame is being updated, so that compositing the scene
+	 * overlaps with the physics, and draw only has to put the buffer on screen. The snapshot carries everything needed to draw it and the render thread composites it with a composite of its own, so
+	 * it never touches what the update thread may change. It only posts the time it took for the next update to adapt the resolution to, while the scene takes over the ids it drew once committed.
+	 * Like the screen, the buffer is kept from frame to frame, and only what has changed since the last snapshot drawn is redrawn.
+	 */
+	public void render()
+	{
+		// If the scenes are not pipelined or nothing has happened since the last snapshot, stop here.
+		if (!_IsPipelined || !_Snapshots.acquire()) { return; }
+		SceneSnapshot snapshot = _Snapshots.getFront();
+		_RenderedSequence.set(snapshot.getSequence());
+		if (snapshot.getScene() == null) { return; }
+
+		// Time the drawing, so that the resolution can follow it.
+		long start = System.nanoTime();
+
+		// Make sure the render buffer, composite and region have the size the snapshot is drawn at, and that the composite has the scene's settings. New ones are drawn in full.
+		int width = snapshot.getWidth();
+		int height = snapshot.getHeight();
+		if (_RenderBuffer == null || _RenderBuffer.getWidth() != width || _RenderBuffer.getHeight() != height)
+		{
+			_RenderBuffer = Helper.createCompatibleImage(width, height, Transparency.OPAQUE);
+			_RenderComposite = new DepthComposite(new Vector2(width, height));
+			_RenderRegion = new DirtyRegion(width, height);
+		}
+		snapshot.applySettings(_RenderComposite);
+
+		// Find out which parts of the buffer to redraw.
+		updateRenderRegion(snapshot);
+
+		// Clear those parts and draw the snapshot to them, at the scene's resolution.
+		if (!_RenderRegion.isEmpty())
+		{
+			Shape clip = _RenderRegion.getClip();
+			Graphics2D g = _RenderBuffer.createGraphics();
+			g.setClip(clip);
+			g.setColor(_Screen.getScreenManager().getBackBufferColor());
+			g.fill(clip);
+			g.scale(snapshot.getResolutionScale(), snapshot.getResolutionScale());
+			g.transform(snapshot.getTransform());
+			_RenderDrawn = Scene.draw(g, snapshot, _RenderComposite);
+			g.dispose();
+		}
+
+		// Remember what the buffer now shows.
+		_RenderScale = snapshot.getResolutionScale();
+		_RenderedScene = snapshot.getScene();
+		if (_RenderedTransform == null)
+		{
+			_RenderedTransform = new AffineTransform();
+		}
+		_RenderedTransform.setTransform(snapshot.getTransform());
+		_IsRenderCommitted = false;
+
+		// Let the update thread adapt the resolution to the time it took.
+		_RenderTime.set(System.nanoTime() - start);
+	}
+
+	/**
+	 * Find out which parts of the render buffer have to be redrawn for a snapshot, the same way the screen is told what to redraw when the scene is not pipelined. Camera movement scrolls the buffer,
+	 * while zooming, rotating, switching scenes or changing the resolution redraws everything.
+	 * 
+	 * @param snapshot
+	 *            The snapshot about to be drawn.
+	 */
+	private void updateRenderRegion(SceneSnapshot snapshot)
+	{
+		// The camera matrix and resolution the snapshot is drawn with.
+		AffineTransform transform = snapshot.getTransform();
+		float scale = snapshot.getResolutionScale();
+
+		// If the last drawing was never put on screen, a redraw is asked for, the scene or resolution has changed or the camera has been zoomed or rotated, redraw everything.
+		if (!_IsRenderCommitted || snapshot.isInvalidated() || _RenderedScene != snapshot.getScene() || _RenderedTransform == null || scale != _RenderScale
+				|| transform.getScaleX() != _RenderedTransform.getScaleX() || transform.getScaleY() != _RenderedTransform.getScaleY() || transform.getShearX() != _RenderedTransform.getShearX()
+				|| transform.getShearY() != _RenderedTransform.getShearY())
+		{
+			_RenderRegion.invalidate();
+			return;
+		}
+
+		// If the scene is drawn at a lower resolution, the buffer cannot be scrolled by whole pixels, so redraw everything when the camera moves.
+		if (scale < 1)
+		{
+			if (transform.getTranslateX() != _RenderedTransform.getTranslateX() || transform.getTranslateY() != _RenderedTransform.getTranslateY())
+			{
+				_RenderRegion.invalidate();
+				return;
+			}
+		}
+		// Otherwise scroll the buffer as much as the camera has moved.
+		else
+		{
+			scrollRender((int) Math.round(transform.getTranslateX() - _RenderedTransform.getTranslateX()), (int) Math.round(transform.getTranslateY() - _RenderedTransform.getTranslateY()));
+		}
+
+		// Transform the scene's dirty areas to the buffer, with a pixel's margin for rounding.
+		_RenderTransform.setToScale(scale, scale);
+		_RenderTransform.concatenate(transform);
+		for (int i = 0; i < snapshot.getDirtyAreaCount(); i++)
+		{
+			Rectangle r = _RenderTransform.createTransformedShape(snapshot.getDirtyArea(i)).getBounds();
+			r.grow(1, 1);
+			_RenderRegion.add(r);
+		}
+	}
+
+	/**
+	 * Scroll the contents of the render buffer and the ids of its composite. The strips that are uncovered are redrawn.
+	 * 
+	 * @param dx
+	 *            The amount to scroll on the x-axis.
+	 * @param dy
+	 *            The amount to scroll on the y-axis.
+	 */
+	private void scrollRender(int dx, int dy)
+	{
+		// If there is nothing to scroll, stop here.
+		if (dx == 0 && dy == 0) { return; }
+
+		// If the scroll is too big, redraw everything.
+		int width = _RenderBuffer.getWidth();
+		int height = _RenderBuffer.getHeight();
+		if (Math.abs(dx) >= width || Math.abs(dy) >= height)
+		{
+			_RenderRegion.invalidate();
+			return;
+		}
+
+		// Move the contents of the buffer and the ids along with them.
+		Graphics2D g = _RenderBuffer.createGraphics();
+		g.copyArea(0, 0, width, height, dx, dy);
+		g.dispose();
+		_RenderComposite.scrollIds(dx, dy);
+
+		// Add the uncovered strips and let the screen scroll as much once committed.
+		_RenderRegion.add((dx > 0) ? new Rectangle(0, 0, dx, height) : new Rectangle(width + dx, 0, -dx, height));
+		_RenderRegion.add((dy > 0) ? new Rectangle(0, 0, width, dy) : new Rectangle(0, height + dy, width, -dy));
+		_RenderScrollX = dx;
+		_RenderScrollY = dy;
+	}
+
+	/**
+	 * Let the screen and the scene take over what the render thread found out drawing its latest snapshot, ie. which parts of the screen have changed, the ids of the entities drawn and how many of
+	 * them were culled. This is done by the render thread while holding the frame lock, right before the drawing is put on screen, so that the scene is not being updated meanwhile.
+	 */
+	public void commitRender()
+	{
+		// If nothing has been drawn since the last time, stop here.
+		if (!_IsPipelined || _IsRenderCommitted) { return; }
+		_IsRenderCommitted = true;
+
+		// Let the screen know which parts of it have changed, scrolling it along with the buffer.
+		ScreenManager manager = _Screen.getScreenManager();
+		if (_RenderRegion.isFullRedraw())
+		{
+			manager.invalidate();
+		}
+		else
+		{
+			manager.scroll(_RenderScrollX, _RenderScrollY);
+			for (Rectangle r : _RenderRegion.getRectangles())
+			{
+				manager.invalidate(toScreen(r));
+			}
+		}
+		_RenderRegion.clear();
+		_RenderScrollX = 0;
+		_RenderScrollY = 0;
+
+		// The scene drawn, which is the one in the snapshot the render thread holds on to until it acquires the next.
+		SceneSnapshot snapshot = _Snapshots.getFront();
+		snapshot.getScene().commit(snapshot, _RenderComposite);
+
+		// Let the debug manager know how many entities were drawn and culled.
+		DebugManager.getInstance().setCullingStatistics(_RenderDrawn, snapshot.getSceneEntityCount() - _RenderDrawn);
+	}
+
+	/**
+	 * Scale an area of the render buffer up to the screen, rounded outwards with a pixel's margin for the filtering if the buffer is drawn at a lower resolution.
+	 * 
+	 * @param area
+	 *            The area of the buffer. It is modified.
+	 * @return The area of the screen.
+	 */
+	private Rectangle toScreen(Rectangle area)
+	{
+		// At full resolution, the buffer is the screen.
+		if (_RenderScale >= 1) { return area; }
+
+		int minX = (int) Math.floor(area.x / _RenderScale) - 1;
+		int minY = (int) Math.floor(area.y / _RenderScale) - 1;
+		int maxX = (int) Math.ceil((area.x + area.width) / _RenderScale) + 1;
+		int maxY = (int) Math.ceil((area.y + area.height) / _RenderScale) + 1;
+		area.setBounds(minX, minY, maxX - minX, maxY - minY);
+
+		return area;
+	}
+
+	/**
+	 * Tell the screen manager which parts of the screen have to be redrawn. Camera movement scrolls the screen, while zooming, rotating or switching scenes redraws everything.
+	 */
+	private void updateDirtyAreas()
+	{
+		// If there is nowhere to draw or nothing to draw, stop here.
+		if (_Screen == null || _Screen.getScreenManager() == null || _CurrentScene == null) { return; }
+
+		// The screen manager and the camera matrix.
+		ScreenManager manager = _Screen.getScreenManager();
+		AffineTransform transform = _Camera.getTransformMatrix();
+
+		// If the scene has been switched or the camera has been zoomed or rotated, redraw everything.
+		if (_DrawnScene != _CurrentScene || _DrawnTransform == null || transform.getScaleX() != _DrawnTransform.getScaleX() || transform.getScaleY() != _DrawnTransform.getScaleY()
+				|| transform.getShearX() != _DrawnTransform.getShearX() || transform.getShearY() != _DrawnTransform.getShearY())
+		{
+			manager.invalidate();
+		}
+		// If the scene is drawn at a lower resolution, its buffer cannot be scrolled by whole pixels, so redraw everything when the camera moves.
+		else if (_ResolutionScale < 1)
+		{
+			if (transform.getTranslateX() != _DrawnTransform.getTranslateX() || transform.getTranslateY() != _DrawnTransform.getTranslateY())
+			{
+				manager.invalidate();
+			}
+		}
+		// Otherwise scroll the screen as much as the camera has moved.
+		else
+		{
+			int dx = (int) Math.round(transform.getTranslateX() - _DrawnTransform.getTranslateX());
+			int dy = (int) Math.round(transform.getTranslateY() - _DrawnTransform.getTranslateY());
+			manager.scroll(dx, dy);
+			_CurrentScene.scroll(dx, dy);
+		}
+
+		// Transform the scene's dirty areas to the screen, with a pixel's margin for rounding.
+		for (Rectangle area : _CurrentScene.getDirtyAreas())
+		{
+			Rectangle r = transform.createTransformedShape(area).getBounds();
+			r.grow(1, 1);
+			manager.invalidate(r);
+		}
+		_CurrentScene.clearDirtyAreas();
+
+		// Remember what the screen now will show.
+		_DrawnScene = _CurrentScene;
+		_DrawnTransform = new AffineTransform(transform);
 	}
 
 	/**
@@ -117,18 +561,145 @@ public class SceneManager
 	 */
 	public void draw(Graphics2D graphics)
 	{
-		// Save the old graphics matrix and insert the camera matrix in its place.
-		AffineTransform old = graphics.getTransform();
-		graphics.setTransform(_Camera.getTransformMatrix());
+		// If the render thread draws the scene, only put its latest drawing on screen.
+		if (_IsPipelined)
+		{
+			if (_RenderBuffer != null)
+			{
+				drawBuffer(graphics, _RenderBuffer, _RenderScale);
+			}
+			return;
+		}
 
-		// Draw the current scene.
-		if (_CurrentScene != null)
+		// Time the drawing, so that the resolution can follow it.
+		long start = System.nanoTime();
+
+		// If the scene is drawn at a lower resolution, draw it to its own buffer first.
+		if (_ResolutionScale < 1 && _CurrentScene != null)
 		{
-			_CurrentScene.draw(graphics);
+			drawScaled(graphics);
+		}
+		else
+		{
+			// Save the old graphics matrix and insert the camera matrix in its place.
+			AffineTransform old = graphics.getTransform();
+			graphics.setTransform(_Camera.getTransformMatrix());
+
+			// Draw the current scene.
+			if (_CurrentScene != null)
+			{
+				_CurrentScene.draw(graphics);
+			}
+
+			// Reinstate the old graphics matrix.
+			graphics.setTransform(old);
 		}
 
-		// Reinstate the old graphics matrix.
-		graphics.setTransform(old);
+		// Adapt the resolution to the time it took.
+		updateResolutionScale(System.nanoTime() - start);
+	}
+
+	/**
+	 * Draw the current scene at a lower resolution to the scene buffer and scale the result up onto the screen. Only the part of the buffer beneath the graphics clip is redrawn.
+	 * 
+	 * @param graphics
+	 *            The graphics component.
+	 */
+	private void drawScaled(Graphics2D graphics)
+	{
+		// Make sure the scene buffer has the right size.
+		Vector2 size = getSceneSize();
+		if (_SceneBuffer == null || _SceneBuffer.getWidth() != (int) size.x || _SceneBuffer.getHeight() != (int) size.y)
+		{
+			_SceneBuffer = Helper.createCompatibleImage((int) size.x, (int) size.y, Transparency.OPAQUE);
+		}
+
+		// The part of the buffer to redraw, ie. the clip scaled down and rounded outwards with a pixel's margin for the filtering.
+		Rectangle clip = graphics.getClipBounds();
+		Rectangle area = new Rectangle(0, 0, (int) size.x, (int) size.y);
+		if (clip != null)
+		{
+			int minX = (int) Math.floor(clip.x * _ResolutionScale) - 1;
+			int minY = (int) Math.floor(clip.y * _ResolutionScale) - 1;
+			int maxX = (int) Math.ceil((clip.x + clip.width) * _ResolutionScale) + 1;
+			int maxY = (int) Math.ceil((clip.y + clip.height) * _ResolutionScale) + 1;
+			area = area.intersection(new Rectangle(minX, minY, maxX - minX, maxY - minY));
+		}
+		if (area.isEmpty()) { return; }
+
+		// Clear the area and draw the scene to it, scaled down.
+		Graphics2D g = _SceneBuffer.createGraphics();
+		g.setClip(area);
+		g.setColor(_Screen.getScreenManager().getBackBufferColor());
+		g.fill(area);
+		g.scale(_ResolutionScale, _ResolutionScale);
+		g.transform(_Camera.getTransformMatrix());
+		_CurrentScene.draw(g);
+		g.dispose();
+
+		// Scale the buffer up onto the screen, where only the clip will be drawn.
+		drawBuffer(graphics, _SceneBuffer, _ResolutionScale);
+	}
+
+	/**
+	 * Draw the scene buffer onto the screen, scaling it up if it was drawn at a lower resolution.
+	 * 
+	 * @param graphics
+	 *            The graphics component.
+	 * @param buffer
+	 *            The scene buffer.
+	 * @param scale
+	 *            The resolution the buffer was drawn at, relative to the screen.
+	 */
+	private void drawBuffer(Graphics2D graphics, BufferedImage buffer, float scale)
+	{
+		// At full resolution, the buffer is simply copied.
+		if (scale >= 1)
+		{
+			graphics.drawImage(buffer, 0, 0, null);
+			return;
+		}
+
+		// Otherwise filter it while scaling it up.
+		Object interpolation = graphics.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+		graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		graphics.drawImage(buffer, AffineTransform.getScaleInstance(1 / scale, 1 / scale), null);
+		if (interpolation != null)
+		{
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+		}
+	}
+
+	/**
+	 * Lower the resolution when drawing has taken longer than the budget for a while and raise it again once drawing is well within the budget.
+	 * 
+	 * @param time
+	 *            The time it took to draw this frame, in nanoseconds.
+	 */
+	private void updateResolutionScale(long time)
+	{
+		// If the resolution is fixed, stop here.
+		if (!_IsDynamicResolution) { return; }
+
+		// Smooth out the time, so that a single slow frame does not change the resolution.
+		_DrawTime = _DrawTime * .9 + time * .1;
+
+		// Lower or raise the resolution a step if needed.
+		if (_DrawTime > _FrameBudget && _ResolutionScale > MinResolutionScale)
+		{
+			setResolutionScale(_ResolutionScale * ResolutionStep);
+		}
+		else if (_DrawTime < _FrameBudget / 2 && _ResolutionScale < 1)
+		{
+			setResolutionScale(_ResolutionScale / ResolutionStep);
+		}
+		else
+		{
+			return;
+		}
+
+		// Give the new resolution a few frames before judging it.
+		_DrawTime = _FrameBudget * .75;
 	}
 
 	/**
@@ -143,6 +714,7 @@ public class SceneManager
 		// Add the scene and set its manager.
 		_Scenes.add(scene);
 		scene.setSceneManager(this);
+		scene.setViewportSize(getSceneSize());
 		scene.loadContent();
 
 		// Set the current scene if it has not already been set.
@@ -164,6 +736,156 @@ public class SceneManager
 		return _Camera;
 	}
 
+	/**
+	 * Set the size of the area the scenes are shown in, for instance when the window has been resized. The camera and all scenes are resized along with it and everything is redrawn.
+	 * 
+	 * @param size
+	 *            The new size in pixels.
+	 */
+	public void setViewportSize(Vector2 size)
+	{
+		_Camera.setViewportSize(size);
+		resizeScenes();
+	}
+
+	/**
+	 * Get the size of the area the scenes are drawn to, ie. the camera's viewport at the current resolution.
+	 * 
+	 * @return The size in pixels.
+	 */
+	public Vector2 getSceneSize()
+	{
+		Vector2 viewport = _Camera.getViewportSize();
+		return new Vector2(Math.max((int) Math.ceil(viewport.x * _ResolutionScale), 1), Math.max((int) Math.ceil(viewport.y * _ResolutionScale), 1));
+	}
+
+	/**
+	 * Let all scenes know the size they are drawn at and redraw everything.
+	 */
+	private void resizeScenes()
+	{
+		// Resize the scenes.
+		Vector2 size = getSceneSize();
+		for (Scene scene : _Scenes)
+		{
+			scene.setViewportSize(size);
+		}
+
+		// Drop the scene buffer if it is not needed and redraw everything.
+		if (_ResolutionScale >= 1)
+		{
+			_SceneBuffer = null;
+		}
+		_DrawnTransform = null;
+	}
+
+	/**
+	 * Get the resolution the scenes are drawn at, relative to the screen.
+	 * 
+	 * @return The resolution scale, between the minimum and 1.
+	 */
+	public float getResolutionScale()
+	{
+		return _ResolutionScale;
+	}
+
+	/**
+	 * Set the resolution the scenes are drawn at, relative to the screen. Anything below 1 is drawn to a smaller buffer and scaled up, which saves the depth composite a lot of pixels.
+	 * 
+	 * @param scale
+	 *            The resolution scale, kept between the minimum and 1.
+	 */
+	public void setResolutionScale(float scale)
+	{
+		// Keep the scale within bounds. If it is close enough to full resolution, use that.
+		scale = Helper.clamp(scale, MinResolutionScale, 1);
+		scale = (scale > .99f) ? 1 : scale;
+
+		// If nothing changes, stop here.
+		if (scale == _ResolutionScale) { return; }
+
+		// Change the resolution and resize the scenes.
+		_ResolutionScale = scale;
+		resizeScenes();
+	}
+
+	/**
+	 * Whether the resolution is lowered when drawing takes longer than the frame budget and raised again when there is time to spare.
+	 * 
+	 * @return Whether dynamic resolution is enabled.
+	 */
+	public boolean getEnableDynamicResolution()
+	{
+		return _IsDynamicResolution;
+	}
+
+	/**
+	 * Set whether the resolution is lowered when drawing takes longer than the frame budget and raised again when there is time to spare. Disabling it goes back to full resolution.
+	 * 
+	 * @param enable
+	 *            Whether to enable dynamic resolution.
+	 */
+	public void setEnableDynamicResolution(boolean enable)
+	{
+		_IsDynamicResolution = enable;
+		_DrawTime = 0;
+		if (!enable)
+		{
+			setResolutionScale(1);
+		}
+	}
+
+	/**
+	 * Whether the scenes are drawn by a render thread from snapshots taken at the end of every update.
+	 * 
+	 * @return Whether pipelining is enabled.
+	 */
+	public boolean getEnablePipelining()
+	{
+		return _IsPipelined;
+	}
+
+	/**
+	 * Set whether the scenes are drawn by a render thread from snapshots taken at the end of every update. The render thread has to call render for every frame, while draw only puts its latest
+	 * drawing on screen.
+	 * 
+	 * @param enable
+	 *            Whether to enable pipelining.
+	 */
+	public void setEnablePipelining(boolean enable)
+	{
+		_IsPipelined = enable;
+		_RenderTime.set(-1);
+		_DrawnTransform = null;
+
+		// The render buffer may be out of date, so the render thread must redraw it in full.
+		if (enable)
+		{
+			_RedrawSequence = Long.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * Get the time that drawing a scene may take before the resolution is lowered.
+	 * 
+	 * @return The frame budget in nanoseconds.
+	 */
+	public long getFrameBudget()
+	{
+		return _FrameBudget;
+	}
+
+	/**
+	 * Set the time that drawing a scene may take before the resolution is lowered.
+	 * 
+	 * @param budget
+	 *            The frame budget in nanoseconds.
+	 */
+	public void setFrameBudget(long budget)
+	{
+		_FrameBudget = Math.max(budget, 0);
+	}
+
 	/**
 	 * Get the currently active scene.
 	 * 
@@ -0,0 +1,452 @@
+package main;
+
+import graphics.DepthComposite;
+import graphics.SpriteState;
+import infrastructure.Enums.RenderMode;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.util.ArrayList;
+
+import physics.DepthMap;
+import physics.Shape;
+
+/**
+ * A scene snapshot holds everything needed to draw a scene as it was at the end of an update, ie. the camera's transform, how the scene is rendered, the areas that have changed and the sprites,
+ * shapes, bounds and pick ids of its entities in the order they are drawn. It lets a render thread composite the scene with a composite of its own while the update thread moves on to the next frame, never touching the scene itself.
+ * Snapshots are reused from frame to frame, so capturing one allocates next to nothing once the scene has settled.
+ */
+public class SceneSnapshot
+{
+	// The scene captured.
+	private Scene _Scene;
+	// The camera's transformation matrix and the area of the scene it could see.
+	private AffineTransform _Transform;
+	private Rectangle _VisibleArea;
+	// The size the scene is drawn at in pixels and the resolution that is, relative to the screen.
+	private int _Width;
+	private int _Height;
+	private float _ResolutionScale;
+	// How the scene is rendered and the settings of its depth composite, which the render thread's composite takes on.
+	private RenderMode _RenderMode;
+	private boolean _IsPicking;
+	private boolean _IsPackedKernel;
+	private boolean _IsVectorKernel;
+	// The number of entities in the scene, in view or not, and the number of pick ids it had released.
+	private int _SceneEntityCount;
+	private long _ReleasedPickIds;
+	// The number of the snapshot, counted by the scene manager, and whether the whole scene must be redrawn.
+	private long _Sequence;
+	private boolean _IsInvalidated;
+	// The areas of the scene in world coordinates that have changed since the last snapshot that was drawn, of which only the first are in use.
+	private ArrayList<Rectangle> _DirtyAreas;
+	private int _DirtyAreaCount;
+	// The transform the entities are drawn with, ie. the camera's scaled to the resolution, which picks the mip levels of their sprites.
+	private AffineTransform _DrawTransform;
+	// The captured entities in the order they are drawn, of which only the first are in use.
+	private ArrayList<EntityState> _Entities;
+	private int _EntityCount;
+
+	/**
+	 * Constructor for a scene snapshot.
+	 */
+	public SceneSnapshot()
+	{
+		_Scene = null;
+		_Transform = new AffineTransform();
+		_VisibleArea = new Rectangle();
+		_Width = 0;
+		_Height = 0;
+		_ResolutionScale = 1;
+		_RenderMode = RenderMode.DepthBuffer;
+		_SceneEntityCount = 0;
+		_ReleasedPickIds = 0;
+		_Sequence = 0;
+		_IsInvalidated = false;
+		_DirtyAreas = new ArrayList<Rectangle>();
+		_DirtyAreaCount = 0;
+		_DrawTransform = new AffineTransform();
+		_Entities = new ArrayList<EntityState>();
+		_EntityCount = 0;
+	}
+
+	/**
+	 * Start capturing a scene, forgetting what was captured before.
+	 * 
+	 * @param scene
+	 *            The scene to capture.
+	 * @param transform
+	 *            The camera's transformation matrix.
+	 * @param visibleArea
+	 *            The area of the scene the camera can see.
+	 * @param composite
+	 *            The depth composite the scene is drawn with. Only its size and settings are kept.
+	 * @param resolutionScale
+	 *            The resolution the scene is drawn at, relative to the screen.
+	 */
+	void begin(Scene scene, AffineTransform transform, Rectangle visibleArea, DepthComposite composite, float resolutionScale)
+	{
+		_Scene = scene;
+		_Transform.setTransform(transform);
+		_VisibleArea.setBounds(visibleArea);
+		_Width = composite.getWidth();
+		_Height = composite.getHeight();
+		_ResolutionScale = resolutionScale;
+		_RenderMode = scene.getRenderMode();
+		_IsPicking = composite.getEnablePicking();
+		_IsPackedKernel = composite.getEnablePackedKernel();
+		_IsVectorKernel = composite.getEnableVectorKernel();
+		_SceneEntityCount = scene.getEntities().size();
+		_ReleasedPickIds = scene.getReleasedPickIdCount();
+		_DrawTransform.setToScale(resolutionScale, resolutionScale);
+		_DrawTransform.concatenate(transform);
+		_Sequence = 0;
+		_IsInvalidated = false;
+		_DirtyAreaCount = 0;
+		_EntityCount = 0;
+	}
+
+	/**
+	 * Number the snapshot.
+	 * 
+	 * @param sequence
+	 *            The number of the snapshot.
+	 * @param invalidated
+	 *            Whether the whole scene must be redrawn, whatever has changed.
+	 */
+	void setSequence(long sequence, boolean invalidated)
+	{
+		_Sequence = sequence;
+		_IsInvalidated = invalidated;
+	}
+
+	/**
+	 * Add an area of the scene that has changed since the last snapshot that was drawn.
+	 * 
+	 * @param area
+	 *            The area in world coordinates. It is copied.
+	 */
+	void addDirtyArea(Rectangle area)
+	{
+		// Reuse an old rectangle if there is one.
+		if (_DirtyAreaCount == _DirtyAreas.size())
+		{
+			_DirtyAreas.add(new Rectangle());
+		}
+		_DirtyAreas.get(_DirtyAreaCount++).setBounds(area);
+	}
+
+	/**
+	 * Capture an entity as it is now, after those already captured.
+	 * 
+	 * @param entity
+	 *            The entity to capture.
+	 */
+	void add(Entity entity)
+	{
+		// Reuse an old entity state if there is one.
+		if (_EntityCount == _Entities.size())
+		{
+			_Entities.add(new EntityState());
+		}
+		_Entities.get(_EntityCount++).capture(entity, _DrawTransform);
+	}
+
+	/**
+	 * Get the scene captured.
+	 * 
+	 * @return The scene, or null if nothing has been captured yet.
+	 */
+	public Scene getScene()
+	{
+		return _Scene;
+	}
+
+	/**
+	 * Get the camera's transformation matrix as it was.
+	 * 
+	 * @return The transformation matrix. It belongs to the snapshot and must not be modified.
+	 */
+	public AffineTransform getTransform()
+	{
+		return _Transform;
+	}
+
+	/**
+	 * Get the area of the scene the camera could see.
+	 * 
+	 * @return The visible area in world coordinates. It belongs to the snapshot and must not be modified.
+	 */
+	public Rectangle getVisibleArea()
+	{
+		return _VisibleArea;
+	}
+
+	/**
+	 * Get the width the scene was to be drawn at.
+	 * 
+	 * @return The width in pixels.
+	 */
+	public int getWidth()
+	{
+		return _Width;
+	}
+
+	/**
+	 * Get the height the scene was to be drawn at.
+	 * 
+	 * @return The height in pixels.
+	 */
+	public int getHeight()
+	{
+		return _Height;
+	}
+
+	/**
+	 * Get how the scene was rendered.
+	 * 
+	 * @return The render mode.
+	 */
+	public RenderMode getRenderMode()
+	{
+		return _RenderMode;
+	}
+
+	/**
+	 * Let a depth composite take on the settings of the scene's, ie. whether it keeps ids and which kernels it composes with.
+	 * 
+	 * @param composite
+	 *            The composite the snapshot is drawn with.
+	 */
+	public void applySettings(DepthComposite composite)
+	{
+		composite.setEnablePicking(_IsPicking);
+		composite.setEnablePackedKernel(_IsPackedKernel);
+		composite.setEnableVectorKernel(_IsVectorKernel);
+	}
+
+	/**
+	 * Get the number of entities in the scene, whether they were in view or not.
+	 * 
+	 * @return The number of entities.
+	 */
+	public int getSceneEntityCount()
+	{
+		return _SceneEntityCount;
+	}
+
+	/**
+	 * Get the number of pick ids the scene had released, ever. Once the snapshot has been drawn, none of them can be found in the ids drawn any longer.
+	 * 
+	 * @return The number of released ids.
+	 */
+	public long getReleasedPickIds()
+	{
+		return _ReleasedPickIds;
+	}
+
+	/**
+	 * Get the resolution the scene was to be drawn at, relative to the screen.
+	 * 
+	 * @return The resolution scale.
+	 */
+	public float getResolutionScale()
+	{
+		return _ResolutionScale;
+	}
+
+	/**
+	 * Get the number of the snapshot, which goes up by one for every snapshot taken.
+	 * 
+	 * @return The sequence number.
+	 */
+	public long getSequence()
+	{
+		return _Sequence;
+	}
+
+	/**
+	 * Whether the whole scene must be redrawn, whatever has changed.
+	 * 
+	 * @return Whether the snapshot is invalidated.
+	 */
+	public boolean isInvalidated()
+	{
+		return _IsInvalidated;
+	}
+
+	/**
+	 * Get the number of areas of the scene that have changed since the last snapshot that was drawn.
+	 * 
+	 * @return The dirty area count.
+	 */
+	public int getDirtyAreaCount()
+	{
+		return _DirtyAreaCount;
+	}
+
+	/**
+	 * Get an area of the scene that has changed since the last snapshot that was drawn.
+	 * 
+	 * @param index
+	 *            The index of the area, below the dirty area count.
+	 * @return The area in world coordinates. It belongs to the snapshot and must not be modified.
+	 */
+	public Rectangle getDirtyArea(int index)
+	{
+		return _DirtyAreas.get(index);
+	}
+
+	/**
+	 * Get the number of entities captured.
+	 * 
+	 * @return The entity count.
+	 */
+	public int getEntityCount()
+	{
+		return _EntityCount;
+	}
+
+	/**
+	 * Get a captured entity.
+	 * 
+	 * @param index
+	 *            The index of the entity in drawing order, below the entity count.
+	 * @return The entity's state.
+	 */
+	public EntityState getEntity(int index)
+	{
+		return _Entities.get(index);
+	}
+
+	/**
+	 * The state of an entity as it was captured, ie. its sprites, the depth of its shape and the area it covered.
+	 */
+	public static class EntityState
+	{
+		// The entity captured and the id it was picked by.
+		private Entity _Entity;
+		private int _PickId;
+		// The depth map of the entity's shape and the depth of the shape's position.
+		private DepthMap _DepthMap;
+		private double _Base;
+		// The area the entity covered.
+		private Rectangle _Bounds;
+		// The states of the sprites, of which only the first are in use.
+		private ArrayList<SpriteState> _Sprites;
+		private int _SpriteCount;
+
+		/**
+		 * Constructor for an entity state.
+		 */
+		EntityState()
+		{
+			_Bounds = new Rectangle();
+			_Sprites = new ArrayList<SpriteState>();
+		}
+
+		/**
+		 * Capture an entity as it is now.
+		 * 
+		 * @param entity
+		 *            The entity to capture.
+		 * @param transform
+		 *            The transform the entity will be drawn with.
+		 */
+		void capture(Entity entity, AffineTransform transform)
+		{
+			// The entity and its shape.
+			Shape shape = entity.getBody().getShape();
+			_Entity = entity;
+			_PickId = entity.getPickId();
+			_DepthMap = shape.getDepthMap();
+			_Base = shape.getPosition().y + shape.getPosition().z;
+
+			// The area it covers, which is empty if it has not been drawn.
+			if (entity.getDrawnBounds() != null)
+			{
+				_Bounds.setBounds(entity.getDrawnBounds());
+			}
+			else
+			{
+				_Bounds.setBounds(0, 0, 0, 0);
+			}
+
+			// Its sprites, in the order they are drawn, along with the mip levels they are drawn at, so that the render thread never has to ask their textures.
+			_SpriteCount = entity.getSprites().getSpriteCount();
+			while (_Sprites.size() < _SpriteCount)
+			{
+				_Sprites.add(new SpriteState());
+			}
+			for (int i = 0; i < _SpriteCount; i++)
+			{
+				entity.getSprites().getSprite(i).captureState(_Sprites.get(i)).captureLevel(transform);
+			}
+		}
+
+		/**
+		 * Draw the entity's sprites as they were.
+		 * 
+		 * @param graphics
+		 *            The graphics component.
+		 */
+		public void draw(Graphics2D graphics)
+		{
+			for (int i = 0; i < _SpriteCount; i++)
+			{
+				_Sprites.get(i).draw(graphics);
+			}
+		}
+
+		/**
+		 * Get the entity captured.
+		 * 
+		 * @return The entity.
+		 */
+		public Entity getEntity()
+		{
+			return _Entity;
+		}
+
+		/**
+		 * Get the id the entity was picked by.
+		 * 
+		 * @return The pick id, or -1 if it had none.
+		 */
+		public int getPickId()
+		{
+			return _PickId;
+		}
+
+		/**
+		 * Get the depth map of the entity's shape.
+		 * 
+		 * @return The depth map.
+		 */
+		public DepthMap getDepthMap()
+		{
+			return _DepthMap;
+		}
+
+		/**
+		 * Get the depth of the position of the entity's shape, which its depth map is relative to.
+		 * 
+		 * @return The y- plus z-coordinate of the shape.
+		 */
+		public double getBase()
+		{
+			return _Base;
+		}
+
+		/**
+		 * Get the area the entity covered.
+		 * 
+		 * @return The bounds in world coordinates, empty if the entity had not been drawn. They belong to the snapshot and must not be modified.
+		 */
+		public Rectangle getBounds()
+		{
+			return _Bounds;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,205 @@
+package physics;
+
+import infrastructure.Enums.DepthDistribution;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A depth map holds the depth sorting values of a shape's image, relative to the shape's position. Since they only depend on the shape's size and depth distribution, the values are computed once
+ * and shared by all shapes alike, so that drawing a pixel comes down to a lookup instead of working out the shape's faces.
+ */
+public class DepthMap
+{
+	// The maximum number of depth maps kept around.
+	public static final int MaxMaps = 256;
+
+	// The depth maps, keyed by the size and depth distribution of their shapes and ordered by when they were last used.
+	private static LinkedHashMap<String, DepthMap> _Maps = new LinkedHashMap<String, DepthMap>(64, .75f, true)
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, DepthMap> eldest)
+		{
+			return size() > MaxMaps;
+		}
+	};
+
+	// The relative depth sorting values, row by row.
+	private float[] _Values;
+	// The size of the map.
+	private int _Width;
+	private int _Height;
+	// The size and depth distribution of the shapes the map is for.
+	private float _ShapeWidth;
+	private float _ShapeHeight;
+	private float _ShapeDepth;
+	private DepthDistribution _Distribution;
+	// The maps of the smaller, mip levels of the shape's image, created when first needed.
+	private DepthMap[] _Levels;
+
+	/**
+	 * Constructor for a depth map.
+	 * 
+	 * @param shape
+	 *            The shape to create the map for.
+	 */
+	private DepthMap(Shape shape)
+	{
+		// Remember what the map is for.
+		_ShapeWidth = shape.getWidth();
+		_ShapeHeight = shape.getHeight();
+		_ShapeDepth = shape.getDepth();
+		_Distribution = shape.getDepthDistribution();
+
+		// Only the pixels within the width of the shape and the height of its front and top faces can differ from the shape's position.
+		_Width = Math.max((int) Math.floor(_ShapeWidth) + 1, 0);
+		_Height = Math.max((int) Math.floor(_ShapeDepth + _ShapeHeight) + 1, 0);
+
+		// Compute the values.
+		_Values = new float[_Width * _Height];
+		for (int y = 0; y < _Height; y++)
+		{
+			for (int x = 0; x < _Width; x++)
+			{
+				_Values[y * _Width + x] = (float) shape.getRelativeDepthSort(x, y);
+			}
+		}
+	}
+
+	/**
+	 * Constructor for the depth map of a mip level, where every pixel covers 2^level by 2^level pixels of the full map. A pixel takes the value at the center of the pixels it covers.
+	 * 
+	 * @param map
+	 *            The full depth map.
+	 * @param level
+	 *            The level.
+	 */
+	private DepthMap(DepthMap map, int level)
+	{
+		// The level is for the same shapes as the full map.
+		_ShapeWidth = map._ShapeWidth;
+		_ShapeHeight = map._ShapeHeight;
+		_ShapeDepth = map._ShapeDepth;
+		_Distribution = map._Distribution;
+
+		// The level covers the same area with fewer pixels.
+		int size = 1 << level;
+		_Width = (map._Width + size - 1) / size;
+		_Height = (map._Height + size - 1) / size;
+
+		// Sample the full map.
+		_Values = new float[_Width * _Height];
+		for (int y = 0; y < _Height; y++)
+		{
+			for (int x = 0; x < _Width; x++)
+			{
+				_Values[y * _Width + x] = map.get(x * size + size / 2, y * size + size / 2);
+			}
+		}
+	}
+
+	/**
+	 * Get the depth map of a shape, creating it if no shape alike has one.
+	 * 
+	 * @param shape
+	 *            The shape.
+	 * @return The depth map.
+	 */
+	public static synchronized DepthMap getDepthMap(Shape shape)
+	{
+		// If a shape of the same size and depth distribution already has a map, use it.
+		String key = shape.getWidth() + ":" + shape.getHeight() + ":" + shape.getDepth() + ":" + shape.getDepthDistribution();
+		DepthMap map = _Maps.get(key);
+		if (map != null) { return map; }
+
+		// Otherwise create it.
+		map = new DepthMap(shape);
+		_Maps.put(key, map);
+
+		return map;
+	}
+
+	/**
+	 * Get the depth map of a mip level of the shape's image, creating it if needed.
+	 * 
+	 * @param level
+	 *            The level, where 0 is the full map and every level above halves the size.
+	 * @return The depth map of the level.
+	 */
+	public synchronized DepthMap getLevel(int level)
+	{
+		// The full map is level 0.
+		if (level <= 0) { return this; }
+
+		// Create the level if it does not exist yet.
+		if (_Levels == null || _Levels.length < level)
+		{
+			_Levels = (_Levels == null) ? new DepthMap[level] : Arrays.copyOf(_Levels, level);
+		}
+		if (_Levels[level - 1] == null)
+		{
+			_Levels[level - 1] = new DepthMap(this, level);
+		}
+
+		return _Levels[level - 1];
+	}
+
+	/**
+	 * Whether the map is valid for a shape, ie. whether the shape's size and depth distribution are those it was created for.
+	 * 
+	 * @param shape
+	 *            The shape.
+	 * @return Whether the map can be used for the shape.
+	 */
+	public boolean isValidFor(Shape shape)
+	{
+		return _ShapeWidth == shape.getWidth() && _ShapeHeight == shape.getHeight() && _ShapeDepth == shape.getDepth() && _Distribution == shape.getDepthDistribution();
+	}
+
+	/**
+	 * Get the depth sorting value at the given local x and y-coordinates, relative to the shape's position.
+	 * 
+	 * @param x
+	 *            The local x-coordinate.
+	 * @param y
+	 *            The local y-coordinate.
+	 * @return The relative depth sorting value.
+	 */
+	public float get(int x, int y)
+	{
+		return (x < 0 || y < 0 || x >= _Width || y >= _Height) ? 0 : _Values[y * _Width + x];
+	}
+
+	/**
+	 * Get the relative depth sorting values, row by row, where the value at the local x and y-coordinates is at y * width + x.
+	 * 
+	 * @return The values. They belong to the map and must not be modified.
+	 */
+	public float[] getValues()
+	{
+		return _Values;
+	}
+
+	/**
+	 * Get the width of the map.
+	 * 
+	 * @return The width.
+	 */
+	public int getWidth()
+	{
+		return _Width;
+	}
+
+	/**
+	 * Get the height of the map.
+	 * 
+	 * @return The height.
+	 */
+	public int getHeight()
+	{
+		return _Height;
+	}
+}
\ No newline at end of file
@@ -5,6 +5,9 @@ import infrastructure.Enums.DepthDistribution;
 import java.awt.Rectangle;
 import java.util.ArrayList;
 
+import debug.FlightRecorder;
+import debug.MetricsRegistry;
+import debug.Profiler;
 import main.Player;
 
 import auxillary.Helper;
@@ -16,6 +19,11 @@ import auxillary.Vector3;
  */
 public class PhysicsSimulator
 {
+	// The metrics of the simulation, ie. the pairs of bodies tested and found close enough for the narrow phase, and the bodies moving last update.
+	private static final MetricsRegistry.Counter PairsTested = MetricsRegistry.getInstance().counter("physics.pairsTested");
+	private static final MetricsRegistry.Counter NarrowPhaseHits = MetricsRegistry.getInstance().counter("physics.narrowPhaseHits");
+	private static final MetricsRegistry.Value BodiesAwake = MetricsRegistry.getInstance().value("physics.bodiesAwake");
+
 	// Create the body array that'll hold all bodies in play.
 	public ArrayList<Body> _Bodies;
 	// The list of forces to add.
@@ -55,8 +63,18 @@ public class PhysicsSimulator
 	 */
 	public void update()
 	{
+		// Time the update, and separately the tests of every pair of bodies and the narrow phase within them.
+		long pairs = 0;
+		long narrow = 0;
+		// Record the tick, with the number of pairs that pass the broad phase and that collide.
+		Object event = FlightRecorder.beginPhysicsTick();
+		int tested = 0;
+		int candidates = 0;
+		int contacts = 0;
+		int awake = 0;
+
 		// Check if the array isn't empty.
-		try
+		try (Profiler.Scope scope = Profiler.scope("physics"))
 		{
 			// Clear all bodies' record of collision.
 			for (Body b : _Bodies)
@@ -71,6 +89,7 @@ public class PhysicsSimulator
 				boolean ground = false;
 
 				// Loop through all bodies and check for collision.
+				long start = System.nanoTime();
 				for (Body b2 : _Bodies)
 				{
 					// Check so it's not the same body, or if both bodies are set to static.
@@ -78,12 +97,16 @@ public class PhysicsSimulator
 					{
 						continue;
 					}
+					tested++;
 
 					// Check if the bodies are within range. If so, continue to the narrow phase part.
 					if (broadPhase(b1, b2))
 					{
 						// Get the layered MTV by doing a narrow phase collision check.
+						long narrowStart = System.nanoTime();
 						Vector2 mtv = narrowPhase(b1.getShape(), b2.getShape());
+						narrow += System.nanoTime() - narrowStart;
+						candidates++;
 
 						// Check for ground collision and alter bodies if necessary.
 						if (checkGroundCollision(b1, b2, mtv))
@@ -91,6 +114,7 @@ public class PhysicsSimulator
 							// Add the collision to the body.
 							b1.addCollision(b2);
 							b2.addCollision(b1);
+							contacts++;
 
 							if (b1.getIsStatic() || b1.getIsImmaterial() || b2.getIsImmaterial())
 							{
@@ -123,11 +147,14 @@ public class PhysicsSimulator
 								// Add the collision to the body.
 								b1.addCollision(b2);
 								b2.addCollision(b1);
+								contacts++;
 							}
 						}
 					}
 				}
 
+				pairs += System.nanoTime() - start;
+
 				// If the entity is dynamic and not standing on the ground, apply gravity.
 				if (!ground && !b1.getIsStatic() && !b1.getIsImmaterial())
 				{
@@ -140,10 +167,24 @@ public class PhysicsSimulator
 				addForcesToBody(getForces(b1));
 				// Update the body.
 				b1.update();
+
+				// Count it as awake if it is moving.
+				if (!b1.getIsStatic() && b1.getVelocity().getLength() > 0)
+				{
+					awake++;
+				}
 			}
 
 			// Clear the List of all Forces.
 			_Forces.clear();
+
+			// The broad phase is what is left of the pair tests once the narrow phase is taken out, including the collision response.
+			Profiler.addTime("physics.broad", pairs - narrow);
+			Profiler.addTime("physics.narrow", narrow);
+			FlightRecorder.endPhysicsTick(event, _Bodies.size(), candidates, contacts);
+			PairsTested.add(tested);
+			NarrowPhaseHits.add(candidates);
+			BodiesAwake.set(awake);
 		}
 		// Catch the exception.
 		catch (Exception e)
@@ -669,6 +710,18 @@ public class PhysicsSimulator
 		}
 	}
 
+	/**
+	 * Get a body without copying the list of bodies.
+	 * 
+	 * @param index
+	 *            The index of the body, below the body count.
+	 * @return The body.
+	 */
+	public Body getBody(int index)
+	{
+		return _Bodies.get(index);
+	}
+
 	/**
 	 * Get the list of bodies.
 	 * 
@@ -8,6 +8,7 @@ import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
 
 import auxillary.Helper;
 import auxillary.Vector2;
@@ -36,6 +37,9 @@ public class Shape
 	private Vector2 _Origin;
 	@XmlElement(name = "DepthDistribution")
 	private DepthDistribution _DepthDistribution;
+	// The depth sorting values of the shape's image, relative to its position.
+	@XmlTransient
+	private DepthMap _DepthMap;
 
 	/**
 	 * Empty constructor for a shape.
@@ -418,21 +422,39 @@ public class Shape
 		return (_Position.z + (_Depth / 2));
 	}
 
+	/**
+	 * Whether this shape has a layer at a given z-coordinate, ie. whether a layered shape can be taken from it there. Ask this first to keep clear of the exception thrown when there is none.
+	 * 
+	 * @param z
+	 *            The z-coordinate to get a layered shape from.
+	 * @return Whether there is a layer.
+	 */
+	public boolean hasLayer(double z)
+	{
+		// The depth.
+		double depth = z - getBottomDepth();
+
+		// The depth has to stay within the shape's bounds.
+		return depth >= 0 && depth <= getTopDepth();
+	}
+
 	/**
 	 * Get a layer from this shape given a z-coordinate.
 	 * 
 	 * @param z
 	 *            The z-coordinate to get a layered shape from.
 	 * @return The layered shape.
+	 * @throws IllegalArgumentException
+	 *             If the shape has no layer at the z-coordinate.
 	 */
 	public Shape getLayeredShape(double z)
 	{
+		// If the depth provided does not stay within the shape's bounds, stop here.
+		if (!hasLayer(z)) { throw new IllegalArgumentException(); }
+
 		// The depth.
 		double depth = z - getBottomDepth();
 
-		// If the depth provided does not stay within the shape's bounds, stop here.
-		if (depth < 0 || depth > getTopDepth()) { throw new IllegalArgumentException(); }
-
 		// Check the depth distribution.
 		switch (_DepthDistribution)
 		{
@@ -555,12 +577,26 @@ public class Shape
 	 * @return The depth sorting value for this shape.
 	 */
 	public double getDepthSort(double x, double y)
+	{
+		return _Position.y + _Position.z + getRelativeDepthSort(x, y);
+	}
+
+	/**
+	 * Get a depth sorting value for this shape at the given local x and y-coordinates, relative to the sum of its y and z-coordinates. It does not depend on where the shape is.
+	 * 
+	 * @param x
+	 *            The local x-coordinate.
+	 * @param y
+	 *            The local y-coordinate.
+	 * @return The relative depth sorting value for this shape.
+	 */
+	double getRelativeDepthSort(double x, double y)
 	{
 		// Remember that the top-left corner is (0, 0) in an image, but not in the shape.
 
-		// The coordinates in world space.
-		double dy = _Position.y;
-		double dz = _Position.z;
+		// The coordinates relative to the shape's position.
+		double dy = 0;
+		double dz = 0;
 
 		// The depth at the current position, local to the shape.
 		double depth = getTopDepth(new Vector2(_Position.x - _Width / 2 + x, _Position.y - _Height / 2 + y)) - (_Position.z - _Depth / 2);
@@ -571,21 +607,37 @@ public class Shape
 			// If the coordinates match the front 'face' of the shape.
 			if (y >= _Depth + _Height - depth && y <= _Depth + _Height)
 			{
-				dy = _Position.y + _Height / 2;
-				dz = _Position.z - _Depth / 2 + _Depth + _Height - y;
+				dy = _Height / 2;
+				dz = -_Depth / 2 + _Depth + _Height - y;
 			}
 			// If the coordinates match the top 'face' of the shape.
 			else if (y >= _Depth - depth && y <= _Depth - depth + _Height)
 			{
-				dy = _Position.y - _Height / 2 + y - (_Depth - depth);
-				dz = getBottomDepth() + depth;
+				dy = -_Height / 2 + y - (_Depth - depth);
+				dz = -_Depth / 2 + depth;
 			}
 		}
 
-		// Return the depth sorting value.
+		// Return the relative depth sorting value.
 		return dy + dz;
 	}
 
+	/**
+	 * Get the depth map of the shape, ie. the depth sorting values of its image relative to its position. The map is only computed again when the shape's size or depth distribution change.
+	 * 
+	 * @return The depth map.
+	 */
+	public DepthMap getDepthMap()
+	{
+		// If the shape has changed since the map was made, find a new one.
+		if (_DepthMap == null || !_DepthMap.isValidFor(this))
+		{
+			_DepthMap = DepthMap.getDepthMap(this);
+		}
+
+		return _DepthMap;
+	}
+
 	/**
 	 * Get the position (z - depth / 2) of the shape's bottom-edge, not acknowledging rotation. Assumes the shape is rectangular.
 	 * 
@@ -0,0 +1,347 @@
+package scenes;
+
+import infrastructure.Camera2D;
+import infrastructure.Enums.DepthDistribution;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import main.Character;
+import main.Entity;
+import main.Player;
+import main.Scene;
+import main.SceneManager;
+
+import auxillary.Helper;
+import auxillary.Vector2;
+import auxillary.Vector3;
+
+/**
+ * The scene generator builds scenes of any size for testing how the engine scales. The scene is a square of floor tiles, walled in along its edges, with a staircase of every depth distribution in
+ * turn and a number of static props on every tile, a number of characters wandering about and a player in the middle. Everything is placed by a seeded random generator, so the same seed always gives
+ * the same scene, although the characters choose where to wander on their own once the scene runs.
+ * 
+ * The size can be set with the system properties "indagame.stress.size", "indagame.stress.characters" and "indagame.stress.seed". Run on its own, the generator writes the scene to the content root's
+ * scenes folder, from where it can be loaded like any other scene.
+ */
+public class SceneGenerator
+{
+	// The default number of floor tiles along each side, the default number of characters and the default seed.
+	public static final int DefaultSize = 4;
+	public static final int DefaultCharacterCount = 50;
+	public static final long DefaultSeed = 42;
+	// The number of static props on every tile.
+	public static final int PropsPerTile = 4;
+	// The distance between the floor tiles and the position of the first of them.
+	public static final int TileSize = 288;
+	public static final Vector2 Origin = new Vector2(400, 400);
+	// The characters to pick from, along with their number of frames per sprite.
+	private static final String[] CharacterNames = { "Skeleton", "Robeguy", "darkknight" };
+	private static final int[] CharacterFrames = { 3, 3, 2 };
+
+	// The number of floor tiles along each side, the number of characters and the seed.
+	private int _Size;
+	private int _CharacterCount;
+	private long _Seed;
+
+	/**
+	 * Constructor for a scene generator, with its size read from the system properties.
+	 */
+	public SceneGenerator()
+	{
+		this(Integer.getInteger("indagame.stress.size", DefaultSize), Integer.getInteger("indagame.stress.characters", DefaultCharacterCount), Long.getLong("indagame.stress.seed", DefaultSeed));
+	}
+
+	/**
+	 * Constructor for a scene generator.
+	 * 
+	 * @param size
+	 *            The number of floor tiles along each side.
+	 * @param characters
+	 *            The number of wandering characters.
+	 * @param seed
+	 *            The seed the scene is placed by.
+	 */
+	public SceneGenerator(int size, int characters, long seed)
+	{
+		_Size = Math.max(size, 1);
+		_CharacterCount = Math.max(characters, 0);
+		_Seed = seed;
+	}
+
+	/**
+	 * The static main method of the scene generator, which writes a scene to file.
+	 * 
+	 * @param args
+	 *            The number of floor tiles along each side, the number of characters and the seed, all optional.
+	 */
+	public static void main(String[] args)
+	{
+		// There is no screen to draw to.
+		if (System.getProperty("java.awt.headless") == null)
+		{
+			System.setProperty("java.awt.headless", "true");
+		}
+
+		// Read the arguments.
+		SceneGenerator generator = new SceneGenerator();
+		if (args.length > 0)
+		{
+			generator.setSize(Integer.parseInt(args[0]));
+		}
+		if (args.length > 1)
+		{
+			generator.setCharacterCount(Integer.parseInt(args[1]));
+		}
+		if (args.length > 2)
+		{
+			generator.setSeed(Long.parseLong(args[2]));
+		}
+
+		// Generate the scene and save it.
+		Scene scene = generator.generate(new SceneManager(null, new Camera2D(new Vector2(1024, 768), generator.getWorldSize())));
+		Helper.saveScene(scene);
+		System.out.println("Saved " + scene.getEntities().size() + " entities to " + Helper.ContentRoot + "scenes/" + scene.getName() + ".xml");
+	}
+
+	/**
+	 * Generate a scene.
+	 * 
+	 * @param manager
+	 *            The scene manager the scene is part of.
+	 * @return The scene.
+	 */
+	public Scene generate(SceneManager manager)
+	{
+		Scene scene = new Scene(manager);
+		populate(scene);
+		return scene;
+	}
+
+	/**
+	 * Fill a scene with the generated entities and name it after the generator's settings. The entities' content is loaded as they are created, and they are all added to the scene at once.
+	 * 
+	 * @param scene
+	 *            The scene to fill.
+	 */
+	public void populate(Scene scene)
+	{
+		Random random = new Random(_Seed);
+		ArrayList<Entity> entities = new ArrayList<Entity>();
+		scene.setName("StressScene-" + _Size + "x" + _Size + "-" + _CharacterCount + "-" + _Seed);
+
+		// Lay out the tiles.
+		DepthDistribution[] distributions = DepthDistribution.values();
+		for (int y = 0; y < _Size; y++)
+		{
+			for (int x = 0; x < _Size; x++)
+			{
+				// The middle of the tile.
+				double centerX = Origin.x + x * TileSize;
+				double centerY = Origin.y + y * TileSize;
+
+				// The floor.
+				Entity floor = createEntity(scene, entities, "Floor", "DarkTiledFloor[1].png", -1, new Vector3(centerX, centerY, 0));
+				floor.getBody().getShape().setBottomDepth(0);
+
+				// Wall in the scene along its top and bottom edges.
+				if (y == 0 || y == _Size - 1)
+				{
+					Entity wall = createEntity(scene, entities, "Wall", "MarbleWall[2].png", 49, new Vector3(centerX, centerY + ((y == 0) ? -1 : 1) * (TileSize / 2 - 30), 0));
+					wall.getBody().getShape().setBottomDepth(1);
+				}
+
+				// A staircase of every depth distribution in turn.
+				Entity stairs = createStairs(scene, entities, distributions[(y * _Size + x) % distributions.length], new Vector3(centerX + random.nextInt(TileSize / 2) - TileSize / 4,
+						centerY + random.nextInt(TileSize / 2) - TileSize / 4, 0));
+				stairs.getBody().getShape().setBottomDepth(1);
+
+				// The props.
+				for (int i = 0; i < PropsPerTile; i++)
+				{
+					boolean shelf = random.nextBoolean();
+					Entity prop = createEntity(scene, entities, shelf ? "Shelf" : "Pillar", shelf ? "Bookshelf[1].png" : "MarblePillar[1].png", shelf ? 12 : 13, getRandomPosition(random, x, y));
+					prop.getBody().getShape().setBottomDepth(1);
+				}
+			}
+		}
+
+		// The wandering characters.
+		for (int i = 0; i < _CharacterCount; i++)
+		{
+			int kind = random.nextInt(CharacterNames.length);
+			Character character = new Character(scene, CharacterNames[kind], CharacterFrames[kind]);
+			character.setName("Character" + i);
+			character.loadContent();
+			character.getBody().setPosition(getRandomPosition(random, random.nextInt(_Size), random.nextInt(_Size)));
+			character.getBody().getShape().setBottomDepth(50);
+			entities.add(character);
+		}
+
+		// The player, in the middle of the scene.
+		Player player = new Player(scene);
+		player.setName("Player");
+		player.loadContent();
+		player.getBody().setBottomPosition(new Vector3(Origin.x + (_Size - 1) * TileSize / 2.0, Origin.y + (_Size - 1) * TileSize / 2.0, 100));
+		entities.add(player);
+
+		// Add them all.
+		scene.addEntities(entities);
+	}
+
+	/**
+	 * Create a static entity, load its content and add it to the entities of a scene.
+	 * 
+	 * @param scene
+	 *            The scene the entity is part of.
+	 * @param entities
+	 *            The entities to add the entity to.
+	 * @param name
+	 *            The name of the entity.
+	 * @param spritePath
+	 *            The path of the entity's sprite.
+	 * @param height
+	 *            The height of the entity's shape as seen on the sprite, or -1 for the full height of the sprite.
+	 * @param position
+	 *            The position of the entity.
+	 * @return The entity.
+	 */
+	private Entity createEntity(Scene scene, ArrayList<Entity> entities, String name, String spritePath, float height, Vector3 position)
+	{
+		Entity entity = new Entity(scene);
+		entity.setName(name);
+		entity.loadContent(spritePath, height);
+		entity.getBody().setPosition(position);
+		entity.getBody().setIsStatic(true);
+		entities.add(entity);
+		return entity;
+	}
+
+	/**
+	 * Create a staircase that rises towards one side, or a block if its depth is uniform. There is no sprite of stairs rising towards the bottom, so those use the sprite of stairs rising towards the
+	 * top.
+	 * 
+	 * @param scene
+	 *            The scene the staircase is part of.
+	 * @param entities
+	 *            The entities to add the staircase to.
+	 * @param distribution
+	 *            The depth distribution of the staircase.
+	 * @param position
+	 *            The position of the staircase.
+	 * @return The staircase.
+	 */
+	private Entity createStairs(Scene scene, ArrayList<Entity> entities, DepthDistribution distribution, Vector3 position)
+	{
+		Entity stairs;
+		switch (distribution)
+		{
+			case Right:
+				stairs = createEntity(scene, entities, "Stairs", "StoneStairsRight[3].png", 33, position);
+				break;
+			case Left:
+				stairs = createEntity(scene, entities, "Stairs", "StoneStairsLeft[1].png", 33, position);
+				break;
+			case Top:
+			case Bottom:
+				stairs = createEntity(scene, entities, "Stairs", "StoneStairsTop[2].png", 46, position);
+				stairs.getBody().getShape().setDepth(48);
+				break;
+			default:
+				stairs = createEntity(scene, entities, "Block", "ElevatedBlock[3].png", 48, position);
+				break;
+		}
+		stairs.getBody().getShape().setDepthDistribution(distribution);
+
+		return stairs;
+	}
+
+	/**
+	 * Get a random position on a tile, away from its edges.
+	 * 
+	 * @param random
+	 *            The random generator.
+	 * @param x
+	 *            The column of the tile.
+	 * @param y
+	 *            The row of the tile.
+	 * @return The position.
+	 */
+	private Vector3 getRandomPosition(Random random, int x, int y)
+	{
+		return new Vector3(Origin.x + x * TileSize + random.nextInt(TileSize - 64) - (TileSize - 64) / 2, Origin.y + y * TileSize + random.nextInt(TileSize - 64) - (TileSize - 64) / 2, 0);
+	}
+
+	/**
+	 * Get the size of the world the scene takes up, with a tile's margin around it.
+	 * 
+	 * @return The size in pixels.
+	 */
+	public Vector2 getWorldSize()
+	{
+		return new Vector2(Origin.x * 2 + _Size * TileSize, Origin.y * 2 + _Size * TileSize);
+	}
+
+	/**
+	 * Get the number of floor tiles along each side.
+	 * 
+	 * @return The size of the scene.
+	 */
+	public int getSize()
+	{
+		return _Size;
+	}
+
+	/**
+	 * Set the number of floor tiles along each side.
+	 * 
+	 * @param size
+	 *            The size of the scene, at least 1.
+	 */
+	public void setSize(int size)
+	{
+		_Size = Math.max(size, 1);
+	}
+
+	/**
+	 * Get the number of wandering characters.
+	 * 
+	 * @return The character count.
+	 */
+	public int getCharacterCount()
+	{
+		return _CharacterCount;
+	}
+
+	/**
+	 * Set the number of wandering characters.
+	 * 
+	 * @param count
+	 *            The character count.
+	 */
+	public void setCharacterCount(int count)
+	{
+		_CharacterCount = Math.max(count, 0);
+	}
+
+	/**
+	 * Get the seed the scene is placed by.
+	 * 
+	 * @return The seed.
+	 */
+	public long getSeed()
+	{
+		return _Seed;
+	}
+
+	/**
+	 * Set the seed the scene is placed by.
+	 * 
+	 * @param seed
+	 *            The seed.
+	 */
+	public void setSeed(long seed)
+	{
+		_Seed = seed;
+	}
+}
\ No newline at end of file
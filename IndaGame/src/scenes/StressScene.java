@@ -0,0 +1,37 @@
+package scenes;
+
+import main.Scene;
+import main.SceneManager;
+
+/**
+ * This is a generated scene for stress testing, sized by the system properties the scene generator reads.
+ */
+public class StressScene extends Scene
+{
+	/**
+	 * Constructor for a scene.
+	 * 
+	 * @param manager
+	 *            The scene manager this scene is part of.
+	 */
+	public StressScene(SceneManager manager)
+	{
+		super(manager);
+	}
+
+	/**
+	 * Initialize the scene.
+	 * 
+	 * @param manager
+	 *            The scene manager this scene is part of.
+	 */
+	@Override
+	protected void initialize(SceneManager manager)
+	{
+		// Call the base method.
+		super.initialize(manager);
+
+		// Generate the scene.
+		new SceneGenerator().populate(this);
+	}
+}
\ No newline at end of file
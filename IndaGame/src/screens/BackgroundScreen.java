@@ -50,9 +50,10 @@ public class BackgroundScreen extends GameScreen
 		// Call the base method.
 		super.update(gameTime, otherScreenHasFocus, false);
 
-		// Update the camera.
-		float sin = ((float) Math.sin(gameTime.getTotalElapsedTime().Seconds() / 12) * .25f);
-		float cos = ((float) Math.cos(gameTime.getTotalElapsedTime().Seconds() / 12) * .25f);
+		// Update the camera, swaying with the seconds of the current minute.
+		int seconds = (int) (gameTime.totalElapsedSeconds() % 60);
+		float sin = ((float) Math.sin(seconds / 12) * .25f);
+		float cos = ((float) Math.cos(seconds / 12) * .25f);
 		_Camera.moveAmount(new Vector2(sin, cos));
 		_Camera.zoom(sin * cos * .005f);
 		_Camera.update(gameTime);
@@ -55,6 +55,9 @@ public class GameplayScreen extends GameScreen
 		_TransitionOnTime = TimeSpan.FromSeconds(1.5);
 		_TransitionOffTime = TimeSpan.FromSeconds(0.5);
 
+		// The scene manager keeps track of what changes, so only redraw those parts.
+		_IsIncremental = true;
+
 		// Set up the camera.
 		_Camera = new Camera2D(screenManager.getWindowBounds(), new Vector2(3000, 3000));
 		_Camera.setPosition(new Vector2(1000, 900));
@@ -65,10 +68,16 @@ public class GameplayScreen extends GameScreen
 		// Enable debug.
 		DebugManager.getInstance().debug = true;
 
-		// Add a scene to the scene manager.
-		_SceneManager.addScene(new BedroomScene(_SceneManager));
-		_SceneManager.addScene(new EscapeScene(_SceneManager));
-		_SceneManager.addScene(new LargeDemoScene(_SceneManager));
+		// Draw the scenes at a lower resolution whenever they take too long to draw.
+		_SceneManager.setEnableDynamicResolution(true);
+
+		// Let the render thread draw the scenes, if the game has one.
+		_SceneManager.setEnablePipelining(screenManager.getGame().getEnablePipelining());
+
+		// Add a scene to the scene manager, letting entities be clicked on for debugging.
+		_SceneManager.addScene(new BedroomScene(_SceneManager)).setEnablePicking(true);
+		_SceneManager.addScene(new EscapeScene(_SceneManager)).setEnablePicking(true);
+		_SceneManager.addScene(new LargeDemoScene(_SceneManager)).setEnablePicking(true);
 
 		// Create the player.
 		_Player = new Player(_SceneManager.getCurrentScene());
@@ -98,6 +107,14 @@ public class GameplayScreen extends GameScreen
 		_ScreenManager.getGame().getGameTimer().resetElapsedTime();
 	}
 
+	/**
+	 * Unload graphics content, letting the texture cache drop the scenes' textures if needed.
+	 */
+	public void unloadContent()
+	{
+		_SceneManager.unloadContent();
+	}
+
 	/**
 	 * Lets the game respond to player input. Unlike the Update method, this will only be called when the gameplay screen is active.
 	 * 
@@ -182,6 +199,22 @@ public class GameplayScreen extends GameScreen
 		_SceneManager.update(gameTime);
 	}
 
+	/**
+	 * Draws the current scene from its latest snapshot on the render thread.
+	 */
+	public void render()
+	{
+		_SceneManager.render();
+	}
+
+	/**
+	 * Lets the current scene take over what the render thread drew.
+	 */
+	public void commitRender()
+	{
+		_SceneManager.commitRender();
+	}
+
 	/**
 	 * Draws the gameplay screen.
 	 * 
@@ -201,4 +234,15 @@ public class GameplayScreen extends GameScreen
 		// Let the scene manager draw the current scene.
 		_SceneManager.draw(graphics);
 	}
+
+	/**
+	 * Let the camera and scenes follow the window when it is resized.
+	 * 
+	 * @param size
+	 *            The new size of the window.
+	 */
+	public void resize(Vector2 size)
+	{
+		_SceneManager.setViewportSize(size);
+	}
 }
@@ -11,12 +11,14 @@ import infrastructure.TimeSpan;
 import input.InputManager;
 
 import java.awt.BorderLayout;
+import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
+import java.awt.geom.AffineTransform;
 import java.io.File;
 
 import javax.swing.JFileChooser;
@@ -30,6 +32,7 @@ import scenes.SmallDemoScene;
 
 import main.Entity;
 import main.Player;
+import main.Scene;
 import main.SceneManager;
 import auxillary.Helper;
 import auxillary.Vector2;
@@ -64,6 +67,8 @@ public class MapEditorScreen extends GameScreen
 
 	// The selected entity.
 	private Entity _SelectedEntity;
+	// The entity under the mouse.
+	private Entity _HoveredEntity;
 
 	/**
 	 * Constructor for a map editor screen.
@@ -77,14 +82,18 @@ public class MapEditorScreen extends GameScreen
 		_TransitionOnTime = TimeSpan.FromSeconds(1.5);
 		_TransitionOffTime = TimeSpan.FromSeconds(0.5);
 
+		// The scene manager keeps track of what changes, so only redraw those parts.
+		_IsIncremental = true;
+
 		// Set up the camera.
 		_Camera = new Camera2D(screenManager.getWindowBounds(), new Vector2(3000, 3000));
 		_Camera.setPosition(new Vector2(1000, 1000));
+		_Camera.setZoomLimits(.25f, 2);
 
 		// Create the scene manager, enable debug and add a scene.
 		_SceneManager = new SceneManager(this, _Camera);
 		DebugManager.getInstance().debug = true;
-		_SceneManager.addScene(new SmallDemoScene(_SceneManager));
+		_SceneManager.addScene(new SmallDemoScene(_SceneManager)).setEnablePicking(true);
 
 		// Create the player.
 		_Player = new Player(_SceneManager.getCurrentScene());
@@ -203,6 +212,14 @@ public class MapEditorScreen extends GameScreen
 		_ScreenManager.getGame().getGameTimer().resetElapsedTime();
 	}
 
+	/**
+	 * Unload graphics content, letting the texture cache drop the scenes' textures if needed.
+	 */
+	public void unloadContent()
+	{
+		_SceneManager.unloadContent();
+	}
+
 	/**
 	 * Lets the editor respond to player input. Unlike the Update method, this will only be called when the screen is active.
 	 * 
@@ -228,6 +245,9 @@ public class MapEditorScreen extends GameScreen
 			// Update the selected entity's position.
 			updateSelectedEntity(input);
 
+			// Find the entity under the mouse.
+			updateHoveredEntity(input);
+
 			// If to zoom in.
 			if (input.isKeyDown(KeyEvent.VK_O))
 			{
@@ -299,6 +319,59 @@ public class MapEditorScreen extends GameScreen
 
 		// Let the scene manager draw the current scene.
 		_SceneManager.draw(graphics);
+
+		// Outline the entity under the mouse.
+		if (_HoveredEntity != null && _HoveredEntity.getDrawnBounds() != null)
+		{
+			AffineTransform old = graphics.getTransform();
+			graphics.setTransform(_Camera.getTransformMatrix());
+			Rectangle r = _HoveredEntity.getDrawnBounds();
+			graphics.setColor(Color.white);
+			graphics.drawRect(r.x, r.y, r.width - 1, r.height - 1);
+			graphics.setTransform(old);
+		}
+	}
+
+	/**
+	 * Let the camera and scenes follow the window when it is resized.
+	 * 
+	 * @param size
+	 *            The new size of the window.
+	 */
+	public void resize(Vector2 size)
+	{
+		_SceneManager.setViewportSize(size);
+	}
+
+	/**
+	 * Find the entity under the mouse, so that it can be highlighted. The entity being placed is left out.
+	 * 
+	 * @param input
+	 *            The input manager.
+	 */
+	private void updateHoveredEntity(InputManager input)
+	{
+		// Pick the entity under the mouse.
+		Scene scene = _SceneManager.getCurrentScene();
+		Entity entity = scene.pick((int) input.mouseMovePosition().x, (int) input.mouseMovePosition().y);
+		if (entity == _SelectedEntity)
+		{
+			entity = null;
+		}
+
+		// If the same entity is still under the mouse, stop here.
+		if (entity == _HoveredEntity) { return; }
+
+		// Redraw both the old and the new entity, so that only the new one is outlined.
+		if (_HoveredEntity != null)
+		{
+			scene.addDirtyArea(_HoveredEntity.getDrawnBounds());
+		}
+		if (entity != null)
+		{
+			scene.addDirtyArea(entity.getDrawnBounds());
+		}
+		_HoveredEntity = entity;
 	}
 
 	/**
@@ -54,7 +54,7 @@ public class MenuEntry
 		// When the menu selection changes, entries gradually fade between
 		// their selected and deselected appearance, rather than instantly
 		// popping to the new state.
-		float fadeSpeed = (float) gameTime.getElapsedTime().TotalSeconds() * 4;
+		float fadeSpeed = (float) gameTime.elapsedSeconds() * 4;
 
 		if (isSelected)
 		{
@@ -75,7 +75,7 @@ public class MenuEntry
 		Color color = isSelected ? Color.YELLOW : Color.WHITE;
 
 		// Pulsate the size of the selected menu entry.
-		double time = gameTime.getTotalElapsedTime().TotalSeconds();
+		double time = gameTime.totalElapsedSeconds();
 		float pulsate = (float) Math.sin(time * 6) + 1;
 		float scale = 1 + pulsate * 0.05f * _SelectionFade;
 
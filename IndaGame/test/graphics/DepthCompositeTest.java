@@ -0,0 +1,192 @@
+package graphics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assume.assumeTrue;
+import infrastructure.Camera2D;
+import infrastructure.GameTimer;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.junit.Test;
+
+import main.Entity;
+import main.Scene;
+import main.SceneManager;
+import auxillary.Vector2;
+import auxillary.Vector3;
+
+/**
+ * Tests that the depth composite draws the same pixels whichever way it composes them. The same sprites are drawn through the vector kernel, the packed kernel and the sample by sample path, and
+ * the colors, depths and ids they leave behind are compared. The sprites are bookshelves, some of them partly off screen, with translucent noise drawn on top of them. The bookshelf is loaded from
+ * the content root, so the tests are run from the IndaGame folder.
+ */
+public class DepthCompositeTest
+{
+	// The size of the screen.
+	public static final Vector2 ScreenSize = new Vector2(320, 240);
+	// The number of bookshelves drawn.
+	public static final int EntityCount = 24;
+
+	/**
+	 * The packed kernel draws the same as the sample by sample path.
+	 */
+	@Test
+	public void packedKernelDrawsLikeSamples()
+	{
+		Frame samples = draw(false, false);
+		Frame packed = draw(true, false);
+		samples.assertEquals(packed);
+	}
+
+	/**
+	 * The vector kernel draws the same as the packed kernel and the sample by sample path. It is only tested if the JVM can run it.
+	 */
+	@Test
+	public void vectorKernelDrawsLikeSamples()
+	{
+		assumeTrue(DepthComposite.isVectorKernelAvailable());
+
+		Frame samples = draw(false, false);
+		Frame packed = draw(true, false);
+		Frame vector = draw(true, true);
+		samples.assertEquals(vector);
+		packed.assertEquals(vector);
+	}
+
+	/**
+	 * Draw the bookshelves and the noise through a depth composite and keep what it leaves behind.
+	 * 
+	 * @param packed
+	 *            Whether to enable the packed kernel.
+	 * @param vector
+	 *            Whether to enable the vector kernel.
+	 * @return The frame drawn.
+	 */
+	private Frame draw(boolean packed, boolean vector)
+	{
+		// The entities live in a scene without a window.
+		SceneManager manager = new SceneManager(null, new Camera2D(ScreenSize, new Vector2(1000, 1000)));
+		Scene scene = new Scene(manager);
+
+		// The composite, with picking enabled so that the ids are kept.
+		DepthComposite composite = new DepthComposite(ScreenSize);
+		composite.setEnablePackedKernel(packed);
+		composite.setEnableVectorKernel(vector);
+		composite.setEnablePicking(true);
+
+		// The screen, cleared to a color every sprite differs from.
+		int width = (int) ScreenSize.x;
+		int height = (int) ScreenSize.y;
+		BufferedImage screen = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = screen.createGraphics();
+		graphics.setColor(Color.MAGENTA);
+		graphics.fillRect(0, 0, width, height);
+		graphics.setComposite(composite);
+
+		// The noise, both with and without premultiplied alpha.
+		Random random = new Random(1);
+		BufferedImage[] noise = { createNoise(random, BufferedImage.TYPE_INT_ARGB), createNoise(random, BufferedImage.TYPE_INT_ARGB_PRE) };
+
+		// Draw the bookshelves all over the screen and beyond its edges, each with noise on top at the same depth. They are added to the scene in the same order every time, so they get the same ids.
+		for (int i = 0; i < EntityCount; i++)
+		{
+			int x = random.nextInt(width + 80) - 40;
+			int y = random.nextInt(height + 120) - 20;
+			Entity entity = new Entity(scene);
+			entity.loadContent("Bookshelf[1].png", 12);
+			entity.getBody().setBottomPosition(new Vector3(x, y, random.nextInt(3)));
+			entity.update(new GameTimer());
+			scene.addEntity(entity);
+
+			composite.setEntity(entity);
+			entity.draw(graphics);
+
+			x -= noise[i % 2].getWidth() / 2;
+			y -= noise[i % 2].getHeight();
+			composite.setEntity(entity);
+			composite.setSourceTransform(graphics.getTransform(), x, y);
+			graphics.drawImage(noise[i % 2], x, y, null);
+		}
+		graphics.dispose();
+
+		// Keep the colors, depths and ids.
+		Frame frame = new Frame(width * height);
+		screen.getRGB(0, 0, width, height, frame._Colors, 0, width);
+		for (int y = 0; y < height; y++)
+		{
+			for (int x = 0; x < width; x++)
+			{
+				frame._Depths[y * width + x] = composite.getZ(x, y);
+				frame._Ids[y * width + x] = composite.getIdAt(x, y);
+			}
+		}
+
+		return frame;
+	}
+
+	/**
+	 * Create an image of random colors, where a third of the pixels are transparent, a third opaque and the rest translucent. Its width is not a whole number of vectors, so that the kernels have
+	 * pixels left over at the end of every row.
+	 * 
+	 * @param random
+	 *            The random number generator.
+	 * @param type
+	 *            The type of image.
+	 * @return The image.
+	 */
+	private BufferedImage createNoise(Random random, int type)
+	{
+		BufferedImage image = new BufferedImage(37, 23, type);
+		for (int y = 0; y < image.getHeight(); y++)
+		{
+			for (int x = 0; x < image.getWidth(); x++)
+			{
+				int kind = random.nextInt(3);
+				int alpha = (kind == 0) ? 0 : (kind == 1) ? 255 : 1 + random.nextInt(254);
+				image.setRGB(x, y, (alpha << 24) | random.nextInt(0x1000000));
+			}
+		}
+
+		return image;
+	}
+
+	/**
+	 * A frame holds what a depth composite left behind: the color, depth and id of every pixel.
+	 */
+	private static class Frame
+	{
+		// The colors, depths and ids of the pixels, row by row.
+		private int[] _Colors;
+		private double[] _Depths;
+		private int[] _Ids;
+
+		/**
+		 * Constructor for a frame.
+		 * 
+		 * @param size
+		 *            The number of pixels.
+		 */
+		public Frame(int size)
+		{
+			_Colors = new int[size];
+			_Depths = new double[size];
+			_Ids = new int[size];
+		}
+
+		/**
+		 * Assert that another frame holds the very same pixels.
+		 * 
+		 * @param frame
+		 *            The other frame.
+		 */
+		public void assertEquals(Frame frame)
+		{
+			assertArrayEquals("Colors", _Colors, frame._Colors);
+			assertArrayEquals("Depths", _Depths, frame._Depths, 0);
+			assertArrayEquals("Ids", _Ids, frame._Ids);
+		}
+	}
+}
\ No newline at end of file
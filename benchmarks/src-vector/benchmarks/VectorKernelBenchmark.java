@@ -0,0 +1,100 @@
+package benchmarks;
+
+import infrastructure.Camera2D;
+import infrastructure.GameTimer;
+
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graphics.DepthComposite;
+import main.Entity;
+import main.Scene;
+import main.SceneManager;
+import auxillary.Helper;
+import auxillary.Vector2;
+import auxillary.Vector3;
+
+/**
+ * Benchmarks drawing a sprite through the depth composite's vector kernel, the same way the DepthCompositeBenchmark measures the packed kernel and the sample by sample path, which are its baselines.
+ * It is only compiled on Java 17 and later, and its JVM is started with the jdk.incubator.vector module.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Djava.awt.headless=true", "--add-modules=jdk.incubator.vector" })
+public class VectorKernelBenchmark
+{
+	// The size of the screen.
+	public static final Vector2 ScreenSize = DepthCompositeBenchmark.ScreenSize;
+
+	// The depth composite, the entity drawn with it and the screen it is drawn to.
+	private DepthComposite _Composite;
+	private Entity _Entity;
+	private BufferedImage _Screen;
+	private Graphics2D _Graphics;
+
+	/**
+	 * Set up the entity and the screen.
+	 */
+	@Setup
+	public void setup()
+	{
+		// Without the vector kernel there is nothing to measure, as the composite would quietly fall back to the packed kernel.
+		if (!DepthComposite.isVectorKernelAvailable()) { throw new IllegalStateException("The vector kernel is not available."); }
+
+		// Create the entity in a scene without a window and put its sprite in the middle of the screen.
+		SceneManager manager = new SceneManager(null, new Camera2D(ScreenSize, new Vector2(3000, 3000)));
+		Scene scene = new Scene(manager);
+		_Entity = new Entity(scene);
+		_Entity.loadContent("Bookshelf[1].png", 12);
+		_Entity.getBody().setBottomPosition(new Vector3(ScreenSize.x / 2, ScreenSize.y / 2, 1));
+		_Entity.update(new GameTimer());
+
+		// The composite and the screen.
+		_Composite = new DepthComposite(ScreenSize);
+		_Composite.setEnablePackedKernel(true);
+		_Composite.setEnableVectorKernel(true);
+		_Screen = Helper.createCompatibleImage((int) ScreenSize.x, (int) ScreenSize.y, Transparency.OPAQUE);
+		_Graphics = _Screen.createGraphics();
+		_Graphics.setComposite(_Composite);
+	}
+
+	/**
+	 * Let go of the screen's graphics.
+	 */
+	@TearDown
+	public void tearDown()
+	{
+		_Graphics.dispose();
+	}
+
+	/**
+	 * Draw the entity through the depth composite.
+	 * 
+	 * @return The screen.
+	 */
+	@Benchmark
+	public BufferedImage compose()
+	{
+		_Composite.setEntity(_Entity);
+		_Entity.draw(_Graphics);
+		_Composite.endFrame();
+		return _Screen;
+	}
+}
\ No newline at end of file
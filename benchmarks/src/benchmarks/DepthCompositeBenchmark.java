@@ -0,0 +1,103 @@
+package benchmarks;
+
+import infrastructure.Camera2D;
+import infrastructure.GameTimer;
+
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graphics.DepthComposite;
+import main.Entity;
+import main.Scene;
+import main.SceneManager;
+import auxillary.Helper;
+import auxillary.Vector2;
+import auxillary.Vector3;
+
+/**
+ * Benchmarks drawing a sprite through the depth composite, the way a scene draws its entities: the bookshelf of the demo scenes is drawn onto an opaque screen sized image, depth tested against a
+ * z-buffer that is cleared before every drawing. The packed kernel and the sample by sample path are measured here, and the vector kernel by the VectorKernelBenchmark, which needs Java 17. The
+ * sprite is loaded from the content root, so run the benchmarks from the IndaGame folder or set "indagame.contentRoot".
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class DepthCompositeBenchmark
+{
+	// The size of the screen.
+	public static final Vector2 ScreenSize = new Vector2(800, 600);
+
+	// How rasters of packed int pixels are composed: a row at a time or sample by sample.
+	@Param({ "packed", "sample" })
+	public String kernel;
+
+	// The depth composite, the entity drawn with it and the screen it is drawn to.
+	private DepthComposite _Composite;
+	private Entity _Entity;
+	private BufferedImage _Screen;
+	private Graphics2D _Graphics;
+
+	/**
+	 * Set up the entity and the screen.
+	 */
+	@Setup
+	public void setup()
+	{
+		// Create the entity in a scene without a window and put its sprite in the middle of the screen.
+		SceneManager manager = new SceneManager(null, new Camera2D(ScreenSize, new Vector2(3000, 3000)));
+		Scene scene = new Scene(manager);
+		_Entity = new Entity(scene);
+		_Entity.loadContent("Bookshelf[1].png", 12);
+		_Entity.getBody().setBottomPosition(new Vector3(ScreenSize.x / 2, ScreenSize.y / 2, 1));
+		_Entity.update(new GameTimer());
+
+		// The composite and the screen.
+		_Composite = new DepthComposite(ScreenSize);
+		_Composite.setEnablePackedKernel(kernel.equals("packed"));
+		_Composite.setEnableVectorKernel(false);
+		_Screen = Helper.createCompatibleImage((int) ScreenSize.x, (int) ScreenSize.y, Transparency.OPAQUE);
+		_Graphics = _Screen.createGraphics();
+		_Graphics.setComposite(_Composite);
+	}
+
+	/**
+	 * Let go of the screen's graphics.
+	 */
+	@TearDown
+	public void tearDown()
+	{
+		_Graphics.dispose();
+	}
+
+	/**
+	 * Draw the entity through the depth composite.
+	 * 
+	 * @return The screen.
+	 */
+	@Benchmark
+	public BufferedImage compose()
+	{
+		_Composite.setEntity(_Entity);
+		_Entity.draw(_Graphics);
+		_Composite.endFrame();
+		return _Screen;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+package benchmarks;
+
+import infrastructure.Camera2D;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.Entity;
+import main.EntityDepthComparator;
+import main.Scene;
+import main.SceneManager;
+import auxillary.Vector2;
+import auxillary.Vector3;
+
+/**
+ * Benchmarks sorting a scene's entities by depth with the entity depth comparator, as is done whenever an entity is added. The entities are scattered at seeded random positions and sorted from the
+ * same shuffled order every time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class DepthSortBenchmark
+{
+	// The number of entities sorted.
+	@Param({ "100", "1000" })
+	public int entityCount;
+
+	// The entities in their shuffled order and the comparator.
+	private ArrayList<Entity> _Entities;
+	private EntityDepthComparator _Comparator;
+
+	/**
+	 * Set up the entities.
+	 */
+	@Setup
+	public void setup()
+	{
+		// The entities are part of a scene without a window.
+		Scene scene = new Scene(new SceneManager(null, new Camera2D(new Vector2(800, 600), new Vector2(3000, 3000))));
+		Random random = new Random(42);
+
+		// Scatter the entities.
+		_Entities = new ArrayList<Entity>();
+		for (int i = 0; i < entityCount; i++)
+		{
+			Entity entity = new Entity(scene);
+			entity.getBody().getShape().setWidth(64);
+			entity.getBody().getShape().setHeight(32);
+			entity.getBody().getShape().setDepth(32);
+			entity.getBody().setBottomPosition(new Vector3(random.nextInt(2000), random.nextInt(2000), random.nextInt(4) * 32));
+			_Entities.add(entity);
+		}
+		_Comparator = new EntityDepthComparator();
+	}
+
+	/**
+	 * Sort a copy of the entities.
+	 * 
+	 * @return The sorted entities.
+	 */
+	@Benchmark
+	public ArrayList<Entity> sort()
+	{
+		ArrayList<Entity> entities = new ArrayList<Entity>(_Entities);
+		Collections.sort(entities, _Comparator);
+		return entities;
+	}
+}
\ No newline at end of file
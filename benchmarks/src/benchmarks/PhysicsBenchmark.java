@@ -0,0 +1,83 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import physics.Body;
+import physics.PhysicsSimulator;
+import auxillary.Vector3;
+
+/**
+ * Benchmarks a tick of the physics simulator. The bodies stand on a grid over a static floor, with a static obstacle every fourth cell and the dynamic bodies dropped from a seeded random height, so
+ * that every run collides the same pairs. The simulation is rebuilt before every iteration, since the bodies settle as it runs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PhysicsBenchmark
+{
+	// The distance between the bodies on the grid and their size.
+	public static final int CellSize = 40;
+	public static final float BodySize = 32;
+
+	// The number of bodies simulated.
+	@Param({ "100", "1000", "10000" })
+	public int bodyCount;
+
+	// The physics simulator.
+	private PhysicsSimulator _Physics;
+
+	/**
+	 * Set up the bodies on their grid.
+	 */
+	@Setup(Level.Iteration)
+	public void setup()
+	{
+		_Physics = new PhysicsSimulator();
+		Random random = new Random(42);
+		int side = (int) Math.ceil(Math.sqrt(bodyCount));
+
+		// The floor beneath them all.
+		Body floor = new Body(side * CellSize, side * CellSize, 1, 10, .25f, _Physics);
+		floor.setPosition(new Vector3(side * CellSize / 2, side * CellSize / 2, 0));
+		floor.setIsStatic(true);
+		floor.addBody();
+
+		// The bodies, every fourth of them static.
+		for (int i = 1; i < bodyCount; i++)
+		{
+			Body body = new Body(BodySize, BodySize, BodySize, 10, .25f, _Physics);
+			body.setBottomPosition(new Vector3((i % side) * CellSize + CellSize / 2, (i / side) * CellSize + CellSize / 2, (i % 4 == 0) ? 1 : 1 + random.nextInt(100)));
+			body.setIsStatic(i % 4 == 0);
+			body.addBody();
+		}
+	}
+
+	/**
+	 * Simulate a tick.
+	 * 
+	 * @return The physics simulator.
+	 */
+	@Benchmark
+	public PhysicsSimulator update()
+	{
+		_Physics.update();
+		return _Physics;
+	}
+}
\ No newline at end of file
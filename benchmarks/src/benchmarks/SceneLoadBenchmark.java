@@ -0,0 +1,60 @@
+package benchmarks;
+
+import infrastructure.Camera2D;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.Scene;
+import main.SceneManager;
+import auxillary.Helper;
+import auxillary.Vector2;
+
+/**
+ * Benchmarks loading the large demo scene from its file, ie. unmarshalling it and creating its entities. The scene is loaded from the content root, so run the benchmarks from the IndaGame folder or
+ * set "indagame.contentRoot".
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SceneLoadBenchmark
+{
+	// The scene file loaded.
+	public static final String ScenePath = "LargeDemoScene.xml";
+
+	// The scene manager the scene is loaded for, which has no window.
+	private SceneManager _SceneManager;
+
+	/**
+	 * Set up the scene manager.
+	 */
+	@Setup
+	public void setup()
+	{
+		_SceneManager = new SceneManager(null, new Camera2D(new Vector2(800, 600), new Vector2(3000, 3000)));
+	}
+
+	/**
+	 * Load the scene.
+	 * 
+	 * @return The loaded scene.
+	 */
+	@Benchmark
+	public Scene loadScene()
+	{
+		return Helper.loadScene(ScenePath, _SceneManager);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import infrastructure.Enums.DepthDistribution;
+import physics.PhysicsSimulator;
+import physics.Shape;
+import auxillary.Vector2;
+import auxillary.Vector3;
+
+/**
+ * Benchmarks the shape queries the physics simulator and the depth composite lean on, ie. the separating axis test of the narrow phase on overlapping and separated shapes, the layered shape of a
+ * slope and the depth sorting value of a pixel.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ShapeBenchmark
+{
+	// The physics simulator, whose narrow phase is tested.
+	private PhysicsSimulator _Physics;
+	// A shape, one overlapping it, one far from it and a slope.
+	private Shape _Shape;
+	private Shape _Overlapping;
+	private Shape _Separated;
+	private Shape _Slope;
+	// The point the depth is sorted at, which moves over the shape.
+	private int _Point;
+
+	/**
+	 * Set up the shapes.
+	 */
+	@Setup
+	public void setup()
+	{
+		_Physics = new PhysicsSimulator();
+		_Shape = new Shape(new Vector3(100, 100, 0), 64, 32, 48);
+		_Overlapping = new Shape(new Vector3(130, 110, 0), 64, 32, 48);
+		_Separated = new Shape(new Vector3(400, 400, 0), 64, 32, 48);
+		_Slope = new Shape(new Vector3(200, 200, 0), 64, 64, 64);
+		_Slope.setDepthDistribution(DepthDistribution.Right);
+		_Slope.setBottomDepth(0);
+		_Point = 0;
+	}
+
+	/**
+	 * Find the MTV of two overlapping shapes.
+	 * 
+	 * @return The MTV.
+	 */
+	@Benchmark
+	public Vector2 narrowPhaseOverlapping()
+	{
+		return _Physics.narrowPhase(_Shape, _Overlapping);
+	}
+
+	/**
+	 * Find that two shapes far apart do not collide.
+	 * 
+	 * @return The MTV, ie. null.
+	 */
+	@Benchmark
+	public Vector2 narrowPhaseSeparated()
+	{
+		return _Physics.narrowPhase(_Shape, _Separated);
+	}
+
+	/**
+	 * Get a layer of a slope.
+	 * 
+	 * @return The layered shape.
+	 */
+	@Benchmark
+	public Shape getLayeredShape()
+	{
+		return _Slope.getLayeredShape(32);
+	}
+
+	/**
+	 * Get the depth sorting value of a pixel of a slope, moving over its image from call to call.
+	 * 
+	 * @return The depth sorting value.
+	 */
+	@Benchmark
+	public double getDepthSort()
+	{
+		_Point = (_Point + 1) & 4095;
+		return _Slope.getDepthSort(_Point & 63, _Point >> 6);
+	}
+}
\ No newline at end of file
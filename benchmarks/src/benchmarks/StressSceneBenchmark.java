@@ -0,0 +1,134 @@
+package benchmarks;
+
+import infrastructure.Camera2D;
+import infrastructure.GameTimer;
+
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import main.Entity;
+import main.Game;
+import main.Scene;
+import main.SceneManager;
+import scenes.SceneGenerator;
+import auxillary.Helper;
+import auxillary.Vector2;
+
+/**
+ * Benchmarks the physics, the entities' updates and the drawing of generated scenes of growing size, so that their cost can be plotted against the number of entities. The scenes are generated from
+ * the same seed and rebuilt before every iteration, since they change as they run. Their sprites are loaded from the content root, so run the benchmarks from the IndaGame folder or set
+ * "indagame.contentRoot".
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class StressSceneBenchmark
+{
+	// The size of the screen.
+	public static final Vector2 ScreenSize = new Vector2(1024, 768);
+
+	// The number of floor tiles along each side of the scene and the number of wandering characters.
+	@Param({ "4", "8" })
+	public int size;
+	@Param({ "10", "100", "1000" })
+	public int characterCount;
+
+	// The scene, its manager and the timer it is updated with.
+	private Scene _Scene;
+	private SceneManager _SceneManager;
+	private GameTimer _Timer;
+	// The screen the scene is drawn to.
+	private BufferedImage _Screen;
+	private Graphics2D _Graphics;
+
+	/**
+	 * Generate the scene and point the camera at its middle.
+	 */
+	@Setup(Level.Iteration)
+	public void setup()
+	{
+		SceneGenerator generator = new SceneGenerator(size, characterCount, SceneGenerator.DefaultSeed);
+		Camera2D camera = new Camera2D(ScreenSize, generator.getWorldSize());
+		camera.setPosition(Vector2.divide(generator.getWorldSize(), 2));
+		_SceneManager = new SceneManager(null, camera);
+		_Scene = _SceneManager.addScene(generator.generate(_SceneManager));
+		_Timer = new GameTimer();
+		_Timer.start();
+
+		// Update the scene once, which places the entities' sprites and lets the scene know where they are drawn.
+		_Timer.step(Game.TimePerFrame * 1000000L);
+		_SceneManager.update(_Timer);
+
+		// The screen.
+		_Screen = Helper.createCompatibleImage((int) ScreenSize.x, (int) ScreenSize.y, Transparency.OPAQUE);
+		_Graphics = _Screen.createGraphics();
+	}
+
+	/**
+	 * Let go of the screen's graphics.
+	 */
+	@TearDown(Level.Iteration)
+	public void tearDown()
+	{
+		_Graphics.dispose();
+	}
+
+	/**
+	 * Simulate a tick of the scene's physics.
+	 * 
+	 * @return The scene.
+	 */
+	@Benchmark
+	public Scene physics()
+	{
+		_Scene.getPhysicsSimulator().update();
+		return _Scene;
+	}
+
+	/**
+	 * Update all entities by a frame, which is where the characters wander and hunt.
+	 * 
+	 * @return The scene.
+	 */
+	@Benchmark
+	public Scene entities()
+	{
+		_Timer.step(Game.TimePerFrame * 1000000L);
+		for (Entity entity : _Scene.getEntities())
+		{
+			entity.update(_Timer);
+		}
+		return _Scene;
+	}
+
+	/**
+	 * Draw the scene as the camera sees it.
+	 * 
+	 * @return The screen.
+	 */
+	@Benchmark
+	public BufferedImage draw()
+	{
+		_SceneManager.draw(_Graphics);
+		return _Screen;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,92 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import auxillary.Vector2;
+import auxillary.Vector3;
+
+/**
+ * Benchmarks the vector arithmetic used all over the physics and drawing code. The vectors are immutable as used, so every operation creates a new one, which is what these measure along with the
+ * arithmetic itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class VectorBenchmark
+{
+	// The vectors operated on.
+	private Vector2 _A2;
+	private Vector2 _B2;
+	private Vector3 _A3;
+	private Vector3 _B3;
+
+	/**
+	 * Set up the vectors.
+	 */
+	@Setup
+	public void setup()
+	{
+		_A2 = new Vector2(3.5, -1.25);
+		_B2 = new Vector2(-7, 2.75);
+		_A3 = new Vector3(3.5, -1.25, 8);
+		_B3 = new Vector3(-7, 2.75, .5);
+	}
+
+	/**
+	 * Add, scale and subtract two dimensional vectors.
+	 * 
+	 * @return The result.
+	 */
+	@Benchmark
+	public Vector2 vector2Arithmetic()
+	{
+		return Vector2.subtract(Vector2.multiply(Vector2.add(_A2, _B2), .5), _B2);
+	}
+
+	/**
+	 * Normalize a two dimensional vector and take its dot product with another.
+	 * 
+	 * @return The dot product.
+	 */
+	@Benchmark
+	public double vector2Dot()
+	{
+		return Vector2.normalize(_A2).dot(_B2);
+	}
+
+	/**
+	 * Add, scale and subtract three dimensional vectors.
+	 * 
+	 * @return The result.
+	 */
+	@Benchmark
+	public Vector3 vector3Arithmetic()
+	{
+		return Vector3.subtract(Vector3.multiply(Vector3.add(_A3, _B3), .5), _B3);
+	}
+
+	/**
+	 * Get the distance between two three dimensional vectors.
+	 * 
+	 * @return The distance.
+	 */
+	@Benchmark
+	public double vector3Distance()
+	{
+		return Vector3.getDistance(_A3, _B3);
+	}
+}
\ No newline at end of file